@@ -17,6 +17,7 @@
 
 package com.nageoffer.shortlink.admin;
 
+import com.nageoffer.shortlink.common.toolkit.VirtualThreadUtil;
 import org.mybatis.spring.annotation.MapperScan;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
@@ -34,6 +35,7 @@ import org.springframework.cloud.openfeign.EnableFeignClients;
 public class ShortLinkAdminApplication {
 
     public static void main(String[] args) {
+        VirtualThreadUtil.initTracePinnedThreads();
         SpringApplication.run(ShortLinkAdminApplication.class, args);
     }
 }
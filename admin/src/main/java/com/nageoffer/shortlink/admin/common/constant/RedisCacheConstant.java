@@ -33,6 +33,16 @@ public class RedisCacheConstant {
      */
     public static final String LOCK_GROUP_CREATE_KEY = "short-link:lock_group-create:%s";
 
+    /**
+     * 布隆过滤器重建分布式锁
+     */
+    public static final String LOCK_BLOOM_FILTER_REBUILD_KEY = "short-link:lock_bloom-filter-rebuild:%s";
+
+    /**
+     * 布隆过滤器重建中标识，值为正在重建的布隆过滤器名称
+     */
+    public static final String BLOOM_FILTER_REBUILDING_KEY = "short-link:bloom-filter-rebuilding:%s";
+
     /**
      * 用户登录缓存标识
      */
@@ -19,10 +19,20 @@ package com.nageoffer.shortlink.admin.dao.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.nageoffer.shortlink.admin.dao.entity.UserDO;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.List;
 
 /**
  * 用户持久层
 
  */
 public interface UserMapper extends BaseMapper<UserDO> {
+
+    /**
+     * 按主键游标分页查询指定分表中的用户名，直接访问真实表，单数据源下由 ShardingSphere 透传
+     */
+    @Select("SELECT id, username FROM t_user_${shardIndex} WHERE id > #{lastId} ORDER BY id LIMIT #{limit}")
+    List<UserDO> listUsernameByCursor(@Param("shardIndex") int shardIndex, @Param("lastId") long lastId, @Param("limit") int limit);
 }
@@ -0,0 +1,240 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.nageoffer.shortlink.admin.initialize;
+
+import cn.hutool.core.thread.ThreadFactoryBuilder;
+import cn.hutool.core.thread.ThreadUtil;
+import com.nageoffer.shortlink.admin.config.UserBloomFilterRebuildConfiguration;
+import com.nageoffer.shortlink.admin.dao.entity.UserDO;
+import com.nageoffer.shortlink.admin.dao.mapper.UserMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.RedissonObject;
+import org.redisson.api.RBloomFilter;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scripting.support.ResourceScriptSource;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.nageoffer.shortlink.admin.common.constant.RedisCacheConstant.BLOOM_FILTER_REBUILDING_KEY;
+import static com.nageoffer.shortlink.admin.common.constant.RedisCacheConstant.LOCK_BLOOM_FILTER_REBUILD_KEY;
+import static com.nageoffer.shortlink.admin.config.RBloomFilterConfiguration.EXPECTED_INSERTIONS;
+import static com.nageoffer.shortlink.admin.config.RBloomFilterConfiguration.FALSE_PROBABILITY;
+
+/**
+ * 用户名布隆过滤器巡检以及重建
+ * 定时对比布隆过滤器估算数量与用户表数量，判定数据丢失后由获取到分布式锁的节点重建：
+ * 并行按主键游标读取所有用户分表写入新 Key 下的布隆过滤器，重建期间注册的用户名同时写入，完成后原子替换线上布隆过滤器
+ * 判定丢失期间用户名是否可用改为查询数据库
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UserBloomFilterRebuildTask implements InitializingBean, DisposableBean {
+
+    private static final DefaultRedisScript<Long> BLOOM_FILTER_SWAP_SCRIPT;
+
+    static {
+        BLOOM_FILTER_SWAP_SCRIPT = new DefaultRedisScript<>();
+        BLOOM_FILTER_SWAP_SCRIPT.setScriptSource(new ResourceScriptSource(new ClassPathResource("lua/bloom_filter_swap.lua")));
+        BLOOM_FILTER_SWAP_SCRIPT.setResultType(Long.class);
+    }
+
+    private final RBloomFilter<String> userRegisterCachePenetrationBloomFilter;
+    private final RedissonClient redissonClient;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final UserMapper userMapper;
+    private final UserBloomFilterRebuildConfiguration userBloomFilterRebuildConfiguration;
+
+    private ScheduledExecutorService scheduleExecutor;
+
+    /**
+     * 布隆过滤器是否判定为数据丢失
+     */
+    private volatile boolean degraded;
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        if (!Boolean.TRUE.equals(userBloomFilterRebuildConfiguration.getEnable())) {
+            return;
+        }
+        scheduleExecutor = Executors.newSingleThreadScheduledExecutor(
+                ThreadFactoryBuilder.create()
+                        .setNamePrefix("short-link_bloom-filter-check_")
+                        .setDaemon(true)
+                        .build()
+        );
+        long checkInterval = userBloomFilterRebuildConfiguration.getCheckInterval();
+        scheduleExecutor.scheduleWithFixedDelay(this::check, 0L, checkInterval, TimeUnit.MINUTES);
+    }
+
+    @Override
+    public void destroy() {
+        if (scheduleExecutor != null) {
+            scheduleExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * 布隆过滤器是否判定为数据丢失，丢失期间不存在的判断结果不可信
+     */
+    public boolean isDegraded() {
+        return degraded;
+    }
+
+    /**
+     * 布隆过滤器重建期间，将新注册的用户名同时写入正在重建的布隆过滤器
+     *
+     * @param username 用户名
+     */
+    public void addIfRebuilding(String username) {
+        String rebuildName = stringRedisTemplate.opsForValue().get(String.format(BLOOM_FILTER_REBUILDING_KEY, userRegisterCachePenetrationBloomFilter.getName()));
+        if (rebuildName == null) {
+            return;
+        }
+        try {
+            redissonClient.<String>getBloomFilter(rebuildName).add(username);
+        } catch (Throwable ex) {
+            // 重建布隆过滤器已替换为线上布隆过滤器，用户名已写入线上布隆过滤器
+            log.warn("写入重建中的用户名布隆过滤器失败，用户名：{}", username, ex);
+        }
+    }
+
+    private void check() {
+        try {
+            long expected = userMapper.selectCount(null);
+            long estimated = estimateCount();
+            degraded = expected > 0 && estimated < expected * (1 - userBloomFilterRebuildConfiguration.getMissingRatio());
+            if (degraded) {
+                log.warn("用户名布隆过滤器数据丢失，估算数量：{}，用户表数量：{}，开始重建", estimated, expected);
+                rebuild();
+            }
+        } catch (Throwable ex) {
+            log.error("用户名布隆过滤器巡检失败", ex);
+        }
+    }
+
+    private long estimateCount() {
+        try {
+            return userRegisterCachePenetrationBloomFilter.count();
+        } catch (Throwable ex) {
+            // 布隆过滤器配置丢失时 Redisson 抛出未初始化异常
+            return 0L;
+        }
+    }
+
+    /**
+     * 重建用户名布隆过滤器，同一时间只有一个节点执行
+     *
+     * @return 是否重建并替换成功
+     */
+    public boolean rebuild() {
+        String liveName = userRegisterCachePenetrationBloomFilter.getName();
+        RLock lock = redissonClient.getLock(String.format(LOCK_BLOOM_FILTER_REBUILD_KEY, liveName));
+        if (!lock.tryLock()) {
+            log.info("用户名布隆过滤器正在由其他节点重建");
+            return false;
+        }
+        long start = System.currentTimeMillis();
+        String rebuildName = liveName + ":rebuild";
+        String rebuildingKey = String.format(BLOOM_FILTER_REBUILDING_KEY, liveName);
+        RBloomFilter<String> rebuildFilter = redissonClient.getBloomFilter(rebuildName);
+        ExecutorService rebuildExecutor = Executors.newFixedThreadPool(
+                userBloomFilterRebuildConfiguration.getConcurrency(),
+                ThreadFactoryBuilder.create()
+                        .setNamePrefix("short-link_bloom-filter-rebuild_")
+                        .setDaemon(true)
+                        .build()
+        );
+        try {
+            rebuildFilter.delete();
+            rebuildFilter.tryInit(EXPECTED_INSERTIONS, FALSE_PROBABILITY);
+            // 先设置重建中标识再读取分表，重建期间注册的用户名同时写入新布隆过滤器
+            stringRedisTemplate.opsForValue().set(rebuildingKey, rebuildName, 1, TimeUnit.DAYS);
+            AtomicLong total = new AtomicLong();
+            List<CompletableFuture<Void>> futures = new ArrayList<>();
+            for (int shardIndex = 0; shardIndex < userBloomFilterRebuildConfiguration.getShardCount(); shardIndex++) {
+                int currentShardIndex = shardIndex;
+                futures.add(CompletableFuture.runAsync(() -> total.addAndGet(loadShard(currentShardIndex, rebuildFilter)), rebuildExecutor));
+            }
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+            Long swapped = stringRedisTemplate.execute(
+                    BLOOM_FILTER_SWAP_SCRIPT,
+                    List.of(rebuildName, RedissonObject.suffixName(rebuildName, "config"), liveName, RedissonObject.suffixName(liveName, "config"))
+            );
+            if (swapped == null || swapped == 0L) {
+                log.error("用户名布隆过滤器替换失败，重建布隆过滤器不存在");
+                return false;
+            }
+            degraded = false;
+            log.info("用户名布隆过滤器重建完成，用户数量：{}，耗时：{}ms", total.get(), System.currentTimeMillis() - start);
+            return true;
+        } catch (Throwable ex) {
+            log.error("用户名布隆过滤器重建失败", ex);
+            rebuildFilter.delete();
+            return false;
+        } finally {
+            stringRedisTemplate.delete(rebuildingKey);
+            rebuildExecutor.shutdownNow();
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 按主键游标读取单个分表，并按每秒读取行数限流
+     */
+    private long loadShard(int shardIndex, RBloomFilter<String> rebuildFilter) {
+        int pageSize = userBloomFilterRebuildConfiguration.getPageSize();
+        long minMillisPerPage = pageSize * 1000L * userBloomFilterRebuildConfiguration.getConcurrency()
+                / userBloomFilterRebuildConfiguration.getMaxRowsPerSecond();
+        long lastId = 0L;
+        long loaded = 0L;
+        while (true) {
+            long pageStart = System.currentTimeMillis();
+            List<UserDO> page = userMapper.listUsernameByCursor(shardIndex, lastId, pageSize);
+            if (page.isEmpty()) {
+                break;
+            }
+            rebuildFilter.add(page.stream().map(UserDO::getUsername).toList());
+            loaded += page.size();
+            lastId = page.get(page.size() - 1).getId();
+            if (page.size() < pageSize) {
+                break;
+            }
+            long elapsed = System.currentTimeMillis() - pageStart;
+            if (elapsed < minMillisPerPage) {
+                ThreadUtil.sleep(minMillisPerPage - elapsed);
+            }
+        }
+        return loaded;
+    }
+}
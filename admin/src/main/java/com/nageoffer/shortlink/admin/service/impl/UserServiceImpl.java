@@ -36,6 +36,7 @@ import com.nageoffer.shortlink.admin.dto.req.UserRegisterReqDTO;
 import com.nageoffer.shortlink.admin.dto.req.UserUpdateReqDTO;
 import com.nageoffer.shortlink.admin.dto.resp.UserLoginRespDTO;
 import com.nageoffer.shortlink.admin.dto.resp.UserRespDTO;
+import com.nageoffer.shortlink.admin.initialize.UserBloomFilterRebuildTask;
 import com.nageoffer.shortlink.admin.service.GroupService;
 import com.nageoffer.shortlink.admin.service.UserService;
 import lombok.RequiredArgsConstructor;
@@ -72,6 +73,8 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, UserDO> implements
     private final StringRedisTemplate stringRedisTemplate;
     // 分组服务，用于用户注册时创建默认分组
     private final GroupService groupService;
+    // 用户名布隆过滤器巡检重建任务，布隆过滤器数据丢失时改为查询数据库
+    private final UserBloomFilterRebuildTask userBloomFilterRebuildTask;
 
     /**
      * 根据用户名获取用户信息
@@ -101,6 +104,9 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, UserDO> implements
      */
     @Override
     public Boolean hasUsername(String username) {
+        if (userBloomFilterRebuildTask.isDegraded()) {
+            return !baseMapper.exists(Wrappers.lambdaQuery(UserDO.class).eq(UserDO::getUsername, username));
+        }
         return !userRegisterCachePenetrationBloomFilter.contains(username);
     }
 
@@ -125,6 +131,7 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, UserDO> implements
                 throw new ClientException(USER_SAVE_ERROR);
             }
             userRegisterCachePenetrationBloomFilter.add(requestParam.getUsername());
+            userBloomFilterRebuildTask.addIfRebuilding(requestParam.getUsername());
             groupService.saveGroup(requestParam.getUsername(), "默认分组");
         } catch (DuplicateKeyException ex) {
             throw new ClientException(USER_EXIST);
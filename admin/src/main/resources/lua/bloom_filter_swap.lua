@@ -0,0 +1,15 @@
+-- 将重建完成的布隆过滤器原子替换为线上布隆过滤器
+-- KEYS[1]: 重建布隆过滤器位图 Key
+-- KEYS[2]: 重建布隆过滤器配置 Key
+-- KEYS[3]: 线上布隆过滤器位图 Key
+-- KEYS[4]: 线上布隆过滤器配置 Key
+if redis.call('EXISTS', KEYS[2]) == 0 then
+    return 0
+end
+if redis.call('EXISTS', KEYS[1]) == 1 then
+    redis.call('RENAME', KEYS[1], KEYS[3])
+else
+    redis.call('DEL', KEYS[3])
+end
+redis.call('RENAME', KEYS[2], KEYS[4])
+return 1
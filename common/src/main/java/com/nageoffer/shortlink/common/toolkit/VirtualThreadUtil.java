@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.nageoffer.shortlink.common.toolkit;
+
+import cn.hutool.core.thread.ThreadFactoryBuilder;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * 虚拟线程工具类
+ * 项目按 JDK 17 编译，虚拟线程相关 API 通过反射调用，运行在 JDK 21 及以上版本时可用
+ * 当前 JDK 不支持虚拟线程时回退到平台守护线程，调用方无需区分运行环境
+ */
+public final class VirtualThreadUtil {
+
+    private static final Method OF_VIRTUAL;
+    private static final Method NAME;
+    private static final Method FACTORY;
+    private static final Method NEW_THREAD_PER_TASK_EXECUTOR;
+
+    static {
+        Method ofVirtual = null;
+        Method name = null;
+        Method factory = null;
+        Method newThreadPerTaskExecutor = null;
+        try {
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            name = builderClass.getMethod("name", String.class, long.class);
+            factory = builderClass.getMethod("factory");
+            newThreadPerTaskExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            ofVirtual = Thread.class.getMethod("ofVirtual");
+        } catch (ReflectiveOperationException ignored) {
+            // 当前 JDK 不支持虚拟线程
+        }
+        OF_VIRTUAL = ofVirtual;
+        NAME = name;
+        FACTORY = factory;
+        NEW_THREAD_PER_TASK_EXECUTOR = newThreadPerTaskExecutor;
+    }
+
+    private VirtualThreadUtil() {
+    }
+
+    /**
+     * 虚拟线程在 synchronized 代码块内阻塞时会固定（pin）载体线程，未通过 -Djdk.tracePinnedThreads 指定时默认打印简短线程栈用于排查
+     * JDK 只在创建第一个虚拟线程前读取该属性，需要在应用 main 方法中、Spring 容器启动前调用，未开启虚拟线程时没有任何影响
+     */
+    public static void initTracePinnedThreads() {
+        if (System.getProperty("jdk.tracePinnedThreads") == null) {
+            System.setProperty("jdk.tracePinnedThreads", "short");
+        }
+    }
+
+    /**
+     * 当前 JDK 是否支持虚拟线程
+     */
+    public static boolean isSupported() {
+        return OF_VIRTUAL != null;
+    }
+
+    /**
+     * 创建线程工厂，线程名称为前缀加自增序号
+     *
+     * @param namePrefix 线程名称前缀
+     * @param virtual    是否使用虚拟线程，当前 JDK 不支持时使用平台守护线程
+     * @return 线程工厂
+     */
+    public static ThreadFactory newThreadFactory(String namePrefix, boolean virtual) {
+        if (!virtual || !isSupported()) {
+            return ThreadFactoryBuilder.create()
+                    .setNamePrefix(namePrefix)
+                    .setDaemon(true)
+                    .build();
+        }
+        try {
+            Object builder = OF_VIRTUAL.invoke(null);
+            NAME.invoke(builder, namePrefix, 0L);
+            return (ThreadFactory) FACTORY.invoke(builder);
+        } catch (ReflectiveOperationException ex) {
+            throw new IllegalStateException("创建虚拟线程工厂失败", ex);
+        }
+    }
+
+    /**
+     * 创建每个任务一个线程的执行器，虚拟线程不需要也不应该池化
+     * 当前 JDK 不支持虚拟线程时使用平台守护线程的缓存线程池
+     *
+     * @param namePrefix 线程名称前缀
+     * @return 执行器
+     */
+    public static ExecutorService newThreadPerTaskExecutor(String namePrefix) {
+        ThreadFactory threadFactory = newThreadFactory(namePrefix, true);
+        if (!isSupported()) {
+            return Executors.newCachedThreadPool(threadFactory);
+        }
+        try {
+            return (ExecutorService) NEW_THREAD_PER_TASK_EXECUTOR.invoke(null, threadFactory);
+        } catch (ReflectiveOperationException ex) {
+            throw new IllegalStateException("创建虚拟线程执行器失败", ex);
+        }
+    }
+}
@@ -17,6 +17,7 @@
 
 package com.nageoffer.shortlink.project;
 
+import com.nageoffer.shortlink.common.toolkit.VirtualThreadUtil;
 import org.mybatis.spring.annotation.MapperScan;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
@@ -32,6 +33,7 @@ import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
 public class ShortLinkApplication {
 
     public static void main(String[] args) {
+        VirtualThreadUtil.initTracePinnedThreads();
         SpringApplication.run(ShortLinkApplication.class, args);
     }
 }
@@ -0,0 +1,163 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.nageoffer.shortlink.project.cache;
+
+import cn.hutool.core.thread.ThreadFactoryBuilder;
+import cn.hutool.core.util.StrUtil;
+import com.nageoffer.shortlink.project.common.convention.exception.ServiceException;
+import com.nageoffer.shortlink.project.config.ShortLinkCodePoolConfiguration;
+import com.nageoffer.shortlink.project.dao.mapper.ShortLinkCodeSequenceMapper;
+import com.nageoffer.shortlink.project.toolkit.ShortCodePermutation;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scripting.support.ResourceScriptSource;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static com.nageoffer.shortlink.project.common.constant.RedisKeyConstant.SHORT_LINK_CODE_SEQUENCE_KEY;
+
+/**
+ * 短链接编码池
+ * 每个节点从 Redis 序号中按号段预留编码，号段内的序号经过置换后编码为短链接后缀，不同节点的号段互不重叠，生成时无需判重，也无需访问 Redis
+ * 当前号段剩余不足时异步预留下一个号段，号段用尽且预留未完成时同步等待
+ * 号段切换使用 ReentrantLock 而不是 synchronized，等待预留的虚拟线程阻塞时可以卸载，不会固定载体线程
+ * Redis 序号在主从切换后可能回退，每个号段使用前先将结束序号持久化到数据库水位，预留到的号段低于水位时将序号推进到水位后重新预留
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ShortLinkCodePool implements InitializingBean, DisposableBean {
+
+    /**
+     * 历史版本配置文件中的默认密钥，公开仓库中可见，不能用于线上
+     */
+    private static final String DEFAULT_SECRET = "short-link";
+
+    private static final DefaultRedisScript<Long> SEED_SCRIPT = newScript("lua/short_link_code_sequence_seed.lua");
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final ShortLinkCodePoolConfiguration shortLinkCodePoolConfiguration;
+    private final ShortLinkCodeSequenceMapper shortLinkCodeSequenceMapper;
+
+    private ShortCodePermutation permutation;
+    private ExecutorService prefetchExecutor;
+    private String sequenceKey;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private long cursor;
+    private long end;
+    private CompletableFuture<long[]> nextBlock;
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        if (!isEnable()) {
+            return;
+        }
+        String secret = shortLinkCodePoolConfiguration.getSecret();
+        if (StrUtil.isBlank(secret) || DEFAULT_SECRET.equals(secret)) {
+            throw new IllegalStateException("短链接编码池已开启，请通过 short-link.code-pool.secret 配置独立的置换密钥，且不能使用默认值 " + DEFAULT_SECRET);
+        }
+        permutation = new ShortCodePermutation(shortLinkCodePoolConfiguration.getLength(), secret);
+        sequenceKey = String.format(SHORT_LINK_CODE_SEQUENCE_KEY, shortLinkCodePoolConfiguration.getLength());
+        prefetchExecutor = Executors.newSingleThreadExecutor(
+                ThreadFactoryBuilder.create()
+                        .setNamePrefix("short-link_code-pool_")
+                        .setDaemon(true)
+                        .build()
+        );
+    }
+
+    @Override
+    public void destroy() {
+        if (prefetchExecutor != null) {
+            prefetchExecutor.shutdownNow();
+        }
+    }
+
+    public boolean isEnable() {
+        return Boolean.TRUE.equals(shortLinkCodePoolConfiguration.getEnable());
+    }
+
+    /**
+     * 分配一个短链接后缀
+     */
+    public String next() {
+        long sequence;
+        lock.lock();
+        try {
+            if (cursor >= end) {
+                CompletableFuture<long[]> prefetched = nextBlock;
+                // 预留失败时清空，下次分配重新预留
+                nextBlock = null;
+                long[] block = prefetched != null ? prefetched.join() : reserveBlock();
+                cursor = block[0];
+                end = block[1];
+            }
+            sequence = cursor++;
+            if (nextBlock == null && end - cursor <= shortLinkCodePoolConfiguration.getBlockSize() * shortLinkCodePoolConfiguration.getPrefetchRatio()) {
+                nextBlock = CompletableFuture.supplyAsync(this::reserveBlock, prefetchExecutor);
+            }
+        } finally {
+            lock.unlock();
+        }
+        return permutation.encode(sequence);
+    }
+
+    /**
+     * 从 Redis 序号中预留号段，并在使用前持久化数据库水位
+     *
+     * @return 号段起始序号（包含）以及结束序号（不包含）
+     */
+    private long[] reserveBlock() {
+        int length = shortLinkCodePoolConfiguration.getLength();
+        int blockSize = shortLinkCodePoolConfiguration.getBlockSize();
+        // 先读取水位再预留，Redis 序号没有回退时，预留到的起始序号一定不小于此前任意节点持久化的水位
+        long watermark = Objects.requireNonNullElse(shortLinkCodeSequenceMapper.selectMaxSequence(length), 0L);
+        Long blockEnd = stringRedisTemplate.opsForValue().increment(sequenceKey, blockSize);
+        if (blockEnd != null && blockEnd - blockSize < watermark) {
+            log.warn("短链接编码序号低于数据库水位，Redis 序号可能已回退，当前序号：{}，水位：{}", blockEnd, watermark);
+            stringRedisTemplate.execute(SEED_SCRIPT, List.of(sequenceKey), String.valueOf(watermark));
+            blockEnd = stringRedisTemplate.opsForValue().increment(sequenceKey, blockSize);
+        }
+        if (blockEnd == null || blockEnd > permutation.domain()) {
+            throw new ServiceException("短链接编码已耗尽，请调大编码长度");
+        }
+        shortLinkCodeSequenceMapper.saveMaxSequence(length, blockEnd);
+        log.debug("短链接编码池预留号段：[{}, {})", blockEnd - blockSize, blockEnd);
+        return new long[]{blockEnd - blockSize, blockEnd};
+    }
+
+    private static DefaultRedisScript<Long> newScript(String path) {
+        DefaultRedisScript<Long> script = new DefaultRedisScript<>();
+        script.setScriptSource(new ResourceScriptSource(new ClassPathResource(path)));
+        script.setResultType(Long.class);
+        return script;
+    }
+}
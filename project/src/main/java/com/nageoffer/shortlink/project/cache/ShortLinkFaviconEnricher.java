@@ -0,0 +1,199 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.nageoffer.shortlink.project.cache;
+
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
+import com.baomidou.mybatisplus.core.toolkit.Wrappers;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.nageoffer.shortlink.project.config.ShortLinkFaviconConfiguration;
+import com.nageoffer.shortlink.project.config.ShortLinkVirtualThreadConfiguration;
+import com.nageoffer.shortlink.project.dao.entity.ShortLinkDO;
+import com.nageoffer.shortlink.project.dao.mapper.ShortLinkMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.net.URI;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 短链接网站图标异步补全
+ * 创建以及修改短链接时不再同步访问目标网站，事务提交后投递到有界线程池中获取网站图标并回写短链接
+ * 同一站点的网站图标在本地缓存，批量创建同一站点的短链接时只访问一次目标网站
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ShortLinkFaviconEnricher implements InitializingBean, DisposableBean {
+
+    /**
+     * 本地缓存中表示站点没有网站图标的占位值
+     */
+    private static final String NO_FAVICON = "";
+
+    private final ShortLinkMapper shortLinkMapper;
+    private final MeterRegistry meterRegistry;
+    private final ShortLinkFaviconConfiguration shortLinkFaviconConfiguration;
+    private final ShortLinkVirtualThreadConfiguration shortLinkVirtualThreadConfiguration;
+
+    private Cache<String, String> domainFavicons;
+    private ThreadPoolExecutor enrichExecutor;
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        if (!isEnable()) {
+            return;
+        }
+        domainFavicons = Caffeine.newBuilder()
+                .maximumSize(shortLinkFaviconConfiguration.getDomainCacheSize())
+                .expireAfterWrite(shortLinkFaviconConfiguration.getDomainCacheExpire(), TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, domainFavicons, "short-link-favicon");
+        int concurrency = shortLinkFaviconConfiguration.getConcurrency();
+        enrichExecutor = new ThreadPoolExecutor(
+                concurrency,
+                concurrency,
+                60L,
+                TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(shortLinkFaviconConfiguration.getQueueCapacity()),
+                shortLinkVirtualThreadConfiguration.newThreadFactory("short-link_favicon-enrich_"),
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+    }
+
+    @Override
+    public void destroy() {
+        if (enrichExecutor != null) {
+            enrichExecutor.shutdownNow();
+        }
+    }
+
+    public boolean isEnable() {
+        return Boolean.TRUE.equals(shortLinkFaviconConfiguration.getEnable());
+    }
+
+    /**
+     * 投递网站图标补全任务，存在事务时等待事务提交后投递，事务回滚则不投递
+     *
+     * @param gid          分组标识，短链接表分片键
+     * @param fullShortUrl 完整短链接
+     * @param originUrl    原始链接，回写时作为条件，原始链接已被修改的任务不再回写
+     */
+    public void enrich(String gid, String fullShortUrl, String originUrl) {
+        if (!isEnable()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+                @Override
+                public void afterCommit() {
+                    submit(gid, fullShortUrl, originUrl);
+                }
+            });
+            return;
+        }
+        submit(gid, fullShortUrl, originUrl);
+    }
+
+    private void submit(String gid, String fullShortUrl, String originUrl) {
+        try {
+            enrichExecutor.execute(() -> {
+                try {
+                    String favicon = getFavicon(originUrl);
+                    if (favicon != null) {
+                        updateFavicon(gid, fullShortUrl, originUrl, favicon);
+                    }
+                } catch (Throwable ex) {
+                    log.error("短链接补全网站图标失败，短链接：{}", fullShortUrl, ex);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            log.warn("短链接网站图标补全队列已满，放弃补全，短链接：{}", fullShortUrl);
+        }
+    }
+
+    private String getFavicon(String originUrl) {
+        String site = extractSite(originUrl);
+        if (site == null) {
+            return null;
+        }
+        String favicon = domainFavicons.get(site, each -> fetchFavicon(originUrl));
+        return NO_FAVICON.equals(favicon) ? null : favicon;
+    }
+
+    /**
+     * 访问目标网站页面解析网站图标，访问失败或页面未声明图标时返回占位值
+     */
+    private String fetchFavicon(String url) {
+        try {
+            Document document = Jsoup.connect(url)
+                    .timeout(shortLinkFaviconConfiguration.getTimeout())
+                    .maxBodySize(shortLinkFaviconConfiguration.getMaxBodySize())
+                    .followRedirects(true)
+                    .get();
+            Element faviconLink = document.select("link[rel~=(?i)^(shortcut )?icon]").first();
+            if (faviconLink != null) {
+                return faviconLink.attr("abs:href");
+            }
+        } catch (Throwable ex) {
+            log.debug("获取网站图标失败，原始链接：{}，原因：{}", url, ex.getMessage());
+        }
+        return NO_FAVICON;
+    }
+
+    private void updateFavicon(String gid, String fullShortUrl, String originUrl, String favicon) {
+        LambdaUpdateWrapper<ShortLinkDO> updateWrapper = Wrappers.lambdaUpdate(ShortLinkDO.class)
+                .eq(ShortLinkDO::getGid, gid)
+                .eq(ShortLinkDO::getFullShortUrl, fullShortUrl)
+                .eq(ShortLinkDO::getOriginUrl, originUrl)
+                .eq(ShortLinkDO::getDelFlag, 0)
+                .set(ShortLinkDO::getFavicon, favicon);
+        shortLinkMapper.update(null, updateWrapper);
+    }
+
+    /**
+     * 提取站点标识，协议、主机以及端口相同的原始链接共用网站图标
+     */
+    private static String extractSite(String url) {
+        try {
+            URI uri = new URI(url);
+            if (uri.getScheme() == null || uri.getHost() == null) {
+                return null;
+            }
+            return uri.getScheme().toLowerCase() + "://" + uri.getHost().toLowerCase() + (uri.getPort() == -1 ? "" : ":" + uri.getPort());
+        } catch (Exception ignored) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.nageoffer.shortlink.project.cache;
+
+import cn.hutool.core.thread.ThreadUtil;
+import com.nageoffer.shortlink.project.config.ShortLinkGidUpdateFenceConfiguration;
+import lombok.RequiredArgsConstructor;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static com.nageoffer.shortlink.project.common.constant.RedisKeyConstant.SHORT_LINK_GID_UPDATE_FENCE_KEY;
+
+/**
+ * 短链接修改分组围栏
+ * 修改分组极少发生，监控消费不再为每条消息获取分布式读锁，只有设置了围栏 Key 的短链接才加读锁
+ * 修改分组前先设置带有效期的围栏 Key 并等待宽限期，再获取写锁迁移数据
+ * 批量消费开始时一次读取整批短链接的围栏，未处于围栏中的短链接在事务提交前再次读取，期间设置了围栏则回滚重试
+ * 围栏保存在 Redis 中，不依赖广播送达，任意节点都能读取到
+ */
+@Component
+@RequiredArgsConstructor
+public class ShortLinkGidUpdateFence {
+
+    private final RedissonClient redissonClient;
+    private final ShortLinkGidUpdateFenceConfiguration shortLinkGidUpdateFenceConfiguration;
+
+    /**
+     * 设置围栏并等待宽限期，修改分组获取写锁前调用，不能在数据库事务中调用
+     *
+     * @param fullShortUrl 完整短链接
+     */
+    public void raise(String fullShortUrl) {
+        redissonClient.getBucket(String.format(SHORT_LINK_GID_UPDATE_FENCE_KEY, fullShortUrl), StringCodec.INSTANCE)
+                .set(String.valueOf(System.currentTimeMillis()), Duration.ofSeconds(shortLinkGidUpdateFenceConfiguration.getDuration()));
+        ThreadUtil.sleep(shortLinkGidUpdateFenceConfiguration.getGracePeriod());
+    }
+
+    /**
+     * 短链接是否处于围栏中，处于围栏中时需要获取读锁
+     */
+    public boolean isFenced(String fullShortUrl) {
+        return redissonClient.getBucket(String.format(SHORT_LINK_GID_UPDATE_FENCE_KEY, fullShortUrl), StringCodec.INSTANCE).isExists();
+    }
+
+    /**
+     * 批量读取处于围栏中的短链接，一次 Redis 往返
+     *
+     * @param fullShortUrls 完整短链接集合
+     * @return 处于围栏中的短链接
+     */
+    public Set<String> fencedOf(Collection<String> fullShortUrls) {
+        Set<String> result = new HashSet<>();
+        if (fullShortUrls.isEmpty()) {
+            return result;
+        }
+        String[] keys = fullShortUrls.stream()
+                .map(each -> String.format(SHORT_LINK_GID_UPDATE_FENCE_KEY, each))
+                .toArray(String[]::new);
+        Map<String, Object> fences = redissonClient.getBuckets(StringCodec.INSTANCE).get(keys);
+        for (String each : fullShortUrls) {
+            if (fences.containsKey(String.format(SHORT_LINK_GID_UPDATE_FENCE_KEY, each))) {
+                result.add(each);
+            }
+        }
+        return result;
+    }
+}
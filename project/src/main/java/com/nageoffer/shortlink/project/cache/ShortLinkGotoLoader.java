@@ -0,0 +1,325 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.nageoffer.shortlink.project.cache;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.toolkit.Wrappers;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.nageoffer.shortlink.project.common.convention.exception.ServiceException;
+import com.nageoffer.shortlink.project.config.ShortLinkCacheRefreshAheadConfiguration;
+import com.nageoffer.shortlink.project.config.ShortLinkVirtualThreadConfiguration;
+import com.nageoffer.shortlink.project.dao.entity.ShortLinkDO;
+import com.nageoffer.shortlink.project.dao.entity.ShortLinkGotoDO;
+import com.nageoffer.shortlink.project.dao.mapper.ShortLinkGotoMapper;
+import com.nageoffer.shortlink.project.dao.mapper.ShortLinkMapper;
+import com.nageoffer.shortlink.project.dto.biz.ShortLinkRouteDTO;
+import com.nageoffer.shortlink.project.toolkit.LinkUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static com.nageoffer.shortlink.project.common.constant.RedisKeyConstant.GOTO_IS_NULL_SHORT_LINK_KEY;
+import static com.nageoffer.shortlink.project.common.constant.RedisKeyConstant.GOTO_SHORT_LINK_KEY;
+import static com.nageoffer.shortlink.project.common.constant.RedisKeyConstant.LOCK_GOTO_SHORT_LINK_KEY;
+import static com.nageoffer.shortlink.project.common.constant.ShortLinkConstant.DEFAULT_CACHE_VALID_TIME;
+
+/**
+ * 短链接跳转缓存未命中加载器
+ * 同一 JVM 内相同短链接的并发未命中共享一次加载，不同节点之间通过短租期分布式锁选出一个节点回源数据库，
+ * 未抢到锁的节点短暂轮询 Redis 缓存，避免缓存集中失效时所有请求线程阻塞在分布式锁上
+ * 热点短链接的跳转缓存临近过期时提前在后台刷新，刷新期间继续使用当前缓存，热点短链接不会在 Redis 中失效
+ * 设置了有效期的短链接缓存过期时间等于有效期，刷新无法延长，回源后记录到有效期结束，期间不再提前刷新
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ShortLinkGotoLoader implements InitializingBean, DisposableBean {
+
+    /**
+     * 分布式锁最长等待时间，单位：毫秒
+     */
+    private static final long LOCK_WAIT_MILLIS = 50L;
+
+    /**
+     * 分布式锁租期，单位：毫秒，持锁节点宕机后自动释放
+     */
+    private static final long LOCK_LEASE_MILLIS = 3000L;
+
+    /**
+     * 未抢到分布式锁时轮询缓存次数
+     */
+    private static final int POLL_TIMES = 10;
+
+    /**
+     * 未抢到分布式锁时轮询缓存间隔，单位：毫秒
+     */
+    private static final long POLL_INTERVAL_MILLIS = 20L;
+
+    /**
+     * 等待同 JVM 内其他线程加载结果的最长时间，单位：毫秒
+     */
+    private static final long IN_FLIGHT_WAIT_MILLIS = 3000L;
+
+    /**
+     * 短链接不存在标识，仅在加载器内部使用，对外返回 null
+     */
+    private static final ShortLinkRouteDTO NOT_FOUND = new ShortLinkRouteDTO();
+
+    private final ShortLinkMapper shortLinkMapper;
+    private final ShortLinkGotoMapper shortLinkGotoMapper;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedissonClient redissonClient;
+    private final ShortLinkCacheRefreshAheadConfiguration shortLinkCacheRefreshAheadConfiguration;
+    private final ShortLinkVirtualThreadConfiguration shortLinkVirtualThreadConfiguration;
+    private final ShortLinkNegativeCache shortLinkNegativeCache;
+
+    private final ConcurrentHashMap<String, CompletableFuture<ShortLinkRouteDTO>> inFlightLoads = new ConcurrentHashMap<>();
+
+    private ThreadPoolExecutor refreshExecutor;
+    private Cache<String, Boolean> recentlyRefreshed;
+    private Cache<String, Long> validDateBounded;
+    private long refreshThresholdMillis;
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        refreshExecutor = new ThreadPoolExecutor(
+                shortLinkCacheRefreshAheadConfiguration.getConcurrency(),
+                shortLinkCacheRefreshAheadConfiguration.getConcurrency(),
+                0L,
+                TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(shortLinkCacheRefreshAheadConfiguration.getQueueCapacity()),
+                shortLinkVirtualThreadConfiguration.newThreadFactory("short-link_goto-refresh-ahead_"),
+                new ThreadPoolExecutor.DiscardPolicy()
+        );
+        recentlyRefreshed = Caffeine.newBuilder()
+                .maximumSize(100000L)
+                .expireAfterWrite(shortLinkCacheRefreshAheadConfiguration.getMinRefreshInterval(), TimeUnit.SECONDS)
+                .build();
+        validDateBounded = Caffeine.newBuilder()
+                .maximumSize(100000L)
+                .expireAfter(new ValidDateExpiry())
+                .build();
+        refreshThresholdMillis = (long) (DEFAULT_CACHE_VALID_TIME * shortLinkCacheRefreshAheadConfiguration.getRatio());
+    }
+
+    @Override
+    public void destroy() {
+        refreshExecutor.shutdownNow();
+    }
+
+    /**
+     * 跳转缓存剩余有效时间低于阈值时，后台异步回源数据库刷新跳转缓存
+     *
+     * @param fullShortUrl    完整短链接
+     * @param remainingMillis 跳转缓存剩余有效时间，单位：毫秒
+     */
+    public void refreshAheadIfNecessary(String fullShortUrl, long remainingMillis) {
+        if (!Boolean.TRUE.equals(shortLinkCacheRefreshAheadConfiguration.getEnable())
+                || remainingMillis <= 0L
+                || remainingMillis >= refreshThresholdMillis
+                || validDateBounded.getIfPresent(fullShortUrl) != null
+                || recentlyRefreshed.asMap().putIfAbsent(fullShortUrl, Boolean.TRUE) != null) {
+            return;
+        }
+        refreshExecutor.execute(() -> {
+            try {
+                loadFromDatabase(fullShortUrl);
+            } catch (Throwable ex) {
+                recentlyRefreshed.invalidate(fullShortUrl);
+                log.error("提前刷新短链接跳转缓存失败，短链接：{}", fullShortUrl, ex);
+            }
+        });
+    }
+
+    /**
+     * 加载短链接跳转路由
+     *
+     * @param fullShortUrl 完整短链接
+     * @return 跳转路由，短链接不存在或已过期返回 null
+     */
+    @SneakyThrows
+    public ShortLinkRouteDTO load(String fullShortUrl) {
+        CompletableFuture<ShortLinkRouteDTO> future = new CompletableFuture<>();
+        CompletableFuture<ShortLinkRouteDTO> inFlight = inFlightLoads.putIfAbsent(fullShortUrl, future);
+        if (inFlight != null) {
+            try {
+                return unwrap(inFlight.get(IN_FLIGHT_WAIT_MILLIS, TimeUnit.MILLISECONDS));
+            } catch (ExecutionException ex) {
+                throw ex.getCause();
+            } catch (TimeoutException ex) {
+                throw new ServiceException(String.format("短链接：%s 跳转加载超时", fullShortUrl));
+            }
+        }
+        try {
+            ShortLinkRouteDTO result = loadAcrossNodes(fullShortUrl);
+            future.complete(result);
+            return unwrap(result);
+        } catch (Throwable ex) {
+            future.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlightLoads.remove(fullShortUrl, future);
+        }
+    }
+
+    private ShortLinkRouteDTO loadAcrossNodes(String fullShortUrl) throws InterruptedException {
+        RLock lock = redissonClient.getLock(String.format(LOCK_GOTO_SHORT_LINK_KEY, fullShortUrl));
+        if (lock.tryLock(LOCK_WAIT_MILLIS, LOCK_LEASE_MILLIS, TimeUnit.MILLISECONDS)) {
+            try {
+                ShortLinkRouteDTO cached = getFromCache(fullShortUrl);
+                return cached != null ? cached : loadFromDatabase(fullShortUrl);
+            } finally {
+                if (lock.isHeldByCurrentThread()) {
+                    lock.unlock();
+                }
+            }
+        }
+        // 其他节点正在回源，短暂轮询缓存等待其写入结果
+        for (int i = 0; i < POLL_TIMES; i++) {
+            Thread.sleep(POLL_INTERVAL_MILLIS);
+            ShortLinkRouteDTO cached = getFromCache(fullShortUrl);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        // 持锁节点迟迟未写入缓存，直接回源数据库兜底，避免请求长时间等待
+        log.warn("等待其他节点加载短链接跳转缓存超时，直接查询数据库，短链接：{}", fullShortUrl);
+        return loadFromDatabase(fullShortUrl);
+    }
+
+    /**
+     * 同一次往返查询跳转缓存、剩余有效期以及空值缓存
+     *
+     * @return 跳转路由；短链接不存在返回 NOT_FOUND；缓存中无记录返回 null
+     */
+    private ShortLinkRouteDTO getFromCache(String fullShortUrl) {
+        byte[] rawGotoKey = String.format(GOTO_SHORT_LINK_KEY, fullShortUrl).getBytes(StandardCharsets.UTF_8);
+        byte[] rawGotoIsNullKey = String.format(GOTO_IS_NULL_SHORT_LINK_KEY, fullShortUrl).getBytes(StandardCharsets.UTF_8);
+        List<Object> results = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            connection.stringCommands().get(rawGotoKey);
+            connection.keyCommands().pTtl(rawGotoKey);
+            connection.stringCommands().get(rawGotoIsNullKey);
+            return null;
+        });
+        String originUrl = (String) results.get(0);
+        if (originUrl != null && !originUrl.isEmpty()) {
+            return ShortLinkRouteDTO.builder()
+                    .originUrl(originUrl)
+                    .validTime((Long) results.get(1))
+                    .build();
+        }
+        return results.get(2) != null ? NOT_FOUND : null;
+    }
+
+    /**
+     * 写入 Redis 空值缓存，超出每秒写入上限时跳过，由节点本地不存在缓存兜底
+     */
+    private void cacheNullLink(String fullShortUrl) {
+        if (shortLinkNegativeCache.tryAcquireNullKeyPermit()) {
+            stringRedisTemplate.opsForValue().set(String.format(GOTO_IS_NULL_SHORT_LINK_KEY, fullShortUrl), "-", 30, TimeUnit.MINUTES);
+        }
+    }
+
+    /**
+     * 回源数据库加载短链接跳转路由，并回写 Redis 跳转缓存或空值缓存
+     *
+     * @param fullShortUrl 完整短链接
+     * @return 跳转路由，短链接不存在或已过期返回 NOT_FOUND
+     */
+    private ShortLinkRouteDTO loadFromDatabase(String fullShortUrl) {
+        LambdaQueryWrapper<ShortLinkGotoDO> linkGotoQueryWrapper = Wrappers.lambdaQuery(ShortLinkGotoDO.class)
+                .eq(ShortLinkGotoDO::getFullShortUrl, fullShortUrl);
+        ShortLinkGotoDO shortLinkGotoDO = shortLinkGotoMapper.selectOne(linkGotoQueryWrapper);
+        if (shortLinkGotoDO == null) {
+            cacheNullLink(fullShortUrl);
+            return NOT_FOUND;
+        }
+        LambdaQueryWrapper<ShortLinkDO> queryWrapper = Wrappers.lambdaQuery(ShortLinkDO.class)
+                .eq(ShortLinkDO::getGid, shortLinkGotoDO.getGid())
+                .eq(ShortLinkDO::getFullShortUrl, fullShortUrl)
+                .eq(ShortLinkDO::getDelFlag, 0)
+                .eq(ShortLinkDO::getEnableStatus, 0);
+        ShortLinkDO shortLinkDO = shortLinkMapper.selectOne(queryWrapper);
+        if (shortLinkDO == null || (shortLinkDO.getValidDate() != null && shortLinkDO.getValidDate().before(new Date()))) {
+            cacheNullLink(fullShortUrl);
+            return NOT_FOUND;
+        }
+        long validTime = LinkUtil.getLinkCacheValidTime(shortLinkDO.getValidDate());
+        // 有效期修改后以最新回源结果为准
+        if (shortLinkDO.getValidDate() != null) {
+            validDateBounded.put(fullShortUrl, shortLinkDO.getValidDate().getTime());
+        } else {
+            validDateBounded.invalidate(fullShortUrl);
+        }
+        stringRedisTemplate.opsForValue().set(
+                String.format(GOTO_SHORT_LINK_KEY, fullShortUrl),
+                shortLinkDO.getOriginUrl(),
+                validTime, TimeUnit.MILLISECONDS
+        );
+        return ShortLinkRouteDTO.builder()
+                .originUrl(shortLinkDO.getOriginUrl())
+                .gid(shortLinkDO.getGid())
+                .validTime(validTime)
+                .build();
+    }
+
+    private ShortLinkRouteDTO unwrap(ShortLinkRouteDTO result) {
+        return result == NOT_FOUND ? null : result;
+    }
+
+    /**
+     * 按短链接有效期结束时间过期
+     */
+    private static class ValidDateExpiry implements Expiry<String, Long> {
+
+        @Override
+        public long expireAfterCreate(String key, Long validDateMillis, long currentTime) {
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0L, validDateMillis - System.currentTimeMillis()));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Long validDateMillis, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, validDateMillis, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Long validDateMillis, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.nageoffer.shortlink.project.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.nageoffer.shortlink.project.config.ShortLinkLocalCacheConfiguration;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.nageoffer.shortlink.project.common.constant.RedisKeyConstant.SHORT_LINK_LOCAL_CACHE_INVALIDATE_TOPIC_KEY;
+
+/**
+ * 短链接跳转本地缓存
+ * 位于 Redis 跳转缓存之前，缓存热点短链接的原始链接，减少一次网络往返
+ * 短链接修改、移入回收站、恢复以及删除时通过 Redis 发布订阅广播到所有节点失效
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ShortLinkGotoLocalCache implements InitializingBean {
+
+    private final RedissonClient redissonClient;
+    private final MeterRegistry meterRegistry;
+    private final ShortLinkLocalCacheConfiguration shortLinkLocalCacheConfiguration;
+
+    private Cache<String, GotoEntry> cache;
+    private RTopic invalidateTopic;
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        cache = Caffeine.newBuilder()
+                .maximumSize(shortLinkLocalCacheConfiguration.getMaximumSize())
+                .expireAfter(new GotoEntryExpiry())
+                .recordStats()
+                .build();
+        // 暴露命中、未命中以及淘汰次数等指标，用于评估本地缓存容量
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "short-link-goto");
+        invalidateTopic = redissonClient.getTopic(SHORT_LINK_LOCAL_CACHE_INVALIDATE_TOPIC_KEY, StringCodec.INSTANCE);
+        invalidateTopic.addListener(String.class, (channel, fullShortUrl) -> cache.invalidate(fullShortUrl));
+    }
+
+    /**
+     * 获取短链接对应的原始链接
+     *
+     * @param fullShortUrl 完整短链接
+     * @return 原始链接，不存在返回 null
+     */
+    public String get(String fullShortUrl) {
+        if (!isEnable()) {
+            return null;
+        }
+        GotoEntry entry = cache.getIfPresent(fullShortUrl);
+        return entry == null ? null : entry.originUrl();
+    }
+
+    /**
+     * 缓存短链接对应的原始链接
+     *
+     * @param fullShortUrl     完整短链接
+     * @param originUrl        原始链接
+     * @param remainingMillis  短链接剩余有效时间，单位：毫秒，小于 0 表示永久有效
+     */
+    public void put(String fullShortUrl, String originUrl, long remainingMillis) {
+        if (!isEnable() || remainingMillis == 0L) {
+            return;
+        }
+        long ttlNanos = TimeUnit.SECONDS.toNanos(shortLinkLocalCacheConfiguration.getExpireAfterWrite());
+        if (remainingMillis > 0L) {
+            ttlNanos = Math.min(ttlNanos, TimeUnit.MILLISECONDS.toNanos(remainingMillis));
+        }
+        cache.put(fullShortUrl, new GotoEntry(originUrl, ttlNanos));
+    }
+
+    /**
+     * 失效所有节点中的短链接本地缓存
+     *
+     * @param fullShortUrl 完整短链接
+     */
+    public void invalidate(String fullShortUrl) {
+        cache.invalidate(fullShortUrl);
+        try {
+            invalidateTopic.publish(fullShortUrl);
+        } catch (Throwable ex) {
+            log.error("广播短链接本地缓存失效消息失败，短链接：{}", fullShortUrl, ex);
+        }
+    }
+
+    private boolean isEnable() {
+        return Boolean.TRUE.equals(shortLinkLocalCacheConfiguration.getEnable());
+    }
+
+    private record GotoEntry(String originUrl, long ttlNanos) {
+    }
+
+    /**
+     * 按条目设置过期时间，保证本地缓存不会超过短链接有效期
+     */
+    private static class GotoEntryExpiry implements Expiry<String, GotoEntry> {
+
+        @Override
+        public long expireAfterCreate(String key, GotoEntry value, long currentTime) {
+            return value.ttlNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, GotoEntry value, long currentTime, long currentDuration) {
+            return value.ttlNanos();
+        }
+
+        @Override
+        public long expireAfterRead(String key, GotoEntry value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.nageoffer.shortlink.project.cache;
+
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.http.HttpUtil;
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONObject;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.nageoffer.shortlink.project.config.ShortLinkIpLocaleConfiguration;
+import com.nageoffer.shortlink.project.toolkit.IpRegionSearcher;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.nageoffer.shortlink.project.common.constant.ShortLinkConstant.AMAP_REMOTE_URL;
+
+/**
+ * 短链接访问 IP 地域解析
+ * 优先查询离线 IP 地域库，最近查询的 IP 缓存在本地，离线地域库未加载或未命中时按配置调用高德 IP 定位接口兜底
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ShortLinkIpLocaleResolver implements InitializingBean {
+
+    private static final String UNKNOWN = "未知";
+    private static final String CHINA = "中国";
+    private static final String CLASSPATH_PREFIX = "classpath:";
+
+    private final MeterRegistry meterRegistry;
+    private final ShortLinkIpLocaleConfiguration shortLinkIpLocaleConfiguration;
+
+    private IpRegionSearcher ipRegionSearcher;
+    private Cache<String, Optional<IpRegionSearcher.Region>> recentIps;
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        recentIps = Caffeine.newBuilder()
+                .maximumSize(shortLinkIpLocaleConfiguration.getCacheSize())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, recentIps, "short-link-ip-locale");
+        String databasePath = shortLinkIpLocaleConfiguration.getDatabasePath();
+        if (StrUtil.isBlank(databasePath)) {
+            log.info("未配置离线 IP 地域库，访问地域{}", isAmapFallback() ? "通过高德 IP 定位接口查询" : "均记录为未知");
+            return;
+        }
+        try {
+            if (databasePath.startsWith(CLASSPATH_PREFIX)) {
+                try (InputStream inputStream = new ClassPathResource(databasePath.substring(CLASSPATH_PREFIX.length())).getInputStream()) {
+                    ipRegionSearcher = IpRegionSearcher.load(inputStream);
+                }
+            } else {
+                ipRegionSearcher = IpRegionSearcher.mmap(Path.of(databasePath));
+            }
+            log.info("离线 IP 地域库加载完成：{}", databasePath);
+        } catch (Throwable ex) {
+            // 地域库缺失不影响监控消费，按兜底配置查询
+            log.error("离线 IP 地域库加载失败：{}", databasePath, ex);
+        }
+    }
+
+    /**
+     * 解析 IP 所属地域，国外 IP 以及未识别省份的 IP 省份、城市、城市编码均为未知
+     *
+     * @param ip 访问 IP
+     * @return 地域信息，无法解析时返回 null
+     */
+    public IpRegionSearcher.Region resolve(String ip) {
+        if (StrUtil.isBlank(ip)) {
+            return null;
+        }
+        Optional<IpRegionSearcher.Region> cached = recentIps.getIfPresent(ip);
+        if (cached != null) {
+            return cached.orElse(null);
+        }
+        IpRegionSearcher.Region region = ipRegionSearcher != null ? normalize(ipRegionSearcher.search(ip)) : null;
+        if (region == null && isAmapFallback()) {
+            try {
+                region = searchAmap(ip);
+            } catch (Throwable ex) {
+                // 接口异常不缓存，下次访问重新查询
+                log.error("高德 IP 定位接口查询失败，IP：{}", ip, ex);
+                return null;
+            }
+        }
+        recentIps.put(ip, Optional.ofNullable(region));
+        return region;
+    }
+
+    private IpRegionSearcher.Region normalize(IpRegionSearcher.Region region) {
+        if (region == null) {
+            return null;
+        }
+        if (!CHINA.equals(region.country()) || StrUtil.isBlank(region.province())) {
+            return new IpRegionSearcher.Region(CHINA, UNKNOWN, UNKNOWN, UNKNOWN);
+        }
+        return new IpRegionSearcher.Region(
+                CHINA,
+                region.province(),
+                StrUtil.blankToDefault(region.city(), UNKNOWN),
+                StrUtil.blankToDefault(region.adcode(), UNKNOWN)
+        );
+    }
+
+    private IpRegionSearcher.Region searchAmap(String ip) {
+        Map<String, Object> localeParamMap = new HashMap<>();
+        localeParamMap.put("key", shortLinkIpLocaleConfiguration.getAmapKey());
+        localeParamMap.put("ip", ip);
+        String localeResultStr = HttpUtil.get(AMAP_REMOTE_URL, localeParamMap, shortLinkIpLocaleConfiguration.getAmapTimeout());
+        JSONObject localeResultObj = JSON.parseObject(localeResultStr);
+        String infoCode = localeResultObj.getString("infocode");
+        if (StrUtil.isBlank(infoCode) || !StrUtil.equals(infoCode, "10000")) {
+            return null;
+        }
+        String province = localeResultObj.getString("province");
+        boolean unknownFlag = StrUtil.equals(province, "[]");
+        return new IpRegionSearcher.Region(
+                CHINA,
+                unknownFlag ? UNKNOWN : province,
+                unknownFlag ? UNKNOWN : localeResultObj.getString("city"),
+                unknownFlag ? UNKNOWN : localeResultObj.getString("adcode")
+        );
+    }
+
+    private boolean isAmapFallback() {
+        return Boolean.TRUE.equals(shortLinkIpLocaleConfiguration.getAmapFallback()) && StrUtil.isNotBlank(shortLinkIpLocaleConfiguration.getAmapKey());
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.nageoffer.shortlink.project.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.nageoffer.shortlink.project.config.ShortLinkNegativeCacheConfiguration;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.nageoffer.shortlink.project.common.constant.RedisKeyConstant.SHORT_LINK_LOCAL_CACHE_INVALIDATE_TOPIC_KEY;
+import static com.nageoffer.shortlink.project.common.constant.RedisKeyConstant.SHORT_URI_BLOOM_FILTER_ADD_TOPIC_KEY;
+
+/**
+ * 不存在短链接本地缓存以及扫描防护
+ * 记录确认不存在的短链接，再次访问时直接跳转不存在页面，不再访问 Redis 以及数据库
+ * 按 IP 统计需要查询空值缓存或数据库才能确认不存在的次数，超过阈值判定为扫描，限制期间跳转缓存未命中时直接跳转不存在页面
+ * 布隆过滤器以及本地缓存即可判定不存在的访问代价很低，不计入扫描次数，避免 NAT 后的正常用户因为输错链接被误判
+ * 每个节点限制每秒写入 Redis 的空值缓存数量，保护 Redis 内存
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ShortLinkNegativeCache implements InitializingBean {
+
+    private final RedissonClient redissonClient;
+    private final MeterRegistry meterRegistry;
+    private final ShortLinkNegativeCacheConfiguration shortLinkNegativeCacheConfiguration;
+
+    private Cache<String, Boolean> missingLinks;
+    private Cache<String, AtomicInteger> notFoundCounters;
+    private Cache<String, Boolean> scanners;
+
+    private final AtomicLong nullKeyWindow = new AtomicLong();
+    private final AtomicInteger nullKeyCount = new AtomicInteger();
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        missingLinks = Caffeine.newBuilder()
+                .maximumSize(shortLinkNegativeCacheConfiguration.getMaximumSize())
+                .expireAfterWrite(shortLinkNegativeCacheConfiguration.getExpireAfterWrite(), TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+        // 统计窗口从第一次访问不存在短链接开始计算，计数只递增不重新写入，窗口结束后整体过期
+        notFoundCounters = Caffeine.newBuilder()
+                .maximumSize(shortLinkNegativeCacheConfiguration.getMaximumSize())
+                .expireAfterWrite(shortLinkNegativeCacheConfiguration.getScanWindow(), TimeUnit.SECONDS)
+                .build();
+        scanners = Caffeine.newBuilder()
+                .maximumSize(shortLinkNegativeCacheConfiguration.getMaximumSize())
+                .expireAfterWrite(shortLinkNegativeCacheConfiguration.getScanBlockDuration(), TimeUnit.SECONDS)
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, missingLinks, "short-link-negative");
+        // 新创建、修改以及从回收站恢复的短链接需要从所有节点的不存在缓存中移除
+        redissonClient.getTopic(SHORT_URI_BLOOM_FILTER_ADD_TOPIC_KEY, StringCodec.INSTANCE)
+                .addListener(String.class, (channel, fullShortUrl) -> missingLinks.invalidate(fullShortUrl));
+        redissonClient.getTopic(SHORT_LINK_LOCAL_CACHE_INVALIDATE_TOPIC_KEY, StringCodec.INSTANCE)
+                .addListener(String.class, (channel, fullShortUrl) -> missingLinks.invalidate(fullShortUrl));
+    }
+
+    /**
+     * 短链接是否已确认不存在
+     */
+    public boolean isMissing(String fullShortUrl) {
+        return isEnable() && missingLinks.getIfPresent(fullShortUrl) != null;
+    }
+
+    /**
+     * IP 是否已判定为扫描
+     */
+    public boolean isScanner(String remoteAddr) {
+        return isEnable() && remoteAddr != null && scanners.getIfPresent(remoteAddr) != null;
+    }
+
+    /**
+     * 记录一次访问不存在短链接
+     *
+     * @param fullShortUrl 完整短链接
+     * @param remoteAddr   访问 IP
+     * @param confirmed    是否已通过空值缓存或数据库确认不存在，只有确认不存在时写入本地缓存并计入扫描次数
+     */
+    public void recordNotFound(String fullShortUrl, String remoteAddr, boolean confirmed) {
+        if (!isEnable() || !confirmed) {
+            return;
+        }
+        missingLinks.put(fullShortUrl, Boolean.TRUE);
+        if (remoteAddr == null) {
+            return;
+        }
+        int count = notFoundCounters.get(remoteAddr, each -> new AtomicInteger()).incrementAndGet();
+        if (count == shortLinkNegativeCacheConfiguration.getScanThreshold() + 1) {
+            scanners.put(remoteAddr, Boolean.TRUE);
+            log.warn("IP：{} 在 {} 秒内查询数据库确认不存在的短链接超过 {} 次，判定为扫描", remoteAddr,
+                    shortLinkNegativeCacheConfiguration.getScanWindow(), shortLinkNegativeCacheConfiguration.getScanThreshold());
+        }
+    }
+
+    /**
+     * 申请写入一个 Redis 空值缓存，按秒限制每个节点的写入数量
+     *
+     * @return 是否允许写入
+     */
+    public boolean tryAcquireNullKeyPermit() {
+        if (!isEnable()) {
+            return true;
+        }
+        long currentSecond = System.currentTimeMillis() / 1000L;
+        long window = nullKeyWindow.get();
+        if (window != currentSecond && nullKeyWindow.compareAndSet(window, currentSecond)) {
+            nullKeyCount.set(0);
+        }
+        return nullKeyCount.incrementAndGet() <= shortLinkNegativeCacheConfiguration.getNullKeyMaxPerSecond();
+    }
+
+    private boolean isEnable() {
+        return Boolean.TRUE.equals(shortLinkNegativeCacheConfiguration.getEnable());
+    }
+}
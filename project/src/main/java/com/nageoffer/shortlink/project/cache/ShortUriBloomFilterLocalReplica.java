@@ -0,0 +1,361 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.nageoffer.shortlink.project.cache;
+
+import cn.hutool.core.thread.ThreadFactoryBuilder;
+import com.nageoffer.shortlink.project.config.ShortUriBloomFilterReplicaConfiguration;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.buffer.ByteBuf;
+import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.RedissonObject;
+import org.redisson.api.RBloomFilter;
+import org.redisson.api.RBatch;
+import org.redisson.api.RTopic;
+import org.redisson.api.RTopicAsync;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.redisson.misc.Hash;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scripting.support.ResourceScriptSource;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static com.nageoffer.shortlink.project.common.constant.RedisKeyConstant.SHORT_URI_BLOOM_FILTER_ADD_TOPIC_KEY;
+import static com.nageoffer.shortlink.project.config.RBloomFilterConfiguration.EXPECTED_INSERTIONS;
+import static com.nageoffer.shortlink.project.config.RBloomFilterConfiguration.FALSE_PROBABILITY;
+
+/**
+ * 短链接布隆过滤器本地副本
+ * 启动时分段拷贝 Redis 中的布隆过滤器位图到堆内，新增短链接通过 Redis 发布订阅同步到所有节点，并定期全量同步兜底
+ * 哈希算法与 Redisson 保持一致，副本加载完成前以及关闭副本时直接查询 Redis，Redis 始终是数据源
+ * 布隆过滤器不支持删除，删除的短链接会一直占用位图
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "short-link.membership-filter", name = "type", havingValue = "bloom", matchIfMissing = true)
+public class ShortUriBloomFilterLocalReplica implements ShortUriMembershipFilter, InitializingBean, DisposableBean {
+
+    private static final DefaultRedisScript<Long> SWAP_SCRIPT;
+
+    /**
+     * 本地副本填充率计算需要遍历整个位图，计算结果缓存时间
+     */
+    private static final long FILL_RATIO_CACHE_MILLIS = 60000L;
+
+    static {
+        SWAP_SCRIPT = new DefaultRedisScript<>();
+        SWAP_SCRIPT.setScriptSource(new ResourceScriptSource(new ClassPathResource("lua/bloom_filter_swap.lua")));
+        SWAP_SCRIPT.setResultType(Long.class);
+    }
+
+    private final RBloomFilter<String> shortUriCreateCachePenetrationBloomFilter;
+    private final RedissonClient redissonClient;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final MeterRegistry meterRegistry;
+    private final ShortUriBloomFilterReplicaConfiguration shortUriBloomFilterReplicaConfiguration;
+
+    private RTopic addTopic;
+    private ScheduledExecutorService syncExecutor;
+
+    /**
+     * 已加载完成的本地副本，加载完成前为 null
+     */
+    private volatile Replica replica;
+
+    /**
+     * 正在从 Redis 拷贝的本地副本，拷贝期间收到的新增消息同时写入，避免丢失
+     */
+    private volatile Replica syncing;
+
+    private volatile double fillRatio;
+    private volatile long fillRatioComputedAt;
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        addTopic = redissonClient.getTopic(SHORT_URI_BLOOM_FILTER_ADD_TOPIC_KEY, StringCodec.INSTANCE);
+        Gauge.builder("short-link.membership-filter.fill-ratio", this, ShortUriMembershipFilter::fillRatio)
+                .tag("type", "bloom")
+                .register(meterRegistry);
+        Gauge.builder("short-link.membership-filter.false-probability", this, ShortUriMembershipFilter::estimatedFalseProbability)
+                .tag("type", "bloom")
+                .register(meterRegistry);
+        if (!isEnable()) {
+            return;
+        }
+        // 先订阅再拷贝，拷贝期间新增的短链接不会丢失
+        addTopic.addListener(String.class, (channel, fullShortUrl) -> addLocal(fullShortUrl));
+        syncExecutor = Executors.newSingleThreadScheduledExecutor(
+                ThreadFactoryBuilder.create()
+                        .setNamePrefix("short-link_bloom-filter-replica_")
+                        .setDaemon(true)
+                        .build()
+        );
+        long resyncInterval = shortUriBloomFilterReplicaConfiguration.getResyncInterval();
+        syncExecutor.scheduleWithFixedDelay(this::syncFromRedis, 0L, resyncInterval, TimeUnit.MINUTES);
+    }
+
+    @Override
+    public void destroy() {
+        if (syncExecutor != null) {
+            syncExecutor.shutdownNow();
+        }
+    }
+
+    @Override
+    public boolean contains(String fullShortUrl) {
+        Replica current = replica;
+        if (current == null) {
+            return shortUriCreateCachePenetrationBloomFilter.contains(fullShortUrl);
+        }
+        for (long index : indexes(fullShortUrl, current.size(), current.hashIterations())) {
+            if ((current.bits().get((int) (index >>> 6)) & (1L << (index & 63))) == 0L) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 添加短链接到 Redis 布隆过滤器，并广播到所有节点的本地副本
+     */
+    @Override
+    public void add(String fullShortUrl) {
+        shortUriCreateCachePenetrationBloomFilter.add(fullShortUrl);
+        addLocal(fullShortUrl);
+        try {
+            addTopic.publish(fullShortUrl);
+        } catch (Throwable ex) {
+            log.error("广播布隆过滤器新增短链接失败，短链接：{}", fullShortUrl, ex);
+        }
+    }
+
+    @Override
+    public void addAll(Collection<String> fullShortUrls) {
+        shortUriCreateCachePenetrationBloomFilter.add(fullShortUrls);
+        fullShortUrls.forEach(this::addLocal);
+        publishAll(fullShortUrls);
+    }
+
+    private void publishAll(Collection<String> fullShortUrls) {
+        try {
+            RBatch batch = redissonClient.createBatch();
+            RTopicAsync batchAddTopic = batch.getTopic(SHORT_URI_BLOOM_FILTER_ADD_TOPIC_KEY, StringCodec.INSTANCE);
+            fullShortUrls.forEach(batchAddTopic::publishAsync);
+            batch.execute();
+        } catch (Throwable ex) {
+            log.error("批量广播成员过滤器新增短链接失败，数量：{}", fullShortUrls.size(), ex);
+        }
+    }
+
+    /**
+     * 布隆过滤器不支持删除，彻底删除的短链接后缀不会再次分配
+     */
+    @Override
+    public boolean remove(String fullShortUrl) {
+        return false;
+    }
+
+    @Override
+    public long count() {
+        return shortUriCreateCachePenetrationBloomFilter.count();
+    }
+
+    /**
+     * 本地副本加载完成后按副本位图计算，否则按 Redis 估算数量推算
+     */
+    @Override
+    public double fillRatio() {
+        Replica current = replica;
+        if (current == null) {
+            long size = shortUriCreateCachePenetrationBloomFilter.getSize();
+            int hashIterations = shortUriCreateCachePenetrationBloomFilter.getHashIterations();
+            return 1 - Math.exp(-(double) hashIterations * count() / size);
+        }
+        long now = System.currentTimeMillis();
+        if (now - fillRatioComputedAt > FILL_RATIO_CACHE_MILLIS) {
+            long bitCount = 0L;
+            AtomicLongArray bits = current.bits();
+            for (int i = 0; i < bits.length(); i++) {
+                bitCount += Long.bitCount(bits.get(i));
+            }
+            fillRatio = (double) bitCount / current.size();
+            fillRatioComputedAt = now;
+        }
+        return fillRatio;
+    }
+
+    @Override
+    public double estimatedFalseProbability() {
+        return Math.pow(fillRatio(), shortUriCreateCachePenetrationBloomFilter.getHashIterations());
+    }
+
+    @Override
+    public RebuildTarget createRebuildTarget() {
+        String liveName = shortUriCreateCachePenetrationBloomFilter.getName();
+        String rebuildName = liveName + ":rebuild";
+        RBloomFilter<String> rebuildFilter = redissonClient.getBloomFilter(rebuildName);
+        rebuildFilter.delete();
+        rebuildFilter.tryInit(EXPECTED_INSERTIONS, FALSE_PROBABILITY);
+        return new RebuildTarget() {
+
+            @Override
+            public void addAll(Collection<String> fullShortUrls) {
+                rebuildFilter.add(fullShortUrls);
+            }
+
+            @Override
+            public boolean swap() {
+                Long swapped = stringRedisTemplate.execute(
+                        SWAP_SCRIPT,
+                        List.of(rebuildName, RedissonObject.suffixName(rebuildName, "config"), liveName, RedissonObject.suffixName(liveName, "config"))
+                );
+                return swapped != null && swapped == 1L;
+            }
+
+            @Override
+            public void discard() {
+                rebuildFilter.delete();
+            }
+        };
+    }
+
+    private void addLocal(String fullShortUrl) {
+        addLocal(replica, fullShortUrl);
+        addLocal(syncing, fullShortUrl);
+    }
+
+    private void addLocal(Replica target, String fullShortUrl) {
+        if (target == null) {
+            return;
+        }
+        for (long index : indexes(fullShortUrl, target.size(), target.hashIterations())) {
+            orWord(target.bits(), (int) (index >>> 6), 1L << (index & 63));
+        }
+    }
+
+    /**
+     * 分段拷贝 Redis 位图并按位或合并到本地副本，布隆过滤器只会置位，合并顺序不影响结果
+     */
+    private void syncFromRedis() {
+        try {
+            long start = System.currentTimeMillis();
+            long redisSize = shortUriCreateCachePenetrationBloomFilter.getSize();
+            int redisHashIterations = shortUriCreateCachePenetrationBloomFilter.getHashIterations();
+            Replica target = replica;
+            if (target == null || target.size() != redisSize || target.hashIterations() != redisHashIterations) {
+                target = new Replica(new AtomicLongArray((int) ((redisSize + 63) >>> 6)), redisSize, redisHashIterations);
+            }
+            syncing = target;
+            byte[] rawKey = shortUriCreateCachePenetrationBloomFilter.getName().getBytes(StandardCharsets.UTF_8);
+            long totalBytes = (redisSize + 7) >>> 3;
+            // 分段按 8 字节对齐以便整字合并，配置过小时至少拷贝 8 字节，避免偏移量不前进
+            int chunkBytes = Math.max(shortUriBloomFilterReplicaConfiguration.getChunkBytes(), 8) & ~7;
+            for (long offset = 0; offset < totalBytes; offset += chunkBytes) {
+                long begin = offset;
+                long end = Math.min(offset + chunkBytes, totalBytes) - 1;
+                byte[] chunk = stringRedisTemplate.execute((RedisCallback<byte[]>) connection -> connection.stringCommands().getRange(rawKey, begin, end));
+                if (chunk == null || chunk.length == 0) {
+                    // Redis 位图长度取决于最高置位，后续区间均为 0
+                    break;
+                }
+                mergeChunk(target.bits(), begin, chunk);
+            }
+            replica = target;
+            log.info("短链接布隆过滤器本地副本同步完成，位数：{}，耗时：{}ms", redisSize, System.currentTimeMillis() - start);
+        } catch (Throwable ex) {
+            log.error("短链接布隆过滤器本地副本同步失败", ex);
+        } finally {
+            syncing = null;
+        }
+    }
+
+    /**
+     * Redis 位图中偏移量 n 对应第 n / 8 个字节的从高到低第 n % 8 位，
+     * 按大端读取 8 个字节后反转即可得到以偏移量低位为下标的 long
+     */
+    private void mergeChunk(AtomicLongArray targetBits, long byteOffset, byte[] chunk) {
+        int wordIndex = (int) (byteOffset >>> 3);
+        ByteBuffer buffer = ByteBuffer.wrap(chunk);
+        while (buffer.remaining() >= Long.BYTES) {
+            orWord(targetBits, wordIndex++, Long.reverse(buffer.getLong()));
+        }
+        if (buffer.hasRemaining()) {
+            long word = 0L;
+            for (int shift = 56; buffer.hasRemaining(); shift -= 8) {
+                word |= (buffer.get() & 0xFFL) << shift;
+            }
+            orWord(targetBits, wordIndex, Long.reverse(word));
+        }
+    }
+
+    private void orWord(AtomicLongArray targetBits, int wordIndex, long word) {
+        if (word == 0L || wordIndex >= targetBits.length()) {
+            return;
+        }
+        long current;
+        do {
+            current = targetBits.get(wordIndex);
+        } while ((current | word) != current && !targetBits.compareAndSet(wordIndex, current, current | word));
+    }
+
+    /**
+     * 与 Redisson 布隆过滤器相同的下标计算方式
+     */
+    @SneakyThrows
+    private long[] indexes(String fullShortUrl, long currentSize, int iterations) {
+        ByteBuf state = shortUriCreateCachePenetrationBloomFilter.getCodec().getValueEncoder().encode(fullShortUrl);
+        long[] hash;
+        try {
+            hash = Hash.hash128(state);
+        } finally {
+            state.release();
+        }
+        long[] indexes = new long[iterations];
+        long current = hash[0];
+        for (int i = 0; i < iterations; i++) {
+            indexes[i] = (current & Long.MAX_VALUE) % currentSize;
+            current += i % 2 == 0 ? hash[1] : hash[0];
+        }
+        return indexes;
+    }
+
+    private boolean isEnable() {
+        return Boolean.TRUE.equals(shortUriBloomFilterReplicaConfiguration.getEnable());
+    }
+
+    private record Replica(AtomicLongArray bits, long size, int hashIterations) {
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.nageoffer.shortlink.project.cache;
+
+import cn.hutool.core.lang.hash.MurmurHash;
+import com.nageoffer.shortlink.project.config.ShortUriMembershipFilterConfiguration;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RBatch;
+import org.redisson.api.RTopic;
+import org.redisson.api.RTopicAsync;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scripting.support.ResourceScriptSource;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import static com.nageoffer.shortlink.project.common.constant.RedisKeyConstant.SHORT_URI_BLOOM_FILTER_ADD_TOPIC_KEY;
+import static com.nageoffer.shortlink.project.common.constant.RedisKeyConstant.SHORT_URI_COUNTING_FILTER_KEY;
+import static com.nageoffer.shortlink.project.common.constant.RedisKeyConstant.SHORT_URI_COUNTING_FILTER_NON_ZERO_KEY;
+
+/**
+ * 短链接计数布隆过滤器
+ * 每个位置使用 4 位计数器，添加时计数器加一，删除时减一，移入回收站后彻底删除的短链接不再占用过滤器，误判率不会随删除累积上升
+ * 计数器通过 Redis BITFIELD 存储，另外维护非零计数器数量用于计算填充率
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "short-link.membership-filter", name = "type", havingValue = "counting-bloom")
+public class ShortUriCountingBloomFilter implements ShortUriMembershipFilter, InitializingBean {
+
+    private static final String FILTER_NAME = "short-uri";
+    private static final DefaultRedisScript<Long> ADD_SCRIPT = newScript("lua/counting_filter_add.lua");
+    private static final DefaultRedisScript<Long> REMOVE_SCRIPT = newScript("lua/counting_filter_remove.lua");
+    private static final DefaultRedisScript<Long> CONTAINS_SCRIPT = newScript("lua/counting_filter_contains.lua");
+    private static final DefaultRedisScript<Long> SWAP_SCRIPT = newScript("lua/bloom_filter_swap.lua");
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedissonClient redissonClient;
+    private final MeterRegistry meterRegistry;
+    private final ShortUriMembershipFilterConfiguration shortUriMembershipFilterConfiguration;
+
+    private RTopic addTopic;
+    private long size;
+    private int hashIterations;
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        long expectedInsertions = shortUriMembershipFilterConfiguration.getCountingExpectedInsertions();
+        double falseProbability = shortUriMembershipFilterConfiguration.getCountingFalseProbability();
+        size = (long) (-expectedInsertions * Math.log(falseProbability) / (Math.log(2) * Math.log(2)));
+        hashIterations = Math.max(1, (int) Math.round((double) size / expectedInsertions * Math.log(2)));
+        addTopic = redissonClient.getTopic(SHORT_URI_BLOOM_FILTER_ADD_TOPIC_KEY, StringCodec.INSTANCE);
+        Gauge.builder("short-link.membership-filter.fill-ratio", this, ShortUriMembershipFilter::fillRatio)
+                .tag("type", "counting-bloom")
+                .register(meterRegistry);
+        Gauge.builder("short-link.membership-filter.false-probability", this, ShortUriMembershipFilter::estimatedFalseProbability)
+                .tag("type", "counting-bloom")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public boolean contains(String fullShortUrl) {
+        Long result = stringRedisTemplate.execute(CONTAINS_SCRIPT, List.of(countersKey(FILTER_NAME)), indexes(fullShortUrl));
+        return result != null && result == 1L;
+    }
+
+    @Override
+    public void add(String fullShortUrl) {
+        stringRedisTemplate.execute(ADD_SCRIPT, List.of(countersKey(FILTER_NAME), nonZeroKey(FILTER_NAME)), indexes(fullShortUrl));
+        try {
+            addTopic.publish(fullShortUrl);
+        } catch (Throwable ex) {
+            log.error("广播成员过滤器新增短链接失败，短链接：{}", fullShortUrl, ex);
+        }
+    }
+
+    @Override
+    public void addAll(Collection<String> fullShortUrls) {
+        addAll(FILTER_NAME, fullShortUrls);
+        publishAll(fullShortUrls);
+    }
+
+    private void publishAll(Collection<String> fullShortUrls) {
+        try {
+            RBatch batch = redissonClient.createBatch();
+            RTopicAsync batchAddTopic = batch.getTopic(SHORT_URI_BLOOM_FILTER_ADD_TOPIC_KEY, StringCodec.INSTANCE);
+            fullShortUrls.forEach(batchAddTopic::publishAsync);
+            batch.execute();
+        } catch (Throwable ex) {
+            log.error("批量广播成员过滤器新增短链接失败，数量：{}", fullShortUrls.size(), ex);
+        }
+    }
+
+    @Override
+    public boolean remove(String fullShortUrl) {
+        Long result = stringRedisTemplate.execute(REMOVE_SCRIPT, List.of(countersKey(FILTER_NAME), nonZeroKey(FILTER_NAME)), indexes(fullShortUrl));
+        return result != null && result == 1L;
+    }
+
+    @Override
+    public long count() {
+        double ratio = fillRatio();
+        return ratio >= 1D ? size : Math.round(-(double) size / hashIterations * Math.log(1 - ratio));
+    }
+
+    @Override
+    public double fillRatio() {
+        String nonZero = stringRedisTemplate.opsForValue().get(nonZeroKey(FILTER_NAME));
+        return nonZero == null ? 0D : Math.min(1D, Long.parseLong(nonZero) / (double) size);
+    }
+
+    @Override
+    public double estimatedFalseProbability() {
+        return Math.pow(fillRatio(), hashIterations);
+    }
+
+    @Override
+    public RebuildTarget createRebuildTarget() {
+        String rebuildName = FILTER_NAME + ":rebuild";
+        stringRedisTemplate.delete(List.of(countersKey(rebuildName), nonZeroKey(rebuildName)));
+        // 空过滤器同样需要元数据 Key，替换时以此判断重建过滤器存在
+        stringRedisTemplate.opsForValue().set(nonZeroKey(rebuildName), "0");
+        return new RebuildTarget() {
+
+            @Override
+            public void addAll(Collection<String> fullShortUrls) {
+                ShortUriCountingBloomFilter.this.addAll(rebuildName, fullShortUrls);
+            }
+
+            @Override
+            public boolean swap() {
+                Long swapped = stringRedisTemplate.execute(
+                        SWAP_SCRIPT,
+                        List.of(countersKey(rebuildName), nonZeroKey(rebuildName), countersKey(FILTER_NAME), nonZeroKey(FILTER_NAME))
+                );
+                return swapped != null && swapped == 1L;
+            }
+
+            @Override
+            public void discard() {
+                stringRedisTemplate.delete(List.of(countersKey(rebuildName), nonZeroKey(rebuildName)));
+            }
+        };
+    }
+
+    /**
+     * 所有元素的计数器下标合并为一次脚本调用
+     */
+    private void addAll(String filterName, Collection<String> fullShortUrls) {
+        Object[] indexes = fullShortUrls.stream()
+                .flatMap(each -> Arrays.stream(indexes(each)))
+                .toArray();
+        stringRedisTemplate.execute(ADD_SCRIPT, List.of(countersKey(filterName), nonZeroKey(filterName)), indexes);
+    }
+
+    /**
+     * 双重哈希计算计数器下标，同一元素重复的下标只保留一个，保证添加与删除对称
+     */
+    private Object[] indexes(String fullShortUrl) {
+        long[] hash = MurmurHash.hash128(fullShortUrl.getBytes(StandardCharsets.UTF_8));
+        long[] indexes = new long[hashIterations];
+        long current = hash[0];
+        for (int i = 0; i < hashIterations; i++) {
+            indexes[i] = (current & Long.MAX_VALUE) % size;
+            current += hash[1];
+        }
+        return Arrays.stream(indexes).distinct().mapToObj(String::valueOf).toArray();
+    }
+
+    private static String countersKey(String filterName) {
+        return String.format(SHORT_URI_COUNTING_FILTER_KEY, filterName);
+    }
+
+    private static String nonZeroKey(String filterName) {
+        return String.format(SHORT_URI_COUNTING_FILTER_NON_ZERO_KEY, filterName);
+    }
+
+    private static DefaultRedisScript<Long> newScript(String path) {
+        DefaultRedisScript<Long> script = new DefaultRedisScript<>();
+        script.setScriptSource(new ResourceScriptSource(new ClassPathResource(path)));
+        script.setResultType(Long.class);
+        return script;
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.nageoffer.shortlink.project.cache;
+
+import java.util.Collection;
+
+/**
+ * 短链接成员过滤器
+ * 用于短链接生成时快速判重以及跳转时拦截不存在的短链接，判断不存在时一定不存在，判断存在时可能误判
+ */
+public interface ShortUriMembershipFilter {
+
+    /**
+     * 判断短链接是否可能存在
+     *
+     * @param fullShortUrl 完整短链接
+     * @return 不存在时一定返回 false
+     */
+    boolean contains(String fullShortUrl);
+
+    /**
+     * 添加短链接，并广播到所有节点
+     *
+     * @param fullShortUrl 完整短链接
+     */
+    void add(String fullShortUrl);
+
+    /**
+     * 批量添加短链接，合并 Redis 写入以及广播
+     *
+     * @param fullShortUrls 完整短链接集合
+     */
+    void addAll(Collection<String> fullShortUrls);
+
+    /**
+     * 删除短链接，只允许删除确实添加过的短链接
+     * 不支持删除的实现中短链接会一直被判定为存在，彻底删除后其后缀不会被重新分配
+     *
+     * @param fullShortUrl 完整短链接
+     * @return 是否删除成功，不支持删除的实现返回 false
+     */
+    boolean remove(String fullShortUrl);
+
+    /**
+     * 估算已添加的短链接数量
+     */
+    long count();
+
+    /**
+     * 已使用的位或计数器比例
+     */
+    double fillRatio();
+
+    /**
+     * 按当前填充率估算的误判率
+     */
+    double estimatedFalseProbability();
+
+    /**
+     * 在新的 Key 下创建空过滤器，用于数据丢失后重建
+     */
+    RebuildTarget createRebuildTarget();
+
+    /**
+     * 重建中的过滤器
+     */
+    interface RebuildTarget {
+
+        /**
+         * 批量添加短链接
+         */
+        void addAll(Collection<String> fullShortUrls);
+
+        /**
+         * 原子替换线上过滤器
+         *
+         * @return 是否替换成功
+         */
+        boolean swap();
+
+        /**
+         * 重建失败时丢弃
+         */
+        void discard();
+    }
+}
@@ -0,0 +1,345 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.nageoffer.shortlink.project.cache;
+
+import cn.hutool.core.lang.hash.MurmurHash;
+import com.nageoffer.shortlink.project.config.ShortUriMembershipFilterConfiguration;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RBatch;
+import org.redisson.api.RTopic;
+import org.redisson.api.RTopicAsync;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scripting.support.ResourceScriptSource;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static com.nageoffer.shortlink.project.common.constant.RedisKeyConstant.SHORT_URI_BLOOM_FILTER_ADD_TOPIC_KEY;
+import static com.nageoffer.shortlink.project.common.constant.RedisKeyConstant.SHORT_URI_SHARDED_FILTER_KEY;
+import static com.nageoffer.shortlink.project.common.constant.RedisKeyConstant.SHORT_URI_SHARDED_FILTER_META_KEY;
+
+/**
+ * 短链接分片可扩容布隆过滤器
+ * 短链接按哈希分散到多个分片，每个分片使用独立的 Hash Tag，读写压力以及内存分散到 Redis Cluster 的不同节点
+ * 每个分片由多代布隆过滤器组成，新元素只写入最新一代，最新一代达到容量阈值后在脚本中原子开启下一代，
+ * 每一代容量按倍数增长、误判率按比例收紧，所有代合计的误判率不超过配置值
+ * 每一代的位大小与哈希次数由配置推导，客户端一次计算所有代的位下标，脚本内按当前代数判断，无需同步元数据
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "short-link.membership-filter", name = "type", havingValue = "sharded-bloom")
+public class ShortUriShardedBloomFilter implements ShortUriMembershipFilter, InitializingBean {
+
+    private static final String FILTER_NAME = "short-uri";
+
+    /**
+     * 线上分片 Key 空间
+     */
+    private static final String LIVE_SCOPE = "";
+
+    /**
+     * 重建分片 Key 空间，与线上分片使用同一个 Hash Tag，替换脚本中的 RENAME 不会跨槽位
+     */
+    private static final String REBUILD_SCOPE = ":rebuild";
+
+    /**
+     * 每一代误判率相对上一代的收紧比例
+     */
+    private static final double TIGHTENING_RATIO = 0.5D;
+
+    /**
+     * Redis 字符串最大 512MB，单个位图最多 2^32 位
+     */
+    private static final long MAX_BITMAP_SIZE = 1L << 32;
+
+    private static final DefaultRedisScript<Long> ADD_SCRIPT = newScript("lua/sharded_bloom_filter_add.lua");
+    private static final DefaultRedisScript<Long> CONTAINS_SCRIPT = newScript("lua/sharded_bloom_filter_contains.lua");
+    private static final DefaultRedisScript<Long> SWAP_SCRIPT = newScript("lua/sharded_bloom_filter_swap.lua");
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedissonClient redissonClient;
+    private final MeterRegistry meterRegistry;
+    private final ShortUriMembershipFilterConfiguration shortUriMembershipFilterConfiguration;
+
+    private RTopic addTopic;
+    private int partitions;
+    private int maxGenerations;
+    private long[] capacities;
+    private long[] sizes;
+    private int[] hashIterations;
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        partitions = shortUriMembershipFilterConfiguration.getShardedPartitions();
+        long initialCapacity = (shortUriMembershipFilterConfiguration.getShardedExpectedInsertions() + partitions - 1) / partitions;
+        double falseProbability = shortUriMembershipFilterConfiguration.getShardedFalseProbability() * (1 - TIGHTENING_RATIO);
+        List<long[]> generations = new ArrayList<>();
+        long capacity = initialCapacity;
+        for (int generation = 0; generation < shortUriMembershipFilterConfiguration.getShardedMaxGenerations(); generation++) {
+            long size = (long) Math.ceil(-capacity * Math.log(falseProbability) / (Math.log(2) * Math.log(2)));
+            if (size > MAX_BITMAP_SIZE) {
+                log.warn("短链接分片布隆过滤器第 {} 代位图超过 Redis 字符串上限，最大代数调整为 {}", generation + 1, generation);
+                break;
+            }
+            generations.add(new long[]{capacity, size, Math.max(1, Math.round((double) size / capacity * Math.log(2)))});
+            capacity *= shortUriMembershipFilterConfiguration.getShardedGrowthFactor();
+            falseProbability *= TIGHTENING_RATIO;
+        }
+        maxGenerations = generations.size();
+        capacities = generations.stream().mapToLong(each -> each[0]).toArray();
+        sizes = generations.stream().mapToLong(each -> each[1]).toArray();
+        hashIterations = generations.stream().mapToInt(each -> (int) each[2]).toArray();
+        addTopic = redissonClient.getTopic(SHORT_URI_BLOOM_FILTER_ADD_TOPIC_KEY, StringCodec.INSTANCE);
+        Gauge.builder("short-link.membership-filter.fill-ratio", this, ShortUriMembershipFilter::fillRatio)
+                .tag("type", "sharded-bloom")
+                .register(meterRegistry);
+        Gauge.builder("short-link.membership-filter.false-probability", this, ShortUriMembershipFilter::estimatedFalseProbability)
+                .tag("type", "sharded-bloom")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public boolean contains(String fullShortUrl) {
+        long[] hash = hash(fullShortUrl);
+        Long result = stringRedisTemplate.execute(CONTAINS_SCRIPT, keys(LIVE_SCOPE, partition(hash)), args(hash));
+        return result != null && result == 1L;
+    }
+
+    @Override
+    public void add(String fullShortUrl) {
+        long[] hash = hash(fullShortUrl);
+        stringRedisTemplate.execute(ADD_SCRIPT, keys(LIVE_SCOPE, partition(hash)), args(hash));
+        try {
+            addTopic.publish(fullShortUrl);
+        } catch (Throwable ex) {
+            log.error("广播成员过滤器新增短链接失败，短链接：{}", fullShortUrl, ex);
+        }
+    }
+
+    @Override
+    public void addAll(Collection<String> fullShortUrls) {
+        addAll(LIVE_SCOPE, fullShortUrls);
+        publishAll(fullShortUrls);
+    }
+
+    private void publishAll(Collection<String> fullShortUrls) {
+        try {
+            RBatch batch = redissonClient.createBatch();
+            RTopicAsync batchAddTopic = batch.getTopic(SHORT_URI_BLOOM_FILTER_ADD_TOPIC_KEY, StringCodec.INSTANCE);
+            fullShortUrls.forEach(batchAddTopic::publishAsync);
+            batch.execute();
+        } catch (Throwable ex) {
+            log.error("批量广播成员过滤器新增短链接失败，数量：{}", fullShortUrls.size(), ex);
+        }
+    }
+
+    /**
+     * 布隆过滤器的位被多个短链接共享，不支持删除
+     * 彻底删除的短链接仍然保留在过滤器中，生成短链接时视为已占用，被释放的后缀不会再次分配；需要回收后缀时使用 counting-bloom
+     */
+    @Override
+    public boolean remove(String fullShortUrl) {
+        return false;
+    }
+
+    @Override
+    public long count() {
+        long total = 0L;
+        for (int partition = 0; partition < partitions; partition++) {
+            long[] counts = generationCounts(partition);
+            for (long each : counts) {
+                total += each;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * 按每一代元素数量推算已置位比例，按位图大小加权
+     */
+    @Override
+    public double fillRatio() {
+        double setBits = 0D;
+        double totalBits = 0D;
+        for (int partition = 0; partition < partitions; partition++) {
+            long[] counts = generationCounts(partition);
+            for (int generation = 0; generation < counts.length; generation++) {
+                setBits += generationFillRatio(generation, counts[generation]) * sizes[generation];
+                totalBits += sizes[generation];
+            }
+        }
+        return totalBits == 0D ? 0D : setBits / totalBits;
+    }
+
+    /**
+     * 单个分片任意一代误判即误判，取所有分片的平均值
+     */
+    @Override
+    public double estimatedFalseProbability() {
+        double total = 0D;
+        for (int partition = 0; partition < partitions; partition++) {
+            long[] counts = generationCounts(partition);
+            double notFalsePositive = 1D;
+            for (int generation = 0; generation < counts.length; generation++) {
+                notFalsePositive *= 1 - Math.pow(generationFillRatio(generation, counts[generation]), hashIterations[generation]);
+            }
+            total += 1 - notFalsePositive;
+        }
+        return total / partitions;
+    }
+
+    @Override
+    public RebuildTarget createRebuildTarget() {
+        for (int partition = 0; partition < partitions; partition++) {
+            List<String> keys = keys(REBUILD_SCOPE, partition);
+            stringRedisTemplate.delete(keys);
+            // 每个分片都需要元数据 Key，替换时以此判断重建分片存在
+            stringRedisTemplate.opsForHash().put(keys.get(0), "generations", "1");
+        }
+        return new RebuildTarget() {
+
+            @Override
+            public void addAll(Collection<String> fullShortUrls) {
+                ShortUriShardedBloomFilter.this.addAll(REBUILD_SCOPE, fullShortUrls);
+            }
+
+            @Override
+            public boolean swap() {
+                boolean swapped = true;
+                for (int partition = 0; partition < partitions; partition++) {
+                    List<String> keys = new ArrayList<>(keys(REBUILD_SCOPE, partition));
+                    keys.addAll(keys(LIVE_SCOPE, partition));
+                    Long result = stringRedisTemplate.execute(SWAP_SCRIPT, keys);
+                    swapped &= result != null && result == 1L;
+                }
+                return swapped;
+            }
+
+            @Override
+            public void discard() {
+                for (int partition = 0; partition < partitions; partition++) {
+                    stringRedisTemplate.delete(keys(REBUILD_SCOPE, partition));
+                }
+            }
+        };
+    }
+
+    /**
+     * 每个元素所在分片不同，逐个执行脚本并通过管道合并往返
+     */
+    private void addAll(String scope, Collection<String> fullShortUrls) {
+        byte[] script = ADD_SCRIPT.getScriptAsString().getBytes(StandardCharsets.UTF_8);
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (String each : fullShortUrls) {
+                long[] hash = hash(each);
+                List<String> keys = keys(scope, partition(hash));
+                Object[] args = args(hash);
+                byte[][] keysAndArgs = new byte[keys.size() + args.length][];
+                for (int i = 0; i < keys.size(); i++) {
+                    keysAndArgs[i] = keys.get(i).getBytes(StandardCharsets.UTF_8);
+                }
+                for (int i = 0; i < args.length; i++) {
+                    keysAndArgs[keys.size() + i] = args[i].toString().getBytes(StandardCharsets.UTF_8);
+                }
+                connection.scriptingCommands().eval(script, ReturnType.INTEGER, keys.size(), keysAndArgs);
+            }
+            return null;
+        });
+    }
+
+    private double generationFillRatio(int generation, long count) {
+        return 1 - Math.exp(-(double) hashIterations[generation] * count / sizes[generation]);
+    }
+
+    /**
+     * 读取分片每一代的元素数量，数组长度即当前代数
+     */
+    private long[] generationCounts(int partition) {
+        Map<Object, Object> meta = stringRedisTemplate.opsForHash().entries(String.format(SHORT_URI_SHARDED_FILTER_META_KEY, FILTER_NAME, partition, LIVE_SCOPE));
+        Object generations = meta.get("generations");
+        if (generations == null) {
+            return new long[0];
+        }
+        long[] counts = new long[Math.min(Integer.parseInt(generations.toString()), maxGenerations)];
+        for (int generation = 0; generation < counts.length; generation++) {
+            Object count = meta.get("count:" + generation);
+            counts[generation] = count == null ? 0L : Long.parseLong(count.toString());
+        }
+        return counts;
+    }
+
+    private long[] hash(String fullShortUrl) {
+        return MurmurHash.hash128(fullShortUrl.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private int partition(long[] hash) {
+        return (int) Math.floorMod(Long.rotateLeft(hash[0], 32) ^ hash[1], (long) partitions);
+    }
+
+    /**
+     * 脚本参数：填充阈值、最大代数，以及每一代的容量、哈希次数和位下标
+     */
+    private Object[] args(long[] hash) {
+        List<Object> args = new ArrayList<>();
+        args.add(String.valueOf(shortUriMembershipFilterConfiguration.getShardedFillThreshold()));
+        args.add(String.valueOf(maxGenerations));
+        for (int generation = 0; generation < maxGenerations; generation++) {
+            args.add(String.valueOf(capacities[generation]));
+            args.add(String.valueOf(hashIterations[generation]));
+            // 每一代使用不同的起始值，避免多代之间的位下标相关
+            long current = hash[0] + generation * 0x9E3779B97F4A7C15L;
+            for (int i = 0; i < hashIterations[generation]; i++) {
+                args.add(String.valueOf((current & Long.MAX_VALUE) % sizes[generation]));
+                current += hash[1];
+            }
+        }
+        return args.toArray();
+    }
+
+    private List<String> keys(String scope, int partition) {
+        List<String> keys = new ArrayList<>(maxGenerations + 1);
+        keys.add(String.format(SHORT_URI_SHARDED_FILTER_META_KEY, FILTER_NAME, partition, scope));
+        for (int generation = 0; generation < maxGenerations; generation++) {
+            keys.add(String.format(SHORT_URI_SHARDED_FILTER_KEY, FILTER_NAME, partition, scope, generation));
+        }
+        return keys;
+    }
+
+    private static DefaultRedisScript<Long> newScript(String path) {
+        DefaultRedisScript<Long> script = new DefaultRedisScript<>();
+        script.setScriptSource(new ResourceScriptSource(new ClassPathResource(path)));
+        script.setResultType(Long.class);
+        return script;
+    }
+}
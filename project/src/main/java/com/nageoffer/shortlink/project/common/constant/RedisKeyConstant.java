@@ -25,13 +25,19 @@ public class RedisKeyConstant {
 
     /**
      * 短链接跳转前缀 Key
+     * 跳转相关 Key 以 {完整短链接} 作为 Hash Tag，保证 Lua 脚本在 Redis Cluster 中访问的 Key 位于同一槽位
      */
-    public static final String GOTO_SHORT_LINK_KEY = "short-link:goto:%s";
+    public static final String GOTO_SHORT_LINK_KEY = "short-link:goto:{%s}";
+
+    /**
+     * 旧版本短链接跳转 Key 前缀，不带 Hash Tag，仅用于迁移
+     */
+    public static final String LEGACY_GOTO_SHORT_LINK_KEY_PREFIX = "short-link:goto:";
 
     /**
      * 短链接空值跳转前缀 Key
      */
-    public static final String GOTO_IS_NULL_SHORT_LINK_KEY = "short-link:is-null:goto_%s";
+    public static final String GOTO_IS_NULL_SHORT_LINK_KEY = "short-link:is-null:goto_{%s}";
 
     /**
      * 短链接跳转锁前缀 Key
@@ -43,20 +49,75 @@ public class RedisKeyConstant {
      */
     public static final String LOCK_GID_UPDATE_KEY = "short-link:lock:update-gid:%s";
 
+    /**
+     * 短链接修改分组围栏 Key，修改分组前设置，监控消费节点据此对该短链接加读锁
+     */
+    public static final String SHORT_LINK_GID_UPDATE_FENCE_KEY = "short-link:gid-update:fence:%s";
+
+    /**
+     * 布隆过滤器重建锁前缀 Key
+     */
+    public static final String LOCK_BLOOM_FILTER_REBUILD_KEY = "short-link:lock:bloom-filter-rebuild:%s";
+
     /**
      * 短链接延迟队列消费统计 Key
      */
     public static final String DELAY_QUEUE_STATS_KEY = "short-link:delay-queue:stats";
 
     /**
-     * 短链接统计判断是否新用户缓存标识
+     * 短链接统计判断是否新用户缓存标识，仅 set 去重模式使用
+     */
+    public static final String SHORT_LINK_STATS_UV_KEY = "short-link:stats:uv:{%s}";
+
+    /**
+     * 短链接统计判断是否新 IP 缓存标识，仅 set 去重模式使用
+     */
+    public static final String SHORT_LINK_STATS_UIP_KEY = "short-link:stats:uip:{%s}";
+
+    /**
+     * 旧版本短链接统计判断是否新用户缓存标识前缀，不带 Hash Tag，仅用于迁移
+     */
+    public static final String LEGACY_SHORT_LINK_STATS_UV_KEY_PREFIX = "short-link:stats:uv:";
+
+    /**
+     * 旧版本短链接统计判断是否新 IP 缓存标识前缀，不带 Hash Tag，仅用于迁移
+     */
+    public static final String LEGACY_SHORT_LINK_STATS_UIP_KEY_PREFIX = "short-link:stats:uip:";
+
+    /**
+     * 旧版本 Redis Key 迁移锁标识
+     */
+    public static final String LOCK_LEGACY_KEY_MIGRATION_KEY = "short-link:lock:legacy-key-migration";
+
+    /**
+     * 短链接累计 UV HyperLogLog 计数 Key，不设置过期时间，用于估算累计独立访客数
+     */
+    public static final String SHORT_LINK_STATS_UV_HLL_KEY = "short-link:stats:uv-hll:{%s}";
+
+    /**
+     * 短链接按天分桶 UV 首次访问判断 Set Key，参数依次为完整短链接、日期
+     */
+    public static final String SHORT_LINK_STATS_UV_SEEN_SET_KEY = "short-link:stats:uv-seen:{%s}:%s";
+
+    /**
+     * 短链接按天分桶 UV 首次访问判断位图 Key
      */
-    public static final String SHORT_LINK_STATS_UV_KEY = "short-link:stats:uv:";
+    public static final String SHORT_LINK_STATS_UV_SEEN_BITMAP_KEY = "short-link:stats:uv-seen-bitmap:{%s}:%s";
 
     /**
-     * 短链接统计判断是否新 IP 缓存标识
+     * 短链接累计 UIP HyperLogLog 计数 Key，不设置过期时间，用于估算累计独立 IP 数
      */
-    public static final String SHORT_LINK_STATS_UIP_KEY = "short-link:stats:uip:";
+    public static final String SHORT_LINK_STATS_UIP_HLL_KEY = "short-link:stats:uip-hll:{%s}";
+
+    /**
+     * 短链接按天分桶 UIP 首次访问判断 Set Key
+     */
+    public static final String SHORT_LINK_STATS_UIP_SEEN_SET_KEY = "short-link:stats:uip-seen:{%s}:%s";
+
+    /**
+     * 短链接按天分桶 UIP 首次访问判断位图 Key
+     */
+    public static final String SHORT_LINK_STATS_UIP_SEEN_BITMAP_KEY = "short-link:stats:uip-seen-bitmap:{%s}:%s";
 
     /**
      * 短链接监控消息保存队列 Topic 缓存标识
@@ -68,8 +129,49 @@ public class RedisKeyConstant {
      */
     public static final String SHORT_LINK_STATS_STREAM_GROUP_KEY = "short-link:stats-stream:only-group";
 
+    /**
+     * 短链接监控消息保存队列死信 Stream，超过最大投递次数仍未确认的消息转入其中
+     */
+    public static final String SHORT_LINK_STATS_STREAM_DEAD_LETTER_KEY = "short-link:stats-stream:dead-letter";
+
+    /**
+     * 短链接编码序号 Key，参数为编码长度
+     */
+    public static final String SHORT_LINK_CODE_SEQUENCE_KEY = "short-link:code-sequence:%d";
+
     /**
      * 创建短链接锁标识
      */
     public static final String SHORT_LINK_CREATE_LOCK_KEY = "short-link:lock:create";
+
+    /**
+     * 短链接跳转本地缓存失效广播 Topic
+     */
+    public static final String SHORT_LINK_LOCAL_CACHE_INVALIDATE_TOPIC_KEY = "short-link:local-cache:invalidate";
+
+    /**
+     * 短链接计数布隆过滤器计数器 Key，参数为过滤器名称
+     */
+    public static final String SHORT_URI_COUNTING_FILTER_KEY = "short-link:counting-filter:{%s}";
+
+    /**
+     * 短链接计数布隆过滤器非零计数器数量 Key
+     */
+    public static final String SHORT_URI_COUNTING_FILTER_NON_ZERO_KEY = "short-link:counting-filter:{%s}:non-zero";
+
+    /**
+     * 短链接分片布隆过滤器元数据 Key，参数依次为过滤器名称、分片序号、Key 空间
+     * Key 空间位于 Hash Tag 之外，线上分片为空字符串，重建分片与对应线上分片落在同一个槽位
+     */
+    public static final String SHORT_URI_SHARDED_FILTER_META_KEY = "short-link:sharded-filter:{%s-%d}%s:meta";
+
+    /**
+     * 短链接分片布隆过滤器位图 Key，参数依次为过滤器名称、分片序号、Key 空间、代数
+     */
+    public static final String SHORT_URI_SHARDED_FILTER_KEY = "short-link:sharded-filter:{%s-%d}%s:%d";
+
+    /**
+     * 短链接布隆过滤器新增广播 Topic
+     */
+    public static final String SHORT_URI_BLOOM_FILTER_ADD_TOPIC_KEY = "short-link:bloom-filter:add";
 }
@@ -28,6 +28,11 @@ public class ShortLinkConstant {
      */
     public static final long DEFAULT_CACHE_VALID_TIME = 2626560000L;
 
+    /**
+     * 永久短链接缓存有效时间随机抖动上限，默认三天，避免同一批创建的短链接缓存同时失效
+     */
+    public static final long DEFAULT_CACHE_VALID_TIME_JITTER = 259200000L;
+
     /**
      * 高德获取地区接口地址
      */
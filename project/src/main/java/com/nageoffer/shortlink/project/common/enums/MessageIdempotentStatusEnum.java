@@ -0,0 +1,40 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.nageoffer.shortlink.project.common.enums;
+
+/**
+ * 消息幂等占用结果
+ */
+public enum MessageIdempotentStatusEnum {
+
+    /**
+     * 本次占用成功，需要执行消费流程
+     */
+    CLAIMED,
+
+    /**
+     * 消息已消费完成，直接跳过
+     */
+    ACCOMPLISHED,
+
+    /**
+     * 消息正在其他线程消费中，需要稍后重试
+     */
+    PROCESSING
+}
@@ -29,13 +29,23 @@ import org.springframework.context.annotation.Configuration;
 @Configuration
 public class RBloomFilterConfiguration {
 
+    /**
+     * 布隆过滤器预计元素数量，重建时使用相同参数初始化
+     */
+    public static final long EXPECTED_INSERTIONS = 100000000L;
+
+    /**
+     * 布隆过滤器误判率
+     */
+    public static final double FALSE_PROBABILITY = 0.001;
+
     /**
      * 防止短链接创建查询数据库的布隆过滤器
      */
     @Bean
     public RBloomFilter<String> shortUriCreateCachePenetrationBloomFilter(RedissonClient redissonClient) {
         RBloomFilter<String> cachePenetrationBloomFilter = redissonClient.getBloomFilter("shortUriCreateCachePenetrationBloomFilter");
-        cachePenetrationBloomFilter.tryInit(100000000L, 0.001);
+        cachePenetrationBloomFilter.tryInit(EXPECTED_INSERTIONS, FALSE_PROBABILITY);
         return cachePenetrationBloomFilter;
     }
 }
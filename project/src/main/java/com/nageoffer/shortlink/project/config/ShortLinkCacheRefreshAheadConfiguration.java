@@ -0,0 +1,56 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.nageoffer.shortlink.project.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 短链接跳转缓存提前刷新配置文件
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "short-link.cache.refresh-ahead")
+public class ShortLinkCacheRefreshAheadConfiguration {
+
+    /**
+     * 是否开启提前刷新
+     */
+    private Boolean enable = Boolean.TRUE;
+
+    /**
+     * 跳转缓存剩余有效时间低于默认有效时间的该比例时，后台异步回源数据库刷新，刷新期间继续使用当前缓存
+     */
+    private Double ratio = 0.1D;
+
+    /**
+     * 后台刷新线程数
+     */
+    private Integer concurrency = 2;
+
+    /**
+     * 等待刷新的短链接上限，超出后丢弃刷新任务，由下次访问再次触发
+     */
+    private Integer queueCapacity = 1024;
+
+    /**
+     * 同一短链接两次刷新的最小间隔，单位：秒，有效期短链接的缓存无法延长，避免反复刷新
+     */
+    private Long minRefreshInterval = 300L;
+}
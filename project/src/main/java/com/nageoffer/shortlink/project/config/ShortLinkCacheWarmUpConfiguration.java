@@ -0,0 +1,66 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.nageoffer.shortlink.project.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 短链接跳转缓存预热配置文件
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "short-link.cache.warm-up")
+public class ShortLinkCacheWarmUpConfiguration {
+
+    /**
+     * 是否开启缓存预热，开启后预热完成前节点就绪检查返回未就绪
+     */
+    private Boolean enable = Boolean.TRUE;
+
+    /**
+     * 启动时按累计访问量预热的短链接数量
+     */
+    private Integer totalTopN = 10000;
+
+    /**
+     * 按今日访问量预热的短链接数量，启动以及定时预热都会执行
+     */
+    private Integer todayTopN = 1000;
+
+    /**
+     * 同时写入本地缓存的短链接数量，按访问量从高到低，不超过本地缓存容量
+     */
+    private Integer localTopN = 1000;
+
+    /**
+     * 每批写入 Redis 的短链接数量，一批使用一次管道
+     */
+    private Integer batchSize = 500;
+
+    /**
+     * 同时写入 Redis 的批次数
+     */
+    private Integer concurrency = 4;
+
+    /**
+     * 定时预热新热点短链接的间隔，单位：分钟
+     */
+    private Long refreshInterval = 10L;
+}
@@ -0,0 +1,57 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.nageoffer.shortlink.project.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 短链接编码池配置文件
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "short-link.code-pool")
+public class ShortLinkCodePoolConfiguration {
+
+    /**
+     * 是否开启编码池，关闭时使用哈希加布隆过滤器重试生成
+     * 默认关闭，开启时必须同时配置置换密钥，否则启动失败
+     */
+    private Boolean enable = Boolean.FALSE;
+
+    /**
+     * 编码长度，默认 7 位，哈希生成的历史编码最长 6 位，两者不会重复
+     */
+    private Integer length = 7;
+
+    /**
+     * 每次从 Redis 序号中预留的编码数量
+     */
+    private Integer blockSize = 1000;
+
+    /**
+     * 当前号段剩余比例低于该值时异步预留下一个号段
+     */
+    private Double prefetchRatio = 0.2;
+
+    /**
+     * 编码置换密钥，开启编码池时必须配置且不能使用默认值 short-link，上线后不可修改
+     */
+    private String secret;
+}
@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.nageoffer.shortlink.project.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 短链接网站图标异步补全配置文件
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "short-link.favicon")
+public class ShortLinkFaviconConfiguration {
+
+    /**
+     * 是否开启网站图标异步补全，关闭后新建短链接不再获取网站图标
+     */
+    private Boolean enable = Boolean.TRUE;
+
+    /**
+     * 获取网站图标的工作线程数
+     */
+    private Integer concurrency = 4;
+
+    /**
+     * 等待获取网站图标的任务队列容量，队列已满时丢弃任务，短链接保持无图标
+     */
+    private Integer queueCapacity = 10000;
+
+    /**
+     * 访问目标网站的超时时间，单位：毫秒
+     */
+    private Integer timeout = 3000;
+
+    /**
+     * 读取目标网站页面的最大字节数，图标声明位于页面头部，无需读取完整页面
+     */
+    private Integer maxBodySize = 1048576;
+
+    /**
+     * 按站点缓存网站图标的最大条目数
+     */
+    private Long domainCacheSize = 10000L;
+
+    /**
+     * 按站点缓存网站图标的存活时间，单位：秒
+     */
+    private Long domainCacheExpire = 3600L;
+}
@@ -0,0 +1,42 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.nageoffer.shortlink.project.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 短链接修改分组围栏配置文件
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "short-link.gid-update.fence")
+public class ShortLinkGidUpdateFenceConfiguration {
+
+    /**
+     * 设置围栏后等待的时间，单位：毫秒，需大于消费事务提交前检查围栏到提交完成的耗时，等待期间未感知围栏的消费事务完成提交
+     */
+    private Long gracePeriod = 1000L;
+
+    /**
+     * 围栏 Key 的有效期，期间消费节点对该短链接加读锁，单位：秒，需大于修改分组的最长耗时
+     */
+    private Long duration = 60L;
+}
@@ -0,0 +1,59 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.nageoffer.shortlink.project.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 短链接访问地域解析配置文件
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "short-link.stats.locale")
+public class ShortLinkIpLocaleConfiguration {
+
+    /**
+     * 离线 IP 地域库路径，支持文件路径以及 classpath: 前缀的类路径资源，文件路径以内存映射方式加载，为空时不使用离线地域库
+     * 地域库由 CSV 生成，生成步骤见 {@link com.nageoffer.shortlink.project.toolkit.IpRegionSearcher}
+     */
+    private String databasePath;
+
+    /**
+     * 最近查询 IP 的本地缓存最大条目数
+     */
+    private Long cacheSize = 100000L;
+
+    /**
+     * 离线地域库未加载或未命中时是否调用高德 IP 定位接口兜底
+     * 默认关闭，每个新 IP 都会发起一次远程调用，未配置离线地域库时访问地域均记录为未知
+     */
+    private Boolean amapFallback = Boolean.FALSE;
+
+    /**
+     * 高德 IP 定位接口 Key
+     */
+    private String amapKey;
+
+    /**
+     * 高德 IP 定位接口超时时间，单位：毫秒
+     */
+    private Integer amapTimeout = 2000;
+}
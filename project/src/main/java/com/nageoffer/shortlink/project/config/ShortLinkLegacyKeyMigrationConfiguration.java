@@ -0,0 +1,42 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.nageoffer.shortlink.project.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 旧版本 Redis Key 迁移配置文件
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "short-link.legacy-key-migration")
+public class ShortLinkLegacyKeyMigrationConfiguration {
+
+    /**
+     * 是否在启动后迁移不带 Hash Tag 的旧版本跳转缓存以及 UV、UIP 去重集合，所有节点升级完成后可关闭
+     */
+    private Boolean enable = Boolean.TRUE;
+
+    /**
+     * 每次 SCAN 以及 SSCAN 返回的数量
+     */
+    private Integer scanCount = 1000;
+}
@@ -0,0 +1,66 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.nageoffer.shortlink.project.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 短链接不存在本地缓存以及扫描防护配置文件
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "short-link.cache.negative")
+public class ShortLinkNegativeCacheConfiguration {
+
+    /**
+     * 是否开启不存在短链接本地缓存以及扫描防护
+     */
+    private Boolean enable = Boolean.TRUE;
+
+    /**
+     * 本地缓存不存在短链接的最大条目数
+     */
+    private Long maximumSize = 100000L;
+
+    /**
+     * 本地缓存不存在短链接的存活时间，单位：秒
+     */
+    private Long expireAfterWrite = 300L;
+
+    /**
+     * 扫描检测统计窗口，单位：秒
+     */
+    private Long scanWindow = 60L;
+
+    /**
+     * 统计窗口内同一 IP 需要查询空值缓存或数据库才能确认不存在的次数超过该值时判定为扫描，布隆过滤器判定不存在的访问不计入
+     */
+    private Integer scanThreshold = 30;
+
+    /**
+     * 判定为扫描的 IP 限制时长，单位：秒，限制期间只允许命中本地缓存以及 Redis 跳转缓存的跳转
+     */
+    private Long scanBlockDuration = 600L;
+
+    /**
+     * 每个节点每秒最多写入 Redis 的空值缓存数量，超出后只记录本地缓存，避免扫描产生大量 Redis Key
+     */
+    private Integer nullKeyMaxPerSecond = 200;
+}
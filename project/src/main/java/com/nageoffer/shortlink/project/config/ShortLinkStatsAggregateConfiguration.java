@@ -0,0 +1,41 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.nageoffer.shortlink.project.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 短链接监控指标节点内预聚合配置文件
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "short-link.stats.aggregate")
+public class ShortLinkStatsAggregateConfiguration {
+
+    /**
+     * 是否开启预聚合，开启后访问量、操作系统、浏览器等可累加指标在节点内合并后定期发送，访问日志仍逐条发送
+     */
+    private Boolean enable = Boolean.TRUE;
+
+    /**
+     * 预聚合刷新间隔，单位：秒
+     */
+    private Long flushInterval = 5L;
+}
@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.nageoffer.shortlink.project.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 短链接监控消息消费者批量消费配置文件
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "short-link.stats.consumer")
+public class ShortLinkStatsConsumerConfiguration {
+
+    /**
+     * 是否开启批量消费，关闭后每条消息单独写库
+     */
+    private Boolean batchEnable = Boolean.TRUE;
+
+    /**
+     * 单次消费的最大消息数，RocketMQ 限制取值范围为 1 到 1024
+     */
+    private Integer consumeBatchSize = 256;
+
+    /**
+     * 单次从 Broker 拉取的最大消息数，不小于单次消费的最大消息数时批次才能攒满
+     */
+    private Integer pullBatchSize = 256;
+
+    /**
+     * 是否开启顺序消费，需配合生产者按短链接分区发送，每个队列由一个线程独占消费，同一短链接的监控行不再出现跨线程锁等待
+     */
+    private Boolean orderlyEnable = Boolean.TRUE;
+
+    /**
+     * 顺序消费的最大重试次数，超过后消息进入死信队列，队列继续消费后续消息
+     * RocketMQ 顺序消费默认无限重试，一条始终失败的消息会让所在队列一直暂停
+     */
+    private Integer orderlyMaxReconsumeTimes = 16;
+
+    /**
+     * 幂等模式
+     * redis：按批占用以及完成 Redis 幂等标识，每批各一次往返
+     * database：携带访问日志的消息通过访问日志表的消息唯一标识去重，不访问 Redis，预聚合消息仍使用 Redis 幂等标识，
+     * 已部署环境需要先执行 resources/database/link-upgrade.sql 为访问日志表增加 msg_id 列以及唯一索引
+     */
+    private String idempotentMode = "redis";
+
+    public boolean isDatabaseIdempotentMode() {
+        return "database".equals(idempotentMode);
+    }
+}
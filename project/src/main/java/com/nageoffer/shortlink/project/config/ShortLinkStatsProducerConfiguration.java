@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.nageoffer.shortlink.project.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 短链接监控消息生产者批量发送配置文件
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "short-link.stats.producer")
+public class ShortLinkStatsProducerConfiguration {
+
+    /**
+     * 是否开启批量发送，关闭后每次访问同步发送一条消息
+     */
+    private Boolean batchEnable = Boolean.TRUE;
+
+    /**
+     * 本地缓冲区容量，缓冲区已满时丢弃新消息，避免阻塞短链接跳转
+     */
+    private Integer bufferSize = 65536;
+
+    /**
+     * 单批最大消息数，RocketMQ 单批消息总大小不能超过 4MB
+     */
+    private Integer flushSize = 256;
+
+    /**
+     * 攒批最长等待时间，单位：毫秒
+     */
+    private Long flushInterval = 50L;
+
+    /**
+     * 应用关闭时等待缓冲区发送完毕的最长时间，单位：毫秒
+     */
+    private Long shutdownTimeout = 10000L;
+
+    /**
+     * 批量发送失败后的重试次数，重试仍失败的消息计入丢弃数
+     */
+    private Integer sendRetryTimes = 2;
+
+    /**
+     * 批量发送失败后首次重试的等待时间，之后每次重试翻倍，单位：毫秒
+     */
+    private Long sendRetryBackoff = 100L;
+
+    /**
+     * 是否按完整短链接哈希选择队列，同一短链接的消息始终进入同一队列，配合顺序消费避免消费线程之间争抢同一监控行
+     */
+    private Boolean partitionEnable = Boolean.TRUE;
+
+    /**
+     * 短链接哈希分区数，同一分区的消息合并为一批发送到同一队列，建议不小于 Topic 写队列数
+     */
+    private Integer partitions = 16;
+}
@@ -0,0 +1,75 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.nageoffer.shortlink.project.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 短链接监控消息传输配置文件
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "short-link.stats.transport")
+public class ShortLinkStatsTransportConfiguration {
+
+    /**
+     * 传输方式
+     * rocketmq：通过 RocketMQ 发送以及消费
+     * redis-stream：通过 Redis Stream 发送以及消费，无需部署 RocketMQ
+     */
+    private String type = "rocketmq";
+
+    /**
+     * Stream 近似保留的最大消息数，XADD 时按 MAXLEN ~ 裁剪，设置为 0 时不裁剪
+     * 裁剪不区分消息是否已确认，消费积压超过该值时最早的未读取以及未确认消息都会被丢弃，消费者检查待确认列表时发现后输出警告日志
+     */
+    private Integer streamMaxLen = 1000000;
+
+    /**
+     * 每个拉取线程单次 XREADGROUP 读取的最大消息数
+     */
+    private Integer streamReadCount = 256;
+
+    /**
+     * 没有新消息时 XREADGROUP 阻塞等待时间，单位：毫秒
+     */
+    private Long streamBlockTimeout = 2000L;
+
+    /**
+     * 每个节点的拉取线程数
+     */
+    private Integer streamConsumerThreads = 1;
+
+    /**
+     * 已读取但超过该时间未确认的消息由 XAUTOCLAIM 转交给当前消费者重新处理，单位：毫秒
+     */
+    private Long streamClaimIdleTime = 60000L;
+
+    /**
+     * 检查未确认消息的间隔，单位：秒
+     */
+    private Long streamClaimInterval = 30L;
+
+    /**
+     * 消息最大投递次数，XAUTOCLAIM 接管时投递次数超过该值的消息转入死信 Stream 并确认，不再重试
+     */
+    private Integer streamMaxDeliveryCount = 16;
+}
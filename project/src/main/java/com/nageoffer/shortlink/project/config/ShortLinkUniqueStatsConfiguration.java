@@ -0,0 +1,62 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.nageoffer.shortlink.project.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 短链接 UV、UIP 去重统计配置文件
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "short-link.stats.unique")
+public class ShortLinkUniqueStatsConfiguration {
+
+    /**
+     * 去重模式
+     * bucket：累计 HyperLogLog（固定 12KB，不过期）估算累计去重数，按天分桶的首次访问判断结构过期自动清理
+     * set：全量 Set 永久保存访客标识以及 IP，仅用于兼容历史数据
+     */
+    private String mode = "bucket";
+
+    /**
+     * 按天分桶 Key 保留天数
+     */
+    private Integer bucketRetentionDays = 2;
+
+    /**
+     * 首次访问判断先使用精确的 Set，成员数超过该阈值后转为位图布隆过滤器
+     */
+    private Integer firstSeenSetThreshold = 1024;
+
+    /**
+     * 首次访问判断位图位数，默认 2^23 位即 1MB，五十万访客时误判率约千分之四
+     */
+    private Integer firstSeenBitmapBits = 1 << 23;
+
+    /**
+     * 首次访问判断位图哈希次数，取值 1 ~ 5
+     */
+    private Integer firstSeenHashIterations = 3;
+
+    public boolean isBucketMode() {
+        return "bucket".equals(mode);
+    }
+}
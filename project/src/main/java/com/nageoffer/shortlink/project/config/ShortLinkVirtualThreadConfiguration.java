@@ -0,0 +1,49 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.nageoffer.shortlink.project.config;
+
+import com.nageoffer.shortlink.common.toolkit.VirtualThreadUtil;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * 虚拟线程执行模式配置文件
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "short-link.virtual-thread")
+public class ShortLinkVirtualThreadConfiguration {
+
+    /**
+     * 是否开启虚拟线程执行模式，需要运行在 JDK 21 及以上版本，低版本 JDK 自动回退到平台线程
+     */
+    private Boolean enable = Boolean.FALSE;
+
+    /**
+     * 创建后台任务线程工厂，开启虚拟线程执行模式时使用虚拟线程，否则使用平台守护线程
+     *
+     * @param namePrefix 线程名称前缀
+     * @return 线程工厂
+     */
+    public ThreadFactory newThreadFactory(String namePrefix) {
+        return VirtualThreadUtil.newThreadFactory(namePrefix, Boolean.TRUE.equals(enable));
+    }
+}
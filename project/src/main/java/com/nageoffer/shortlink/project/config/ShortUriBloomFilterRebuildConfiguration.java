@@ -0,0 +1,66 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.nageoffer.shortlink.project.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 短链接布隆过滤器重建配置文件
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "short-link.bloom-filter.rebuild")
+public class ShortUriBloomFilterRebuildConfiguration {
+
+    /**
+     * 是否开启布隆过滤器巡检以及重建
+     */
+    private Boolean enable = Boolean.TRUE;
+
+    /**
+     * 巡检间隔，单位：分钟
+     */
+    private Long checkInterval = 60L;
+
+    /**
+     * 布隆过滤器估算数量低于数据库数量的比例超过该值时判定为数据丢失并重建
+     */
+    private Double missingRatio = 0.1;
+
+    /**
+     * 跳转表分表数量
+     */
+    private Integer shardCount = 16;
+
+    /**
+     * 每个分表游标每次查询的数量
+     */
+    private Integer pageSize = 2000;
+
+    /**
+     * 并行读取分表的线程数
+     */
+    private Integer concurrency = 4;
+
+    /**
+     * 所有分表合计每秒最多读取的行数，避免重建时压满数据库
+     */
+    private Integer maxRowsPerSecond = 20000;
+}
@@ -0,0 +1,47 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.nageoffer.shortlink.project.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 短链接布隆过滤器本地副本配置文件
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "short-link.bloom-filter.local-replica")
+public class ShortUriBloomFilterReplicaConfiguration {
+
+    /**
+     * 是否开启布隆过滤器本地副本
+     * 副本与 Redis 中的位图等大，默认一亿容量、千分之一误判率约占用 180MB 堆内存
+     */
+    private Boolean enable = Boolean.TRUE;
+
+    /**
+     * 从 Redis 分段拷贝位图时每段字节数，按 8 字节向下对齐，最小为 8
+     */
+    private Integer chunkBytes = 4 * 1024 * 1024;
+
+    /**
+     * 全量同步 Redis 位图的间隔，单位：分钟，用于弥补发布订阅丢失的新增消息
+     */
+    private Long resyncInterval = 60L;
+}
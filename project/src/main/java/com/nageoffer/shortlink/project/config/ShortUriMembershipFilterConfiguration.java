@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.nageoffer.shortlink.project.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 短链接成员过滤器配置文件
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "short-link.membership-filter")
+public class ShortUriMembershipFilterConfiguration {
+
+    /**
+     * 过滤器类型
+     * bloom：Redisson 布隆过滤器以及本地副本，不支持删除
+     * counting-bloom：Redis 计数布隆过滤器，每个位置使用 4 位计数器，支持删除，内存占用为布隆过滤器的 4 倍
+     * sharded-bloom：Redis 分片可扩容布隆过滤器，按短链接哈希分散到多个 Key，容量不足时自动追加新一代，不支持删除
+     * 不支持删除的类型中，回收站彻底删除的短链接后缀不会再次分配
+     */
+    private String type = "bloom";
+
+    /**
+     * 回收站彻底删除短链接并且成员过滤器移除成功时，是否同时删除监控数据、访问日志以及 UV、UIP 去重结构
+     * 关闭时后缀被重新分配后新短链接会沿用旧的统计数据，开启后删除不可恢复，只对支持删除的过滤器类型生效
+     */
+    private Boolean purgeStatsOnRemove = Boolean.FALSE;
+
+    /**
+     * 计数布隆过滤器预计元素数量
+     */
+    private Long countingExpectedInsertions = 10000000L;
+
+    /**
+     * 计数布隆过滤器误判率
+     */
+    private Double countingFalseProbability = 0.001;
+
+    /**
+     * 分片布隆过滤器分片数量，每个分片使用独立的 Hash Tag，在 Redis Cluster 中分散到不同槽位
+     */
+    private Integer shardedPartitions = 16;
+
+    /**
+     * 分片布隆过滤器第一代所有分片合计的预计元素数量
+     */
+    private Long shardedExpectedInsertions = 100000000L;
+
+    /**
+     * 分片布隆过滤器所有代合计的误判率上限
+     */
+    private Double shardedFalseProbability = 0.001;
+
+    /**
+     * 分片布隆过滤器每一代相对上一代的容量倍数
+     */
+    private Integer shardedGrowthFactor = 2;
+
+    /**
+     * 最新一代元素数量达到容量的该比例后开启下一代
+     */
+    private Double shardedFillThreshold = 1.0;
+
+    /**
+     * 分片布隆过滤器最大代数，单个位图超过 Redis 字符串上限的代数不会开启
+     */
+    private Integer shardedMaxGenerations = 4;
+}
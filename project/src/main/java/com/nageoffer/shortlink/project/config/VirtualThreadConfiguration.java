@@ -0,0 +1,48 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.nageoffer.shortlink.project.config;
+
+import com.nageoffer.shortlink.common.toolkit.VirtualThreadUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 虚拟线程执行模式配置
+ * 开启后 Tomcat 请求处理以及后台任务（网站图标补全、跳转缓存提前刷新、缓存预热、Redis Stream 消费、监控消息发送）运行在虚拟线程上，
+ * 阻塞在 Redis、数据库以及远程调用时不再占用平台线程，后台任务的线程工厂见 {@link ShortLinkVirtualThreadConfiguration#newThreadFactory(String)}
+ * RocketMQ 客户端不支持指定消费线程池，监听容器保持默认的平台线程消费线程数，不通过扩大线程池提升并发
+ * 需要运行在 JDK 21 及以上版本，低版本 JDK 自动回退到平台线程，固定载体线程的排查参数在启动时设置，见 {@link VirtualThreadUtil#initTracePinnedThreads()}
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(prefix = "short-link.virtual-thread", name = "enable", havingValue = "true")
+public class VirtualThreadConfiguration {
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        if (!VirtualThreadUtil.isSupported()) {
+            log.warn("当前 JDK 不支持虚拟线程，Tomcat 继续使用平台线程池，JDK 版本：{}", Runtime.version());
+            return protocolHandler -> {
+            };
+        }
+        return protocolHandler -> protocolHandler.setExecutor(VirtualThreadUtil.newThreadPerTaskExecutor("short-link_tomcat-virtual_"));
+    }
+}
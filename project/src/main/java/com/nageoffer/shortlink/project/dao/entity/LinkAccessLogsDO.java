@@ -17,6 +17,7 @@
 
 package com.nageoffer.shortlink.project.dao.entity;
 
+import com.baomidou.mybatisplus.annotation.TableField;
 import com.baomidou.mybatisplus.annotation.TableName;
 import com.nageoffer.shortlink.project.common.database.BaseDO;
 import lombok.AllArgsConstructor;
@@ -84,4 +85,10 @@ public class LinkAccessLogsDO extends BaseDO {
      * 地区
      */
     private String locale;
+
+    /**
+     * 监控消息唯一标识，仅数据库幂等模式写入，查询时不读取，未执行升级脚本的旧表没有该列
+     */
+    @TableField(select = false)
+    private String msgId;
 }
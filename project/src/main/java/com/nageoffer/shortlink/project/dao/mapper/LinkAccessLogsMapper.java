@@ -22,9 +22,11 @@ import com.nageoffer.shortlink.project.dao.entity.LinkAccessLogsDO;
 import com.nageoffer.shortlink.project.dao.entity.LinkAccessStatsDO;
 import com.nageoffer.shortlink.project.dto.req.ShortLinkGroupStatsReqDTO;
 import com.nageoffer.shortlink.project.dto.req.ShortLinkStatsReqDTO;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
 
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -35,6 +37,32 @@ import java.util.Map;
  */
 public interface LinkAccessLogsMapper extends BaseMapper<LinkAccessLogsDO> {
 
+    /**
+     * 批量插入访问日志，仅数据库幂等模式写入消息唯一标识，未执行升级脚本的旧表没有该列
+     */
+    @Insert("<script> " +
+            "INSERT INTO t_link_access_logs (full_short_url, gid, user, ip, browser, os, network, device, locale, " +
+            "<if test='withMsgId'>msg_id, </if>" +
+            "create_time, update_time, del_flag) VALUES " +
+            "<foreach item='item' collection='linkAccessLogsList' separator=','> " +
+            "(#{item.fullShortUrl}, #{item.gid}, #{item.user}, #{item.ip}, #{item.browser}, #{item.os}, #{item.network}, #{item.device}, #{item.locale}, " +
+            "<if test='withMsgId'>#{item.msgId}, </if>" +
+            "NOW(), NOW(), 0) " +
+            "</foreach>" +
+            "</script>")
+    void insertBatch(@Param("linkAccessLogsList") List<LinkAccessLogsDO> linkAccessLogsList, @Param("withMsgId") boolean withMsgId);
+
+    /**
+     * 查询已写入访问日志的监控消息唯一标识
+     */
+    @Select("<script> " +
+            "SELECT msg_id FROM t_link_access_logs WHERE msg_id IN " +
+            "<foreach item='item' collection='msgIds' open='(' separator=',' close=')'> " +
+            "#{item} " +
+            "</foreach>" +
+            "</script>")
+    List<String> listConsumedMsgIds(@Param("msgIds") Collection<String> msgIds);
+
     /**
      * 根据短链接获取指定日期内高频访问IP数据
      */
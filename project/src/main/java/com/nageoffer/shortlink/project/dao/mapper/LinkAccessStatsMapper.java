@@ -42,6 +42,18 @@ public interface LinkAccessStatsMapper extends BaseMapper<LinkAccessStatsDO> {
             " uip = uip + #{linkAccessStats.uip};")
     void shortLinkStats(@Param("linkAccessStats") LinkAccessStatsDO linkAccessStatsDO);
 
+    /**
+     * 批量记录基础访问监控数据，同一唯一键的访问量已在内存中合并
+     */
+    @Insert("<script> " +
+            "INSERT INTO t_link_access_stats (full_short_url, gid, date, pv, uv, uip, hour, weekday, create_time, update_time, del_flag) VALUES " +
+            "<foreach item='item' collection='linkAccessStatsList' separator=','> " +
+            "(#{item.fullShortUrl}, #{item.gid}, #{item.date}, #{item.pv}, #{item.uv}, #{item.uip}, #{item.hour}, #{item.weekday}, NOW(), NOW(), 0) " +
+            "</foreach> " +
+            "ON DUPLICATE KEY UPDATE pv = pv + VALUES(pv), uv = uv + VALUES(uv), uip = uip + VALUES(uip)" +
+            "</script>")
+    void shortLinkStatsBatch(@Param("linkAccessStatsList") List<LinkAccessStatsDO> linkAccessStatsList);
+
     /**
      * 根据短链接获取指定日期内基础监控数据
      */
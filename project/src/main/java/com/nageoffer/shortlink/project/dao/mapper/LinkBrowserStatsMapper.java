@@ -42,6 +42,18 @@ public interface LinkBrowserStatsMapper extends BaseMapper<LinkBrowserStatsDO> {
             "ON DUPLICATE KEY UPDATE cnt = cnt +  #{linkBrowserStats.cnt};")
     void shortLinkBrowserState(@Param("linkBrowserStats") LinkBrowserStatsDO linkBrowserStatsDO);
 
+    /**
+     * 批量记录浏览器访问监控数据，同一唯一键的访问量已在内存中合并
+     */
+    @Insert("<script> " +
+            "INSERT INTO t_link_browser_stats (full_short_url, gid, date, cnt, browser, create_time, update_time, del_flag) VALUES " +
+            "<foreach item='item' collection='linkBrowserStatsList' separator=','> " +
+            "(#{item.fullShortUrl}, #{item.gid}, #{item.date}, #{item.cnt}, #{item.browser}, NOW(), NOW(), 0) " +
+            "</foreach> " +
+            "ON DUPLICATE KEY UPDATE cnt = cnt + VALUES(cnt)" +
+            "</script>")
+    void shortLinkBrowserStateBatch(@Param("linkBrowserStatsList") List<LinkBrowserStatsDO> linkBrowserStatsList);
+
     /**
      * 根据短链接获取指定日期内浏览器监控数据
      */
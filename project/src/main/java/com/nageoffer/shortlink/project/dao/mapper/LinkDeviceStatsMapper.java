@@ -41,6 +41,18 @@ public interface LinkDeviceStatsMapper extends BaseMapper<LinkDeviceStatsDO> {
             "ON DUPLICATE KEY UPDATE cnt = cnt +  #{linkDeviceStats.cnt};")
     void shortLinkDeviceState(@Param("linkDeviceStats") LinkDeviceStatsDO linkDeviceStatsDO);
 
+    /**
+     * 批量记录设备访问监控数据，同一唯一键的访问量已在内存中合并
+     */
+    @Insert("<script> " +
+            "INSERT INTO t_link_device_stats (full_short_url, gid, date, cnt, device, create_time, update_time, del_flag) VALUES " +
+            "<foreach item='item' collection='linkDeviceStatsList' separator=','> " +
+            "(#{item.fullShortUrl}, #{item.gid}, #{item.date}, #{item.cnt}, #{item.device}, NOW(), NOW(), 0) " +
+            "</foreach> " +
+            "ON DUPLICATE KEY UPDATE cnt = cnt + VALUES(cnt)" +
+            "</script>")
+    void shortLinkDeviceStateBatch(@Param("linkDeviceStatsList") List<LinkDeviceStatsDO> linkDeviceStatsList);
+
     /**
      * 根据短链接获取指定日期内访问设备监控数据
      */
@@ -0,0 +1,44 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.nageoffer.shortlink.project.dao.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.nageoffer.shortlink.project.dao.entity.ShortLinkCodeSequenceDO;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+/**
+ * 短链接编码序号水位持久层
+ */
+public interface ShortLinkCodeSequenceMapper extends BaseMapper<ShortLinkCodeSequenceDO> {
+
+    /**
+     * 查询指定编码长度已预留的最大序号
+     */
+    @Select("SELECT max_sequence FROM t_link_code_sequence WHERE code_length = #{codeLength}")
+    Long selectMaxSequence(@Param("codeLength") int codeLength);
+
+    /**
+     * 记录已预留的最大序号，水位只增不减
+     */
+    @Insert("INSERT INTO t_link_code_sequence (code_length, max_sequence, create_time, update_time) " +
+            "VALUES (#{codeLength}, #{maxSequence}, NOW(), NOW()) " +
+            "ON DUPLICATE KEY UPDATE max_sequence = GREATEST(max_sequence, #{maxSequence}), update_time = NOW();")
+    void saveMaxSequence(@Param("codeLength") int codeLength, @Param("maxSequence") long maxSequence);
+}
@@ -19,10 +19,20 @@ package com.nageoffer.shortlink.project.dao.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.nageoffer.shortlink.project.dao.entity.ShortLinkGotoDO;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.List;
 
 /**
  * 短链接跳转持久层
 
  */
 public interface ShortLinkGotoMapper extends BaseMapper<ShortLinkGotoDO> {
+
+    /**
+     * 按主键游标分页查询指定分表中的完整短链接，直接访问真实表，单数据源下由 ShardingSphere 透传
+     */
+    @Select("SELECT id, full_short_url FROM t_link_goto_${shardIndex} WHERE id > #{lastId} ORDER BY id LIMIT #{limit}")
+    List<ShortLinkGotoDO> listFullShortUrlByCursor(@Param("shardIndex") int shardIndex, @Param("lastId") long lastId, @Param("limit") int limit);
 }
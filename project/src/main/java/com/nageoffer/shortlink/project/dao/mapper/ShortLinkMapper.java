@@ -24,6 +24,8 @@ import com.nageoffer.shortlink.project.dto.req.ShortLinkPageReqDTO;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Update;
 
+import java.util.List;
+
 /**
  * 短链接持久层
 
@@ -46,4 +48,14 @@ public interface ShortLinkMapper extends BaseMapper<ShortLinkDO> {
      * 分页统计短链接
      */
     IPage<ShortLinkDO> pageLink(ShortLinkPageReqDTO requestParam);
+
+    /**
+     * 查询累计访问量最高的短链接
+     */
+    List<ShortLinkDO> listHotLinkByTotalPv(@Param("limit") Integer limit);
+
+    /**
+     * 查询今日访问量最高的短链接
+     */
+    List<ShortLinkDO> listHotLinkByTodayPv(@Param("limit") Integer limit);
 }
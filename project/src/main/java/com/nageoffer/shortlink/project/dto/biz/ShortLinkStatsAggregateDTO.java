@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.nageoffer.shortlink.project.dto.biz;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+import java.util.Map;
+
+/**
+ * 短链接预聚合统计实体
+ * 同一节点在一个刷新周期内同一短链接同一小时的可累加指标合并为一条消息
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShortLinkStatsAggregateDTO {
+
+    /**
+     * 完整短链接
+     */
+    private String fullShortUrl;
+
+    /**
+     * 分组标识，可能为空，为空时由消费者查询
+     */
+    private String gid;
+
+    /**
+     * 访问日期
+     */
+    private Date date;
+
+    /**
+     * 小时
+     */
+    private Integer hour;
+
+    /**
+     * 星期
+     */
+    private Integer weekday;
+
+    /**
+     * 访问量
+     */
+    private Integer pv;
+
+    /**
+     * 独立访客数
+     */
+    private Integer uv;
+
+    /**
+     * 独立 IP 数
+     */
+    private Integer uip;
+
+    /**
+     * 累计独立访客增量，为空时与独立访客数一致
+     */
+    private Integer totalUv;
+
+    /**
+     * 累计独立 IP 增量，为空时与独立 IP 数一致
+     */
+    private Integer totalUip;
+
+    /**
+     * 操作系统访问次数
+     */
+    private Map<String, Integer> os;
+
+    /**
+     * 浏览器访问次数
+     */
+    private Map<String, Integer> browser;
+
+    /**
+     * 访问设备访问次数
+     */
+    private Map<String, Integer> device;
+
+    /**
+     * 访问网络访问次数
+     */
+    private Map<String, Integer> network;
+}
@@ -77,6 +77,16 @@ public class ShortLinkStatsRecordDTO {
      */
     private Boolean uipFirstFlag;
 
+    /**
+     * 累计 UV 增量，为空时与 UV 访问标识一致
+     */
+    private Integer uvTotalDelta;
+
+    /**
+     * 累计 UIP 增量，为空时与 UIP 访问标识一致
+     */
+    private Integer uipTotalDelta;
+
     /**
      * 消息队列唯一标识
      */
@@ -43,4 +43,9 @@ public class ShortLinkBatchCreateRespDTO {
      * 批量创建返回参数
      */
     private List<ShortLinkBaseInfoRespDTO> baseLinkInfos;
+
+    /**
+     * 创建失败明细
+     */
+    private List<ShortLinkBatchCreateFailRespDTO> failures;
 }
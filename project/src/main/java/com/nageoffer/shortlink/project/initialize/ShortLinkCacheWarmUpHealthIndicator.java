@@ -0,0 +1,41 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.nageoffer.shortlink.project.initialize;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * 短链接跳转缓存预热健康检查
+ * 加入就绪检查分组，预热完成前节点不接收流量
+ */
+@Component
+@RequiredArgsConstructor
+public class ShortLinkCacheWarmUpHealthIndicator implements HealthIndicator {
+
+    private final ShortLinkCacheWarmUpTask shortLinkCacheWarmUpTask;
+
+    @Override
+    public Health health() {
+        return shortLinkCacheWarmUpTask.isCompleted()
+                ? Health.up().build()
+                : Health.outOfService().withDetail("reason", "跳转缓存预热中").build();
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.nageoffer.shortlink.project.initialize;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.thread.ThreadFactoryBuilder;
+import com.nageoffer.shortlink.project.cache.ShortLinkGotoLocalCache;
+import com.nageoffer.shortlink.project.config.ShortLinkCacheWarmUpConfiguration;
+import com.nageoffer.shortlink.project.config.ShortLinkVirtualThreadConfiguration;
+import com.nageoffer.shortlink.project.dao.entity.ShortLinkDO;
+import com.nageoffer.shortlink.project.dao.mapper.ShortLinkMapper;
+import com.nageoffer.shortlink.project.toolkit.LinkUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static com.nageoffer.shortlink.project.common.constant.RedisKeyConstant.GOTO_SHORT_LINK_KEY;
+
+/**
+ * 短链接跳转缓存预热
+ * 应用启动后按累计访问量以及今日访问量查询所有分表中最热的短链接，写入 Redis 跳转缓存以及本地缓存，预热完成前节点就绪检查返回未就绪
+ * 之后定时按今日访问量预热新出现的热点短链接，Redis 故障切换后无需等待首次访问回源数据库
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ShortLinkCacheWarmUpTask implements ApplicationListener<ApplicationReadyEvent>, DisposableBean {
+
+    private final ShortLinkMapper shortLinkMapper;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final ShortLinkGotoLocalCache shortLinkGotoLocalCache;
+    private final ShortLinkCacheWarmUpConfiguration shortLinkCacheWarmUpConfiguration;
+    private final ShortLinkVirtualThreadConfiguration shortLinkVirtualThreadConfiguration;
+
+    private ScheduledExecutorService scheduleExecutor;
+    private ExecutorService warmUpExecutor;
+    private volatile boolean completed;
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        if (!Boolean.TRUE.equals(shortLinkCacheWarmUpConfiguration.getEnable())) {
+            completed = true;
+            return;
+        }
+        scheduleExecutor = Executors.newSingleThreadScheduledExecutor(
+                ThreadFactoryBuilder.create()
+                        .setNamePrefix("short-link_cache-warm-up-schedule_")
+                        .setDaemon(true)
+                        .build()
+        );
+        warmUpExecutor = Executors.newFixedThreadPool(
+                shortLinkCacheWarmUpConfiguration.getConcurrency(),
+                shortLinkVirtualThreadConfiguration.newThreadFactory("short-link_cache-warm-up_")
+        );
+        scheduleExecutor.execute(this::warmUpOnStartup);
+        long refreshInterval = shortLinkCacheWarmUpConfiguration.getRefreshInterval();
+        scheduleExecutor.scheduleWithFixedDelay(this::warmUpTodayHotLinks, refreshInterval, refreshInterval, TimeUnit.MINUTES);
+    }
+
+    @Override
+    public void destroy() {
+        if (scheduleExecutor != null) {
+            scheduleExecutor.shutdownNow();
+            warmUpExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * 缓存预热是否完成，预热失败同样视为完成，避免 Redis 或数据库异常时节点一直无法就绪
+     */
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    private void warmUpOnStartup() {
+        long start = System.currentTimeMillis();
+        try {
+            Map<String, ShortLinkDO> hotLinks = new LinkedHashMap<>();
+            shortLinkMapper.listHotLinkByTodayPv(shortLinkCacheWarmUpConfiguration.getTodayTopN())
+                    .forEach(each -> hotLinks.putIfAbsent(each.getFullShortUrl(), each));
+            shortLinkMapper.listHotLinkByTotalPv(shortLinkCacheWarmUpConfiguration.getTotalTopN())
+                    .forEach(each -> hotLinks.putIfAbsent(each.getFullShortUrl(), each));
+            warmUp(new ArrayList<>(hotLinks.values()));
+            log.info("短链接跳转缓存预热完成，短链接数量：{}，耗时：{}ms", hotLinks.size(), System.currentTimeMillis() - start);
+        } catch (Throwable ex) {
+            log.error("短链接跳转缓存预热失败", ex);
+        } finally {
+            completed = true;
+        }
+    }
+
+    private void warmUpTodayHotLinks() {
+        try {
+            warmUp(shortLinkMapper.listHotLinkByTodayPv(shortLinkCacheWarmUpConfiguration.getTodayTopN()));
+        } catch (Throwable ex) {
+            log.error("短链接跳转缓存定时预热失败", ex);
+        }
+    }
+
+    /**
+     * 按访问量从高到低分批写入，本地缓存只写入最热的部分短链接
+     */
+    private void warmUp(List<ShortLinkDO> hotLinks) {
+        if (CollUtil.isEmpty(hotLinks)) {
+            return;
+        }
+        int localTopN = shortLinkCacheWarmUpConfiguration.getLocalTopN();
+        for (int i = 0; i < Math.min(localTopN, hotLinks.size()); i++) {
+            ShortLinkDO each = hotLinks.get(i);
+            if (LinkUtil.isExpired(each.getValidDate())) {
+                continue;
+            }
+            shortLinkGotoLocalCache.put(each.getFullShortUrl(), each.getOriginUrl(), LinkUtil.getLinkCacheValidTime(each.getValidDate()));
+        }
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (List<ShortLinkDO> batch : CollUtil.split(hotLinks, shortLinkCacheWarmUpConfiguration.getBatchSize())) {
+            futures.add(CompletableFuture.runAsync(() -> writeRedis(batch), warmUpExecutor));
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture<?>[]::new)).join();
+    }
+
+    /**
+     * 已存在的跳转缓存不覆盖，避免延长即将失效的缓存或覆盖刚修改的原始链接
+     */
+    private void writeRedis(List<ShortLinkDO> batch) {
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (ShortLinkDO each : batch) {
+                if (LinkUtil.isExpired(each.getValidDate())) {
+                    continue;
+                }
+                long validTime = LinkUtil.getLinkCacheValidTime(each.getValidDate());
+                connection.stringCommands().set(
+                        String.format(GOTO_SHORT_LINK_KEY, each.getFullShortUrl()).getBytes(StandardCharsets.UTF_8),
+                        each.getOriginUrl().getBytes(StandardCharsets.UTF_8),
+                        Expiration.milliseconds(validTime),
+                        RedisStringCommands.SetOption.SET_IF_ABSENT
+                );
+            }
+            return null;
+        });
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.nageoffer.shortlink.project.initialize;
+
+import cn.hutool.core.thread.ThreadFactoryBuilder;
+import com.nageoffer.shortlink.project.config.ShortLinkLegacyKeyMigrationConfiguration;
+import com.nageoffer.shortlink.project.config.ShortLinkUniqueStatsConfiguration;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RBucket;
+import org.redisson.api.RHyperLogLog;
+import org.redisson.api.RLock;
+import org.redisson.api.RSet;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static com.nageoffer.shortlink.project.common.constant.RedisKeyConstant.GOTO_SHORT_LINK_KEY;
+import static com.nageoffer.shortlink.project.common.constant.RedisKeyConstant.LEGACY_GOTO_SHORT_LINK_KEY_PREFIX;
+import static com.nageoffer.shortlink.project.common.constant.RedisKeyConstant.LEGACY_SHORT_LINK_STATS_UIP_KEY_PREFIX;
+import static com.nageoffer.shortlink.project.common.constant.RedisKeyConstant.LEGACY_SHORT_LINK_STATS_UV_KEY_PREFIX;
+import static com.nageoffer.shortlink.project.common.constant.RedisKeyConstant.LOCK_LEGACY_KEY_MIGRATION_KEY;
+import static com.nageoffer.shortlink.project.common.constant.RedisKeyConstant.SHORT_LINK_STATS_UIP_HLL_KEY;
+import static com.nageoffer.shortlink.project.common.constant.RedisKeyConstant.SHORT_LINK_STATS_UIP_KEY;
+import static com.nageoffer.shortlink.project.common.constant.RedisKeyConstant.SHORT_LINK_STATS_UV_HLL_KEY;
+import static com.nageoffer.shortlink.project.common.constant.RedisKeyConstant.SHORT_LINK_STATS_UV_KEY;
+
+/**
+ * 旧版本 Redis Key 迁移任务
+ * 跳转缓存以及 UV、UIP 去重集合改为 {完整短链接} Hash Tag 格式后，旧 Key 不再被读取
+ * 启动后由一个节点扫描旧 Key：跳转缓存按剩余有效期写入新 Key（已存在时不覆盖），去重集合成员合并到新 Key 或者累计 HyperLogLog，迁移后删除旧 Key
+ * 滚动升级期间未升级节点仍可能写入旧 Key，写入和合并均为幂等操作，后续节点启动时会再次迁移
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ShortLinkLegacyKeyMigrationTask implements ApplicationListener<ApplicationReadyEvent> {
+
+    private final RedissonClient redissonClient;
+    private final ShortLinkLegacyKeyMigrationConfiguration shortLinkLegacyKeyMigrationConfiguration;
+    private final ShortLinkUniqueStatsConfiguration shortLinkUniqueStatsConfiguration;
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        if (!Boolean.TRUE.equals(shortLinkLegacyKeyMigrationConfiguration.getEnable())) {
+            return;
+        }
+        ThreadFactoryBuilder.create()
+                .setNamePrefix("short-link_legacy-key-migration_")
+                .setDaemon(true)
+                .build()
+                .newThread(this::migrate)
+                .start();
+    }
+
+    private void migrate() {
+        RLock lock = redissonClient.getLock(LOCK_LEGACY_KEY_MIGRATION_KEY);
+        if (!lock.tryLock()) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        try {
+            int gotoCount = migrateGotoKeys();
+            int uvCount = migrateUniqueKeys(LEGACY_SHORT_LINK_STATS_UV_KEY_PREFIX, SHORT_LINK_STATS_UV_KEY, SHORT_LINK_STATS_UV_HLL_KEY);
+            int uipCount = migrateUniqueKeys(LEGACY_SHORT_LINK_STATS_UIP_KEY_PREFIX, SHORT_LINK_STATS_UIP_KEY, SHORT_LINK_STATS_UIP_HLL_KEY);
+            log.info("旧版本 Redis Key 迁移完成，跳转缓存：{}，UV 集合：{}，UIP 集合：{}，耗时：{}ms",
+                    gotoCount, uvCount, uipCount, System.currentTimeMillis() - start);
+        } catch (Throwable ex) {
+            log.error("旧版本 Redis Key 迁移失败", ex);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int migrateGotoKeys() {
+        int count = 0;
+        for (String key : redissonClient.getKeys().getKeysByPattern(LEGACY_GOTO_SHORT_LINK_KEY_PREFIX + "*", shortLinkLegacyKeyMigrationConfiguration.getScanCount())) {
+            if (!isLegacyKey(key)) {
+                continue;
+            }
+            RBucket<String> legacyBucket = redissonClient.getBucket(key, StringCodec.INSTANCE);
+            String originUrl = legacyBucket.get();
+            long ttl = legacyBucket.remainTimeToLive();
+            if (originUrl != null && ttl != -2L) {
+                String fullShortUrl = key.substring(LEGACY_GOTO_SHORT_LINK_KEY_PREFIX.length());
+                RBucket<String> bucket = redissonClient.getBucket(String.format(GOTO_SHORT_LINK_KEY, fullShortUrl), StringCodec.INSTANCE);
+                if (ttl > 0L) {
+                    bucket.setIfAbsent(originUrl, Duration.ofMillis(ttl));
+                } else {
+                    bucket.setIfAbsent(originUrl);
+                }
+            }
+            legacyBucket.delete();
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * 旧版本去重集合成员按 SSCAN 分批合并，set 去重模式下合并到新版本集合，按天分桶模式下 PFADD 到累计 HyperLogLog
+     * 分桶模式必须合并，否则升级前的老访客再次访问时累计 HyperLogLog 增量为 1，会被重复计入累计 UV、UIP
+     */
+    private int migrateUniqueKeys(String legacyKeyPrefix, String setKeyFormat, String hllKeyFormat) {
+        boolean bucketMode = shortLinkUniqueStatsConfiguration.isBucketMode();
+        int count = 0;
+        int scanCount = shortLinkLegacyKeyMigrationConfiguration.getScanCount();
+        for (String key : redissonClient.getKeys().getKeysByPattern(legacyKeyPrefix + "*", scanCount)) {
+            if (!isLegacyKey(key)) {
+                continue;
+            }
+            RSet<String> legacySet = redissonClient.getSet(key, StringCodec.INSTANCE);
+            String fullShortUrl = key.substring(legacyKeyPrefix.length());
+            Consumer<List<String>> merger;
+            if (bucketMode) {
+                RHyperLogLog<String> hyperLogLog = redissonClient.getHyperLogLog(String.format(hllKeyFormat, fullShortUrl), StringCodec.INSTANCE);
+                merger = hyperLogLog::addAll;
+            } else {
+                RSet<String> set = redissonClient.getSet(String.format(setKeyFormat, fullShortUrl), StringCodec.INSTANCE);
+                merger = set::addAll;
+            }
+            List<String> members = new ArrayList<>(scanCount);
+            Iterator<String> iterator = legacySet.iterator(scanCount);
+            while (iterator.hasNext()) {
+                members.add(iterator.next());
+                if (members.size() >= scanCount) {
+                    merger.accept(members);
+                    members.clear();
+                }
+            }
+            if (!members.isEmpty()) {
+                merger.accept(members);
+            }
+            legacySet.delete();
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * 新版本 Key 与旧版本 Key 前缀相同但带有 Hash Tag，扫描时需要排除
+     */
+    private boolean isLegacyKey(String key) {
+        return key.indexOf('{') < 0;
+    }
+}
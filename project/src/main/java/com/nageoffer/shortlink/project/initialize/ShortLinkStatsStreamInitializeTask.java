@@ -19,6 +19,7 @@ package com.nageoffer.shortlink.project.initialize;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Component;
 
@@ -31,6 +32,7 @@ import static com.nageoffer.shortlink.project.common.constant.RedisKeyConstant.S
  */
 @Component
 @RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "short-link.stats.transport", name = "type", havingValue = "redis-stream")
 public class ShortLinkStatsStreamInitializeTask implements InitializingBean {
 
     private final StringRedisTemplate stringRedisTemplate;
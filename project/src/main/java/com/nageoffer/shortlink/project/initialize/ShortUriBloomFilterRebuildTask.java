@@ -0,0 +1,209 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.nageoffer.shortlink.project.initialize;
+
+import cn.hutool.core.thread.ThreadFactoryBuilder;
+import cn.hutool.core.thread.ThreadUtil;
+import com.nageoffer.shortlink.project.cache.ShortUriMembershipFilter;
+import com.nageoffer.shortlink.project.config.ShortUriBloomFilterRebuildConfiguration;
+import com.nageoffer.shortlink.project.dao.entity.ShortLinkGotoDO;
+import com.nageoffer.shortlink.project.dao.mapper.ShortLinkGotoMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RLock;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.nageoffer.shortlink.project.common.constant.RedisKeyConstant.LOCK_BLOOM_FILTER_REBUILD_KEY;
+import static com.nageoffer.shortlink.project.common.constant.RedisKeyConstant.SHORT_URI_BLOOM_FILTER_ADD_TOPIC_KEY;
+
+/**
+ * 短链接成员过滤器巡检以及重建
+ * 定时对比过滤器估算数量与跳转表数量，判定数据丢失后由获取到分布式锁的节点重建：
+ * 并行按主键游标读取所有跳转分表写入新 Key 下的过滤器，重建期间新增的短链接通过广播同时写入，完成后原子替换线上过滤器
+ * 判定丢失期间过滤器不存在的结果不可信，跳转请求不再依据过滤器直接返回不存在
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ShortUriBloomFilterRebuildTask implements InitializingBean, DisposableBean {
+
+    private static final String FILTER_NAME = "short-uri";
+
+    private final ShortUriMembershipFilter shortUriMembershipFilter;
+    private final RedissonClient redissonClient;
+    private final ShortLinkGotoMapper shortLinkGotoMapper;
+    private final ShortUriBloomFilterRebuildConfiguration shortUriBloomFilterRebuildConfiguration;
+
+    private ScheduledExecutorService scheduleExecutor;
+
+    /**
+     * 过滤器是否判定为数据丢失
+     */
+    private volatile boolean degraded;
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        if (!Boolean.TRUE.equals(shortUriBloomFilterRebuildConfiguration.getEnable())) {
+            return;
+        }
+        scheduleExecutor = Executors.newSingleThreadScheduledExecutor(
+                ThreadFactoryBuilder.create()
+                        .setNamePrefix("short-link_bloom-filter-check_")
+                        .setDaemon(true)
+                        .build()
+        );
+        long checkInterval = shortUriBloomFilterRebuildConfiguration.getCheckInterval();
+        scheduleExecutor.scheduleWithFixedDelay(this::check, 0L, checkInterval, TimeUnit.MINUTES);
+    }
+
+    @Override
+    public void destroy() {
+        if (scheduleExecutor != null) {
+            scheduleExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * 过滤器是否判定为数据丢失，丢失期间不存在的判断结果不可信
+     */
+    public boolean isDegraded() {
+        return degraded;
+    }
+
+    private void check() {
+        try {
+            long expected = shortLinkGotoMapper.selectCount(null);
+            long estimated = estimateCount();
+            degraded = expected > 0 && estimated < expected * (1 - shortUriBloomFilterRebuildConfiguration.getMissingRatio());
+            if (degraded) {
+                log.warn("短链接成员过滤器数据丢失，估算数量：{}，跳转表数量：{}，开始重建", estimated, expected);
+                rebuild();
+            }
+        } catch (Throwable ex) {
+            log.error("短链接成员过滤器巡检失败", ex);
+        }
+    }
+
+    private long estimateCount() {
+        try {
+            return shortUriMembershipFilter.count();
+        } catch (Throwable ex) {
+            // 布隆过滤器配置丢失时 Redisson 抛出未初始化异常
+            return 0L;
+        }
+    }
+
+    /**
+     * 重建短链接成员过滤器，同一时间只有一个节点执行
+     *
+     * @return 是否重建并替换成功
+     */
+    public boolean rebuild() {
+        RLock lock = redissonClient.getLock(String.format(LOCK_BLOOM_FILTER_REBUILD_KEY, FILTER_NAME));
+        if (!lock.tryLock()) {
+            log.info("短链接成员过滤器正在由其他节点重建");
+            return false;
+        }
+        long start = System.currentTimeMillis();
+        RTopic addTopic = redissonClient.getTopic(SHORT_URI_BLOOM_FILTER_ADD_TOPIC_KEY, StringCodec.INSTANCE);
+        Integer listenerId = null;
+        ShortUriMembershipFilter.RebuildTarget rebuildTarget = null;
+        ExecutorService rebuildExecutor = Executors.newFixedThreadPool(
+                shortUriBloomFilterRebuildConfiguration.getConcurrency(),
+                ThreadFactoryBuilder.create()
+                        .setNamePrefix("short-link_bloom-filter-rebuild_")
+                        .setDaemon(true)
+                        .build()
+        );
+        try {
+            ShortUriMembershipFilter.RebuildTarget target = shortUriMembershipFilter.createRebuildTarget();
+            rebuildTarget = target;
+            // 先订阅再读取分表，重建期间新增的短链接同时写入新过滤器
+            listenerId = addTopic.addListener(String.class, (channel, fullShortUrl) -> target.addAll(List.of(fullShortUrl)));
+            AtomicLong total = new AtomicLong();
+            List<CompletableFuture<Void>> futures = new ArrayList<>();
+            for (int shardIndex = 0; shardIndex < shortUriBloomFilterRebuildConfiguration.getShardCount(); shardIndex++) {
+                int currentShardIndex = shardIndex;
+                futures.add(CompletableFuture.runAsync(() -> total.addAndGet(loadShard(currentShardIndex, target)), rebuildExecutor));
+            }
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+            if (!target.swap()) {
+                log.error("短链接成员过滤器替换失败，重建过滤器不存在");
+                return false;
+            }
+            degraded = false;
+            log.info("短链接成员过滤器重建完成，短链接数量：{}，耗时：{}ms", total.get(), System.currentTimeMillis() - start);
+            return true;
+        } catch (Throwable ex) {
+            log.error("短链接成员过滤器重建失败", ex);
+            if (rebuildTarget != null) {
+                rebuildTarget.discard();
+            }
+            return false;
+        } finally {
+            if (listenerId != null) {
+                addTopic.removeListener(listenerId);
+            }
+            rebuildExecutor.shutdownNow();
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 按主键游标读取单个分表，并按每秒读取行数限流
+     */
+    private long loadShard(int shardIndex, ShortUriMembershipFilter.RebuildTarget rebuildTarget) {
+        int pageSize = shortUriBloomFilterRebuildConfiguration.getPageSize();
+        long minMillisPerPage = pageSize * 1000L * shortUriBloomFilterRebuildConfiguration.getConcurrency()
+                / shortUriBloomFilterRebuildConfiguration.getMaxRowsPerSecond();
+        long lastId = 0L;
+        long loaded = 0L;
+        while (true) {
+            long pageStart = System.currentTimeMillis();
+            List<ShortLinkGotoDO> page = shortLinkGotoMapper.listFullShortUrlByCursor(shardIndex, lastId, pageSize);
+            if (page.isEmpty()) {
+                break;
+            }
+            rebuildTarget.addAll(page.stream().map(ShortLinkGotoDO::getFullShortUrl).toList());
+            loaded += page.size();
+            lastId = page.get(page.size() - 1).getId();
+            if (page.size() < pageSize) {
+                break;
+            }
+            long elapsed = System.currentTimeMillis() - pageStart;
+            if (elapsed < minMillisPerPage) {
+                ThreadUtil.sleep(minMillisPerPage - elapsed);
+            }
+        }
+        return loaded;
+    }
+}
@@ -0,0 +1,246 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.nageoffer.shortlink.project.mq.consumer;
+
+import com.nageoffer.shortlink.project.dao.entity.LinkAccessLogsDO;
+import com.nageoffer.shortlink.project.dao.entity.LinkAccessStatsDO;
+import com.nageoffer.shortlink.project.dao.entity.LinkBrowserStatsDO;
+import com.nageoffer.shortlink.project.dao.entity.LinkDeviceStatsDO;
+import com.nageoffer.shortlink.project.dao.entity.LinkLocaleStatsDO;
+import com.nageoffer.shortlink.project.dao.entity.LinkNetworkStatsDO;
+import com.nageoffer.shortlink.project.dao.entity.LinkOsStatsDO;
+import com.nageoffer.shortlink.project.dao.entity.LinkStatsTodayDO;
+import com.nageoffer.shortlink.project.dto.biz.ShortLinkStatsAggregateDTO;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiFunction;
+
+/**
+ * 短链接监控消息批量合并结果
+ * 一批消息中唯一键相同的可累加指标在内存中合并为一行，每张统计表只执行一条多值插入
+ * 生成的行按唯一键排序，多个消费线程同时写入相同的行时按相同顺序加锁，避免死锁
+ */
+public class ShortLinkStatsBatch {
+
+    /**
+     * 未识别的维度值为空，排序时排在最前
+     */
+    private static final Comparator<String> NULLS_FIRST = Comparator.nullsFirst(Comparator.naturalOrder());
+
+    private final Map<AccessKey, int[]> accessStats = new HashMap<>();
+    private final Map<DimensionKey, Integer> osStats = new HashMap<>();
+    private final Map<DimensionKey, Integer> browserStats = new HashMap<>();
+    private final Map<DimensionKey, Integer> deviceStats = new HashMap<>();
+    private final Map<DimensionKey, Integer> networkStats = new HashMap<>();
+    private final Map<LocaleKey, Integer> localeStats = new HashMap<>();
+    private final Map<LinkKey, int[]> linkStats = new HashMap<>();
+    private final Map<TodayKey, int[]> todayStats = new HashMap<>();
+    private final List<LinkAccessLogsDO> accessLogs = new ArrayList<>();
+
+    /**
+     * 合并访问量、操作系统、浏览器、设备、网络以及今日统计等可累加指标
+     */
+    public void addCounters(String fullShortUrl, String gid, ShortLinkStatsAggregateDTO aggregate) {
+        LocalDate date = toLocalDate(aggregate.getDate());
+        int[] access = accessStats.computeIfAbsent(new AccessKey(fullShortUrl, gid, date, aggregate.getHour(), aggregate.getWeekday()), each -> new int[3]);
+        access[0] += aggregate.getPv();
+        access[1] += aggregate.getUv();
+        access[2] += aggregate.getUip();
+        aggregate.getOs().forEach((os, cnt) -> osStats.merge(new DimensionKey(fullShortUrl, gid, date, os), cnt, Integer::sum));
+        aggregate.getBrowser().forEach((browser, cnt) -> browserStats.merge(new DimensionKey(fullShortUrl, gid, date, browser), cnt, Integer::sum));
+        aggregate.getDevice().forEach((device, cnt) -> deviceStats.merge(new DimensionKey(fullShortUrl, gid, date, device), cnt, Integer::sum));
+        aggregate.getNetwork().forEach((network, cnt) -> networkStats.merge(new DimensionKey(fullShortUrl, gid, date, network), cnt, Integer::sum));
+        int[] link = linkStats.computeIfAbsent(new LinkKey(fullShortUrl, gid), each -> new int[3]);
+        link[0] += aggregate.getPv();
+        // 短链接累计去重数以累计 HyperLogLog 增量为准，当天去重数只用于当天统计
+        link[1] += Objects.requireNonNullElse(aggregate.getTotalUv(), aggregate.getUv());
+        link[2] += Objects.requireNonNullElse(aggregate.getTotalUip(), aggregate.getUip());
+        int[] today = todayStats.computeIfAbsent(new TodayKey(fullShortUrl, gid, date), each -> new int[3]);
+        today[0] += aggregate.getPv();
+        today[1] += aggregate.getUv();
+        today[2] += aggregate.getUip();
+    }
+
+    /**
+     * 合并一次访问的地域统计
+     */
+    public void addLocale(String fullShortUrl, String gid, Date date, String province, String city, String adcode) {
+        localeStats.merge(new LocaleKey(fullShortUrl, gid, toLocalDate(date), province, city, adcode), 1, Integer::sum);
+    }
+
+    /**
+     * 添加一条访问日志，访问日志不合并
+     */
+    public void addAccessLog(LinkAccessLogsDO linkAccessLogsDO) {
+        accessLogs.add(linkAccessLogsDO);
+    }
+
+    public List<LinkAccessStatsDO> accessStats() {
+        return accessStats.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey(Comparator.comparing(AccessKey::fullShortUrl)
+                        .thenComparing(AccessKey::gid)
+                        .thenComparing(AccessKey::date)
+                        .thenComparing(AccessKey::hour)))
+                .map(entry -> LinkAccessStatsDO.builder()
+                        .fullShortUrl(entry.getKey().fullShortUrl())
+                        .gid(entry.getKey().gid())
+                        .date(toDate(entry.getKey().date()))
+                        .hour(entry.getKey().hour())
+                        .weekday(entry.getKey().weekday())
+                        .pv(entry.getValue()[0])
+                        .uv(entry.getValue()[1])
+                        .uip(entry.getValue()[2])
+                        .build())
+                .toList();
+    }
+
+    public List<LinkOsStatsDO> osStats() {
+        return dimensionStats(osStats, (key, cnt) -> LinkOsStatsDO.builder()
+                .fullShortUrl(key.fullShortUrl())
+                .gid(key.gid())
+                .date(toDate(key.date()))
+                .os(key.dimension())
+                .cnt(cnt)
+                .build());
+    }
+
+    public List<LinkBrowserStatsDO> browserStats() {
+        return dimensionStats(browserStats, (key, cnt) -> LinkBrowserStatsDO.builder()
+                .fullShortUrl(key.fullShortUrl())
+                .gid(key.gid())
+                .date(toDate(key.date()))
+                .browser(key.dimension())
+                .cnt(cnt)
+                .build());
+    }
+
+    public List<LinkDeviceStatsDO> deviceStats() {
+        return dimensionStats(deviceStats, (key, cnt) -> LinkDeviceStatsDO.builder()
+                .fullShortUrl(key.fullShortUrl())
+                .gid(key.gid())
+                .date(toDate(key.date()))
+                .device(key.dimension())
+                .cnt(cnt)
+                .build());
+    }
+
+    public List<LinkNetworkStatsDO> networkStats() {
+        return dimensionStats(networkStats, (key, cnt) -> LinkNetworkStatsDO.builder()
+                .fullShortUrl(key.fullShortUrl())
+                .gid(key.gid())
+                .date(toDate(key.date()))
+                .network(key.dimension())
+                .cnt(cnt)
+                .build());
+    }
+
+    public List<LinkLocaleStatsDO> localeStats() {
+        return localeStats.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey(Comparator.comparing(LocaleKey::fullShortUrl)
+                        .thenComparing(LocaleKey::gid)
+                        .thenComparing(LocaleKey::date)
+                        .thenComparing(LocaleKey::adcode, NULLS_FIRST)
+                        .thenComparing(LocaleKey::province, NULLS_FIRST)))
+                .map(entry -> LinkLocaleStatsDO.builder()
+                        .fullShortUrl(entry.getKey().fullShortUrl())
+                        .gid(entry.getKey().gid())
+                        .date(toDate(entry.getKey().date()))
+                        .country("中国")
+                        .province(entry.getKey().province())
+                        .city(entry.getKey().city())
+                        .adcode(entry.getKey().adcode())
+                        .cnt(entry.getValue())
+                        .build())
+                .toList();
+    }
+
+    public List<LinkStatsTodayDO> todayStats() {
+        return todayStats.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey(Comparator.comparing(TodayKey::fullShortUrl)
+                        .thenComparing(TodayKey::gid)
+                        .thenComparing(TodayKey::date)))
+                .map(entry -> LinkStatsTodayDO.builder()
+                        .fullShortUrl(entry.getKey().fullShortUrl())
+                        .gid(entry.getKey().gid())
+                        .date(toDate(entry.getKey().date()))
+                        .todayPv(entry.getValue()[0])
+                        .todayUv(entry.getValue()[1])
+                        .todayUip(entry.getValue()[2])
+                        .build())
+                .toList();
+    }
+
+    /**
+     * 短链接累计访问量增量，依次为完整短链接、分组标识以及访问量、独立访客数、独立 IP 数
+     */
+    public List<LinkIncrement> linkIncrements() {
+        return linkStats.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey(Comparator.comparing(LinkKey::gid).thenComparing(LinkKey::fullShortUrl)))
+                .map(entry -> new LinkIncrement(entry.getKey().fullShortUrl(), entry.getKey().gid(), entry.getValue()[0], entry.getValue()[1], entry.getValue()[2]))
+                .toList();
+    }
+
+    public List<LinkAccessLogsDO> accessLogs() {
+        return accessLogs;
+    }
+
+    private static <T> List<T> dimensionStats(Map<DimensionKey, Integer> stats, BiFunction<DimensionKey, Integer, T> mapper) {
+        return stats.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey(Comparator.comparing(DimensionKey::fullShortUrl)
+                        .thenComparing(DimensionKey::gid)
+                        .thenComparing(DimensionKey::date)
+                        .thenComparing(DimensionKey::dimension, NULLS_FIRST)))
+                .map(entry -> mapper.apply(entry.getKey(), entry.getValue()))
+                .toList();
+    }
+
+    private static LocalDate toLocalDate(Date date) {
+        return date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+    }
+
+    private static Date toDate(LocalDate date) {
+        return Date.from(date.atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+
+    public record LinkIncrement(String fullShortUrl, String gid, int pv, int uv, int uip) {
+    }
+
+    private record AccessKey(String fullShortUrl, String gid, LocalDate date, int hour, int weekday) {
+    }
+
+    private record DimensionKey(String fullShortUrl, String gid, LocalDate date, String dimension) {
+    }
+
+    private record LocaleKey(String fullShortUrl, String gid, LocalDate date, String province, String city, String adcode) {
+    }
+
+    private record LinkKey(String fullShortUrl, String gid) {
+    }
+
+    private record TodayKey(String fullShortUrl, String gid, LocalDate date) {
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.nageoffer.shortlink.project.mq.consumer;
+
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.TypeReference;
+import com.nageoffer.shortlink.project.config.ShortLinkStatsConsumerConfiguration;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.rocketmq.client.consumer.DefaultMQPushConsumer;
+import org.apache.rocketmq.client.consumer.listener.ConsumeConcurrentlyStatus;
+import org.apache.rocketmq.client.consumer.listener.ConsumeOrderlyStatus;
+import org.apache.rocketmq.client.consumer.listener.MessageListenerConcurrently;
+import org.apache.rocketmq.client.consumer.listener.MessageListenerOrderly;
+import org.apache.rocketmq.common.message.MessageExt;
+import org.apache.rocketmq.spring.annotation.RocketMQMessageListener;
+import org.apache.rocketmq.spring.core.RocketMQListener;
+import org.apache.rocketmq.spring.core.RocketMQPushConsumerLifecycleListener;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 短链接监控状态保存 RocketMQ 消费者
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "short-link.stats.transport", name = "type", havingValue = "rocketmq", matchIfMissing = true)
+@RocketMQMessageListener(
+        topic = "${rocketmq.producer.topic}",
+        consumerGroup = "${rocketmq.consumer.group}"
+)
+public class ShortLinkStatsRocketMQConsumer implements RocketMQListener<Map<String, String>>, RocketMQPushConsumerLifecycleListener {
+
+    /**
+     * 消息体类型，与生产者发送的消息体一致
+     */
+    private static final Type PRODUCER_MAP_TYPE = new TypeReference<Map<String, String>>() {
+    }.getType();
+
+    private final ShortLinkStatsSaveConsumer shortLinkStatsSaveConsumer;
+    private final ShortLinkStatsConsumerConfiguration shortLinkStatsConsumerConfiguration;
+
+    private DefaultMQPushConsumer consumer;
+
+    /**
+     * 开启批量消费时调大单次消费以及拉取的消息数，并将逐条回调的监听器替换为按批回调的监听器
+     * 开启顺序消费时替换为顺序监听器，每个队列同一时刻只由一个线程消费，生产者按短链接哈希选择队列后，同一短链接的监控行不会被多个线程同时更新
+     * 顺序消费限制最大重试次数，超过后由 RocketMQ 将消息转入死信队列，避免一条始终失败的消息让队列永久暂停
+     */
+    @Override
+    public void prepareStart(DefaultMQPushConsumer consumer) {
+        this.consumer = consumer;
+        boolean batchEnable = Boolean.TRUE.equals(shortLinkStatsConsumerConfiguration.getBatchEnable());
+        if (batchEnable) {
+            consumer.setConsumeMessageBatchMaxSize(shortLinkStatsConsumerConfiguration.getConsumeBatchSize());
+            consumer.setPullBatchSize(shortLinkStatsConsumerConfiguration.getPullBatchSize());
+        }
+        if (Boolean.TRUE.equals(shortLinkStatsConsumerConfiguration.getOrderlyEnable())) {
+            consumer.setMaxReconsumeTimes(shortLinkStatsConsumerConfiguration.getOrderlyMaxReconsumeTimes());
+            consumer.setMessageListener((MessageListenerOrderly) (messages, context) -> onMessages(messages)
+                    ? ConsumeOrderlyStatus.SUCCESS
+                    : ConsumeOrderlyStatus.SUSPEND_CURRENT_QUEUE_A_MOMENT);
+        } else if (batchEnable) {
+            consumer.setMessageListener((MessageListenerConcurrently) (messages, context) -> onMessages(messages)
+                    ? ConsumeConcurrentlyStatus.CONSUME_SUCCESS
+                    : ConsumeConcurrentlyStatus.RECONSUME_LATER);
+        }
+    }
+
+    @Override
+    public void onMessage(Map<String, String> producerMap) {
+        shortLinkStatsSaveConsumer.onMessage(producerMap);
+    }
+
+    /**
+     * 解析整批消息后交由保存消费者处理，无法解析的消息重试也不会成功，直接转入死信队列，不阻塞同批其余消息
+     */
+    private boolean onMessages(List<MessageExt> messages) {
+        List<Map<String, String>> producerMaps = new ArrayList<>(messages.size());
+        for (MessageExt each : messages) {
+            Map<String, String> producerMap;
+            try {
+                producerMap = JSON.parseObject(each.getBody(), PRODUCER_MAP_TYPE);
+            } catch (Throwable ex) {
+                log.error("[消息访问统计监控] 消息体解析失败，转入死信队列，消息ID：{}", each.getMsgId(), ex);
+                if (!sendToDeadLetter(each)) {
+                    return false;
+                }
+                continue;
+            }
+            if (producerMap != null) {
+                producerMaps.add(producerMap);
+            }
+        }
+        return producerMaps.isEmpty() || shortLinkStatsSaveConsumer.onMessages(producerMaps);
+    }
+
+    /**
+     * 延迟级别为负数时 Broker 直接将消息转入消费组的死信队列
+     *
+     * @return 是否转入成功，失败时整批稍后重试
+     */
+    private boolean sendToDeadLetter(MessageExt message) {
+        try {
+            consumer.sendMessageBack(message, -1);
+            return true;
+        } catch (Throwable ex) {
+            log.error("[消息访问统计监控] 消息转入死信队列失败，消息ID：{}", message.getMsgId(), ex);
+            return false;
+        }
+    }
+}
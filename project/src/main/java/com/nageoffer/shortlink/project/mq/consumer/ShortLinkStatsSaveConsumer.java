@@ -18,14 +18,16 @@
 package com.nageoffer.shortlink.project.mq.consumer;
 
 import cn.hutool.core.date.DateUtil;
-import cn.hutool.core.date.Week;
 import cn.hutool.core.util.StrUtil;
-import cn.hutool.http.HttpUtil;
 import com.alibaba.fastjson2.JSON;
-import com.alibaba.fastjson2.JSONObject;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.toolkit.Wrappers;
+import com.baomidou.mybatisplus.extension.toolkit.SqlHelper;
+import com.nageoffer.shortlink.project.cache.ShortLinkGidUpdateFence;
+import com.nageoffer.shortlink.project.cache.ShortLinkIpLocaleResolver;
 import com.nageoffer.shortlink.project.common.convention.exception.ServiceException;
+import com.nageoffer.shortlink.project.common.enums.MessageIdempotentStatusEnum;
+import com.nageoffer.shortlink.project.config.ShortLinkStatsConsumerConfiguration;
 import com.nageoffer.shortlink.project.dao.entity.LinkAccessLogsDO;
 import com.nageoffer.shortlink.project.dao.entity.LinkAccessStatsDO;
 import com.nageoffer.shortlink.project.dao.entity.LinkBrowserStatsDO;
@@ -34,6 +36,7 @@ import com.nageoffer.shortlink.project.dao.entity.LinkLocaleStatsDO;
 import com.nageoffer.shortlink.project.dao.entity.LinkNetworkStatsDO;
 import com.nageoffer.shortlink.project.dao.entity.LinkOsStatsDO;
 import com.nageoffer.shortlink.project.dao.entity.LinkStatsTodayDO;
+import com.nageoffer.shortlink.project.dao.entity.ShortLinkDO;
 import com.nageoffer.shortlink.project.dao.entity.ShortLinkGotoDO;
 import com.nageoffer.shortlink.project.dao.mapper.LinkAccessLogsMapper;
 import com.nageoffer.shortlink.project.dao.mapper.LinkAccessStatsMapper;
@@ -45,38 +48,43 @@ import com.nageoffer.shortlink.project.dao.mapper.LinkOsStatsMapper;
 import com.nageoffer.shortlink.project.dao.mapper.LinkStatsTodayMapper;
 import com.nageoffer.shortlink.project.dao.mapper.ShortLinkGotoMapper;
 import com.nageoffer.shortlink.project.dao.mapper.ShortLinkMapper;
+import com.nageoffer.shortlink.project.dto.biz.ShortLinkStatsAggregateDTO;
 import com.nageoffer.shortlink.project.dto.biz.ShortLinkStatsRecordDTO;
 import com.nageoffer.shortlink.project.mq.idempotent.MessageQueueIdempotentHandler;
+import com.nageoffer.shortlink.project.toolkit.IpRegionSearcher;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.rocketmq.spring.annotation.RocketMQMessageListener;
-import org.apache.rocketmq.spring.core.RocketMQListener;
+import org.apache.ibatis.logging.LogFactory;
 import org.redisson.api.RLock;
-import org.redisson.api.RReadWriteLock;
 import org.redisson.api.RedissonClient;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
 
 import static com.nageoffer.shortlink.project.common.constant.RedisKeyConstant.LOCK_GID_UPDATE_KEY;
-import static com.nageoffer.shortlink.project.common.constant.ShortLinkConstant.AMAP_REMOTE_URL;
 
 /**
  * 短链接监控状态保存消息队列消费者
+ * 与消息传输方式无关，由 {@link ShortLinkStatsRocketMQConsumer} 或 {@link ShortLinkStatsStreamConsumer} 拉取消息后调用
 
  */
 @Slf4j
 @Component
 @RequiredArgsConstructor
-@RocketMQMessageListener(
-        topic = "${rocketmq.producer.topic}",
-        consumerGroup = "${rocketmq.consumer.group}"
-)
-public class ShortLinkStatsSaveConsumer implements RocketMQListener<Map<String, String>> {
+public class ShortLinkStatsSaveConsumer {
 
     private final ShortLinkMapper shortLinkMapper;
     private final ShortLinkGotoMapper shortLinkGotoMapper;
@@ -90,17 +98,122 @@ public class ShortLinkStatsSaveConsumer implements RocketMQListener<Map<String,
     private final LinkNetworkStatsMapper linkNetworkStatsMapper;
     private final LinkStatsTodayMapper linkStatsTodayMapper;
     private final MessageQueueIdempotentHandler messageQueueIdempotentHandler;
+    private final ShortLinkStatsConsumerConfiguration shortLinkStatsConsumerConfiguration;
+    private final TransactionTemplate transactionTemplate;
+    private final ShortLinkIpLocaleResolver shortLinkIpLocaleResolver;
+    private final ShortLinkGidUpdateFence shortLinkGidUpdateFence;
 
-    @Value("${short-link.stats.locale.amap-key}")
-    private String statsLocaleAmapKey;
     /**
-     * 消费RocketMQ中的消息，将短链接的访问统计数据保存到数据库中。
+     * 批量消费短链接监控消息，整批消息合并后在一个事务内写库，幂等标识按批占用、按批提交，各一次 Redis 往返
+     * 任意消息仍在其他线程处理中时释放本批已占用的幂等标识，整批稍后重试
+     * 整批写库失败时逐条重试，单条消息失败不影响其余消息提交，重新投递时已提交的消息由幂等标识跳过
+     * 数据库幂等模式下携带访问日志的消息不占用 Redis 幂等标识，由访问日志表的消息唯一标识去重
      *
-     * @param producerMap 包含短链接统计数据的消息体，映射自RocketMQ消息体。
+     * @param messages 消息体集合
+     * @return 是否全部消费成功，存在失败消息时整批稍后重试
+     */
+    public boolean onMessages(List<Map<String, String>> messages) {
+        boolean databaseIdempotent = shortLinkStatsConsumerConfiguration.isDatabaseIdempotentMode();
+        // 同一批次内重复投递的消息只保留一条
+        Map<String, Map<String, String>> distinctProducerMaps = new LinkedHashMap<>(messages.size() * 2);
+        for (Map<String, String> each : messages) {
+            distinctProducerMaps.putIfAbsent(each.get("keys"), each);
+        }
+        List<Map<String, String>> producerMaps = new ArrayList<>(distinctProducerMaps.size());
+        List<Map<String, String>> redisProducerMaps = new ArrayList<>();
+        for (Map<String, String> each : distinctProducerMaps.values()) {
+            if (databaseIdempotent && each.get("statsAggregate") == null) {
+                producerMaps.add(each);
+            } else {
+                redisProducerMaps.add(each);
+            }
+        }
+        List<String> redisKeys = redisProducerMaps.stream().map(each -> each.get("keys")).toList();
+        List<MessageIdempotentStatusEnum> statuses = messageQueueIdempotentHandler.claim(redisKeys);
+        List<String> claimedKeys = new ArrayList<>(redisKeys.size());
+        String processingKeys = null;
+        for (int i = 0; i < redisKeys.size(); i++) {
+            switch (statuses.get(i)) {
+                case CLAIMED -> {
+                    claimedKeys.add(redisKeys.get(i));
+                    producerMaps.add(redisProducerMaps.get(i));
+                }
+                case PROCESSING -> processingKeys = redisKeys.get(i);
+                default -> {
+                }
+            }
+        }
+        if (processingKeys != null) {
+            log.warn("批量消费短链接监控消息时存在未完成流程的消息，整批重试，消息Keys：{}", processingKeys);
+            releaseClaimedKeys(claimedKeys);
+            return false;
+        }
+        try {
+            actualSaveShortLinkStatsBatch(producerMaps);
+        } catch (Throwable ex) {
+            log.warn("批量记录短链接监控消费异常，逐条重试，消息数量：{}", producerMaps.size(), ex);
+            return saveOneByOne(producerMaps, claimedKeys);
+        }
+        setAccomplish(claimedKeys);
+        return true;
+    }
+
+    /**
+     * 整批写库失败后逐条写库，每条消息一个事务，成功的消息设置幂等标识完成状态，失败的消息释放幂等标识等待重试
+     *
+     * @return 是否全部写库成功
+     */
+    private boolean saveOneByOne(List<Map<String, String>> producerMaps, List<String> claimedKeys) {
+        Set<String> claimedKeySet = new HashSet<>(claimedKeys);
+        List<String> accomplishedKeys = new ArrayList<>(claimedKeys.size());
+        List<String> failedKeys = new ArrayList<>();
+        boolean allSaved = true;
+        for (Map<String, String> each : producerMaps) {
+            String keys = each.get("keys");
+            try {
+                actualSaveShortLinkStatsBatch(Collections.singletonList(each));
+                if (claimedKeySet.contains(keys)) {
+                    accomplishedKeys.add(keys);
+                }
+            } catch (Throwable ex) {
+                allSaved = false;
+                log.error("记录短链接监控消费异常，消息Keys：{}", keys, ex);
+                if (claimedKeySet.contains(keys)) {
+                    failedKeys.add(keys);
+                }
+            }
+        }
+        if (!failedKeys.isEmpty()) {
+            releaseClaimedKeys(failedKeys);
+        }
+        setAccomplish(accomplishedKeys);
+        return allSaved;
+    }
+
+    private void setAccomplish(List<String> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        try {
+            messageQueueIdempotentHandler.setAccomplish(keys);
+        } catch (Throwable ex) {
+            // 数据已提交，重试会重复统计，幂等标识过期前重复投递的消息仍会被拦截
+            log.error("批量设置幂等标识完成状态错误，消息数量：{}", keys.size(), ex);
+        }
+    }
+
+    /**
+     * 消费单条消息，将短链接的访问统计数据保存到数据库中。
+     *
+     * @param producerMap 包含短链接统计数据的消息体
      */
-    @Override
     public void onMessage(Map<String, String> producerMap) {
         String keys = producerMap.get("keys");
+        if (shortLinkStatsConsumerConfiguration.isDatabaseIdempotentMode() && producerMap.get("statsAggregate") == null) {
+            // 访问日志表按消息唯一标识去重，整条消息在一个事务内写库，失败时由消息队列重试
+            actualSaveShortLinkStatsBatch(Collections.singletonList(producerMap));
+            return;
+        }
         if (!messageQueueIdempotentHandler.isMessageProcessed(keys)) {
             // 判断当前的这个消息流程是否执行完成
             if (messageQueueIdempotentHandler.isAccomplish(keys)) {
@@ -112,8 +225,14 @@ public class ShortLinkStatsSaveConsumer implements RocketMQListener<Map<String,
             String fullShortUrl = producerMap.get("fullShortUrl");
             if (StrUtil.isNotBlank(fullShortUrl)) {
                 String gid = producerMap.get("gid");
-                ShortLinkStatsRecordDTO statsRecord = JSON.parseObject(producerMap.get("statsRecord"), ShortLinkStatsRecordDTO.class);
-                actualSaveShortLinkStats(fullShortUrl, gid, statsRecord);
+                String statsAggregate = producerMap.get("statsAggregate");
+                if (statsAggregate != null) {
+                    actualSaveShortLinkAggregateStats(fullShortUrl, gid, JSON.parseObject(statsAggregate, ShortLinkStatsAggregateDTO.class));
+                } else {
+                    ShortLinkStatsRecordDTO statsRecord = JSON.parseObject(producerMap.get("statsRecord"), ShortLinkStatsRecordDTO.class);
+                    boolean counterAggregated = Boolean.parseBoolean(producerMap.get("counterAggregated"));
+                    actualSaveShortLinkStats(fullShortUrl, gid, keys, statsRecord, counterAggregated);
+                }
             }
         } catch (Throwable ex) {
             log.error("记录短链接监控消费异常", ex);
@@ -134,61 +253,29 @@ public class ShortLinkStatsSaveConsumer implements RocketMQListener<Map<String,
      * 如果组ID为空，会尝试从数据库中获取相应的组ID。同时，会根据访问者的相关信息，如远程地址，来获取地理位置信息，并进一步统计。
      * 此方法使用读写锁来处理并发访问，确保数据的一致性和完整性。
      *
-     * @param fullShortUrl 短链接的完整地址
-     * @param gid 组ID，用于统计和分组
-     * @param statsRecord 统计数据记录对象，包含了访问量、用户量、IP量以及一些标识标志
+     * @param fullShortUrl      短链接的完整地址
+     * @param gid               组ID，用于统计和分组
+     * @param msgId             监控消息唯一标识
+     * @param statsRecord       统计数据记录对象，包含了访问量、用户量、IP量以及一些标识标志
+     * @param counterAggregated 可累加指标是否已由生产者节点预聚合，为 true 时只保存地域统计以及访问日志
      */
-    public void actualSaveShortLinkStats(String fullShortUrl, String gid, ShortLinkStatsRecordDTO statsRecord) {
+    public void actualSaveShortLinkStats(String fullShortUrl, String gid, String msgId, ShortLinkStatsRecordDTO statsRecord, boolean counterAggregated) {
         // 如果fullShortUrl为空，则尝试从statsRecord中获取
         fullShortUrl = Optional.ofNullable(fullShortUrl).orElse(statsRecord.getFullShortUrl());
-        // 根据fullShortUrl格式化生成锁的键名
-        RReadWriteLock readWriteLock = redissonClient.getReadWriteLock(String.format(LOCK_GID_UPDATE_KEY, fullShortUrl));
-        // 获取读锁
-        RLock rLock = readWriteLock.readLock();
-        rLock.lock();
+        // 仅短链接正在修改分组时获取读锁
+        RLock rLock = lockIfFenced(fullShortUrl);
         try {
-            // 如果gid为空，尝试从数据库中根据fullShortUrl查询并获取gid
-            if (StrUtil.isBlank(gid)) {
-                LambdaQueryWrapper<ShortLinkGotoDO> queryWrapper = Wrappers.lambdaQuery(ShortLinkGotoDO.class)
-                        .eq(ShortLinkGotoDO::getFullShortUrl, fullShortUrl);
-                ShortLinkGotoDO shortLinkGotoDO = shortLinkGotoMapper.selectOne(queryWrapper);
-                gid = shortLinkGotoDO.getGid();
+            gid = Objects.requireNonNull(resolveGid(fullShortUrl, gid), "短链接分组不存在");
+            if (!counterAggregated) {
+                saveCounterStats(fullShortUrl, gid, toAggregate(statsRecord));
             }
-            // 当前小时数
-            int hour = DateUtil.hour(new Date(), true);
-            // 当前星期几，用于统计
-            Week week = DateUtil.dayOfWeekEnum(new Date());
-            int weekValue = week.getIso8601Value();
-            // 构建链接访问统计数据对象，并进行统计
-            LinkAccessStatsDO linkAccessStatsDO = LinkAccessStatsDO.builder()
-                    .pv(1)
-                    .uv(statsRecord.getUvFirstFlag() ? 1 : 0)
-                    .uip(statsRecord.getUipFirstFlag() ? 1 : 0)
-                    .hour(hour)
-                    .weekday(weekValue)
-                    .fullShortUrl(fullShortUrl)
-                    .gid(gid)
-                    .date(new Date())
-                    .build();
-            linkAccessStatsMapper.shortLinkStats(linkAccessStatsDO);
-
-            // 获取访问者的地理位置信息
-            Map<String, Object> localeParamMap = new HashMap<>();
-            localeParamMap.put("key", statsLocaleAmapKey);
-            localeParamMap.put("ip", statsRecord.getRemoteAddr());
-            String localeResultStr = HttpUtil.get(AMAP_REMOTE_URL, localeParamMap);
-            JSONObject localeResultObj = JSON.parseObject(localeResultStr);
-            // 根据获取的地理位置信息，进行地域统计
-            String infoCode = localeResultObj.getString("infocode");
-            String actualProvince = "未知";
-            String actualCity = "未知";
-            if (StrUtil.isNotBlank(infoCode) && StrUtil.equals(infoCode, "10000")) {
-                String province = localeResultObj.getString("province");
-                boolean unknownFlag = StrUtil.equals(province, "[]");
+            // 获取访问者的地理位置信息，根据获取的地理位置信息，进行地域统计
+            IpRegionSearcher.Region locale = shortLinkIpLocaleResolver.resolve(statsRecord.getRemoteAddr());
+            if (locale != null) {
                 LinkLocaleStatsDO linkLocaleStatsDO = LinkLocaleStatsDO.builder()
-                        .province(actualProvince = unknownFlag ? actualProvince : province)
-                        .city(actualCity = unknownFlag ? actualCity : localeResultObj.getString("city"))
-                        .adcode(unknownFlag ? "未知" : localeResultObj.getString("adcode"))
+                        .province(locale.province())
+                        .city(locale.city())
+                        .adcode(locale.adcode())
                         .cnt(1)
                         .fullShortUrl(fullShortUrl)
                         .country("中国")
@@ -197,74 +284,302 @@ public class ShortLinkStatsSaveConsumer implements RocketMQListener<Map<String,
                         .build();
                 linkLocaleStatsMapper.shortLinkLocaleState(linkLocaleStatsDO);
             }
-            // 统计操作系统、浏览器、设备和网络
-            // 构建并统计操作系统对象
-            LinkOsStatsDO linkOsStatsDO = LinkOsStatsDO.builder()
-                    .os(statsRecord.getOs())
-                    .cnt(1)
-                    .gid(gid)
-                    .fullShortUrl(fullShortUrl)
-                    .date(new Date())
-                    .build();
-            linkOsStatsMapper.shortLinkOsState(linkOsStatsDO);
-            // 构建并统计浏览器对象
-            LinkBrowserStatsDO linkBrowserStatsDO = LinkBrowserStatsDO.builder()
-                    .browser(statsRecord.getBrowser())
-                    .cnt(1)
-                    .gid(gid)
-                    .fullShortUrl(fullShortUrl)
-                    .date(new Date())
-                    .build();
-            linkBrowserStatsMapper.shortLinkBrowserState(linkBrowserStatsDO);
-            // 构建并统计设备对象
-            LinkDeviceStatsDO linkDeviceStatsDO = LinkDeviceStatsDO.builder()
-                    .device(statsRecord.getDevice())
-                    .cnt(1)
-                    .gid(gid)
-                    .fullShortUrl(fullShortUrl)
-                    .date(new Date())
-                    .build();
-            linkDeviceStatsMapper.shortLinkDeviceState(linkDeviceStatsDO);
-            // 构建并统计网络对象
-            LinkNetworkStatsDO linkNetworkStatsDO = LinkNetworkStatsDO.builder()
-                    .network(statsRecord.getNetwork())
-                    .cnt(1)
-                    .gid(gid)
-                    .fullShortUrl(fullShortUrl)
-                    .date(new Date())
-                    .build();
-            linkNetworkStatsMapper.shortLinkNetworkState(linkNetworkStatsDO);
             // 构建访问日志对象并插入
-            LinkAccessLogsDO linkAccessLogsDO = LinkAccessLogsDO.builder()
-                    .user(statsRecord.getUv())
-                    .ip(statsRecord.getRemoteAddr())
-                    .browser(statsRecord.getBrowser())
-                    .os(statsRecord.getOs())
-                    .network(statsRecord.getNetwork())
-                    .device(statsRecord.getDevice())
-                    .locale(StrUtil.join("-", "中国", actualProvince, actualCity))
-                    .gid(gid)
-                    .fullShortUrl(fullShortUrl)
-                    .build();
-            linkAccessLogsMapper.insert(linkAccessLogsDO);
-            // 更新短链接的统计数据
-            shortLinkMapper.incrementStats(gid, fullShortUrl, 1, statsRecord.getUvFirstFlag() ? 1 : 0, statsRecord.getUipFirstFlag() ? 1 : 0);
-            // 构建并统计今天的链接状态对象
-            LinkStatsTodayDO linkStatsTodayDO = LinkStatsTodayDO.builder()
-                    .todayPv(1)
-                    .todayUv(statsRecord.getUvFirstFlag() ? 1 : 0)
-                    .todayUip(statsRecord.getUipFirstFlag() ? 1 : 0)
-                    .gid(gid)
-                    .fullShortUrl(fullShortUrl)
-                    .date(new Date())
-                    .build();
-            linkStatsTodayMapper.shortLinkTodayState(linkStatsTodayDO);
+            linkAccessLogsMapper.insert(buildAccessLog(fullShortUrl, gid, msgId, statsRecord, locale));
         } catch (Throwable ex) {
             log.error("短链接访问量统计异常", ex);
         } finally {
-            // 释放读锁
+            unlock(rLock);
+        }
+    }
+
+    /**
+     * 保存生产者节点预聚合后的可累加指标
+     *
+     * @param fullShortUrl 短链接的完整地址
+     * @param gid          组ID，可能为空
+     * @param aggregate    预聚合统计数据
+     */
+    public void actualSaveShortLinkAggregateStats(String fullShortUrl, String gid, ShortLinkStatsAggregateDTO aggregate) {
+        RLock rLock = lockIfFenced(fullShortUrl);
+        try {
+            saveCounterStats(fullShortUrl, Objects.requireNonNull(resolveGid(fullShortUrl, gid), "短链接分组不存在"), aggregate);
+        } catch (Throwable ex) {
+            log.error("短链接预聚合访问量统计异常", ex);
+        } finally {
+            unlock(rLock);
+        }
+    }
+
+    /**
+     * 批量保存短链接统计数据
+     * 整批消息涉及的短链接中，仅正在修改分组的短链接按顺序获取读锁，其余短链接在事务提交前再次读取围栏，期间开始修改分组则回滚整批重试
+     * 可累加指标、地域统计在内存中合并后每张表执行一条多值插入，访问日志批量插入
+     *
+     * @param producerMaps 消息体集合
+     */
+    public void actualSaveShortLinkStatsBatch(List<Map<String, String>> producerMaps) {
+        List<Map<String, String>> validProducerMaps = filterConsumedByAccessLog(producerMaps.stream()
+                .filter(each -> StrUtil.isNotBlank(each.get("fullShortUrl")))
+                .toList());
+        if (validProducerMaps.isEmpty()) {
+            return;
+        }
+        // 按短链接排序后加锁，与修改分组的写锁之间不会出现交叉等待
+        Set<String> fullShortUrls = validProducerMaps.stream()
+                .map(each -> each.get("fullShortUrl"))
+                .collect(Collectors.toCollection(TreeSet::new));
+        Set<String> fencedFullShortUrls = shortLinkGidUpdateFence.fencedOf(fullShortUrls);
+        List<RLock> readLocks = new ArrayList<>();
+        List<String> unlockedFullShortUrls = new ArrayList<>(fullShortUrls.size());
+        try {
+            for (String each : fullShortUrls) {
+                if (fencedFullShortUrls.contains(each)) {
+                    readLocks.add(lock(each));
+                } else {
+                    unlockedFullShortUrls.add(each);
+                }
+            }
+            Map<String, Optional<String>> gids = new HashMap<>();
+            ShortLinkStatsBatch statsBatch = new ShortLinkStatsBatch();
+            for (Map<String, String> each : validProducerMaps) {
+                String fullShortUrl = each.get("fullShortUrl");
+                Optional<String> resolvedGid = gids.computeIfAbsent(fullShortUrl, key -> Optional.ofNullable(resolveGid(key, each.get("gid"))));
+                if (resolvedGid.isEmpty()) {
+                    // 短链接已被删除，跳过该消息，避免整批反复重试
+                    log.warn("批量记录短链接监控时未找到短链接分组，短链接：{}", fullShortUrl);
+                    continue;
+                }
+                String gid = resolvedGid.get();
+                String statsAggregate = each.get("statsAggregate");
+                if (statsAggregate != null) {
+                    statsBatch.addCounters(fullShortUrl, gid, JSON.parseObject(statsAggregate, ShortLinkStatsAggregateDTO.class));
+                    continue;
+                }
+                ShortLinkStatsRecordDTO statsRecord = JSON.parseObject(each.get("statsRecord"), ShortLinkStatsRecordDTO.class);
+                if (!Boolean.parseBoolean(each.get("counterAggregated"))) {
+                    statsBatch.addCounters(fullShortUrl, gid, toAggregate(statsRecord));
+                }
+                IpRegionSearcher.Region locale = shortLinkIpLocaleResolver.resolve(statsRecord.getRemoteAddr());
+                if (locale != null) {
+                    statsBatch.addLocale(fullShortUrl, gid, new Date(), locale.province(), locale.city(), locale.adcode());
+                }
+                statsBatch.addAccessLog(buildAccessLog(fullShortUrl, gid, each.get("keys"), statsRecord, locale));
+            }
+            transactionTemplate.executeWithoutResult(status -> {
+                saveStatsBatch(statsBatch);
+                // 修改分组设置围栏后会等待宽限期再迁移数据，提交前仍未设置围栏说明本批写入先于迁移完成
+                if (!shortLinkGidUpdateFence.fencedOf(unlockedFullShortUrls).isEmpty()) {
+                    throw new ServiceException("短链接正在修改分组，批量监控统计回滚重试");
+                }
+            });
+        } finally {
+            readLocks.forEach(RLock::unlock);
+        }
+    }
+
+    /**
+     * 数据库幂等模式下过滤访问日志已写入的消息，并发消费同一消息时由访问日志表唯一索引冲突回滚整批
+     */
+    private List<Map<String, String>> filterConsumedByAccessLog(List<Map<String, String>> producerMaps) {
+        if (!shortLinkStatsConsumerConfiguration.isDatabaseIdempotentMode()) {
+            return producerMaps;
+        }
+        List<String> msgIds = producerMaps.stream()
+                .filter(each -> each.get("statsAggregate") == null)
+                .map(each -> each.get("keys"))
+                .toList();
+        if (msgIds.isEmpty()) {
+            return producerMaps;
+        }
+        Set<String> consumedMsgIds = new HashSet<>(linkAccessLogsMapper.listConsumedMsgIds(msgIds));
+        if (consumedMsgIds.isEmpty()) {
+            return producerMaps;
+        }
+        return producerMaps.stream()
+                .filter(each -> each.get("statsAggregate") != null || !consumedMsgIds.contains(each.get("keys")))
+                .toList();
+    }
+
+    /**
+     * 短链接处于修改分组围栏中时获取读锁
+     *
+     * @return 获取到的读锁，未处于围栏中时返回 null
+     */
+    private RLock lockIfFenced(String fullShortUrl) {
+        return shortLinkGidUpdateFence.isFenced(fullShortUrl) ? lock(fullShortUrl) : null;
+    }
+
+    private RLock lock(String fullShortUrl) {
+        RLock rLock = redissonClient.getReadWriteLock(String.format(LOCK_GID_UPDATE_KEY, fullShortUrl)).readLock();
+        rLock.lock();
+        return rLock;
+    }
+
+    private void unlock(RLock rLock) {
+        if (rLock != null) {
             rLock.unlock();
         }
     }
-}
 
+    private void saveStatsBatch(ShortLinkStatsBatch statsBatch) {
+        List<LinkAccessStatsDO> accessStats = statsBatch.accessStats();
+        if (!accessStats.isEmpty()) {
+            linkAccessStatsMapper.shortLinkStatsBatch(accessStats);
+        }
+        List<LinkLocaleStatsDO> localeStats = statsBatch.localeStats();
+        if (!localeStats.isEmpty()) {
+            linkLocaleStatsMapper.shortLinkLocaleStateBatch(localeStats);
+        }
+        List<LinkOsStatsDO> osStats = statsBatch.osStats();
+        if (!osStats.isEmpty()) {
+            linkOsStatsMapper.shortLinkOsStateBatch(osStats);
+        }
+        List<LinkBrowserStatsDO> browserStats = statsBatch.browserStats();
+        if (!browserStats.isEmpty()) {
+            linkBrowserStatsMapper.shortLinkBrowserStateBatch(browserStats);
+        }
+        List<LinkDeviceStatsDO> deviceStats = statsBatch.deviceStats();
+        if (!deviceStats.isEmpty()) {
+            linkDeviceStatsMapper.shortLinkDeviceStateBatch(deviceStats);
+        }
+        List<LinkNetworkStatsDO> networkStats = statsBatch.networkStats();
+        if (!networkStats.isEmpty()) {
+            linkNetworkStatsMapper.shortLinkNetworkStateBatch(networkStats);
+        }
+        if (!statsBatch.accessLogs().isEmpty()) {
+            linkAccessLogsMapper.insertBatch(statsBatch.accessLogs(), shortLinkStatsConsumerConfiguration.isDatabaseIdempotentMode());
+        }
+        // 短链接表按分组分片且为更新语句，合并后通过 JDBC 批量执行
+        List<ShortLinkStatsBatch.LinkIncrement> linkIncrements = statsBatch.linkIncrements();
+        if (!linkIncrements.isEmpty()) {
+            SqlHelper.executeBatch(ShortLinkDO.class, LogFactory.getLog(ShortLinkStatsSaveConsumer.class), linkIncrements, linkIncrements.size(),
+                    (sqlSession, each) -> sqlSession.getMapper(ShortLinkMapper.class).incrementStats(each.gid(), each.fullShortUrl(), each.pv(), each.uv(), each.uip()));
+        }
+        List<LinkStatsTodayDO> todayStats = statsBatch.todayStats();
+        if (!todayStats.isEmpty()) {
+            linkStatsTodayMapper.shortLinkTodayStateBatch(todayStats);
+        }
+    }
+
+    private void releaseClaimedKeys(List<String> claimedKeys) {
+        try {
+            messageQueueIdempotentHandler.delMessageProcessed(claimedKeys);
+        } catch (Throwable ex) {
+            log.error("删除幂等标识错误", ex);
+        }
+    }
+
+    private LinkAccessLogsDO buildAccessLog(String fullShortUrl, String gid, String msgId, ShortLinkStatsRecordDTO statsRecord, IpRegionSearcher.Region locale) {
+        return LinkAccessLogsDO.builder()
+                .user(statsRecord.getUv())
+                .ip(statsRecord.getRemoteAddr())
+                .browser(statsRecord.getBrowser())
+                .os(statsRecord.getOs())
+                .network(statsRecord.getNetwork())
+                .device(statsRecord.getDevice())
+                .locale(StrUtil.join("-", "中国", locale == null ? "未知" : locale.province(), locale == null ? "未知" : locale.city()))
+                .gid(gid)
+                .fullShortUrl(fullShortUrl)
+                // 消息唯一标识只用于数据库幂等模式去重，其余模式不写入，兼容未执行升级脚本的访问日志表
+                .msgId(shortLinkStatsConsumerConfiguration.isDatabaseIdempotentMode() ? msgId : null)
+                .build();
+    }
+
+    /**
+     * 如果gid为空，尝试从数据库中根据fullShortUrl查询并获取gid，短链接不存在时返回 null
+     */
+    private String resolveGid(String fullShortUrl, String gid) {
+        if (StrUtil.isNotBlank(gid)) {
+            return gid;
+        }
+        LambdaQueryWrapper<ShortLinkGotoDO> queryWrapper = Wrappers.lambdaQuery(ShortLinkGotoDO.class)
+                .eq(ShortLinkGotoDO::getFullShortUrl, fullShortUrl);
+        ShortLinkGotoDO shortLinkGotoDO = shortLinkGotoMapper.selectOne(queryWrapper);
+        return shortLinkGotoDO == null ? null : shortLinkGotoDO.getGid();
+    }
+
+    /**
+     * 将单次访问转换为计数为 1 的预聚合统计数据
+     */
+    private ShortLinkStatsAggregateDTO toAggregate(ShortLinkStatsRecordDTO statsRecord) {
+        Date now = new Date();
+        int uv = statsRecord.getUvFirstFlag() ? 1 : 0;
+        int uip = statsRecord.getUipFirstFlag() ? 1 : 0;
+        return ShortLinkStatsAggregateDTO.builder()
+                .date(now)
+                .hour(DateUtil.hour(now, true))
+                .weekday(DateUtil.dayOfWeekEnum(now).getIso8601Value())
+                .pv(1)
+                .uv(uv)
+                .uip(uip)
+                .totalUv(Objects.requireNonNullElse(statsRecord.getUvTotalDelta(), uv))
+                .totalUip(Objects.requireNonNullElse(statsRecord.getUipTotalDelta(), uip))
+                .os(Collections.singletonMap(statsRecord.getOs(), 1))
+                .browser(Collections.singletonMap(statsRecord.getBrowser(), 1))
+                .device(Collections.singletonMap(statsRecord.getDevice(), 1))
+                .network(Collections.singletonMap(statsRecord.getNetwork(), 1))
+                .build();
+    }
+
+    /**
+     * 保存访问量、操作系统、浏览器、设备、网络以及今日统计等可累加指标
+     */
+    private void saveCounterStats(String fullShortUrl, String gid, ShortLinkStatsAggregateDTO aggregate) {
+        // 构建链接访问统计数据对象，并进行统计
+        LinkAccessStatsDO linkAccessStatsDO = LinkAccessStatsDO.builder()
+                .pv(aggregate.getPv())
+                .uv(aggregate.getUv())
+                .uip(aggregate.getUip())
+                .hour(aggregate.getHour())
+                .weekday(aggregate.getWeekday())
+                .fullShortUrl(fullShortUrl)
+                .gid(gid)
+                .date(aggregate.getDate())
+                .build();
+        linkAccessStatsMapper.shortLinkStats(linkAccessStatsDO);
+        // 统计操作系统、浏览器、设备和网络
+        aggregate.getOs().forEach((os, cnt) -> linkOsStatsMapper.shortLinkOsState(LinkOsStatsDO.builder()
+                .os(os)
+                .cnt(cnt)
+                .gid(gid)
+                .fullShortUrl(fullShortUrl)
+                .date(aggregate.getDate())
+                .build()));
+        aggregate.getBrowser().forEach((browser, cnt) -> linkBrowserStatsMapper.shortLinkBrowserState(LinkBrowserStatsDO.builder()
+                .browser(browser)
+                .cnt(cnt)
+                .gid(gid)
+                .fullShortUrl(fullShortUrl)
+                .date(aggregate.getDate())
+                .build()));
+        aggregate.getDevice().forEach((device, cnt) -> linkDeviceStatsMapper.shortLinkDeviceState(LinkDeviceStatsDO.builder()
+                .device(device)
+                .cnt(cnt)
+                .gid(gid)
+                .fullShortUrl(fullShortUrl)
+                .date(aggregate.getDate())
+                .build()));
+        aggregate.getNetwork().forEach((network, cnt) -> linkNetworkStatsMapper.shortLinkNetworkState(LinkNetworkStatsDO.builder()
+                .network(network)
+                .cnt(cnt)
+                .gid(gid)
+                .fullShortUrl(fullShortUrl)
+                .date(aggregate.getDate())
+                .build()));
+        // 更新短链接的统计数据
+        shortLinkMapper.incrementStats(gid, fullShortUrl, aggregate.getPv(),
+                Objects.requireNonNullElse(aggregate.getTotalUv(), aggregate.getUv()),
+                Objects.requireNonNullElse(aggregate.getTotalUip(), aggregate.getUip()));
+        // 构建并统计今天的链接状态对象
+        LinkStatsTodayDO linkStatsTodayDO = LinkStatsTodayDO.builder()
+                .todayPv(aggregate.getPv())
+                .todayUv(aggregate.getUv())
+                .todayUip(aggregate.getUip())
+                .gid(gid)
+                .fullShortUrl(fullShortUrl)
+                .date(aggregate.getDate())
+                .build();
+        linkStatsTodayMapper.shortLinkTodayState(linkStatsTodayDO);
+    }
+}
@@ -0,0 +1,258 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.nageoffer.shortlink.project.mq.consumer;
+
+import cn.hutool.core.net.NetUtil;
+import cn.hutool.core.thread.ThreadUtil;
+import cn.hutool.core.util.RuntimeUtil;
+import com.nageoffer.shortlink.project.config.ShortLinkStatsTransportConfiguration;
+import com.nageoffer.shortlink.project.config.ShortLinkVirtualThreadConfiguration;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.AutoClaimResult;
+import org.redisson.api.PendingEntry;
+import org.redisson.api.PendingResult;
+import org.redisson.api.RBatch;
+import org.redisson.api.RStream;
+import org.redisson.api.RStreamAsync;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.StreamGroup;
+import org.redisson.api.StreamInfo;
+import org.redisson.api.StreamMessageId;
+import org.redisson.api.stream.StreamAddArgs;
+import org.redisson.api.stream.StreamReadGroupArgs;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import static com.nageoffer.shortlink.project.common.constant.RedisKeyConstant.SHORT_LINK_STATS_STREAM_DEAD_LETTER_KEY;
+import static com.nageoffer.shortlink.project.common.constant.RedisKeyConstant.SHORT_LINK_STATS_STREAM_GROUP_KEY;
+import static com.nageoffer.shortlink.project.common.constant.RedisKeyConstant.SHORT_LINK_STATS_STREAM_TOPIC_KEY;
+
+/**
+ * 短链接监控状态保存 Redis Stream 消费者
+ * 拉取线程通过 XREADGROUP COUNT 按批读取消息，整批写库成功后一次 XACK 确认，整批失败时逐条重试并确认成功的消息
+ * 写库失败的消息保留在待确认列表中，定期通过 XAUTOCLAIM 接管空闲超时的消息重新处理，包括已下线节点未确认的消息
+ * 接管时通过 XPENDING 检查投递次数，超过最大投递次数的消息转入死信 Stream 并确认，避免无法消费的消息无限重试
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "short-link.stats.transport", name = "type", havingValue = "redis-stream")
+@DependsOn("shortLinkStatsStreamInitializeTask")
+public class ShortLinkStatsStreamConsumer implements InitializingBean, DisposableBean {
+
+    /**
+     * XAUTOCLAIM 起始游标，返回的下一游标为该值时表示待确认列表已扫描完毕
+     */
+    private static final StreamMessageId CLAIM_START_ID = new StreamMessageId(0L, 0L);
+
+    private final RedissonClient redissonClient;
+    private final ShortLinkStatsSaveConsumer shortLinkStatsSaveConsumer;
+    private final ShortLinkStatsTransportConfiguration shortLinkStatsTransportConfiguration;
+    private final ShortLinkVirtualThreadConfiguration shortLinkVirtualThreadConfiguration;
+
+    private final List<Thread> consumeThreads = new ArrayList<>();
+    private volatile boolean running;
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        running = true;
+        String consumerPrefix = NetUtil.getLocalHostName() + "-" + RuntimeUtil.getPid();
+        ThreadFactory threadFactory = shortLinkVirtualThreadConfiguration.newThreadFactory("short-link_stats-stream-consumer_");
+        for (int i = 0; i < shortLinkStatsTransportConfiguration.getStreamConsumerThreads(); i++) {
+            String consumerName = consumerPrefix + "-" + i;
+            Thread consumeThread = threadFactory.newThread(() -> consumeLoop(consumerName));
+            consumeThread.start();
+            consumeThreads.add(consumeThread);
+        }
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        running = false;
+        // 等待正在处理的批次完成确认，阻塞读取最多等待一个阻塞周期
+        for (Thread each : consumeThreads) {
+            each.join(shortLinkStatsTransportConfiguration.getStreamBlockTimeout() * 2);
+        }
+    }
+
+    private void consumeLoop(String consumerName) {
+        RStream<String, String> stream = redissonClient.getStream(SHORT_LINK_STATS_STREAM_TOPIC_KEY, StringCodec.INSTANCE);
+        StreamReadGroupArgs readGroupArgs = StreamReadGroupArgs.neverDelivered()
+                .count(shortLinkStatsTransportConfiguration.getStreamReadCount())
+                .timeout(Duration.ofMillis(shortLinkStatsTransportConfiguration.getStreamBlockTimeout()));
+        long claimIntervalNanos = TimeUnit.SECONDS.toNanos(shortLinkStatsTransportConfiguration.getStreamClaimInterval());
+        // 启动后先接管一次未确认的消息
+        long nextClaimTime = System.nanoTime();
+        while (running) {
+            try {
+                if (System.nanoTime() - nextClaimTime >= 0L) {
+                    claimPending(stream, consumerName);
+                    nextClaimTime = System.nanoTime() + claimIntervalNanos;
+                }
+                consume(stream, stream.readGroup(SHORT_LINK_STATS_STREAM_GROUP_KEY, consumerName, readGroupArgs));
+            } catch (Throwable ex) {
+                log.error("[消息访问统计监控] Redis Stream 消费异常，消费者：{}", consumerName, ex);
+                ThreadUtil.sleep(1000L);
+            }
+        }
+    }
+
+    private void claimPending(RStream<String, String> stream, String consumerName) {
+        warnIfTrimmed(stream);
+        StreamMessageId startId = CLAIM_START_ID;
+        while (running) {
+            AutoClaimResult<String, String> claimResult = stream.autoClaim(
+                    SHORT_LINK_STATS_STREAM_GROUP_KEY,
+                    consumerName,
+                    shortLinkStatsTransportConfiguration.getStreamClaimIdleTime(),
+                    TimeUnit.MILLISECONDS,
+                    startId,
+                    shortLinkStatsTransportConfiguration.getStreamReadCount()
+            );
+            consume(stream, deadLetterExhausted(stream, claimResult.getMessages()));
+            startId = claimResult.getNextId();
+            if (startId == null || CLAIM_START_ID.equals(startId)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 将投递次数超过最大投递次数的消息转入死信 Stream 并确认
+     *
+     * @param messages 本次接管的消息
+     * @return 仍需重新处理的消息
+     */
+    Map<StreamMessageId, Map<String, String>> deadLetterExhausted(RStream<String, String> stream, Map<StreamMessageId, Map<String, String>> messages) {
+        if (messages == null || messages.isEmpty()) {
+            return messages;
+        }
+        StreamMessageId minId = null;
+        StreamMessageId maxId = null;
+        for (StreamMessageId each : messages.keySet()) {
+            minId = minId == null || compare(each, minId) < 0 ? each : minId;
+            maxId = maxId == null || compare(each, maxId) > 0 ? each : maxId;
+        }
+        Map<StreamMessageId, Long> deliveryCounts = new HashMap<>(messages.size());
+        for (PendingEntry each : stream.listPending(SHORT_LINK_STATS_STREAM_GROUP_KEY, minId, maxId, messages.size())) {
+            deliveryCounts.put(each.getId(), each.getLastTimeDelivered());
+        }
+        int maxDeliveryCount = shortLinkStatsTransportConfiguration.getStreamMaxDeliveryCount();
+        int maxLen = shortLinkStatsTransportConfiguration.getStreamMaxLen();
+        Map<StreamMessageId, Map<String, String>> remaining = new LinkedHashMap<>(messages.size());
+        List<StreamMessageId> discardIds = new ArrayList<>();
+        RBatch batch = redissonClient.createBatch();
+        RStreamAsync<String, String> deadLetterStream = batch.getStream(SHORT_LINK_STATS_STREAM_DEAD_LETTER_KEY, StringCodec.INSTANCE);
+        messages.forEach((id, body) -> {
+            if (body == null || body.isEmpty()) {
+                // 消息内容已被 MAXLEN 裁剪，只剩待确认列表中的记录
+                log.warn("[消息访问统计监控] Redis Stream 未确认消息已被裁剪，消息丢失，ID：{}", id);
+                discardIds.add(id);
+                return;
+            }
+            long deliveryCount = deliveryCounts.getOrDefault(id, 0L);
+            if (deliveryCount <= maxDeliveryCount) {
+                remaining.put(id, body);
+                return;
+            }
+            Map<String, String> deadLetter = new HashMap<>(body);
+            deadLetter.put("originId", id.toString());
+            deadLetter.put("deliveryCount", String.valueOf(deliveryCount));
+            StreamAddArgs<String, String> addArgs = StreamAddArgs.entries(deadLetter);
+            deadLetterStream.addAsync(maxLen > 0 ? addArgs.trimNonStrict().maxLen(maxLen).noLimit() : addArgs);
+            discardIds.add(id);
+            log.error("[消息访问统计监控] Redis Stream 消息超过最大投递次数，转入死信 Stream，ID：{}，投递次数：{}", id, deliveryCount);
+        });
+        if (!discardIds.isEmpty()) {
+            // 死信写入与确认在同一管道中按序执行，写入失败时抛出异常，消息保留在待确认列表中
+            batch.getStream(SHORT_LINK_STATS_STREAM_TOPIC_KEY, StringCodec.INSTANCE)
+                    .ackAsync(SHORT_LINK_STATS_STREAM_GROUP_KEY, discardIds.toArray(new StreamMessageId[0]));
+            batch.execute();
+        }
+        return remaining;
+    }
+
+    /**
+     * MAXLEN ~ 裁剪不区分消息是否已确认，最早的待确认消息早于 Stream 首条消息，或者消费组读取位置早于最大裁剪消息时，说明积压的消息已被裁剪
+     */
+    private void warnIfTrimmed(RStream<String, String> stream) {
+        StreamInfo<String, String> streamInfo = stream.getInfo();
+        if (streamInfo.getFirstEntry() == null) {
+            return;
+        }
+        StreamMessageId firstId = streamInfo.getFirstEntry().getId();
+        PendingResult pendingResult = stream.getPendingInfo(SHORT_LINK_STATS_STREAM_GROUP_KEY);
+        if (pendingResult.getTotal() > 0L && pendingResult.getLowestId() != null && compare(pendingResult.getLowestId(), firstId) < 0) {
+            log.warn("[消息访问统计监控] Redis Stream 未确认消息已被 MAXLEN 裁剪，最早未确认消息：{}，Stream 首条消息：{}，请调大 stream-max-len 或者扩容消费者",
+                    pendingResult.getLowestId(), firstId);
+        }
+        // 最大删除消息 ID 需要 Redis 7.0 及以上版本，低版本返回空时跳过检查
+        StreamMessageId maxDeletedId = streamInfo.getMaxDeletedEntryId();
+        if (maxDeletedId == null) {
+            return;
+        }
+        for (StreamGroup each : stream.listGroups()) {
+            if (SHORT_LINK_STATS_STREAM_GROUP_KEY.equals(each.getName())
+                    && each.getLastDeliveredId() != null
+                    && compare(maxDeletedId, each.getLastDeliveredId()) > 0) {
+                log.warn("[消息访问统计监控] Redis Stream 未读取消息已被 MAXLEN 裁剪，消费组读取位置：{}，最大裁剪消息：{}，请调大 stream-max-len 或者扩容消费者",
+                        each.getLastDeliveredId(), maxDeletedId);
+            }
+        }
+    }
+
+    void consume(RStream<String, String> stream, Map<StreamMessageId, Map<String, String>> messages) {
+        if (messages == null || messages.isEmpty()) {
+            return;
+        }
+        if (shortLinkStatsSaveConsumer.onMessages(new ArrayList<>(messages.values()))) {
+            stream.ack(SHORT_LINK_STATS_STREAM_GROUP_KEY, messages.keySet().toArray(new StreamMessageId[0]));
+            return;
+        }
+        // 整批失败时逐条重试，已写入的消息由幂等标识跳过，只有写库失败的消息保留在待确认列表中，等待空闲超时后由 XAUTOCLAIM 重新处理
+        List<StreamMessageId> savedIds = new ArrayList<>(messages.size());
+        messages.forEach((id, body) -> {
+            if (shortLinkStatsSaveConsumer.onMessages(List.of(body))) {
+                savedIds.add(id);
+            }
+        });
+        if (!savedIds.isEmpty()) {
+            stream.ack(SHORT_LINK_STATS_STREAM_GROUP_KEY, savedIds.toArray(new StreamMessageId[0]));
+        }
+    }
+
+    private static int compare(StreamMessageId left, StreamMessageId right) {
+        int result = Long.compareUnsigned(left.getId0(), right.getId0());
+        return result != 0 ? result : Long.compareUnsigned(left.getId1(), right.getId1());
+    }
+}
@@ -17,10 +17,19 @@
 
 package com.nageoffer.shortlink.project.mq.idempotent;
 
+import com.nageoffer.shortlink.project.common.enums.MessageIdempotentStatusEnum;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.TimeUnit;
 
@@ -47,6 +56,42 @@ public class MessageQueueIdempotentHandler {
         return Boolean.TRUE.equals(stringRedisTemplate.opsForValue().setIfAbsent(key, "0", 2, TimeUnit.MINUTES));
     }
 
+    /**
+     * 批量占用消息幂等标识，每条消息依次执行 SETNX 以及 GET，通过管道合并为一次往返
+     *
+     * @param messageIds 消息唯一标识集合
+     * @return 与消息唯一标识顺序一致的占用结果
+     */
+    public List<MessageIdempotentStatusEnum> claim(List<String> messageIds) {
+        if (messageIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Object> results = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (String each : messageIds) {
+                byte[] key = (IDEMPOTENT_KEY_PREFIX + each).getBytes(StandardCharsets.UTF_8);
+                connection.stringCommands().set(
+                        key,
+                        "0".getBytes(StandardCharsets.UTF_8),
+                        Expiration.from(2, TimeUnit.MINUTES),
+                        RedisStringCommands.SetOption.SET_IF_ABSENT
+                );
+                connection.stringCommands().get(key);
+            }
+            return null;
+        });
+        List<MessageIdempotentStatusEnum> statuses = new ArrayList<>(messageIds.size());
+        for (int i = 0; i < messageIds.size(); i++) {
+            if (Boolean.TRUE.equals(results.get(i * 2))) {
+                statuses.add(MessageIdempotentStatusEnum.CLAIMED);
+            } else if (Objects.equals(results.get(i * 2 + 1), "1")) {
+                statuses.add(MessageIdempotentStatusEnum.ACCOMPLISHED);
+            } else {
+                statuses.add(MessageIdempotentStatusEnum.PROCESSING);
+            }
+        }
+        return statuses;
+    }
+
     /**
      * 判断消息消费流程是否执行完成
      *
@@ -68,6 +113,40 @@ public class MessageQueueIdempotentHandler {
         stringRedisTemplate.opsForValue().set(key, "1", 2, TimeUnit.MINUTES);
     }
 
+    /**
+     * 批量设置消息流程执行完成，通过管道合并为一次往返
+     *
+     * @param messageIds 消息唯一标识集合
+     */
+    public void setAccomplish(Collection<String> messageIds) {
+        if (messageIds.isEmpty()) {
+            return;
+        }
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (String each : messageIds) {
+                connection.stringCommands().set(
+                        (IDEMPOTENT_KEY_PREFIX + each).getBytes(StandardCharsets.UTF_8),
+                        "1".getBytes(StandardCharsets.UTF_8),
+                        Expiration.from(2, TimeUnit.MINUTES),
+                        RedisStringCommands.SetOption.UPSERT
+                );
+            }
+            return null;
+        });
+    }
+
+    /**
+     * 批量删除幂等标识
+     *
+     * @param messageIds 消息唯一标识集合
+     */
+    public void delMessageProcessed(Collection<String> messageIds) {
+        if (messageIds.isEmpty()) {
+            return;
+        }
+        stringRedisTemplate.delete(messageIds.stream().map(each -> IDEMPOTENT_KEY_PREFIX + each).toList());
+    }
+
     /**
      * 如果消息处理遇到异常情况，删除幂等标识
      *
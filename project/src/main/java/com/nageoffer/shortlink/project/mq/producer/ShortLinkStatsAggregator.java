@@ -0,0 +1,243 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.nageoffer.shortlink.project.mq.producer;
+
+import com.alibaba.fastjson2.JSON;
+import com.nageoffer.shortlink.project.config.ShortLinkStatsAggregateConfiguration;
+import com.nageoffer.shortlink.project.config.ShortLinkVirtualThreadConfiguration;
+import com.nageoffer.shortlink.project.dto.biz.ShortLinkStatsAggregateDTO;
+import com.nageoffer.shortlink.project.dto.biz.ShortLinkStatsRecordDTO;
+import com.nageoffer.shortlink.project.toolkit.TimeBucketUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 短链接监控指标节点内预聚合器
+ * 访问量、独立访客、独立 IP 以及操作系统、浏览器、设备、网络等可累加指标按短链接、分组、日期、小时在内存中累加，
+ * 定期合并为每个 Key 一条消息发送，热点短链接每秒上千次访问只产生少量消息以及数据库更新
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ShortLinkStatsAggregator implements InitializingBean, DisposableBean {
+
+    private final ShortLinkStatsSaveProducer shortLinkStatsSaveProducer;
+    private final ShortLinkStatsAggregateConfiguration shortLinkStatsAggregateConfiguration;
+    private final ShortLinkVirtualThreadConfiguration shortLinkVirtualThreadConfiguration;
+
+    private volatile Window window = new Window();
+    private ScheduledExecutorService flushExecutor;
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        if (!isEnable()) {
+            return;
+        }
+        flushExecutor = Executors.newSingleThreadScheduledExecutor(
+                shortLinkVirtualThreadConfiguration.newThreadFactory("short-link_stats-aggregate-flush_")
+        );
+        long flushInterval = shortLinkStatsAggregateConfiguration.getFlushInterval();
+        flushExecutor.scheduleWithFixedDelay(this::flush, flushInterval, flushInterval, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        if (flushExecutor == null) {
+            return;
+        }
+        flushExecutor.shutdown();
+        flushExecutor.awaitTermination(5, TimeUnit.SECONDS);
+        // 生产者晚于当前组件销毁，最后一个窗口的数据进入生产者缓冲区后随其一起发送
+        flush();
+    }
+
+    /**
+     * 是否开启预聚合
+     */
+    public boolean isEnable() {
+        return Boolean.TRUE.equals(shortLinkStatsAggregateConfiguration.getEnable());
+    }
+
+    /**
+     * 累加一次访问的可累加指标
+     *
+     * @param fullShortUrl 完整短链接
+     * @param gid          分组标识，可能为空
+     * @param statsRecord  短链接统计实体参数
+     */
+    public void record(String fullShortUrl, String gid, ShortLinkStatsRecordDTO statsRecord) {
+        TimeBucketUtil.TimeBucket bucket = TimeBucketUtil.current();
+        AggregateKey key = new AggregateKey(fullShortUrl, gid, bucket.date(), bucket.hour());
+        while (true) {
+            Window current = window;
+            if (!current.enter()) {
+                // 刷新线程已关闭该窗口，重新读取并写入新窗口
+                continue;
+            }
+            try {
+                current.counters.computeIfAbsent(key, each -> new AggregateCounter()).add(statsRecord);
+                return;
+            } finally {
+                current.exit();
+            }
+        }
+    }
+
+    /**
+     * 切换到新窗口并关闭旧窗口，等待仍在写入旧窗口的线程完成后发送旧窗口中的聚合结果
+     */
+    private void flush() {
+        try {
+            Window previous = window;
+            window = new Window();
+            previous.closeAndAwaitWriters();
+            previous.counters.forEach((key, counter) -> {
+                Map<String, String> producerMap = new HashMap<>();
+                producerMap.put("fullShortUrl", key.fullShortUrl());
+                producerMap.put("gid", key.gid());
+                producerMap.put("statsAggregate", JSON.toJSONString(counter.toAggregate(key)));
+                shortLinkStatsSaveProducer.send(producerMap);
+            });
+        } catch (Throwable ex) {
+            log.error("[消息访问统计监控] 发送预聚合统计失败", ex);
+        }
+    }
+
+    private record AggregateKey(String fullShortUrl, String gid, LocalDate date, int hour) {
+    }
+
+    private static class Window {
+
+        private final ConcurrentHashMap<AggregateKey, AggregateCounter> counters = new ConcurrentHashMap<>();
+
+        /**
+         * 窗口关闭标识，置于写入线程数的符号位，关闭后写入线程数只减不增
+         */
+        private static final long CLOSED = Long.MIN_VALUE;
+
+        /**
+         * 正在写入当前窗口的线程数以及窗口关闭标识
+         * 写入线程的进入、退出与刷新线程的关闭作用在同一个原子变量上，关闭时观察到的线程数是准确值
+         */
+        private final AtomicLong state = new AtomicLong();
+
+        /**
+         * 登记一个写入线程
+         *
+         * @return 窗口已关闭时返回 false，调用方需要写入新窗口
+         */
+        boolean enter() {
+            long current;
+            do {
+                current = state.get();
+                if (current < 0L) {
+                    return false;
+                }
+            } while (!state.compareAndSet(current, current + 1L));
+            return true;
+        }
+
+        void exit() {
+            state.decrementAndGet();
+        }
+
+        /**
+         * 关闭窗口，拒绝新的写入线程并等待已登记的写入线程全部退出
+         */
+        void closeAndAwaitWriters() {
+            state.getAndAdd(CLOSED);
+            while (state.get() != CLOSED) {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    private static class AggregateCounter {
+
+        private final LongAdder pv = new LongAdder();
+        private final LongAdder uv = new LongAdder();
+        private final LongAdder uip = new LongAdder();
+        private final LongAdder totalUv = new LongAdder();
+        private final LongAdder totalUip = new LongAdder();
+        private final ConcurrentHashMap<String, LongAdder> os = new ConcurrentHashMap<>();
+        private final ConcurrentHashMap<String, LongAdder> browser = new ConcurrentHashMap<>();
+        private final ConcurrentHashMap<String, LongAdder> device = new ConcurrentHashMap<>();
+        private final ConcurrentHashMap<String, LongAdder> network = new ConcurrentHashMap<>();
+
+        void add(ShortLinkStatsRecordDTO statsRecord) {
+            pv.increment();
+            if (Boolean.TRUE.equals(statsRecord.getUvFirstFlag())) {
+                uv.increment();
+            }
+            if (Boolean.TRUE.equals(statsRecord.getUipFirstFlag())) {
+                uip.increment();
+            }
+            totalUv.add(Objects.requireNonNullElse(statsRecord.getUvTotalDelta(), Boolean.TRUE.equals(statsRecord.getUvFirstFlag()) ? 1 : 0));
+            totalUip.add(Objects.requireNonNullElse(statsRecord.getUipTotalDelta(), Boolean.TRUE.equals(statsRecord.getUipFirstFlag()) ? 1 : 0));
+            increment(os, statsRecord.getOs());
+            increment(browser, statsRecord.getBrowser());
+            increment(device, statsRecord.getDevice());
+            increment(network, statsRecord.getNetwork());
+        }
+
+        ShortLinkStatsAggregateDTO toAggregate(AggregateKey key) {
+            return ShortLinkStatsAggregateDTO.builder()
+                    .fullShortUrl(key.fullShortUrl())
+                    .gid(key.gid())
+                    .date(Date.from(key.date().atStartOfDay(ZoneId.systemDefault()).toInstant()))
+                    .hour(key.hour())
+                    .weekday(key.date().getDayOfWeek().getValue())
+                    .pv(pv.intValue())
+                    .uv(uv.intValue())
+                    .uip(uip.intValue())
+                    .totalUv(totalUv.intValue())
+                    .totalUip(totalUip.intValue())
+                    .os(sum(os))
+                    .browser(sum(browser))
+                    .device(sum(device))
+                    .network(sum(network))
+                    .build();
+        }
+
+        private static void increment(ConcurrentHashMap<String, LongAdder> counters, String dimension) {
+            counters.computeIfAbsent(Objects.requireNonNullElse(dimension, "Unknown"), each -> new LongAdder()).increment();
+        }
+
+        private static Map<String, Integer> sum(ConcurrentHashMap<String, LongAdder> counters) {
+            Map<String, Integer> result = new HashMap<>(counters.size());
+            counters.forEach((dimension, counter) -> result.put(dimension, counter.intValue()));
+            return result;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.nageoffer.shortlink.project.mq.producer;
+
+import com.nageoffer.shortlink.project.config.ShortLinkStatsProducerConfiguration;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.rocketmq.client.producer.SendResult;
+import org.apache.rocketmq.common.message.MessageConst;
+import org.apache.rocketmq.spring.core.RocketMQTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 短链接监控消息 RocketMQ 发送器
+ * 开启分区发送后按完整短链接哈希选择队列，同一短链接的消息只会被一个消费线程顺序处理
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "short-link.stats.transport", name = "type", havingValue = "rocketmq", matchIfMissing = true)
+public class ShortLinkStatsRocketMQSender implements ShortLinkStatsSender {
+
+    private final RocketMQTemplate rocketMQTemplate;
+    private final ShortLinkStatsProducerConfiguration shortLinkStatsProducerConfiguration;
+
+    @Value("${rocketmq.producer.topic}")
+    private String statsSaveTopic;
+
+    @Override
+    public List<Map<String, String>> send(List<Map<String, String>> producerMaps) {
+        if (!isPartitionEnable()) {
+            return send(producerMaps, null) ? Collections.emptyList() : producerMaps;
+        }
+        // 一批消息只能发送到同一队列，按分区拆分后分别发送
+        Map<String, List<Map<String, String>>> partitionBatches = new HashMap<>();
+        for (Map<String, String> each : producerMaps) {
+            partitionBatches.computeIfAbsent(partitionKey(each), key -> new ArrayList<>()).add(each);
+        }
+        List<Map<String, String>> failedMessages = new ArrayList<>();
+        partitionBatches.forEach((partitionKey, partitionBatch) -> {
+            if (!send(partitionBatch, partitionKey)) {
+                failedMessages.addAll(partitionBatch);
+            }
+        });
+        return failedMessages;
+    }
+
+    /**
+     * 同步发送一批消息，一批消息要么整体成功要么整体失败
+     *
+     * @return 是否发送成功
+     */
+    private boolean send(List<Map<String, String>> batch, String partitionKey) {
+        if (batch.size() == 1) {
+            Message<Map<String, String>> message = buildMessage(batch.get(0));
+            try {
+                SendResult sendResult = partitionKey == null
+                        ? rocketMQTemplate.syncSend(statsSaveTopic, message, 2000L)
+                        : rocketMQTemplate.syncSendOrderly(statsSaveTopic, message, partitionKey, 2000L);
+                log.info("[消息访问统计监控] 消息发送结果：{}，消息ID：{}，消息Keys：{}", sendResult.getSendStatus(), sendResult.getMsgId(), batch.get(0).get("keys"));
+                return true;
+            } catch (Throwable ex) {
+                log.error("[消息访问统计监控] 消息发送失败，消息体：{}", batch.get(0), ex);
+                return false;
+            }
+        }
+        List<Message<Map<String, String>>> messages = new ArrayList<>(batch.size());
+        for (Map<String, String> each : batch) {
+            messages.add(buildMessage(each));
+        }
+        try {
+            SendResult sendResult = partitionKey == null
+                    ? rocketMQTemplate.syncSend(statsSaveTopic, messages, 2000L)
+                    : rocketMQTemplate.syncSendOrderly(statsSaveTopic, messages, partitionKey, 2000L);
+            if (log.isDebugEnabled()) {
+                log.debug("[消息访问统计监控] 批量消息发送结果：{}，消息数量：{}", sendResult.getSendStatus(), messages.size());
+            }
+            return true;
+        } catch (Throwable ex) {
+            log.error("[消息访问统计监控] 批量消息发送失败，消息数量：{}", messages.size(), ex);
+            return false;
+        }
+    }
+
+    private Message<Map<String, String>> buildMessage(Map<String, String> producerMap) {
+        return MessageBuilder
+                .withPayload(producerMap)
+                .setHeader(MessageConst.PROPERTY_KEYS, producerMap.get("keys"))
+                .build();
+    }
+
+    /**
+     * 计算消息所属分区，RocketMQ 按分区标识哈希选择队列，同一短链接始终映射到同一队列
+     */
+    private String partitionKey(Map<String, String> producerMap) {
+        String fullShortUrl = producerMap.get("fullShortUrl");
+        int partition = fullShortUrl == null ? 0 : Math.floorMod(fullShortUrl.hashCode(), shortLinkStatsProducerConfiguration.getPartitions());
+        return String.valueOf(partition);
+    }
+
+    private boolean isPartitionEnable() {
+        return Boolean.TRUE.equals(shortLinkStatsProducerConfiguration.getPartitionEnable());
+    }
+}
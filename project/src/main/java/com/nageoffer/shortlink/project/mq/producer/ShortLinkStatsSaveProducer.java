@@ -0,0 +1,163 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.nageoffer.shortlink.project.mq.producer;
+
+import cn.hutool.core.lang.UUID;
+import com.nageoffer.shortlink.project.config.ShortLinkStatsProducerConfiguration;
+import com.nageoffer.shortlink.project.config.ShortLinkVirtualThreadConfiguration;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 短链接监控状态保存消息队列生产者
+ * 开启批量发送后，跳转线程只将消息放入有界缓冲区，由后台线程攒批后批量发送，跳转耗时不再受 Broker 往返影响
+ * 缓冲区已满时丢弃新消息并计数，批量发送失败的消息按退避时间重试，重试仍失败的消息同样计入丢弃数
+ * 应用关闭时发送完缓冲区中剩余的消息
+ * 消息的实际发送由 {@link ShortLinkStatsSender} 按配置的传输方式完成
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ShortLinkStatsSaveProducer implements InitializingBean, DisposableBean {
+
+    private final ShortLinkStatsSender shortLinkStatsSender;
+    private final MeterRegistry meterRegistry;
+    private final ShortLinkStatsProducerConfiguration shortLinkStatsProducerConfiguration;
+    private final ShortLinkVirtualThreadConfiguration shortLinkVirtualThreadConfiguration;
+
+    private BlockingQueue<Map<String, String>> buffer;
+    private Thread flushThread;
+    private Counter droppedCounter;
+    private volatile boolean running;
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        droppedCounter = Counter.builder("short-link.stats.producer.dropped").register(meterRegistry);
+        if (!isBatchEnable()) {
+            return;
+        }
+        buffer = new ArrayBlockingQueue<>(shortLinkStatsProducerConfiguration.getBufferSize());
+        Gauge.builder("short-link.stats.producer.buffer.size", buffer, BlockingQueue::size).register(meterRegistry);
+        running = true;
+        flushThread = shortLinkVirtualThreadConfiguration.newThreadFactory("short-link_stats-producer-flush_")
+                .newThread(this::flushLoop);
+        flushThread.start();
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        if (flushThread == null) {
+            return;
+        }
+        running = false;
+        flushThread.join(shortLinkStatsProducerConfiguration.getShutdownTimeout());
+        if (!buffer.isEmpty()) {
+            log.warn("[消息访问统计监控] 应用关闭时仍有 {} 条消息未发送", buffer.size());
+        }
+    }
+
+    /**
+     * 发送短链接监控状态保存消息
+     *
+     * @param producerMap 消息体
+     */
+    public void send(Map<String, String> producerMap) {
+        producerMap.put("keys", UUID.randomUUID().toString());
+        if (!isBatchEnable()) {
+            // 同步发送运行在跳转线程上，失败后不再重试
+            droppedCounter.increment(shortLinkStatsSender.send(Collections.singletonList(producerMap)).size());
+            return;
+        }
+        if (!running || !buffer.offer(producerMap)) {
+            droppedCounter.increment();
+        }
+    }
+
+    private void flushLoop() {
+        int flushSize = shortLinkStatsProducerConfiguration.getFlushSize();
+        long flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(shortLinkStatsProducerConfiguration.getFlushInterval());
+        List<Map<String, String>> batch = new ArrayList<>(flushSize);
+        while (running || !buffer.isEmpty()) {
+            try {
+                Map<String, String> first = buffer.poll(flushIntervalNanos, TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + flushIntervalNanos;
+                while (batch.size() < flushSize && running) {
+                    buffer.drainTo(batch, flushSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= flushSize || remaining <= 0L) {
+                        break;
+                    }
+                    Map<String, String> next = buffer.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                // 关闭过程中不再等待攒批，尽快发送剩余消息
+                buffer.drainTo(batch, flushSize - batch.size());
+                sendWithRetry(batch);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Throwable ex) {
+                log.error("[消息访问统计监控] 批量发送线程异常", ex);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * 发送一批消息，发送失败的消息按指数退避重试，重试次数用尽或应用关闭后仍失败的消息计入丢弃数
+     */
+    private void sendWithRetry(List<Map<String, String>> batch) throws InterruptedException {
+        List<Map<String, String>> failedMessages = shortLinkStatsSender.send(batch);
+        long backoff = shortLinkStatsProducerConfiguration.getSendRetryBackoff();
+        for (int i = 0; i < shortLinkStatsProducerConfiguration.getSendRetryTimes() && !failedMessages.isEmpty() && running; i++) {
+            TimeUnit.MILLISECONDS.sleep(backoff);
+            backoff <<= 1;
+            failedMessages = shortLinkStatsSender.send(new ArrayList<>(failedMessages));
+        }
+        if (!failedMessages.isEmpty()) {
+            droppedCounter.increment(failedMessages.size());
+            log.error("[消息访问统计监控] 批量消息重试后仍发送失败，丢弃消息数量：{}", failedMessages.size());
+        }
+    }
+
+    private boolean isBatchEnable() {
+        return Boolean.TRUE.equals(shortLinkStatsProducerConfiguration.getBatchEnable());
+    }
+}
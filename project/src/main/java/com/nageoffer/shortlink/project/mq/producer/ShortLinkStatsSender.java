@@ -0,0 +1,38 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.nageoffer.shortlink.project.mq.producer;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 短链接监控消息发送器
+ * 不同传输方式的扩展点，通过 short-link.stats.transport.type 选择实现，消费端需使用相同的传输方式
+ */
+public interface ShortLinkStatsSender {
+
+    /**
+     * 发送一批监控消息，消息体中已包含消息唯一标识 keys
+     * 发送失败时记录日志并返回发送失败的消息，不向调用方抛出异常，避免影响短链接跳转
+     *
+     * @param producerMaps 消息体集合
+     * @return 发送失败的消息体集合，全部发送成功时返回空集合
+     */
+    List<Map<String, String>> send(List<Map<String, String>> producerMaps);
+}
@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.nageoffer.shortlink.project.mq.producer;
+
+import com.nageoffer.shortlink.project.config.ShortLinkStatsTransportConfiguration;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RBatch;
+import org.redisson.api.RStreamAsync;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.stream.StreamAddArgs;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.nageoffer.shortlink.project.common.constant.RedisKeyConstant.SHORT_LINK_STATS_STREAM_TOPIC_KEY;
+
+/**
+ * 短链接监控消息 Redis Stream 发送器
+ * 一批消息通过管道执行 XADD，按 MAXLEN ~ 近似裁剪，避免消费积压时 Stream 无限增长，裁剪会同时丢弃尚未确认的消息
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "short-link.stats.transport", name = "type", havingValue = "redis-stream")
+public class ShortLinkStatsStreamSender implements ShortLinkStatsSender {
+
+    private final RedissonClient redissonClient;
+    private final ShortLinkStatsTransportConfiguration shortLinkStatsTransportConfiguration;
+
+    @Override
+    public List<Map<String, String>> send(List<Map<String, String>> producerMaps) {
+        RBatch batch = redissonClient.createBatch();
+        RStreamAsync<String, String> stream = batch.getStream(SHORT_LINK_STATS_STREAM_TOPIC_KEY, StringCodec.INSTANCE);
+        int maxLen = shortLinkStatsTransportConfiguration.getStreamMaxLen();
+        for (Map<String, String> each : producerMaps) {
+            // Stream 字段值不能为空，空值字段不写入，消费端读取时同样为空
+            Map<String, String> entries = new HashMap<>(each.size() * 2);
+            each.forEach((key, value) -> {
+                if (value != null) {
+                    entries.put(key, value);
+                }
+            });
+            StreamAddArgs<String, String> addArgs = StreamAddArgs.entries(entries);
+            stream.addAsync(maxLen > 0 ? addArgs.trimNonStrict().maxLen(maxLen).noLimit() : addArgs);
+        }
+        try {
+            batch.execute();
+            return Collections.emptyList();
+        } catch (Throwable ex) {
+            // 管道中部分命令可能已执行，整批重试时消费端按消息唯一标识幂等去重
+            log.error("[消息访问统计监控] Redis Stream 消息发送失败，消息数量：{}", producerMaps.size(), ex);
+            return producerMaps;
+        }
+    }
+}
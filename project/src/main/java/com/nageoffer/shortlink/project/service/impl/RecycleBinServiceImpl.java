@@ -23,7 +23,29 @@ import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.core.toolkit.Wrappers;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.nageoffer.shortlink.project.cache.ShortLinkGotoLocalCache;
+import com.nageoffer.shortlink.project.cache.ShortUriMembershipFilter;
+import com.nageoffer.shortlink.project.config.ShortLinkUniqueStatsConfiguration;
+import com.nageoffer.shortlink.project.config.ShortUriMembershipFilterConfiguration;
+import com.nageoffer.shortlink.project.dao.entity.LinkAccessLogsDO;
+import com.nageoffer.shortlink.project.dao.entity.LinkAccessStatsDO;
+import com.nageoffer.shortlink.project.dao.entity.LinkBrowserStatsDO;
+import com.nageoffer.shortlink.project.dao.entity.LinkDeviceStatsDO;
+import com.nageoffer.shortlink.project.dao.entity.LinkLocaleStatsDO;
+import com.nageoffer.shortlink.project.dao.entity.LinkNetworkStatsDO;
+import com.nageoffer.shortlink.project.dao.entity.LinkOsStatsDO;
+import com.nageoffer.shortlink.project.dao.entity.LinkStatsTodayDO;
 import com.nageoffer.shortlink.project.dao.entity.ShortLinkDO;
+import com.nageoffer.shortlink.project.dao.entity.ShortLinkGotoDO;
+import com.nageoffer.shortlink.project.dao.mapper.LinkAccessLogsMapper;
+import com.nageoffer.shortlink.project.dao.mapper.LinkAccessStatsMapper;
+import com.nageoffer.shortlink.project.dao.mapper.LinkBrowserStatsMapper;
+import com.nageoffer.shortlink.project.dao.mapper.LinkDeviceStatsMapper;
+import com.nageoffer.shortlink.project.dao.mapper.LinkLocaleStatsMapper;
+import com.nageoffer.shortlink.project.dao.mapper.LinkNetworkStatsMapper;
+import com.nageoffer.shortlink.project.dao.mapper.LinkOsStatsMapper;
+import com.nageoffer.shortlink.project.dao.mapper.LinkStatsTodayMapper;
+import com.nageoffer.shortlink.project.dao.mapper.ShortLinkGotoMapper;
 import com.nageoffer.shortlink.project.dao.mapper.ShortLinkMapper;
 import com.nageoffer.shortlink.project.dto.req.RecycleBinRecoverReqDTO;
 import com.nageoffer.shortlink.project.dto.req.RecycleBinRemoveReqDTO;
@@ -31,22 +53,57 @@ import com.nageoffer.shortlink.project.dto.req.RecycleBinSaveReqDTO;
 import com.nageoffer.shortlink.project.dto.req.ShortLinkRecycleBinPageReqDTO;
 import com.nageoffer.shortlink.project.dto.resp.ShortLinkPageRespDTO;
 import com.nageoffer.shortlink.project.service.RecycleBinService;
+import com.nageoffer.shortlink.project.toolkit.TimeBucketUtil;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
 
 import static com.nageoffer.shortlink.project.common.constant.RedisKeyConstant.GOTO_IS_NULL_SHORT_LINK_KEY;
 import static com.nageoffer.shortlink.project.common.constant.RedisKeyConstant.GOTO_SHORT_LINK_KEY;
+import static com.nageoffer.shortlink.project.common.constant.RedisKeyConstant.SHORT_LINK_STATS_UIP_HLL_KEY;
+import static com.nageoffer.shortlink.project.common.constant.RedisKeyConstant.SHORT_LINK_STATS_UIP_KEY;
+import static com.nageoffer.shortlink.project.common.constant.RedisKeyConstant.SHORT_LINK_STATS_UIP_SEEN_BITMAP_KEY;
+import static com.nageoffer.shortlink.project.common.constant.RedisKeyConstant.SHORT_LINK_STATS_UIP_SEEN_SET_KEY;
+import static com.nageoffer.shortlink.project.common.constant.RedisKeyConstant.SHORT_LINK_STATS_UV_HLL_KEY;
+import static com.nageoffer.shortlink.project.common.constant.RedisKeyConstant.SHORT_LINK_STATS_UV_KEY;
+import static com.nageoffer.shortlink.project.common.constant.RedisKeyConstant.SHORT_LINK_STATS_UV_SEEN_BITMAP_KEY;
+import static com.nageoffer.shortlink.project.common.constant.RedisKeyConstant.SHORT_LINK_STATS_UV_SEEN_SET_KEY;
 
 /**
  * 回收站管理接口实现层
 
  */
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class RecycleBinServiceImpl extends ServiceImpl<ShortLinkMapper, ShortLinkDO> implements RecycleBinService {
 
     private final StringRedisTemplate stringRedisTemplate;
+    private final ShortLinkGotoLocalCache shortLinkGotoLocalCache;
+    private final ShortLinkGotoMapper shortLinkGotoMapper;
+    private final ShortUriMembershipFilter shortUriMembershipFilter;
+    private final ShortUriMembershipFilterConfiguration shortUriMembershipFilterConfiguration;
+    private final ShortLinkUniqueStatsConfiguration shortLinkUniqueStatsConfiguration;
+    private final LinkAccessStatsMapper linkAccessStatsMapper;
+    private final LinkLocaleStatsMapper linkLocaleStatsMapper;
+    private final LinkOsStatsMapper linkOsStatsMapper;
+    private final LinkBrowserStatsMapper linkBrowserStatsMapper;
+    private final LinkDeviceStatsMapper linkDeviceStatsMapper;
+    private final LinkNetworkStatsMapper linkNetworkStatsMapper;
+    private final LinkStatsTodayMapper linkStatsTodayMapper;
+    private final LinkAccessLogsMapper linkAccessLogsMapper;
+    private final TransactionTemplate transactionTemplate;
 
     @Override
     public void saveRecycleBin(RecycleBinSaveReqDTO requestParam) {
@@ -60,6 +117,7 @@ public class RecycleBinServiceImpl extends ServiceImpl<ShortLinkMapper, ShortLin
                 .build();
         baseMapper.update(shortLinkDO, updateWrapper);
         stringRedisTemplate.delete(String.format(GOTO_SHORT_LINK_KEY, requestParam.getFullShortUrl()));
+        shortLinkGotoLocalCache.invalidate(requestParam.getFullShortUrl());
     }
 
     @Override
@@ -89,8 +147,10 @@ public class RecycleBinServiceImpl extends ServiceImpl<ShortLinkMapper, ShortLin
                 .build();
         baseMapper.update(shortLinkDO, updateWrapper);
         stringRedisTemplate.delete(String.format(GOTO_IS_NULL_SHORT_LINK_KEY, requestParam.getFullShortUrl()));
+        shortLinkGotoLocalCache.invalidate(requestParam.getFullShortUrl());
     }
 
+    @Transactional(rollbackFor = Exception.class)
     @Override
     public void removeRecycleBin(RecycleBinRemoveReqDTO requestParam) {
         LambdaUpdateWrapper<ShortLinkDO> updateWrapper = Wrappers.lambdaUpdate(ShortLinkDO.class)
@@ -103,6 +163,96 @@ public class RecycleBinServiceImpl extends ServiceImpl<ShortLinkMapper, ShortLin
                 .delTime(System.currentTimeMillis())
                 .build();
         delShortLinkDO.setDelFlag(1);
-        baseMapper.update(delShortLinkDO, updateWrapper);
+        int removed = baseMapper.update(delShortLinkDO, updateWrapper);
+        shortLinkGotoLocalCache.invalidate(requestParam.getFullShortUrl());
+        if (removed > 0) {
+            String fullShortUrl = requestParam.getFullShortUrl();
+            String gid = requestParam.getGid();
+            // 成员过滤器不参与数据库事务，提交后再移除，事务回滚时短链接仍然存在不能被误删
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+                @Override
+                public void afterCommit() {
+                    releaseShortUri(fullShortUrl, gid);
+                }
+            });
+        }
+    }
+
+    /**
+     * 从成员过滤器中移除短链接，移除成功时后缀可以被重新分配，同时删除跳转路由，避免新短链接命中旧路由
+     * 开启 short-link.membership-filter.purge-stats-on-remove 时再删除监控数据以及访问日志，重新分配的短链接从空统计开始，删除不可恢复
+     * 不支持删除的过滤器类型中后缀不会被重新分配，跳转路由以及监控数据全部保留
+     */
+    private void releaseShortUri(String fullShortUrl, String gid) {
+        if (!shortUriMembershipFilter.remove(fullShortUrl)) {
+            return;
+        }
+        // 提交回调中原事务的连接仍然绑定在当前线程，需要开启新事务，否则删除不会提交
+        TransactionTemplate requiresNewTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        requiresNewTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        try {
+            LambdaQueryWrapper<ShortLinkGotoDO> linkGotoQueryWrapper = Wrappers.lambdaQuery(ShortLinkGotoDO.class)
+                    .eq(ShortLinkGotoDO::getFullShortUrl, fullShortUrl)
+                    .eq(ShortLinkGotoDO::getGid, gid);
+            requiresNewTemplate.executeWithoutResult(status -> shortLinkGotoMapper.delete(linkGotoQueryWrapper));
+            if (Boolean.TRUE.equals(shortUriMembershipFilterConfiguration.getPurgeStatsOnRemove())) {
+                removeStats(requiresNewTemplate, fullShortUrl, gid);
+                removeUniqueStatsKeys(fullShortUrl);
+            }
+        } catch (Throwable ex) {
+            log.error("释放短链接后缀失败，短链接：{}，分组：{}", fullShortUrl, gid, ex);
+        }
+    }
+
+    /**
+     * 删除短链接在各监控表中的数据，事务提交后逐表在独立事务中删除，不占用回收站删除请求的事务
+     */
+    private void removeStats(TransactionTemplate requiresNewTemplate, String fullShortUrl, String gid) {
+        requiresNewTemplate.executeWithoutResult(status -> linkAccessStatsMapper.delete(Wrappers.lambdaQuery(LinkAccessStatsDO.class)
+                .eq(LinkAccessStatsDO::getFullShortUrl, fullShortUrl)
+                .eq(LinkAccessStatsDO::getGid, gid)));
+        requiresNewTemplate.executeWithoutResult(status -> linkLocaleStatsMapper.delete(Wrappers.lambdaQuery(LinkLocaleStatsDO.class)
+                .eq(LinkLocaleStatsDO::getFullShortUrl, fullShortUrl)
+                .eq(LinkLocaleStatsDO::getGid, gid)));
+        requiresNewTemplate.executeWithoutResult(status -> linkOsStatsMapper.delete(Wrappers.lambdaQuery(LinkOsStatsDO.class)
+                .eq(LinkOsStatsDO::getFullShortUrl, fullShortUrl)
+                .eq(LinkOsStatsDO::getGid, gid)));
+        requiresNewTemplate.executeWithoutResult(status -> linkBrowserStatsMapper.delete(Wrappers.lambdaQuery(LinkBrowserStatsDO.class)
+                .eq(LinkBrowserStatsDO::getFullShortUrl, fullShortUrl)
+                .eq(LinkBrowserStatsDO::getGid, gid)));
+        requiresNewTemplate.executeWithoutResult(status -> linkDeviceStatsMapper.delete(Wrappers.lambdaQuery(LinkDeviceStatsDO.class)
+                .eq(LinkDeviceStatsDO::getFullShortUrl, fullShortUrl)
+                .eq(LinkDeviceStatsDO::getGid, gid)));
+        requiresNewTemplate.executeWithoutResult(status -> linkNetworkStatsMapper.delete(Wrappers.lambdaQuery(LinkNetworkStatsDO.class)
+                .eq(LinkNetworkStatsDO::getFullShortUrl, fullShortUrl)
+                .eq(LinkNetworkStatsDO::getGid, gid)));
+        requiresNewTemplate.executeWithoutResult(status -> linkStatsTodayMapper.delete(Wrappers.lambdaQuery(LinkStatsTodayDO.class)
+                .eq(LinkStatsTodayDO::getFullShortUrl, fullShortUrl)
+                .eq(LinkStatsTodayDO::getGid, gid)));
+        requiresNewTemplate.executeWithoutResult(status -> linkAccessLogsMapper.delete(Wrappers.lambdaQuery(LinkAccessLogsDO.class)
+                .eq(LinkAccessLogsDO::getFullShortUrl, fullShortUrl)
+                .eq(LinkAccessLogsDO::getGid, gid)));
+    }
+
+    /**
+     * 删除短链接的 UV、UIP 去重结构，所有 Key 使用同一个 Hash Tag，集群模式下也可以一次删除
+     * 按天分桶的首次访问判断结构只保留有限天数，删除保留期内的全部分桶即可
+     */
+    private void removeUniqueStatsKeys(String fullShortUrl) {
+        List<String> keys = new ArrayList<>();
+        keys.add(String.format(SHORT_LINK_STATS_UV_KEY, fullShortUrl));
+        keys.add(String.format(SHORT_LINK_STATS_UIP_KEY, fullShortUrl));
+        keys.add(String.format(SHORT_LINK_STATS_UV_HLL_KEY, fullShortUrl));
+        keys.add(String.format(SHORT_LINK_STATS_UIP_HLL_KEY, fullShortUrl));
+        LocalDate today = TimeBucketUtil.current().date();
+        for (int i = 0; i <= shortLinkUniqueStatsConfiguration.getBucketRetentionDays(); i++) {
+            String day = today.minusDays(i).format(DateTimeFormatter.BASIC_ISO_DATE);
+            keys.add(String.format(SHORT_LINK_STATS_UV_SEEN_SET_KEY, fullShortUrl, day));
+            keys.add(String.format(SHORT_LINK_STATS_UV_SEEN_BITMAP_KEY, fullShortUrl, day));
+            keys.add(String.format(SHORT_LINK_STATS_UIP_SEEN_SET_KEY, fullShortUrl, day));
+            keys.add(String.format(SHORT_LINK_STATS_UIP_SEEN_BITMAP_KEY, fullShortUrl, day));
+        }
+        stringRedisTemplate.delete(keys);
     }
 }
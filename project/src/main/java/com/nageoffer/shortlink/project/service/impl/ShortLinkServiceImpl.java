@@ -30,10 +30,20 @@ import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.core.toolkit.Wrappers;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.baomidou.mybatisplus.extension.toolkit.Db;
+import com.nageoffer.shortlink.project.cache.ShortLinkCodePool;
+import com.nageoffer.shortlink.project.cache.ShortLinkFaviconEnricher;
+import com.nageoffer.shortlink.project.cache.ShortLinkGidUpdateFence;
+import com.nageoffer.shortlink.project.cache.ShortLinkGotoLoader;
+import com.nageoffer.shortlink.project.cache.ShortLinkGotoLocalCache;
+import com.nageoffer.shortlink.project.cache.ShortLinkNegativeCache;
+import com.nageoffer.shortlink.project.cache.ShortUriMembershipFilter;
+import com.nageoffer.shortlink.project.common.convention.exception.AbstractException;
 import com.nageoffer.shortlink.project.common.convention.exception.ClientException;
 import com.nageoffer.shortlink.project.common.convention.exception.ServiceException;
 import com.nageoffer.shortlink.project.common.enums.VailDateTypeEnum;
 import com.nageoffer.shortlink.project.config.GotoDomainWhiteListConfiguration;
+import com.nageoffer.shortlink.project.config.ShortLinkUniqueStatsConfiguration;
 import com.nageoffer.shortlink.project.dao.entity.LinkAccessLogsDO;
 import com.nageoffer.shortlink.project.dao.entity.LinkAccessStatsDO;
 import com.nageoffer.shortlink.project.dao.entity.LinkBrowserStatsDO;
@@ -54,21 +64,28 @@ import com.nageoffer.shortlink.project.dao.mapper.LinkOsStatsMapper;
 import com.nageoffer.shortlink.project.dao.mapper.LinkStatsTodayMapper;
 import com.nageoffer.shortlink.project.dao.mapper.ShortLinkGotoMapper;
 import com.nageoffer.shortlink.project.dao.mapper.ShortLinkMapper;
+import com.nageoffer.shortlink.project.dto.biz.ShortLinkRouteDTO;
 import com.nageoffer.shortlink.project.dto.biz.ShortLinkStatsRecordDTO;
 import com.nageoffer.shortlink.project.dto.req.ShortLinkBatchCreateReqDTO;
 import com.nageoffer.shortlink.project.dto.req.ShortLinkCreateReqDTO;
 import com.nageoffer.shortlink.project.dto.req.ShortLinkPageReqDTO;
 import com.nageoffer.shortlink.project.dto.req.ShortLinkUpdateReqDTO;
 import com.nageoffer.shortlink.project.dto.resp.ShortLinkBaseInfoRespDTO;
+import com.nageoffer.shortlink.project.dto.resp.ShortLinkBatchCreateFailRespDTO;
 import com.nageoffer.shortlink.project.dto.resp.ShortLinkBatchCreateRespDTO;
 import com.nageoffer.shortlink.project.dto.resp.ShortLinkCreateRespDTO;
 import com.nageoffer.shortlink.project.dto.resp.ShortLinkGroupCountQueryRespDTO;
 import com.nageoffer.shortlink.project.dto.resp.ShortLinkPageRespDTO;
+import com.nageoffer.shortlink.project.initialize.ShortUriBloomFilterRebuildTask;
+import com.nageoffer.shortlink.project.mq.producer.ShortLinkStatsAggregator;
 import com.nageoffer.shortlink.project.mq.producer.ShortLinkStatsSaveProducer;
 import com.nageoffer.shortlink.project.service.LinkStatsTodayService;
 import com.nageoffer.shortlink.project.service.ShortLinkService;
 import com.nageoffer.shortlink.project.toolkit.HashUtil;
 import com.nageoffer.shortlink.project.toolkit.LinkUtil;
+import com.nageoffer.shortlink.project.toolkit.RedisKeyTemplate;
+import com.nageoffer.shortlink.project.toolkit.TimeBucketUtil;
+import com.nageoffer.shortlink.project.toolkit.UserAgentClassifier;
 import jakarta.servlet.ServletRequest;
 import jakarta.servlet.ServletResponse;
 import jakarta.servlet.http.Cookie;
@@ -77,40 +94,46 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
-import org.jsoup.Jsoup;
-import org.jsoup.nodes.Document;
-import org.jsoup.nodes.Element;
-import org.redisson.api.RBloomFilter;
 import org.redisson.api.RLock;
 import org.redisson.api.RReadWriteLock;
 import org.redisson.api.RedissonClient;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
 import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scripting.support.ResourceScriptSource;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.net.HttpURLConnection;
-import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicReference;
 
 import static com.nageoffer.shortlink.project.common.constant.RedisKeyConstant.GOTO_IS_NULL_SHORT_LINK_KEY;
 import static com.nageoffer.shortlink.project.common.constant.RedisKeyConstant.GOTO_SHORT_LINK_KEY;
 import static com.nageoffer.shortlink.project.common.constant.RedisKeyConstant.LOCK_GID_UPDATE_KEY;
-import static com.nageoffer.shortlink.project.common.constant.RedisKeyConstant.LOCK_GOTO_SHORT_LINK_KEY;
 import static com.nageoffer.shortlink.project.common.constant.RedisKeyConstant.SHORT_LINK_CREATE_LOCK_KEY;
+import static com.nageoffer.shortlink.project.common.constant.RedisKeyConstant.SHORT_LINK_STATS_UIP_HLL_KEY;
 import static com.nageoffer.shortlink.project.common.constant.RedisKeyConstant.SHORT_LINK_STATS_UIP_KEY;
+import static com.nageoffer.shortlink.project.common.constant.RedisKeyConstant.SHORT_LINK_STATS_UIP_SEEN_BITMAP_KEY;
+import static com.nageoffer.shortlink.project.common.constant.RedisKeyConstant.SHORT_LINK_STATS_UIP_SEEN_SET_KEY;
+import static com.nageoffer.shortlink.project.common.constant.RedisKeyConstant.SHORT_LINK_STATS_UV_HLL_KEY;
 import static com.nageoffer.shortlink.project.common.constant.RedisKeyConstant.SHORT_LINK_STATS_UV_KEY;
+import static com.nageoffer.shortlink.project.common.constant.RedisKeyConstant.SHORT_LINK_STATS_UV_SEEN_BITMAP_KEY;
+import static com.nageoffer.shortlink.project.common.constant.RedisKeyConstant.SHORT_LINK_STATS_UV_SEEN_SET_KEY;
 
 /**
  * 短链接接口实现层
@@ -121,7 +144,7 @@ import static com.nageoffer.shortlink.project.common.constant.RedisKeyConstant.S
 @RequiredArgsConstructor
 public class ShortLinkServiceImpl extends ServiceImpl<ShortLinkMapper, ShortLinkDO> implements ShortLinkService {
 
-    private final RBloomFilter<String> shortUriCreateCachePenetrationBloomFilter;
+    private final ShortUriMembershipFilter shortUriMembershipFilter;
     private final ShortLinkGotoMapper shortLinkGotoMapper;
     private final StringRedisTemplate stringRedisTemplate;
     private final RedissonClient redissonClient;
@@ -135,7 +158,62 @@ public class ShortLinkServiceImpl extends ServiceImpl<ShortLinkMapper, ShortLink
     private final LinkStatsTodayMapper linkStatsTodayMapper;
     private final LinkStatsTodayService linkStatsTodayService;
     private final ShortLinkStatsSaveProducer shortLinkStatsSaveProducer;
+    private final ShortLinkStatsAggregator shortLinkStatsAggregator;
     private final GotoDomainWhiteListConfiguration gotoDomainWhiteListConfiguration;
+    private final ShortLinkGotoLocalCache shortLinkGotoLocalCache;
+    private final ShortLinkGotoLoader shortLinkGotoLoader;
+    private final ShortLinkNegativeCache shortLinkNegativeCache;
+    private final ShortLinkCodePool shortLinkCodePool;
+    private final ShortUriBloomFilterRebuildTask shortUriBloomFilterRebuildTask;
+    private final ShortLinkUniqueStatsConfiguration shortLinkUniqueStatsConfiguration;
+    private final TransactionTemplate transactionTemplate;
+    private final ShortLinkFaviconEnricher shortLinkFaviconEnricher;
+    private final ShortLinkGidUpdateFence shortLinkGidUpdateFence;
+
+    /**
+     * 短链接跳转热点路径 Lua 脚本，执行时优先通过 SHA 调用
+     */
+    private static final DefaultRedisScript<List<Object>> GOTO_STATS_SCRIPT;
+
+    /**
+     * 短链接跳转热点路径 Lua 脚本，UV、UIP 按天分桶去重
+     */
+    private static final DefaultRedisScript<List<Object>> GOTO_STATS_BUCKET_SCRIPT;
+
+    static {
+        GOTO_STATS_SCRIPT = new DefaultRedisScript<>();
+        GOTO_STATS_SCRIPT.setScriptSource(new ResourceScriptSource(new ClassPathResource("lua/short_link_goto_stats.lua")));
+        GOTO_STATS_SCRIPT.setResultType(listResultType());
+        GOTO_STATS_BUCKET_SCRIPT = new DefaultRedisScript<>();
+        GOTO_STATS_BUCKET_SCRIPT.setScriptSource(new ResourceScriptSource(new ClassPathResource("lua/short_link_goto_stats_bucket.lua")));
+        GOTO_STATS_BUCKET_SCRIPT.setResultType(listResultType());
+    }
+
+    /**
+     * 脚本返回多值列表，{@link DefaultRedisScript} 只接受原始类型作为结果类型，在此集中完成泛型转换
+     */
+    @SuppressWarnings("unchecked")
+    private static Class<List<Object>> listResultType() {
+        return (Class<List<Object>>) (Class<?>) List.class;
+    }
+
+    private static final RedisKeyTemplate GOTO_KEY_TEMPLATE = RedisKeyTemplate.of(GOTO_SHORT_LINK_KEY);
+    private static final RedisKeyTemplate GOTO_IS_NULL_KEY_TEMPLATE = RedisKeyTemplate.of(GOTO_IS_NULL_SHORT_LINK_KEY);
+    private static final RedisKeyTemplate UV_KEY_TEMPLATE = RedisKeyTemplate.of(SHORT_LINK_STATS_UV_KEY);
+    private static final RedisKeyTemplate UIP_KEY_TEMPLATE = RedisKeyTemplate.of(SHORT_LINK_STATS_UIP_KEY);
+    private static final RedisKeyTemplate UV_HLL_KEY_TEMPLATE = RedisKeyTemplate.of(SHORT_LINK_STATS_UV_HLL_KEY);
+    private static final RedisKeyTemplate UV_SEEN_SET_KEY_TEMPLATE = RedisKeyTemplate.of(SHORT_LINK_STATS_UV_SEEN_SET_KEY);
+    private static final RedisKeyTemplate UV_SEEN_BITMAP_KEY_TEMPLATE = RedisKeyTemplate.of(SHORT_LINK_STATS_UV_SEEN_BITMAP_KEY);
+    private static final RedisKeyTemplate UIP_HLL_KEY_TEMPLATE = RedisKeyTemplate.of(SHORT_LINK_STATS_UIP_HLL_KEY);
+    private static final RedisKeyTemplate UIP_SEEN_SET_KEY_TEMPLATE = RedisKeyTemplate.of(SHORT_LINK_STATS_UIP_SEEN_SET_KEY);
+    private static final RedisKeyTemplate UIP_SEEN_BITMAP_KEY_TEMPLATE = RedisKeyTemplate.of(SHORT_LINK_STATS_UIP_SEEN_BITMAP_KEY);
+
+    /**
+     * 批量创建短链接单次事务插入的最大行数
+     */
+    private static final int BATCH_CREATE_CHUNK_SIZE = 500;
+
+    private volatile String[] bucketScriptArgs;
 
     @Value("${short-link.domain.default}")
     private String createShortLinkDefaultDomain;
@@ -179,7 +257,6 @@ public class ShortLinkServiceImpl extends ServiceImpl<ShortLinkMapper, ShortLink
                 .totalUip(0)
                 .delTime(0L)
                 .fullShortUrl(fullShortUrl)
-                .favicon(getFavicon(requestParam.getOriginUrl()))
                 .build();
 
         // 创建ShortLinkGotoDO对象，用于记录短链接的访问信息
@@ -197,8 +274,8 @@ public class ShortLinkServiceImpl extends ServiceImpl<ShortLinkMapper, ShortLink
         } catch (DuplicateKeyException ex) {
             // 如果插入重复，检查布隆过滤器，如果不在过滤器中，则添加并重新抛出异常
             // 首先判断是否存在布隆过滤器，如果不存在直接新增
-            if (!shortUriCreateCachePenetrationBloomFilter.contains(fullShortUrl)) {
-                shortUriCreateCachePenetrationBloomFilter.add(fullShortUrl);
+            if (!shortUriMembershipFilter.contains(fullShortUrl)) {
+                shortUriMembershipFilter.add(fullShortUrl);
             }
             throw new ServiceException(String.format("短链接：%s 生成重复", fullShortUrl));
         }
@@ -213,7 +290,10 @@ public class ShortLinkServiceImpl extends ServiceImpl<ShortLinkMapper, ShortLink
 
         // 将完整的短链接URL添加到布隆过滤器中，用于重复检测
         // 删除短链接后，布隆过滤器如何删除？详情查看：https://nageoffer.com/shortlink/question
-        shortUriCreateCachePenetrationBloomFilter.add(fullShortUrl);
+        shortUriMembershipFilter.add(fullShortUrl);
+
+        // 网站图标在事务提交后异步获取，创建耗时不受目标网站影响
+        shortLinkFaviconEnricher.enrich(requestParam.getGid(), fullShortUrl, requestParam.getOriginUrl());
 
         // 构建并返回短链接创建的响应数据
         return ShortLinkCreateRespDTO.builder()
@@ -251,7 +331,6 @@ public class ShortLinkServiceImpl extends ServiceImpl<ShortLinkMapper, ShortLink
                     .totalUip(0)
                     .delTime(0L)
                     .fullShortUrl(fullShortUrl)
-                    .favicon(getFavicon(requestParam.getOriginUrl()))
                     .build();
             ShortLinkGotoDO linkGotoDO = ShortLinkGotoDO.builder()
                     .fullShortUrl(fullShortUrl)
@@ -271,6 +350,7 @@ public class ShortLinkServiceImpl extends ServiceImpl<ShortLinkMapper, ShortLink
         } finally {
             lock.unlock();
         }
+        shortLinkFaviconEnricher.enrich(requestParam.getGid(), fullShortUrl, requestParam.getOriginUrl());
         return ShortLinkCreateRespDTO.builder()
                 .fullShortUrl("http://" + fullShortUrl)
                 .originUrl(requestParam.getOriginUrl())
@@ -282,30 +362,161 @@ public class ShortLinkServiceImpl extends ServiceImpl<ShortLinkMapper, ShortLink
     public ShortLinkBatchCreateRespDTO batchCreateShortLink(ShortLinkBatchCreateReqDTO requestParam) {
         List<String> originUrls = requestParam.getOriginUrls();
         List<String> describes = requestParam.getDescribes();
-        List<ShortLinkBaseInfoRespDTO> result = new ArrayList<>();
+        List<ShortLinkBatchCreateFailRespDTO> failures = new ArrayList<>();
+        List<ShortLinkDO> shortLinkDOList = new ArrayList<>(originUrls.size());
+        List<Integer> indexes = new ArrayList<>(originUrls.size());
+        Set<String> batchShortUris = new HashSet<>();
         for (int i = 0; i < originUrls.size(); i++) {
             ShortLinkCreateReqDTO shortLinkCreateReqDTO = BeanUtil.toBean(requestParam, ShortLinkCreateReqDTO.class);
             shortLinkCreateReqDTO.setOriginUrl(originUrls.get(i));
             shortLinkCreateReqDTO.setDescribe(describes.get(i));
             try {
-                ShortLinkCreateRespDTO shortLink = createShortLink(shortLinkCreateReqDTO);
-                ShortLinkBaseInfoRespDTO linkBaseInfoRespDTO = ShortLinkBaseInfoRespDTO.builder()
-                        .fullShortUrl(shortLink.getFullShortUrl())
-                        .originUrl(shortLink.getOriginUrl())
-                        .describe(describes.get(i))
-                        .build();
-                result.add(linkBaseInfoRespDTO);
+                verificationWhitelist(shortLinkCreateReqDTO.getOriginUrl());
+                // 编码池未开启时哈希后缀只和布隆过滤器比较，同一批次内还需要额外去重
+                String shortLinkSuffix;
+                do {
+                    shortLinkSuffix = generateSuffix(shortLinkCreateReqDTO);
+                } while (!batchShortUris.add(shortLinkSuffix));
+                shortLinkDOList.add(buildBatchShortLinkDO(shortLinkCreateReqDTO, shortLinkSuffix));
+                indexes.add(i);
+            } catch (Throwable ex) {
+                failures.add(buildBatchCreateFailure(i, shortLinkCreateReqDTO, ex));
+            }
+        }
+
+        List<ShortLinkDO> createdList = new ArrayList<>(shortLinkDOList.size());
+        for (int from = 0; from < shortLinkDOList.size(); from += BATCH_CREATE_CHUNK_SIZE) {
+            int to = Math.min(from + BATCH_CREATE_CHUNK_SIZE, shortLinkDOList.size());
+            List<ShortLinkDO> chunk = shortLinkDOList.subList(from, to);
+            try {
+                // 同一批次的行由 ShardingSphere 按真实表归组，配合 rewriteBatchedStatements 改写为多值插入
+                transactionTemplate.executeWithoutResult(status -> insertBatch(chunk));
+                createdList.addAll(chunk);
+            } catch (Throwable chunkEx) {
+                log.warn("批量创建短链接分块插入失败，逐条重试，数量：{}", chunk.size(), chunkEx);
+                for (int k = 0; k < chunk.size(); k++) {
+                    ShortLinkDO each = chunk.get(k);
+                    // 批量插入回滚后实体上回填的主键需要清空
+                    each.setId(null);
+                    try {
+                        transactionTemplate.executeWithoutResult(status -> {
+                            baseMapper.insert(each);
+                            shortLinkGotoMapper.insert(ShortLinkGotoDO.builder()
+                                    .fullShortUrl(each.getFullShortUrl())
+                                    .gid(each.getGid())
+                                    .build());
+                        });
+                        createdList.add(each);
+                    } catch (Throwable ex) {
+                        if (ex instanceof DuplicateKeyException && !shortUriMembershipFilter.contains(each.getFullShortUrl())) {
+                            shortUriMembershipFilter.add(each.getFullShortUrl());
+                        }
+                        ShortLinkCreateReqDTO failedReqDTO = new ShortLinkCreateReqDTO();
+                        failedReqDTO.setOriginUrl(each.getOriginUrl());
+                        failedReqDTO.setDescribe(each.getDescribe());
+                        failures.add(buildBatchCreateFailure(indexes.get(from + k), failedReqDTO, ex));
+                    }
+                }
+            }
+        }
+
+        if (CollUtil.isNotEmpty(createdList)) {
+            try {
+                writeBatchGotoCache(createdList);
             } catch (Throwable ex) {
-                log.error("批量创建短链接失败，原始参数：{}", originUrls.get(i));
+                // 跳转缓存缺失时由回源加载补齐，不影响创建结果
+                log.error("批量创建短链接写入跳转缓存失败，数量：{}", createdList.size(), ex);
             }
+            shortUriMembershipFilter.addAll(createdList.stream().map(ShortLinkDO::getFullShortUrl).toList());
+            // 同一站点的网站图标只获取一次
+            createdList.forEach(each -> shortLinkFaviconEnricher.enrich(each.getGid(), each.getFullShortUrl(), each.getOriginUrl()));
         }
+
+        List<ShortLinkBaseInfoRespDTO> result = createdList.stream()
+                .map(each -> ShortLinkBaseInfoRespDTO.builder()
+                        .fullShortUrl("http://" + each.getFullShortUrl())
+                        .originUrl(each.getOriginUrl())
+                        .describe(each.getDescribe())
+                        .build())
+                .toList();
+        failures.sort(Comparator.comparing(ShortLinkBatchCreateFailRespDTO::getIndex));
         return ShortLinkBatchCreateRespDTO.builder()
                 .total(result.size())
                 .baseLinkInfos(result)
+                .failures(failures)
+                .build();
+    }
+
+    private ShortLinkDO buildBatchShortLinkDO(ShortLinkCreateReqDTO requestParam, String shortLinkSuffix) {
+        String fullShortUrl = StrBuilder.create(createShortLinkDefaultDomain)
+                .append("/")
+                .append(shortLinkSuffix)
+                .toString();
+        return ShortLinkDO.builder()
+                .domain(createShortLinkDefaultDomain)
+                .originUrl(requestParam.getOriginUrl())
+                .gid(requestParam.getGid())
+                .createdType(requestParam.getCreatedType())
+                .validDateType(requestParam.getValidDateType())
+                .validDate(requestParam.getValidDate())
+                .describe(requestParam.getDescribe())
+                .shortUri(shortLinkSuffix)
+                .enableStatus(0)
+                .totalPv(0)
+                .totalUv(0)
+                .totalUip(0)
+                .delTime(0L)
+                .fullShortUrl(fullShortUrl)
+                .build();
+    }
+
+    private void insertBatch(List<ShortLinkDO> shortLinkDOList) {
+        List<ShortLinkGotoDO> linkGotoDOList = shortLinkDOList.stream()
+                .map(each -> ShortLinkGotoDO.builder()
+                        .fullShortUrl(each.getFullShortUrl())
+                        .gid(each.getGid())
+                        .build())
+                .toList();
+        saveBatch(shortLinkDOList, BATCH_CREATE_CHUNK_SIZE);
+        Db.saveBatch(linkGotoDOList, BATCH_CREATE_CHUNK_SIZE);
+    }
+
+    private void writeBatchGotoCache(List<ShortLinkDO> shortLinkDOList) {
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (ShortLinkDO each : shortLinkDOList) {
+                if (LinkUtil.isExpired(each.getValidDate())) {
+                    continue;
+                }
+                long validTime = LinkUtil.getLinkCacheValidTime(each.getValidDate());
+                connection.stringCommands().set(
+                        String.format(GOTO_SHORT_LINK_KEY, each.getFullShortUrl()).getBytes(StandardCharsets.UTF_8),
+                        each.getOriginUrl().getBytes(StandardCharsets.UTF_8),
+                        Expiration.milliseconds(validTime),
+                        RedisStringCommands.SetOption.UPSERT
+                );
+            }
+            return null;
+        });
+    }
+
+    private ShortLinkBatchCreateFailRespDTO buildBatchCreateFailure(int index, ShortLinkCreateReqDTO requestParam, Throwable ex) {
+        String reason;
+        if (ex instanceof AbstractException abstractException) {
+            reason = abstractException.getErrorMessage();
+        } else if (ex instanceof DuplicateKeyException) {
+            reason = "短链接生成重复";
+        } else {
+            log.error("批量创建短链接失败，原始参数：{}", requestParam.getOriginUrl(), ex);
+            reason = "短链接创建失败";
+        }
+        return ShortLinkBatchCreateFailRespDTO.builder()
+                .index(index)
+                .originUrl(requestParam.getOriginUrl())
+                .describe(requestParam.getDescribe())
+                .reason(reason)
                 .build();
     }
 
-    @Transactional(rollbackFor = Exception.class)
     @Override
     public void updateShortLink(ShortLinkUpdateReqDTO requestParam) {
         // 验证白名单
@@ -346,138 +557,150 @@ public class ShortLinkServiceImpl extends ServiceImpl<ShortLinkMapper, ShortLink
                     .build();
 
             baseMapper.update(shortLinkDO, updateWrapper);
+            if (!Objects.equals(hasShortLinkDO.getOriginUrl(), requestParam.getOriginUrl())) {
+                shortLinkFaviconEnricher.enrich(requestParam.getGid(), requestParam.getFullShortUrl(), requestParam.getOriginUrl());
+            }
         } else {
-            // 使用读写锁确保数据一致性
+            // 先广播围栏，让监控消费节点对该短链接改为获取读锁，再使用写锁确保数据一致性
+            // 围栏等待宽限期期间不开启事务，不占用数据库连接，迁移数据在获取写锁后的编程式事务中执行
+            shortLinkGidUpdateFence.raise(requestParam.getFullShortUrl());
             RReadWriteLock readWriteLock = redissonClient.getReadWriteLock(String.format(LOCK_GID_UPDATE_KEY, requestParam.getFullShortUrl()));
             RLock rLock = readWriteLock.writeLock();
             rLock.lock();
+            // 写锁持有到迁移事务提交后释放，避免消费者在迁移提交前读取到旧分组
             try {
-                // 更新短链接记录
-                LambdaUpdateWrapper<ShortLinkDO> linkUpdateWrapper = Wrappers.lambdaUpdate(ShortLinkDO.class)
-                        .eq(ShortLinkDO::getFullShortUrl, requestParam.getFullShortUrl())
-                        .eq(ShortLinkDO::getGid, hasShortLinkDO.getGid())
-                        .eq(ShortLinkDO::getDelFlag, 0)
-                        .eq(ShortLinkDO::getDelTime, 0L)
-                        .eq(ShortLinkDO::getEnableStatus, 0);
-
-                ShortLinkDO delShortLinkDO = ShortLinkDO.builder()
-                        .delTime(System.currentTimeMillis())
-                        .build();
-                delShortLinkDO.setDelFlag(1);
-                baseMapper.update(delShortLinkDO, linkUpdateWrapper);
-
-                ShortLinkDO shortLinkDO = ShortLinkDO.builder()
-                        .domain(createShortLinkDefaultDomain)
-                        .originUrl(requestParam.getOriginUrl())
-                        .gid(requestParam.getGid())
-                        .createdType(hasShortLinkDO.getCreatedType())
-                        .validDateType(requestParam.getValidDateType())
-                        .validDate(requestParam.getValidDate())
-                        .describe(requestParam.getDescribe())
-                        .shortUri(hasShortLinkDO.getShortUri())
-                        .enableStatus(hasShortLinkDO.getEnableStatus())
-                        .totalPv(hasShortLinkDO.getTotalPv())
-                        .totalUv(hasShortLinkDO.getTotalUv())
-                        .totalUip(hasShortLinkDO.getTotalUip())
-                        .fullShortUrl(hasShortLinkDO.getFullShortUrl())
-                        .favicon(getFavicon(requestParam.getOriginUrl()))
-                        .delTime(0L)
-                        .build();
-                baseMapper.insert(shortLinkDO);
-
-                // 更新统计数据
-                LambdaQueryWrapper<LinkStatsTodayDO> statsTodayQueryWrapper = Wrappers.lambdaQuery(LinkStatsTodayDO.class)
-                        .eq(LinkStatsTodayDO::getFullShortUrl, requestParam.getFullShortUrl())
-                        .eq(LinkStatsTodayDO::getGid, hasShortLinkDO.getGid())
-                        .eq(LinkStatsTodayDO::getDelFlag, 0);
-                List<LinkStatsTodayDO> linkStatsTodayDOList = linkStatsTodayMapper.selectList(statsTodayQueryWrapper);
-                if (CollUtil.isNotEmpty(linkStatsTodayDOList)) {
-                    linkStatsTodayMapper.deleteBatchIds(linkStatsTodayDOList.stream()
-                            .map(LinkStatsTodayDO::getId)
-                            .toList()
-                    );
-                    linkStatsTodayDOList.forEach(each -> each.setGid(requestParam.getGid()));
-                    linkStatsTodayService.saveBatch(linkStatsTodayDOList);
-                }
-
-                // 更新跳转记录
-                LambdaQueryWrapper<ShortLinkGotoDO> linkGotoQueryWrapper = Wrappers.lambdaQuery(ShortLinkGotoDO.class)
-                        .eq(ShortLinkGotoDO::getFullShortUrl, requestParam.getFullShortUrl())
-                        .eq(ShortLinkGotoDO::getGid, hasShortLinkDO.getGid());
-                ShortLinkGotoDO shortLinkGotoDO = shortLinkGotoMapper.selectOne(linkGotoQueryWrapper);
-                shortLinkGotoMapper.deleteById(shortLinkGotoDO.getId());
-                shortLinkGotoDO.setGid(requestParam.getGid());
-                shortLinkGotoMapper.insert(shortLinkGotoDO);
-
-                // 更新访问统计
-                LambdaUpdateWrapper<LinkAccessStatsDO> linkAccessStatsUpdateWrapper = Wrappers.lambdaUpdate(LinkAccessStatsDO.class)
-                        .eq(LinkAccessStatsDO::getFullShortUrl, requestParam.getFullShortUrl())
-                        .eq(LinkAccessStatsDO::getGid, hasShortLinkDO.getGid())
-                        .eq(LinkAccessStatsDO::getDelFlag, 0);
-                LinkAccessStatsDO linkAccessStatsDO = LinkAccessStatsDO.builder()
-                        .gid(requestParam.getGid())
-                        .build();
-                linkAccessStatsMapper.update(linkAccessStatsDO, linkAccessStatsUpdateWrapper);
-
-                // 更新地域统计
-                LambdaUpdateWrapper<LinkLocaleStatsDO> linkLocaleStatsUpdateWrapper = Wrappers.lambdaUpdate(LinkLocaleStatsDO.class)
-                        .eq(LinkLocaleStatsDO::getFullShortUrl, requestParam.getFullShortUrl())
-                        .eq(LinkLocaleStatsDO::getGid, hasShortLinkDO.getGid())
-                        .eq(LinkLocaleStatsDO::getDelFlag, 0);
-                LinkLocaleStatsDO linkLocaleStatsDO = LinkLocaleStatsDO.builder()
-                        .gid(requestParam.getGid())
-                        .build();
-                linkLocaleStatsMapper.update(linkLocaleStatsDO, linkLocaleStatsUpdateWrapper);
-
-                // 更新操作系统统计
-                LambdaUpdateWrapper<LinkOsStatsDO> linkOsStatsUpdateWrapper = Wrappers.lambdaUpdate(LinkOsStatsDO.class)
-                        .eq(LinkOsStatsDO::getFullShortUrl, requestParam.getFullShortUrl())
-                        .eq(LinkOsStatsDO::getGid, hasShortLinkDO.getGid())
-                        .eq(LinkOsStatsDO::getDelFlag, 0);
-                LinkOsStatsDO linkOsStatsDO = LinkOsStatsDO.builder()
-                        .gid(requestParam.getGid())
-                        .build();
-                linkOsStatsMapper.update(linkOsStatsDO, linkOsStatsUpdateWrapper);
-
-                // 更新浏览器统计
-                LambdaUpdateWrapper<LinkBrowserStatsDO> linkBrowserStatsUpdateWrapper = Wrappers.lambdaUpdate(LinkBrowserStatsDO.class)
-                        .eq(LinkBrowserStatsDO::getFullShortUrl, requestParam.getFullShortUrl())
-                        .eq(LinkBrowserStatsDO::getGid, hasShortLinkDO.getGid())
-                        .eq(LinkBrowserStatsDO::getDelFlag, 0);
-                LinkBrowserStatsDO linkBrowserStatsDO = LinkBrowserStatsDO.builder()
-                        .gid(requestParam.getGid())
-                        .build();
-                linkBrowserStatsMapper.update(linkBrowserStatsDO, linkBrowserStatsUpdateWrapper);
-
-                // 更新设备统计
-                LambdaUpdateWrapper<LinkDeviceStatsDO> linkDeviceStatsUpdateWrapper = Wrappers.lambdaUpdate(LinkDeviceStatsDO.class)
-                        .eq(LinkDeviceStatsDO::getFullShortUrl, requestParam.getFullShortUrl())
-                        .eq(LinkDeviceStatsDO::getGid, hasShortLinkDO.getGid())
-                        .eq(LinkDeviceStatsDO::getDelFlag, 0);
-                LinkDeviceStatsDO linkDeviceStatsDO = LinkDeviceStatsDO.builder()
-                        .gid(requestParam.getGid())
-                        .build();
-                linkDeviceStatsMapper.update(linkDeviceStatsDO, linkDeviceStatsUpdateWrapper);
-
-                // 更新网络统计
-                LambdaUpdateWrapper<LinkNetworkStatsDO> linkNetworkStatsUpdateWrapper = Wrappers.lambdaUpdate(LinkNetworkStatsDO.class)
-                        .eq(LinkNetworkStatsDO::getFullShortUrl, requestParam.getFullShortUrl())
-                        .eq(LinkNetworkStatsDO::getGid, hasShortLinkDO.getGid())
-                        .eq(LinkNetworkStatsDO::getDelFlag, 0);
-                LinkNetworkStatsDO linkNetworkStatsDO = LinkNetworkStatsDO.builder()
-                        .gid(requestParam.getGid())
-                        .build();
-                linkNetworkStatsMapper.update(linkNetworkStatsDO, linkNetworkStatsUpdateWrapper);
-
-                // 更新访问日志
-                LambdaUpdateWrapper<LinkAccessLogsDO> linkAccessLogsUpdateWrapper = Wrappers.lambdaUpdate(LinkAccessLogsDO.class)
-                        .eq(LinkAccessLogsDO::getFullShortUrl, requestParam.getFullShortUrl())
-                        .eq(LinkAccessLogsDO::getGid, hasShortLinkDO.getGid())
-                        .eq(LinkAccessLogsDO::getDelFlag, 0);
-                LinkAccessLogsDO linkAccessLogsDO = LinkAccessLogsDO.builder()
-                        .gid(requestParam.getGid())
-                        .build();
-                linkAccessLogsMapper.update(linkAccessLogsDO, linkAccessLogsUpdateWrapper);
+                transactionTemplate.executeWithoutResult(status -> {
+                    // 更新短链接记录
+                    LambdaUpdateWrapper<ShortLinkDO> linkUpdateWrapper = Wrappers.lambdaUpdate(ShortLinkDO.class)
+                            .eq(ShortLinkDO::getFullShortUrl, requestParam.getFullShortUrl())
+                            .eq(ShortLinkDO::getGid, hasShortLinkDO.getGid())
+                            .eq(ShortLinkDO::getDelFlag, 0)
+                            .eq(ShortLinkDO::getDelTime, 0L)
+                            .eq(ShortLinkDO::getEnableStatus, 0);
+
+                    ShortLinkDO delShortLinkDO = ShortLinkDO.builder()
+                            .delTime(System.currentTimeMillis())
+                            .build();
+                    delShortLinkDO.setDelFlag(1);
+                    baseMapper.update(delShortLinkDO, linkUpdateWrapper);
+
+                    boolean originUrlChanged = !Objects.equals(hasShortLinkDO.getOriginUrl(), requestParam.getOriginUrl());
+                    ShortLinkDO shortLinkDO = ShortLinkDO.builder()
+                            .domain(createShortLinkDefaultDomain)
+                            .originUrl(requestParam.getOriginUrl())
+                            .gid(requestParam.getGid())
+                            .createdType(hasShortLinkDO.getCreatedType())
+                            .validDateType(requestParam.getValidDateType())
+                            .validDate(requestParam.getValidDate())
+                            .describe(requestParam.getDescribe())
+                            .shortUri(hasShortLinkDO.getShortUri())
+                            .enableStatus(hasShortLinkDO.getEnableStatus())
+                            .totalPv(hasShortLinkDO.getTotalPv())
+                            .totalUv(hasShortLinkDO.getTotalUv())
+                            .totalUip(hasShortLinkDO.getTotalUip())
+                            .fullShortUrl(hasShortLinkDO.getFullShortUrl())
+                            .favicon(originUrlChanged ? null : hasShortLinkDO.getFavicon())
+                            .delTime(0L)
+                            .build();
+                    baseMapper.insert(shortLinkDO);
+                    if (originUrlChanged) {
+                        shortLinkFaviconEnricher.enrich(requestParam.getGid(), hasShortLinkDO.getFullShortUrl(), requestParam.getOriginUrl());
+                    }
+
+                    // 更新统计数据
+                    LambdaQueryWrapper<LinkStatsTodayDO> statsTodayQueryWrapper = Wrappers.lambdaQuery(LinkStatsTodayDO.class)
+                            .eq(LinkStatsTodayDO::getFullShortUrl, requestParam.getFullShortUrl())
+                            .eq(LinkStatsTodayDO::getGid, hasShortLinkDO.getGid())
+                            .eq(LinkStatsTodayDO::getDelFlag, 0);
+                    List<LinkStatsTodayDO> linkStatsTodayDOList = linkStatsTodayMapper.selectList(statsTodayQueryWrapper);
+                    if (CollUtil.isNotEmpty(linkStatsTodayDOList)) {
+                        linkStatsTodayMapper.deleteBatchIds(linkStatsTodayDOList.stream()
+                                .map(LinkStatsTodayDO::getId)
+                                .toList()
+                        );
+                        linkStatsTodayDOList.forEach(each -> each.setGid(requestParam.getGid()));
+                        linkStatsTodayService.saveBatch(linkStatsTodayDOList);
+                    }
+
+                    // 更新跳转记录
+                    LambdaQueryWrapper<ShortLinkGotoDO> linkGotoQueryWrapper = Wrappers.lambdaQuery(ShortLinkGotoDO.class)
+                            .eq(ShortLinkGotoDO::getFullShortUrl, requestParam.getFullShortUrl())
+                            .eq(ShortLinkGotoDO::getGid, hasShortLinkDO.getGid());
+                    ShortLinkGotoDO shortLinkGotoDO = shortLinkGotoMapper.selectOne(linkGotoQueryWrapper);
+                    shortLinkGotoMapper.deleteById(shortLinkGotoDO.getId());
+                    shortLinkGotoDO.setGid(requestParam.getGid());
+                    shortLinkGotoMapper.insert(shortLinkGotoDO);
+
+                    // 更新访问统计
+                    LambdaUpdateWrapper<LinkAccessStatsDO> linkAccessStatsUpdateWrapper = Wrappers.lambdaUpdate(LinkAccessStatsDO.class)
+                            .eq(LinkAccessStatsDO::getFullShortUrl, requestParam.getFullShortUrl())
+                            .eq(LinkAccessStatsDO::getGid, hasShortLinkDO.getGid())
+                            .eq(LinkAccessStatsDO::getDelFlag, 0);
+                    LinkAccessStatsDO linkAccessStatsDO = LinkAccessStatsDO.builder()
+                            .gid(requestParam.getGid())
+                            .build();
+                    linkAccessStatsMapper.update(linkAccessStatsDO, linkAccessStatsUpdateWrapper);
+
+                    // 更新地域统计
+                    LambdaUpdateWrapper<LinkLocaleStatsDO> linkLocaleStatsUpdateWrapper = Wrappers.lambdaUpdate(LinkLocaleStatsDO.class)
+                            .eq(LinkLocaleStatsDO::getFullShortUrl, requestParam.getFullShortUrl())
+                            .eq(LinkLocaleStatsDO::getGid, hasShortLinkDO.getGid())
+                            .eq(LinkLocaleStatsDO::getDelFlag, 0);
+                    LinkLocaleStatsDO linkLocaleStatsDO = LinkLocaleStatsDO.builder()
+                            .gid(requestParam.getGid())
+                            .build();
+                    linkLocaleStatsMapper.update(linkLocaleStatsDO, linkLocaleStatsUpdateWrapper);
+
+                    // 更新操作系统统计
+                    LambdaUpdateWrapper<LinkOsStatsDO> linkOsStatsUpdateWrapper = Wrappers.lambdaUpdate(LinkOsStatsDO.class)
+                            .eq(LinkOsStatsDO::getFullShortUrl, requestParam.getFullShortUrl())
+                            .eq(LinkOsStatsDO::getGid, hasShortLinkDO.getGid())
+                            .eq(LinkOsStatsDO::getDelFlag, 0);
+                    LinkOsStatsDO linkOsStatsDO = LinkOsStatsDO.builder()
+                            .gid(requestParam.getGid())
+                            .build();
+                    linkOsStatsMapper.update(linkOsStatsDO, linkOsStatsUpdateWrapper);
+
+                    // 更新浏览器统计
+                    LambdaUpdateWrapper<LinkBrowserStatsDO> linkBrowserStatsUpdateWrapper = Wrappers.lambdaUpdate(LinkBrowserStatsDO.class)
+                            .eq(LinkBrowserStatsDO::getFullShortUrl, requestParam.getFullShortUrl())
+                            .eq(LinkBrowserStatsDO::getGid, hasShortLinkDO.getGid())
+                            .eq(LinkBrowserStatsDO::getDelFlag, 0);
+                    LinkBrowserStatsDO linkBrowserStatsDO = LinkBrowserStatsDO.builder()
+                            .gid(requestParam.getGid())
+                            .build();
+                    linkBrowserStatsMapper.update(linkBrowserStatsDO, linkBrowserStatsUpdateWrapper);
+
+                    // 更新设备统计
+                    LambdaUpdateWrapper<LinkDeviceStatsDO> linkDeviceStatsUpdateWrapper = Wrappers.lambdaUpdate(LinkDeviceStatsDO.class)
+                            .eq(LinkDeviceStatsDO::getFullShortUrl, requestParam.getFullShortUrl())
+                            .eq(LinkDeviceStatsDO::getGid, hasShortLinkDO.getGid())
+                            .eq(LinkDeviceStatsDO::getDelFlag, 0);
+                    LinkDeviceStatsDO linkDeviceStatsDO = LinkDeviceStatsDO.builder()
+                            .gid(requestParam.getGid())
+                            .build();
+                    linkDeviceStatsMapper.update(linkDeviceStatsDO, linkDeviceStatsUpdateWrapper);
+
+                    // 更新网络统计
+                    LambdaUpdateWrapper<LinkNetworkStatsDO> linkNetworkStatsUpdateWrapper = Wrappers.lambdaUpdate(LinkNetworkStatsDO.class)
+                            .eq(LinkNetworkStatsDO::getFullShortUrl, requestParam.getFullShortUrl())
+                            .eq(LinkNetworkStatsDO::getGid, hasShortLinkDO.getGid())
+                            .eq(LinkNetworkStatsDO::getDelFlag, 0);
+                    LinkNetworkStatsDO linkNetworkStatsDO = LinkNetworkStatsDO.builder()
+                            .gid(requestParam.getGid())
+                            .build();
+                    linkNetworkStatsMapper.update(linkNetworkStatsDO, linkNetworkStatsUpdateWrapper);
+
+                    // 更新访问日志
+                    LambdaUpdateWrapper<LinkAccessLogsDO> linkAccessLogsUpdateWrapper = Wrappers.lambdaUpdate(LinkAccessLogsDO.class)
+                            .eq(LinkAccessLogsDO::getFullShortUrl, requestParam.getFullShortUrl())
+                            .eq(LinkAccessLogsDO::getGid, hasShortLinkDO.getGid())
+                            .eq(LinkAccessLogsDO::getDelFlag, 0);
+                    LinkAccessLogsDO linkAccessLogsDO = LinkAccessLogsDO.builder()
+                            .gid(requestParam.getGid())
+                            .build();
+                    linkAccessLogsMapper.update(linkAccessLogsDO, linkAccessLogsUpdateWrapper);
+                });
             } finally {
                 rLock.unlock();
             }
@@ -493,6 +716,8 @@ public class ShortLinkServiceImpl extends ServiceImpl<ShortLinkMapper, ShortLink
                 }
             }
         }
+        // 原始链接、分组以及有效期均可能变更，统一失效所有节点的本地缓存
+        shortLinkGotoLocalCache.invalidate(requestParam.getFullShortUrl());
     }
 
     @Override
@@ -523,114 +748,174 @@ public class ShortLinkServiceImpl extends ServiceImpl<ShortLinkMapper, ShortLink
     public void restoreUrl(String shortUri, ServletRequest request, ServletResponse response) {
         // 短链接接口的并发量有多少？如何测试？详情查看：https://nageoffer.com/shortlink/question
         // 面试中如何回答短链接是如何跳转长链接？详情查看：https://nageoffer.com/shortlink/question
-        String serverName = request.getServerName();
-        String serverPort = Optional.of(request.getServerPort())
-                .filter(each -> !Objects.equals(each, 80))
-                .map(String::valueOf)
-                .map(each -> ":" + each)
-                .orElse("");
-        String fullShortUrl = serverName + serverPort + "/" + shortUri;
-        String originalLink = stringRedisTemplate.opsForValue().get(String.format(GOTO_SHORT_LINK_KEY, fullShortUrl));
+        int serverPort = request.getServerPort();
+        String fullShortUrl = serverPort == 80
+                ? request.getServerName() + "/" + shortUri
+                : request.getServerName() + ":" + serverPort + "/" + shortUri;
+        HttpServletRequest httpServletRequest = (HttpServletRequest) request;
+        String uv = getUvFromCookie(httpServletRequest);
+        boolean newVisitor = StrUtil.isBlank(uv);
+        if (newVisitor) {
+            uv = UUID.fastUUID().toString();
+        }
+        String remoteAddr = LinkUtil.getActualIp(httpServletRequest);
+        // 优先查询本地缓存，热点短链接只需在 Redis 中完成 UV、UIP 判重
+        // 本地缓存未命中时，跳转缓存查询与 UV、UIP 判重在同一次往返中完成
+        String originalLink = shortLinkGotoLocalCache.get(fullShortUrl);
+        // 已确认不存在的短链接只允许命中本地缓存，不再访问 Redis 与数据库
+        if (originalLink == null && shortLinkNegativeCache.isMissing(fullShortUrl)) {
+            redirectNotFound(fullShortUrl, remoteAddr, false, response);
+            return;
+        }
+        List<Object> gotoStatsResult = executeGotoStatsScript(fullShortUrl, uv, remoteAddr, originalLink == null);
+        if (originalLink == null) {
+            originalLink = (String) gotoStatsResult.get(0);
+            if (StrUtil.isNotBlank(originalLink)) {
+                long remainingMillis = (Long) gotoStatsResult.get(1);
+                shortLinkGotoLocalCache.put(fullShortUrl, originalLink, remainingMillis);
+                // 跳转缓存临近过期时后台提前刷新，本次请求继续使用当前缓存
+                shortLinkGotoLoader.refreshAheadIfNecessary(fullShortUrl, remainingMillis);
+            }
+        }
         if (StrUtil.isNotBlank(originalLink)) {
-            ShortLinkStatsRecordDTO statsRecord = buildLinkStatsRecordAndSetUser(fullShortUrl, request, response);
+            ShortLinkStatsRecordDTO statsRecord = buildLinkStatsRecordAndSetUser(fullShortUrl, uv, newVisitor, remoteAddr, gotoStatsResult, request, response);
             shortLinkStats(fullShortUrl, null, statsRecord);
             ((HttpServletResponse) response).sendRedirect(originalLink);
             return;
         }
-        boolean contains = shortUriCreateCachePenetrationBloomFilter.contains(fullShortUrl);
+        // 判定为扫描的 IP 仍可命中本地缓存以及 Redis 跳转缓存，NAT 后的正常用户不受影响，只是不再进入空值缓存、数据库以及分布式锁路径
+        if (shortLinkNegativeCache.isScanner(remoteAddr)) {
+            redirectNotFound(fullShortUrl, remoteAddr, false, response);
+            return;
+        }
+        // 布隆过滤器判定数据丢失并重建期间，不存在的判断结果不可信，继续查询空值缓存以及数据库
+        boolean contains = shortUriMembershipFilter.contains(fullShortUrl) || shortUriBloomFilterRebuildTask.isDegraded();
         if (!contains) {
-            ((HttpServletResponse) response).sendRedirect("/page/notfound");
+            redirectNotFound(fullShortUrl, remoteAddr, false, response);
             return;
         }
-        String gotoIsNullShortLink = stringRedisTemplate.opsForValue().get(String.format(GOTO_IS_NULL_SHORT_LINK_KEY, fullShortUrl));
+        String gotoIsNullShortLink = stringRedisTemplate.opsForValue().get(GOTO_IS_NULL_KEY_TEMPLATE.format(fullShortUrl));
         if (StrUtil.isNotBlank(gotoIsNullShortLink)) {
-            ((HttpServletResponse) response).sendRedirect("/page/notfound");
+            redirectNotFound(fullShortUrl, remoteAddr, true, response);
             return;
         }
-        RLock lock = redissonClient.getLock(String.format(LOCK_GOTO_SHORT_LINK_KEY, fullShortUrl));
-        lock.lock();
-        try {
-            originalLink = stringRedisTemplate.opsForValue().get(String.format(GOTO_SHORT_LINK_KEY, fullShortUrl));
-            if (StrUtil.isNotBlank(originalLink)) {
-                ShortLinkStatsRecordDTO statsRecord = buildLinkStatsRecordAndSetUser(fullShortUrl, request, response);
-                shortLinkStats(fullShortUrl, null, statsRecord);
-                ((HttpServletResponse) response).sendRedirect(originalLink);
-                return;
-            }
-            LambdaQueryWrapper<ShortLinkGotoDO> linkGotoQueryWrapper = Wrappers.lambdaQuery(ShortLinkGotoDO.class)
-                    .eq(ShortLinkGotoDO::getFullShortUrl, fullShortUrl);
-            ShortLinkGotoDO shortLinkGotoDO = shortLinkGotoMapper.selectOne(linkGotoQueryWrapper);
-            if (shortLinkGotoDO == null) {
-                stringRedisTemplate.opsForValue().set(String.format(GOTO_IS_NULL_SHORT_LINK_KEY, fullShortUrl), "-", 30, TimeUnit.MINUTES);
-                ((HttpServletResponse) response).sendRedirect("/page/notfound");
-                return;
-            }
-            LambdaQueryWrapper<ShortLinkDO> queryWrapper = Wrappers.lambdaQuery(ShortLinkDO.class)
-                    .eq(ShortLinkDO::getGid, shortLinkGotoDO.getGid())
-                    .eq(ShortLinkDO::getFullShortUrl, fullShortUrl)
-                    .eq(ShortLinkDO::getDelFlag, 0)
-                    .eq(ShortLinkDO::getEnableStatus, 0);
-            ShortLinkDO shortLinkDO = baseMapper.selectOne(queryWrapper);
-            if (shortLinkDO == null || (shortLinkDO.getValidDate() != null && shortLinkDO.getValidDate().before(new Date()))) {
-                stringRedisTemplate.opsForValue().set(String.format(GOTO_IS_NULL_SHORT_LINK_KEY, fullShortUrl), "-", 30, TimeUnit.MINUTES);
-                ((HttpServletResponse) response).sendRedirect("/page/notfound");
-                return;
-            }
-            stringRedisTemplate.opsForValue().set(
-                    String.format(GOTO_SHORT_LINK_KEY, fullShortUrl),
-                    shortLinkDO.getOriginUrl(),
-                    LinkUtil.getLinkCacheValidTime(shortLinkDO.getValidDate()), TimeUnit.MILLISECONDS
+        // 缓存未命中时合并同一短链接的并发加载，避免缓存失效瞬间所有线程阻塞在分布式锁上
+        ShortLinkRouteDTO route = shortLinkGotoLoader.load(fullShortUrl);
+        if (route == null) {
+            redirectNotFound(fullShortUrl, remoteAddr, true, response);
+            return;
+        }
+        shortLinkGotoLocalCache.put(fullShortUrl, route.getOriginUrl(), route.getValidTime());
+        gotoStatsResult = executeGotoStatsScript(fullShortUrl, uv, remoteAddr, false);
+        ShortLinkStatsRecordDTO statsRecord = buildLinkStatsRecordAndSetUser(fullShortUrl, uv, newVisitor, remoteAddr, gotoStatsResult, request, response);
+        shortLinkStats(fullShortUrl, route.getGid(), statsRecord);
+        ((HttpServletResponse) response).sendRedirect(route.getOriginUrl());
+    }
+
+    /**
+     * 跳转短链接不存在页面，并记录访问 IP 用于扫描检测
+     *
+     * @param confirmed 是否已通过空值缓存或数据库确认不存在，确认后写入节点本地不存在缓存
+     */
+    @SneakyThrows
+    private void redirectNotFound(String fullShortUrl, String remoteAddr, boolean confirmed, ServletResponse response) {
+        shortLinkNegativeCache.recordNotFound(fullShortUrl, remoteAddr, confirmed);
+        ((HttpServletResponse) response).sendRedirect("/page/notfound");
+    }
+
+    /**
+     * 执行短链接跳转热点路径脚本
+     *
+     * @param fullShortUrl 完整短链接
+     * @param uv           访客标识
+     * @param remoteAddr   访客 IP
+     * @param lookupGoto   是否需要查询跳转缓存
+     * @return 原始链接、跳转缓存剩余有效期、新增 UV 数量、新增 UIP 数量，分桶模式下额外返回累计 UV、UIP 增量
+     */
+    private List<Object> executeGotoStatsScript(String fullShortUrl, String uv, String remoteAddr, boolean lookupGoto) {
+        String lookupGotoArg = lookupGoto ? "1" : "0";
+        if (shortLinkUniqueStatsConfiguration.isBucketMode()) {
+            String day = TimeBucketUtil.current().basicIsoDate();
+            List<String> keys = List.of(
+                    GOTO_KEY_TEMPLATE.format(fullShortUrl),
+                    UV_HLL_KEY_TEMPLATE.format(fullShortUrl),
+                    UV_SEEN_SET_KEY_TEMPLATE.format(fullShortUrl, day),
+                    UV_SEEN_BITMAP_KEY_TEMPLATE.format(fullShortUrl, day),
+                    UIP_HLL_KEY_TEMPLATE.format(fullShortUrl),
+                    UIP_SEEN_SET_KEY_TEMPLATE.format(fullShortUrl, day),
+                    UIP_SEEN_BITMAP_KEY_TEMPLATE.format(fullShortUrl, day)
             );
-            ShortLinkStatsRecordDTO statsRecord = buildLinkStatsRecordAndSetUser(fullShortUrl, request, response);
-            shortLinkStats(fullShortUrl, shortLinkDO.getGid(), statsRecord);
-            ((HttpServletResponse) response).sendRedirect(shortLinkDO.getOriginUrl());
-        } finally {
-            lock.unlock();
+            String[] bucketArgs = getBucketScriptArgs();
+            return stringRedisTemplate.execute(
+                    GOTO_STATS_BUCKET_SCRIPT,
+                    keys,
+                    uv,
+                    remoteAddr,
+                    lookupGotoArg,
+                    bucketArgs[0],
+                    bucketArgs[1],
+                    bucketArgs[2],
+                    bucketArgs[3]
+            );
+        }
+        List<String> keys = List.of(
+                GOTO_KEY_TEMPLATE.format(fullShortUrl),
+                UV_KEY_TEMPLATE.format(fullShortUrl),
+                UIP_KEY_TEMPLATE.format(fullShortUrl)
+        );
+        return stringRedisTemplate.execute(GOTO_STATS_SCRIPT, keys, uv, remoteAddr, lookupGotoArg);
+    }
+
+    /**
+     * 分桶去重脚本中与请求无关的参数，配置加载后不再变化，首次使用时转换为字符串并缓存
+     */
+    private String[] getBucketScriptArgs() {
+        String[] args = bucketScriptArgs;
+        if (args == null) {
+            bucketScriptArgs = args = new String[]{
+                    String.valueOf(TimeUnit.DAYS.toSeconds(shortLinkUniqueStatsConfiguration.getBucketRetentionDays())),
+                    String.valueOf(shortLinkUniqueStatsConfiguration.getFirstSeenSetThreshold()),
+                    String.valueOf(shortLinkUniqueStatsConfiguration.getFirstSeenBitmapBits()),
+                    String.valueOf(Math.max(1, Math.min(5, shortLinkUniqueStatsConfiguration.getFirstSeenHashIterations())))
+            };
         }
+        return args;
     }
 
-    private ShortLinkStatsRecordDTO buildLinkStatsRecordAndSetUser(String fullShortUrl, ServletRequest request, ServletResponse response) {
-        AtomicBoolean uvFirstFlag = new AtomicBoolean();
-        Cookie[] cookies = ((HttpServletRequest) request).getCookies();
-        AtomicReference<String> uv = new AtomicReference<>();
-        Runnable addResponseCookieTask = () -> {
-            uv.set(UUID.fastUUID().toString());
-            Cookie uvCookie = new Cookie("uv", uv.get());
+    private String getUvFromCookie(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (ArrayUtil.isEmpty(cookies)) {
+            return null;
+        }
+        for (Cookie each : cookies) {
+            if ("uv".equals(each.getName())) {
+                return each.getValue();
+            }
+        }
+        return null;
+    }
+
+    private ShortLinkStatsRecordDTO buildLinkStatsRecordAndSetUser(String fullShortUrl, String uv, boolean newVisitor, String remoteAddr,
+                                                                   List<Object> gotoStatsResult, ServletRequest request, ServletResponse response) {
+        if (newVisitor) {
+            Cookie uvCookie = new Cookie("uv", uv);
             uvCookie.setMaxAge(60 * 60 * 24 * 30);
-            uvCookie.setPath(StrUtil.sub(fullShortUrl, fullShortUrl.indexOf("/"), fullShortUrl.length()));
+            uvCookie.setPath(fullShortUrl.substring(fullShortUrl.indexOf('/')));
             ((HttpServletResponse) response).addCookie(uvCookie);
-            uvFirstFlag.set(Boolean.TRUE);
-            stringRedisTemplate.opsForSet().add(SHORT_LINK_STATS_UV_KEY + fullShortUrl, uv.get());
-        };
-        if (ArrayUtil.isNotEmpty(cookies)) {
-            Arrays.stream(cookies)
-                    .filter(each -> Objects.equals(each.getName(), "uv"))
-                    .findFirst()
-                    .map(Cookie::getValue)
-                    .ifPresentOrElse(each -> {
-                        uv.set(each);
-                        Long uvAdded = stringRedisTemplate.opsForSet().add(SHORT_LINK_STATS_UV_KEY + fullShortUrl, each);
-                        uvFirstFlag.set(uvAdded != null && uvAdded > 0L);
-                    }, addResponseCookieTask);
-        } else {
-            addResponseCookieTask.run();
         }
-        String remoteAddr = LinkUtil.getActualIp(((HttpServletRequest) request));
-        String os = LinkUtil.getOs(((HttpServletRequest) request));
-        String browser = LinkUtil.getBrowser(((HttpServletRequest) request));
-        String device = LinkUtil.getDevice(((HttpServletRequest) request));
-        String network = LinkUtil.getNetwork(((HttpServletRequest) request));
-        Long uipAdded = stringRedisTemplate.opsForSet().add(SHORT_LINK_STATS_UIP_KEY + fullShortUrl, remoteAddr);
-        boolean uipFirstFlag = uipAdded != null && uipAdded > 0L;
+        UserAgentClassifier.UserAgent userAgent = UserAgentClassifier.classify(((HttpServletRequest) request).getHeader("User-Agent"));
+        String network = LinkUtil.getNetwork(remoteAddr);
         return ShortLinkStatsRecordDTO.builder()
                 .fullShortUrl(fullShortUrl)
-                .uv(uv.get())
-                .uvFirstFlag(uvFirstFlag.get())
-                .uipFirstFlag(uipFirstFlag)
+                .uv(uv)
+                .uvFirstFlag((Long) gotoStatsResult.get(2) > 0L)
+                .uipFirstFlag((Long) gotoStatsResult.get(3) > 0L)
+                .uvTotalDelta(gotoStatsResult.size() > 4 ? ((Long) gotoStatsResult.get(4)).intValue() : null)
+                .uipTotalDelta(gotoStatsResult.size() > 5 ? ((Long) gotoStatsResult.get(5)).intValue() : null)
                 .remoteAddr(remoteAddr)
-                .os(os)
-                .browser(browser)
-                .device(device)
+                .os(userAgent.os())
+                .browser(userAgent.browser())
+                .device(userAgent.device())
                 .network(network)
                 .build();
     }
@@ -641,11 +926,20 @@ public class ShortLinkServiceImpl extends ServiceImpl<ShortLinkMapper, ShortLink
         producerMap.put("fullShortUrl", fullShortUrl);
         producerMap.put("gid", gid);
         producerMap.put("statsRecord", JSON.toJSONString(statsRecord));
+        if (shortLinkStatsAggregator.isEnable()) {
+            // 可累加指标在节点内预聚合后定期发送，当前消息只用于记录地区统计以及访问日志
+            shortLinkStatsAggregator.record(fullShortUrl, gid, statsRecord);
+            producerMap.put("counterAggregated", Boolean.TRUE.toString());
+        }
         // 消息队列为什么选用RocketMQ？详情查看：https://nageoffer.com/shortlink/question
         shortLinkStatsSaveProducer.send(producerMap);
     }
 
     private String generateSuffix(ShortLinkCreateReqDTO requestParam) {
+        // 编码池分配的后缀由不重叠的号段置换得到，一定不重复，无需查询布隆过滤器
+        if (shortLinkCodePool.isEnable()) {
+            return shortLinkCodePool.next();
+        }
         int customGenerateCount = 0;
         String shorUri;
         while (true) {
@@ -658,7 +952,7 @@ public class ShortLinkServiceImpl extends ServiceImpl<ShortLinkMapper, ShortLink
             shorUri = HashUtil.hashToBase62(originUrl);
             // 判断短链接是否存在为什么不使用Set结构？详情查看：https://nageoffer.com/shortlink/question
             // 如果布隆过滤器挂了，里边存的数据全丢失了，怎么恢复呢？详情查看：https://nageoffer.com/shortlink/question
-            if (!shortUriCreateCachePenetrationBloomFilter.contains(createShortLinkDefaultDomain + "/" + shorUri)) {
+            if (!shortUriMembershipFilter.contains(createShortLinkDefaultDomain + "/" + shorUri)) {
                 break;
             }
             customGenerateCount++;
@@ -667,6 +961,9 @@ public class ShortLinkServiceImpl extends ServiceImpl<ShortLinkMapper, ShortLink
     }
 
     private String generateSuffixByLock(ShortLinkCreateReqDTO requestParam) {
+        if (shortLinkCodePool.isEnable()) {
+            return shortLinkCodePool.next();
+        }
         int customGenerateCount = 0;
         String shorUri;
         while (true) {
@@ -690,23 +987,6 @@ public class ShortLinkServiceImpl extends ServiceImpl<ShortLinkMapper, ShortLink
         return shorUri;
     }
 
-    @SneakyThrows
-    private String getFavicon(String url) {
-        URL targetUrl = new URL(url);
-        HttpURLConnection connection = (HttpURLConnection) targetUrl.openConnection();
-        connection.setRequestMethod("GET");
-        connection.connect();
-        int responseCode = connection.getResponseCode();
-        if (HttpURLConnection.HTTP_OK == responseCode) {
-            Document document = Jsoup.connect(url).get();
-            Element faviconLink = document.select("link[rel~=(?i)^(shortcut )?icon]").first();
-            if (faviconLink != null) {
-                return faviconLink.attr("abs:href");
-            }
-        }
-        return null;
-    }
-
     private void verificationWhitelist(String originUrl) {
         Boolean enable = gotoDomainWhiteListConfiguration.getEnable();
         if (enable == null || !enable) {
@@ -42,6 +42,18 @@ public class HashUtil {
         return sb.reverse().toString();
     }
 
+    /**
+     * 转换为固定长度的 62 进制字符串，长度不足时高位补 0
+     */
+    public static String convertDecToBase62(long num, int length) {
+        char[] result = new char[length];
+        for (int i = length - 1; i >= 0; i--) {
+            result[i] = CHARS[(int) (num % SIZE)];
+            num /= SIZE;
+        }
+        return new String(result);
+    }
+
     public static String hashToBase62(String str) {
         int i = MurmurHash.hash32(str);
         long num = i < 0 ? Integer.MAX_VALUE - (long) i : i;
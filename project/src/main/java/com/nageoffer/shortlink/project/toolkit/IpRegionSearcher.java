@@ -0,0 +1,321 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.nageoffer.shortlink.project.toolkit;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.Inet4Address;
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 离线 IP 地域查询
+ * 地域库文件按起始 IP 排序保存 IPv4、IPv6 地址段，查询时在内存映射的地址段上二分查找，不访问网络，单次查询为微秒级
+ * <p>
+ * 文件格式，所有整数均为大端序：
+ * <pre>
+ * 文件头   魔数 int、版本 int、IPv4 地址段数 int、IPv6 地址段数 int、地域数 int
+ * IPv4 段  起始 IP int、结束 IP int、地域下标 int，每段 12 字节
+ * IPv6 段  起始 IP 高位 long、低位 long、结束 IP 高位 long、低位 long、地域下标 int，每段 36 字节
+ * 地域     UTF-8 字节长度 short 以及字节，内容为 国家|省份|城市|城市编码
+ * </pre>
+ * 可通过 {@link #convert(InputStream, OutputStream)} 从 CSV 文件生成地域库，CSV 格式见该方法说明，可由商业或开源 IP 库导出
+ * 生成步骤：执行 mvn -pl project -am compile 编译后，运行
+ * <pre>
+ * java -cp project/target/classes com.nageoffer.shortlink.project.toolkit.IpRegionSearcher ip-region.csv ip-region.db
+ * </pre>
+ * 再将 short-link.stats.locale.database-path 配置为生成的 ip-region.db 路径
+ */
+public final class IpRegionSearcher {
+
+    private static final int MAGIC = 0x534C4950;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 20;
+    private static final int IPV4_SEGMENT_BYTES = 12;
+    private static final int IPV6_SEGMENT_BYTES = 36;
+
+    private final ByteBuffer buffer;
+    private final int ipv4Count;
+    private final int ipv6Count;
+    private final int ipv6Offset;
+    private final Region[] regions;
+
+    private IpRegionSearcher(ByteBuffer buffer) {
+        this.buffer = buffer;
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IllegalArgumentException("IP 地域库文件格式错误");
+        }
+        this.ipv4Count = buffer.getInt(8);
+        this.ipv6Count = buffer.getInt(12);
+        this.ipv6Offset = HEADER_BYTES + ipv4Count * IPV4_SEGMENT_BYTES;
+        int regionCount = buffer.getInt(16);
+        // 地域数量远小于地址段数量，加载时一次性解码
+        this.regions = new Region[regionCount];
+        int position = ipv6Offset + ipv6Count * IPV6_SEGMENT_BYTES;
+        for (int i = 0; i < regionCount; i++) {
+            int length = Short.toUnsignedInt(buffer.getShort(position));
+            byte[] bytes = new byte[length];
+            buffer.get(position + 2, bytes);
+            regions[i] = Region.parse(new String(bytes, StandardCharsets.UTF_8));
+            position += 2 + length;
+        }
+    }
+
+    /**
+     * 以只读内存映射方式加载地域库文件
+     */
+    public static IpRegionSearcher mmap(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new IpRegionSearcher(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * 将地域库读入堆内存，用于无法内存映射的类路径资源
+     */
+    public static IpRegionSearcher load(InputStream inputStream) throws IOException {
+        return new IpRegionSearcher(ByteBuffer.wrap(inputStream.readAllBytes()));
+    }
+
+    /**
+     * 查询 IP 所属地域
+     *
+     * @param ip IPv4 或 IPv6 字面量
+     * @return 地域，IP 格式错误或不在地域库中时返回 null
+     */
+    public Region search(String ip) {
+        InetAddress address = parseLiteral(ip);
+        if (address instanceof Inet4Address) {
+            return searchIpv4(toUnsignedInt(address.getAddress()));
+        }
+        if (address instanceof Inet6Address) {
+            byte[] bytes = address.getAddress();
+            return searchIpv6(ByteBuffer.wrap(bytes, 0, 8).getLong(), ByteBuffer.wrap(bytes, 8, 8).getLong());
+        }
+        return null;
+    }
+
+    /**
+     * 查找起始 IP 不大于目标 IP 的最后一个地址段，再判断目标 IP 是否不大于结束 IP
+     */
+    private Region searchIpv4(int ip) {
+        int low = 0;
+        int high = ipv4Count - 1;
+        int found = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (Integer.compareUnsigned(buffer.getInt(HEADER_BYTES + mid * IPV4_SEGMENT_BYTES), ip) <= 0) {
+                found = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        if (found < 0) {
+            return null;
+        }
+        int position = HEADER_BYTES + found * IPV4_SEGMENT_BYTES;
+        return Integer.compareUnsigned(ip, buffer.getInt(position + 4)) <= 0 ? regions[buffer.getInt(position + 8)] : null;
+    }
+
+    private Region searchIpv6(long high64, long low64) {
+        int low = 0;
+        int high = ipv6Count - 1;
+        int found = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int position = ipv6Offset + mid * IPV6_SEGMENT_BYTES;
+            if (compareIpv6(buffer.getLong(position), buffer.getLong(position + 8), high64, low64) <= 0) {
+                found = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        if (found < 0) {
+            return null;
+        }
+        int position = ipv6Offset + found * IPV6_SEGMENT_BYTES;
+        return compareIpv6(high64, low64, buffer.getLong(position + 16), buffer.getLong(position + 24)) <= 0 ? regions[buffer.getInt(position + 32)] : null;
+    }
+
+    private static int compareIpv6(long leftHigh, long leftLow, long rightHigh, long rightLow) {
+        int result = Long.compareUnsigned(leftHigh, rightHigh);
+        return result != 0 ? result : Long.compareUnsigned(leftLow, rightLow);
+    }
+
+    private static int toUnsignedInt(byte[] bytes) {
+        return ByteBuffer.wrap(bytes).getInt();
+    }
+
+    /**
+     * 只解析 IP 字面量，不进行域名解析
+     */
+    private static InetAddress parseLiteral(String ip) {
+        if (ip == null || ip.isEmpty()) {
+            return null;
+        }
+        try {
+            if (ip.indexOf(':') >= 0) {
+                // 含冒号的字符串按 IPv6 字面量解析，不会触发域名解析
+                return InetAddress.getByName(ip);
+            }
+            String[] parts = ip.split("\\.", -1);
+            if (parts.length != 4) {
+                return null;
+            }
+            byte[] bytes = new byte[4];
+            for (int i = 0; i < 4; i++) {
+                if (parts[i].isEmpty() || parts[i].length() > 3) {
+                    return null;
+                }
+                int value = Integer.parseInt(parts[i]);
+                if (value > 255) {
+                    return null;
+                }
+                bytes[i] = (byte) value;
+            }
+            return InetAddress.getByAddress(bytes);
+        } catch (Exception ignored) {
+            return null;
+        }
+    }
+
+    /**
+     * 地域库生成入口，只依赖 JDK，可直接以编译输出目录为类路径运行
+     *
+     * @param args CSV 文件路径、地域库文件输出路径
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("用法：java -cp <classpath> " + IpRegionSearcher.class.getName() + " <CSV 文件> <地域库输出文件>");
+            System.exit(1);
+        }
+        Path target = Path.of(args[1]);
+        try (InputStream csv = Files.newInputStream(Path.of(args[0]));
+             OutputStream output = new BufferedOutputStream(Files.newOutputStream(target))) {
+            convert(csv, output);
+        }
+        IpRegionSearcher searcher = mmap(target);
+        System.out.println("IP 地域库生成完成：" + target.toAbsolutePath() + "，IPv4 地址段：" + searcher.ipv4Count + "，IPv6 地址段：" + searcher.ipv6Count);
+    }
+
+    /**
+     * 将 CSV 转换为地域库文件
+     * 每行依次为起始 IP、结束 IP、国家、省份、城市、城市编码，以英文逗号分隔，同一行的起止 IP 必须同为 IPv4 或 IPv6，地域字段不能包含竖线
+     */
+    public static void convert(InputStream csv, OutputStream target) throws IOException {
+        List<long[]> ipv4Segments = new ArrayList<>();
+        List<long[]> ipv6Segments = new ArrayList<>();
+        Map<String, Integer> regionIndexes = new HashMap<>();
+        List<String> regionList = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(csv, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] columns = line.split(",", -1);
+                if (columns.length < 6) {
+                    throw new IllegalArgumentException("IP 地域 CSV 格式错误：" + line);
+                }
+                for (int i = 2; i < 6; i++) {
+                    // 地域以竖线拼接保存，字段中包含竖线会导致加载时列错位
+                    if (columns[i].indexOf('|') >= 0) {
+                        throw new IllegalArgumentException("IP 地域 CSV 地域字段不能包含竖线：" + line);
+                    }
+                }
+                String region = String.join("|", columns[2].trim(), columns[3].trim(), columns[4].trim(), columns[5].trim());
+                int regionIndex = regionIndexes.computeIfAbsent(region, each -> {
+                    regionList.add(each);
+                    return regionList.size() - 1;
+                });
+                InetAddress start = parseLiteral(columns[0].trim());
+                InetAddress end = parseLiteral(columns[1].trim());
+                if (start instanceof Inet4Address && end instanceof Inet4Address) {
+                    ipv4Segments.add(new long[]{Integer.toUnsignedLong(toUnsignedInt(start.getAddress())), Integer.toUnsignedLong(toUnsignedInt(end.getAddress())), regionIndex});
+                } else if (start instanceof Inet6Address && end instanceof Inet6Address) {
+                    ByteBuffer startBytes = ByteBuffer.wrap(start.getAddress());
+                    ByteBuffer endBytes = ByteBuffer.wrap(end.getAddress());
+                    ipv6Segments.add(new long[]{startBytes.getLong(0), startBytes.getLong(8), endBytes.getLong(0), endBytes.getLong(8), regionIndex});
+                } else {
+                    throw new IllegalArgumentException("IP 地域 CSV 起止 IP 错误：" + line);
+                }
+            }
+        }
+        ipv4Segments.sort(Comparator.comparingLong(each -> each[0]));
+        ipv6Segments.sort((left, right) -> compareIpv6(left[0], left[1], right[0], right[1]));
+        DataOutputStream output = new DataOutputStream(target);
+        output.writeInt(MAGIC);
+        output.writeInt(VERSION);
+        output.writeInt(ipv4Segments.size());
+        output.writeInt(ipv6Segments.size());
+        output.writeInt(regionList.size());
+        for (long[] each : ipv4Segments) {
+            output.writeInt((int) each[0]);
+            output.writeInt((int) each[1]);
+            output.writeInt((int) each[2]);
+        }
+        for (long[] each : ipv6Segments) {
+            output.writeLong(each[0]);
+            output.writeLong(each[1]);
+            output.writeLong(each[2]);
+            output.writeLong(each[3]);
+            output.writeInt((int) each[4]);
+        }
+        for (String each : regionList) {
+            byte[] bytes = each.getBytes(StandardCharsets.UTF_8);
+            output.writeShort(bytes.length);
+            output.write(bytes);
+        }
+        output.flush();
+    }
+
+    /**
+     * 地域信息
+     *
+     * @param country  国家
+     * @param province 省份
+     * @param city     城市
+     * @param adcode   城市编码
+     */
+    public record Region(String country, String province, String city, String adcode) {
+
+        private static Region parse(String value) {
+            String[] columns = value.split("\\|", -1);
+            return new Region(columns[0], columns[1], columns[2], columns[3]);
+        }
+    }
+}
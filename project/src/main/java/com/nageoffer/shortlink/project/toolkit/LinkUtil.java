@@ -25,8 +25,10 @@ import jakarta.servlet.http.HttpServletRequest;
 import java.net.URI;
 import java.util.Date;
 import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
 
 import static com.nageoffer.shortlink.project.common.constant.ShortLinkConstant.DEFAULT_CACHE_VALID_TIME;
+import static com.nageoffer.shortlink.project.common.constant.ShortLinkConstant.DEFAULT_CACHE_VALID_TIME_JITTER;
 
 /**
  * 短链接工具类
@@ -36,6 +38,7 @@ public class LinkUtil {
 
     /**
      * 获取短链接缓存有效期时间
+     * 永久短链接在默认有效时间基础上增加随机抖动，有效期短链接缓存不能超过有效期，不做抖动
      *
      * @param validDate 有效期时间
      * @return 有限期时间戳
@@ -43,7 +46,18 @@ public class LinkUtil {
     public static long getLinkCacheValidTime(Date validDate) {
         return Optional.ofNullable(validDate)
                 .map(each -> DateUtil.between(new Date(), each, DateUnit.MS))
-                .orElse(DEFAULT_CACHE_VALID_TIME);
+                .orElseGet(() -> DEFAULT_CACHE_VALID_TIME + ThreadLocalRandom.current().nextLong(DEFAULT_CACHE_VALID_TIME_JITTER));
+    }
+
+    /**
+     * 判断有效期短链接是否已经过期
+     * {@link #getLinkCacheValidTime(Date)} 返回的是时间差的绝对值，写入缓存前需要先排除已过期的短链接
+     *
+     * @param validDate 有效期时间，为空表示永久有效
+     * @return 是否已经过期
+     */
+    public static boolean isExpired(Date validDate) {
+        return validDate != null && validDate.getTime() <= System.currentTimeMillis();
     }
 
     /**
@@ -79,20 +93,7 @@ public class LinkUtil {
      * @return 访问操作系统
      */
     public static String getOs(HttpServletRequest request) {
-        String userAgent = request.getHeader("User-Agent");
-        if (userAgent.toLowerCase().contains("windows")) {
-            return "Windows";
-        } else if (userAgent.toLowerCase().contains("mac")) {
-            return "Mac OS";
-        } else if (userAgent.toLowerCase().contains("linux")) {
-            return "Linux";
-        } else if (userAgent.toLowerCase().contains("android")) {
-            return "Android";
-        } else if (userAgent.toLowerCase().contains("iphone") || userAgent.toLowerCase().contains("ipad")) {
-            return "iOS";
-        } else {
-            return "Unknown";
-        }
+        return UserAgentClassifier.classify(request.getHeader("User-Agent")).os();
     }
 
     /**
@@ -102,22 +103,7 @@ public class LinkUtil {
      * @return 访问浏览器
      */
     public static String getBrowser(HttpServletRequest request) {
-        String userAgent = request.getHeader("User-Agent");
-        if (userAgent.toLowerCase().contains("edg")) {
-            return "Microsoft Edge";
-        } else if (userAgent.toLowerCase().contains("chrome")) {
-            return "Google Chrome";
-        } else if (userAgent.toLowerCase().contains("firefox")) {
-            return "Mozilla Firefox";
-        } else if (userAgent.toLowerCase().contains("safari")) {
-            return "Apple Safari";
-        } else if (userAgent.toLowerCase().contains("opera")) {
-            return "Opera";
-        } else if (userAgent.toLowerCase().contains("msie") || userAgent.toLowerCase().contains("trident")) {
-            return "Internet Explorer";
-        } else {
-            return "Unknown";
-        }
+        return UserAgentClassifier.classify(request.getHeader("User-Agent")).browser();
     }
 
     /**
@@ -127,11 +113,7 @@ public class LinkUtil {
      * @return 访问设备
      */
     public static String getDevice(HttpServletRequest request) {
-        String userAgent = request.getHeader("User-Agent");
-        if (userAgent.toLowerCase().contains("mobile")) {
-            return "Mobile";
-        }
-        return "PC";
+        return UserAgentClassifier.classify(request.getHeader("User-Agent")).device();
     }
 
     /**
@@ -141,7 +123,16 @@ public class LinkUtil {
      * @return 访问设备
      */
     public static String getNetwork(HttpServletRequest request) {
-        String actualIp = getActualIp(request);
+        return getNetwork(getActualIp(request));
+    }
+
+    /**
+     * 根据用户真实IP获取用户访问网络
+     *
+     * @param actualIp 用户真实IP
+     * @return 访问网络
+     */
+    public static String getNetwork(String actualIp) {
         // 这里简单判断IP地址范围，您可能需要更复杂的逻辑
         // 例如，通过调用IP地址库或调用第三方服务来判断网络类型
         return actualIp.startsWith("192.168.") || actualIp.startsWith("10.") ? "WIFI" : "Mobile";
@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.nageoffer.shortlink.project.toolkit;
+
+/**
+ * Redis Key 模板
+ * 启动时将 {@code %s} 格式的 Key 常量预先拆分，跳转热点路径上直接拼接，避免 String.format 每次解析格式串产生的临时对象
+ */
+public final class RedisKeyTemplate {
+
+    private final String[] parts;
+    private final int fixedLength;
+
+    private RedisKeyTemplate(String[] parts) {
+        this.parts = parts;
+        int length = 0;
+        for (String each : parts) {
+            length += each.length();
+        }
+        this.fixedLength = length;
+    }
+
+    /**
+     * 根据 {@code %s} 格式的 Key 常量创建模板
+     *
+     * @param format Key 常量
+     * @return Key 模板
+     */
+    public static RedisKeyTemplate of(String format) {
+        return new RedisKeyTemplate(format.split("%s", -1));
+    }
+
+    /**
+     * 填充一个参数
+     */
+    public String format(String arg) {
+        return new StringBuilder(fixedLength + arg.length())
+                .append(parts[0])
+                .append(arg)
+                .append(parts[1])
+                .toString();
+    }
+
+    /**
+     * 填充两个参数
+     */
+    public String format(String arg1, String arg2) {
+        return new StringBuilder(fixedLength + arg1.length() + arg2.length())
+                .append(parts[0])
+                .append(arg1)
+                .append(parts[1])
+                .append(arg2)
+                .append(parts[2])
+                .toString();
+    }
+}
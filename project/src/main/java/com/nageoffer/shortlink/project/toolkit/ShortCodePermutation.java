@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.nageoffer.shortlink.project.toolkit;
+
+import cn.hutool.core.lang.hash.MurmurHash;
+
+/**
+ * 短链接编码置换
+ * 将递增序号一一映射为同一区间 [0, 62^length) 内看似随机的编码，序号不重复则编码不重复，且无法从编码推测相邻编码
+ * 使用平衡 Feistel 网络在不小于区间的 2 的偶数次幂上置换，结果超出区间时继续置换（Cycle Walking），直到落入区间
+ */
+public final class ShortCodePermutation {
+
+    private static final int ROUNDS = 4;
+
+    private final int length;
+    private final long domain;
+    private final int halfBits;
+    private final long halfMask;
+    private final long[] roundKeys = new long[ROUNDS];
+
+    /**
+     * @param length 编码长度，62^length 不超过 long 范围，最大为 10
+     * @param secret 置换密钥，修改后已分配的序号会映射为不同编码，上线后不可修改
+     */
+    public ShortCodePermutation(int length, String secret) {
+        if (length < 1 || length > 10) {
+            throw new IllegalArgumentException("短链接编码长度必须在 1 到 10 之间");
+        }
+        this.length = length;
+        long currentDomain = 1L;
+        for (int i = 0; i < length; i++) {
+            currentDomain *= 62;
+        }
+        this.domain = currentDomain;
+        int bits = 64 - Long.numberOfLeadingZeros(domain - 1);
+        this.halfBits = (bits + 1) / 2;
+        this.halfMask = (1L << halfBits) - 1;
+        for (int round = 0; round < ROUNDS; round++) {
+            roundKeys[round] = MurmurHash.hash64(secret + ":" + round);
+        }
+    }
+
+    /**
+     * 编码区间大小，序号必须小于该值
+     */
+    public long domain() {
+        return domain;
+    }
+
+    /**
+     * 将序号置换并编码为固定长度的 62 进制字符串
+     *
+     * @param sequence 序号，范围 [0, domain)
+     * @return 短链接编码
+     */
+    public String encode(long sequence) {
+        if (sequence < 0 || sequence >= domain) {
+            throw new IllegalArgumentException("短链接编码序号超出范围：" + sequence);
+        }
+        long value = sequence;
+        do {
+            value = permute(value);
+        } while (value >= domain);
+        return HashUtil.convertDecToBase62(value, length);
+    }
+
+    private long permute(long value) {
+        long left = value >>> halfBits;
+        long right = value & halfMask;
+        for (int round = 0; round < ROUNDS; round++) {
+            long next = left ^ (mix(right ^ roundKeys[round]) & halfMask);
+            left = right;
+            right = next;
+        }
+        return (left << halfBits) | right;
+    }
+
+    /**
+     * SplitMix64 混淆函数
+     */
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+        value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+        return value ^ (value >>> 31);
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.nageoffer.shortlink.project.toolkit;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * 统计时间分桶工具类
+ * 缓存当前小时的日期、小时等信息，同一小时内的访问直接复用，跳转热点路径上不再每次创建日期对象
+ */
+public final class TimeBucketUtil {
+
+    private static volatile TimeBucket current = TimeBucket.of(System.currentTimeMillis());
+
+    private TimeBucketUtil() {
+    }
+
+    /**
+     * 获取当前时间所在的小时分桶
+     *
+     * @return 小时分桶
+     */
+    public static TimeBucket current() {
+        long now = System.currentTimeMillis();
+        TimeBucket bucket = current;
+        if (now < bucket.startMillis() || now >= bucket.endMillis()) {
+            current = bucket = TimeBucket.of(now);
+        }
+        return bucket;
+    }
+
+    /**
+     * 小时分桶
+     *
+     * @param startMillis  分桶开始时间戳（包含）
+     * @param endMillis    分桶结束时间戳（不包含）
+     * @param date         日期
+     * @param basicIsoDate yyyyMMdd 格式日期
+     * @param hour         小时
+     * @param weekday      星期，周一为 1
+     */
+    public record TimeBucket(long startMillis, long endMillis, LocalDate date, String basicIsoDate, int hour, int weekday) {
+
+        private static TimeBucket of(long epochMillis) {
+            ZoneId zoneId = ZoneId.systemDefault();
+            LocalDateTime hourStart = LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), zoneId).truncatedTo(ChronoUnit.HOURS);
+            LocalDate date = hourStart.toLocalDate();
+            return new TimeBucket(
+                    hourStart.atZone(zoneId).toInstant().toEpochMilli(),
+                    hourStart.plusHours(1).atZone(zoneId).toInstant().toEpochMilli(),
+                    date,
+                    date.format(DateTimeFormatter.BASIC_ISO_DATE),
+                    hourStart.getHour(),
+                    date.getDayOfWeek().getValue()
+            );
+        }
+    }
+}
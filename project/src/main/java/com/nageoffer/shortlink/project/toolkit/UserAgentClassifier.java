@@ -0,0 +1,193 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.nageoffer.shortlink.project.toolkit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Queue;
+
+/**
+ * User-Agent 分类器
+ * 所有关键字预先编译为 Aho-Corasick 自动机，一次扫描同时得到操作系统、浏览器、设备以及是否爬虫，匹配时逐字符忽略大小写，无需转换整个字符串
+ * 实际流量中不同 User-Agent 只有几千种，分类结果按原始 User-Agent 缓存
+ * 判断优先级与原有 {@link LinkUtil} 逐个 contains 判断保持一致
+ */
+public final class UserAgentClassifier {
+
+    private static final String[] KEYWORDS = {
+            "windows", "mac", "linux", "android", "iphone", "ipad",
+            "edg", "chrome", "firefox", "safari", "opera", "msie", "trident",
+            "mobile",
+            "bot", "spider", "crawl", "slurp", "curl", "wget", "python-requests", "httpclient", "headless"
+    };
+
+    private static final long WINDOWS = bit("windows");
+    private static final long MAC = bit("mac");
+    private static final long LINUX = bit("linux");
+    private static final long ANDROID = bit("android");
+    private static final long IOS = bit("iphone") | bit("ipad");
+    private static final long EDGE = bit("edg");
+    private static final long CHROME = bit("chrome");
+    private static final long FIREFOX = bit("firefox");
+    private static final long SAFARI = bit("safari");
+    private static final long OPERA = bit("opera");
+    private static final long IE = bit("msie") | bit("trident");
+    private static final long MOBILE = bit("mobile");
+    private static final long BOT = bit("bot") | bit("spider") | bit("crawl") | bit("slurp") | bit("curl")
+            | bit("wget") | bit("python-requests") | bit("httpclient") | bit("headless");
+
+    /**
+     * 自动机只处理 ASCII 字符，其他字符回到初始状态
+     */
+    private static final int ALPHABET_SIZE = 128;
+
+    private static final int[][] TRANSITIONS;
+    private static final long[] OUTPUTS;
+
+    private static final UserAgent UNKNOWN = new UserAgent("Unknown", "Unknown", "PC", false);
+
+    private static final Cache<String, UserAgent> CACHE = Caffeine.newBuilder()
+            .maximumSize(4096)
+            .build();
+
+    static {
+        int maxStates = 1;
+        for (String each : KEYWORDS) {
+            maxStates += each.length();
+        }
+        int[][] transitions = new int[maxStates][];
+        long[] outputs = new long[maxStates];
+        transitions[0] = new int[ALPHABET_SIZE];
+        int stateCount = 1;
+        // 构建字典树，0 表示尚无转移
+        for (int i = 0; i < KEYWORDS.length; i++) {
+            int state = 0;
+            for (char c : KEYWORDS[i].toCharArray()) {
+                if (transitions[state][c] == 0) {
+                    transitions[stateCount] = new int[ALPHABET_SIZE];
+                    transitions[state][c] = stateCount++;
+                }
+                state = transitions[state][c];
+            }
+            outputs[state] |= 1L << i;
+        }
+        // 按层计算失配指针，并将失配转移直接展开到转移表中，扫描时每个字符只需一次查表
+        int[] fail = new int[stateCount];
+        Queue<Integer> queue = new ArrayDeque<>();
+        for (int c = 0; c < ALPHABET_SIZE; c++) {
+            if (transitions[0][c] != 0) {
+                queue.add(transitions[0][c]);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            outputs[state] |= outputs[fail[state]];
+            for (int c = 0; c < ALPHABET_SIZE; c++) {
+                int next = transitions[state][c];
+                if (next != 0) {
+                    fail[next] = transitions[fail[state]][c];
+                    queue.add(next);
+                } else {
+                    transitions[state][c] = transitions[fail[state]][c];
+                }
+            }
+        }
+        TRANSITIONS = Arrays.copyOf(transitions, stateCount);
+        OUTPUTS = Arrays.copyOf(outputs, stateCount);
+    }
+
+    private UserAgentClassifier() {
+    }
+
+    /**
+     * 对 User-Agent 分类
+     *
+     * @param userAgent 原始 User-Agent
+     * @return 分类结果
+     */
+    public static UserAgent classify(String userAgent) {
+        if (userAgent == null || userAgent.isEmpty()) {
+            return UNKNOWN;
+        }
+        return CACHE.get(userAgent, UserAgentClassifier::doClassify);
+    }
+
+    private static UserAgent doClassify(String userAgent) {
+        long matched = 0L;
+        int state = 0;
+        for (int i = 0, length = userAgent.length(); i < length; i++) {
+            char c = userAgent.charAt(i);
+            if (c >= 'A' && c <= 'Z') {
+                c += 'a' - 'A';
+            }
+            state = c < ALPHABET_SIZE ? TRANSITIONS[state][c] : 0;
+            matched |= OUTPUTS[state];
+        }
+        return new UserAgent(os(matched), browser(matched), (matched & MOBILE) != 0L ? "Mobile" : "PC", (matched & BOT) != 0L);
+    }
+
+    private static String os(long matched) {
+        if ((matched & WINDOWS) != 0L) {
+            return "Windows";
+        } else if ((matched & MAC) != 0L) {
+            return "Mac OS";
+        } else if ((matched & LINUX) != 0L) {
+            return "Linux";
+        } else if ((matched & ANDROID) != 0L) {
+            return "Android";
+        } else if ((matched & IOS) != 0L) {
+            return "iOS";
+        }
+        return "Unknown";
+    }
+
+    private static String browser(long matched) {
+        if ((matched & EDGE) != 0L) {
+            return "Microsoft Edge";
+        } else if ((matched & CHROME) != 0L) {
+            return "Google Chrome";
+        } else if ((matched & FIREFOX) != 0L) {
+            return "Mozilla Firefox";
+        } else if ((matched & SAFARI) != 0L) {
+            return "Apple Safari";
+        } else if ((matched & OPERA) != 0L) {
+            return "Opera";
+        } else if ((matched & IE) != 0L) {
+            return "Internet Explorer";
+        }
+        return "Unknown";
+    }
+
+    private static long bit(String keyword) {
+        return 1L << Arrays.asList(KEYWORDS).indexOf(keyword);
+    }
+
+    /**
+     * User-Agent 分类结果
+     *
+     * @param os      操作系统
+     * @param browser 浏览器
+     * @param device  设备
+     * @param bot     是否爬虫或脚本访问
+     */
+    public record UserAgent(String os, String browser, String device, boolean bot) {
+    }
+}
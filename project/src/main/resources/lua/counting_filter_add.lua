@@ -0,0 +1,17 @@
+-- 计数布隆过滤器批量添加元素，计数器饱和后不再增加
+-- KEYS[1]: 计数器 Key，每个计数器 4 位
+-- KEYS[2]: 非零计数器数量 Key，用于计算填充率
+-- ARGV: 所有元素对应的计数器下标，同一元素重复的下标已去重
+local counters = KEYS[1]
+local nonZero = KEYS[2]
+local added = 0
+for i = 1, #ARGV do
+    local value = redis.call('BITFIELD', counters, 'OVERFLOW', 'SAT', 'INCRBY', 'u4', '#' .. ARGV[i], 1)[1]
+    if value == 1 then
+        added = added + 1
+    end
+end
+if added > 0 then
+    redis.call('INCRBY', nonZero, added)
+end
+return added
@@ -0,0 +1,10 @@
+-- 计数布隆过滤器判断元素是否可能存在
+-- KEYS[1]: 计数器 Key，每个计数器 4 位
+-- ARGV: 元素对应的计数器下标
+local counters = KEYS[1]
+for i = 1, #ARGV do
+    if redis.call('BITFIELD', counters, 'GET', 'u4', '#' .. ARGV[i])[1] == 0 then
+        return 0
+    end
+end
+return 1
@@ -0,0 +1,21 @@
+-- 计数布隆过滤器删除元素，任一计数器为 0 说明元素不存在，直接返回；饱和的计数器无法确定真实值，不再减少
+-- KEYS[1]: 计数器 Key，每个计数器 4 位
+-- KEYS[2]: 非零计数器数量 Key
+-- ARGV: 元素对应的计数器下标
+local counters = KEYS[1]
+local nonZero = KEYS[2]
+for i = 1, #ARGV do
+    if redis.call('BITFIELD', counters, 'GET', 'u4', '#' .. ARGV[i])[1] == 0 then
+        return 0
+    end
+end
+for i = 1, #ARGV do
+    local value = redis.call('BITFIELD', counters, 'GET', 'u4', '#' .. ARGV[i])[1]
+    if value > 0 and value < 15 then
+        value = redis.call('BITFIELD', counters, 'INCRBY', 'u4', '#' .. ARGV[i], -1)[1]
+        if value == 0 then
+            redis.call('DECR', nonZero)
+        end
+    end
+end
+return 1
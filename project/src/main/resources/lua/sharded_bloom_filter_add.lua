@@ -0,0 +1,39 @@
+-- 分片可扩容布隆过滤器添加元素，元素只写入最新一代，最新一代元素数量达到容量阈值后开启下一代
+-- KEYS[1]: 分片元数据 Hash，generations 为当前代数，count:N 为第 N 代元素数量
+-- KEYS[2...]: 每一代的位图 Key
+-- ARGV[1]: 开启下一代的填充阈值，ARGV[2]: 最大代数
+-- ARGV[3...]: 依次为每一代的容量、哈希次数以及对应的位下标
+local meta = KEYS[1]
+local threshold = tonumber(ARGV[1])
+local maxGenerations = tonumber(ARGV[2])
+local generations = tonumber(redis.call('HGET', meta, 'generations') or '1')
+local capacities, hashIterations, starts = {}, {}, {}
+local pos = 3
+for g = 1, maxGenerations do
+    capacities[g] = tonumber(ARGV[pos])
+    hashIterations[g] = tonumber(ARGV[pos + 1])
+    starts[g] = pos + 2
+    pos = pos + 2 + hashIterations[g]
+end
+-- 已存在于任意一代时不再写入，避免重复计数
+for g = 1, generations do
+    local exists = true
+    for j = 0, hashIterations[g] - 1 do
+        if redis.call('GETBIT', KEYS[g + 1], ARGV[starts[g] + j]) == 0 then
+            exists = false
+            break
+        end
+    end
+    if exists then
+        return 0
+    end
+end
+for j = 0, hashIterations[generations] - 1 do
+    redis.call('SETBIT', KEYS[generations + 1], ARGV[starts[generations] + j], 1)
+end
+local count = redis.call('HINCRBY', meta, 'count:' .. (generations - 1), 1)
+if count >= capacities[generations] * threshold and generations < maxGenerations then
+    generations = generations + 1
+end
+redis.call('HSET', meta, 'generations', generations)
+return 1
@@ -0,0 +1,23 @@
+-- 分片可扩容布隆过滤器判断元素是否可能存在，任意一代存在即返回存在
+-- KEYS[1]: 分片元数据 Hash
+-- KEYS[2...]: 每一代的位图 Key
+-- ARGV 与添加脚本一致
+local meta = KEYS[1]
+local maxGenerations = tonumber(ARGV[2])
+local generations = tonumber(redis.call('HGET', meta, 'generations') or '1')
+local pos = 3
+for g = 1, math.min(generations, maxGenerations) do
+    local hashIterations = tonumber(ARGV[pos + 1])
+    local exists = true
+    for j = 0, hashIterations - 1 do
+        if redis.call('GETBIT', KEYS[g + 1], ARGV[pos + 2 + j]) == 0 then
+            exists = false
+            break
+        end
+    end
+    if exists then
+        return 1
+    end
+    pos = pos + 2 + hashIterations
+end
+return 0
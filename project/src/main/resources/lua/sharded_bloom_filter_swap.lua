@@ -0,0 +1,14 @@
+-- 将重建完成的分片原子替换为线上分片，前一半 Key 为重建分片，后一半 Key 为对应的线上分片
+-- KEYS[1] 为重建分片元数据，不存在时说明重建分片不存在
+if redis.call('EXISTS', KEYS[1]) == 0 then
+    return 0
+end
+local half = #KEYS / 2
+for i = 1, half do
+    if redis.call('EXISTS', KEYS[i]) == 1 then
+        redis.call('RENAME', KEYS[i], KEYS[i + half])
+    else
+        redis.call('DEL', KEYS[i + half])
+    end
+end
+return 1
@@ -0,0 +1,10 @@
+-- 将短链接编码序号推进到数据库水位，序号只增不减，已经不小于水位时不修改
+-- KEYS[1]: 编码序号 Key
+-- ARGV[1]: 数据库记录的已预留最大序号
+local current = tonumber(redis.call('GET', KEYS[1]) or '0')
+local watermark = tonumber(ARGV[1])
+if current < watermark then
+    redis.call('SET', KEYS[1], ARGV[1])
+    return 1
+end
+return 0
@@ -0,0 +1,24 @@
+-- 短链接跳转热点路径脚本：一次往返完成跳转缓存查询以及 UV、UIP 首次访问判断
+-- 所有 Key 使用相同的 Hash Tag {完整短链接}，保证在 Redis Cluster 中落在同一个槽位
+local gotoKey = KEYS[1]
+local uvKey = KEYS[2]
+local uipKey = KEYS[3]
+local uv = ARGV[1]
+local ip = ARGV[2]
+local lookupGoto = ARGV[3] == "1" -- 本地缓存未命中时才需要查询跳转缓存
+
+local originUrl = ""
+local ttl = -2
+if lookupGoto then
+    originUrl = redis.call("GET", gotoKey)
+    if not originUrl then
+        -- 跳转缓存不存在，交由调用方回源，不记录访问标识
+        return { "", -2, 0, 0 }
+    end
+    ttl = redis.call("PTTL", gotoKey)
+end
+
+-- 返回值依次为：原始链接、跳转缓存剩余有效期（毫秒）、是否新访客、是否新 IP
+local uvAdded = redis.call("SADD", uvKey, uv)
+local uipAdded = redis.call("SADD", uipKey, ip)
+return { originUrl, ttl, uvAdded, uipAdded }
@@ -0,0 +1,70 @@
+-- 短链接跳转热点路径脚本（按天分桶模式）：一次往返完成跳转缓存查询、当天 UV、UIP 首次访问判断以及累计去重计数
+-- 每个维度三个 Key：不过期的累计 HyperLogLog、当天精确 Set、当天位图布隆过滤器，成员较少时使用 Set，超过阈值后转为位图
+-- 累计 HyperLogLog 返回 PFADD 前后 PFCOUNT 的差值，所有差值之和即为累计去重数的估算值（标准误差约 0.81%）
+-- 所有 Key 使用相同的 Hash Tag {完整短链接}，保证在 Redis Cluster 中落在同一个槽位
+local gotoKey = KEYS[1]
+local uv = ARGV[1]
+local ip = ARGV[2]
+local lookupGoto = ARGV[3] == "1" -- 本地缓存未命中时才需要查询跳转缓存
+local expireSeconds = tonumber(ARGV[4])
+local setThreshold = tonumber(ARGV[5])
+local bitmapBits = tonumber(ARGV[6])
+local hashIterations = tonumber(ARGV[7])
+
+-- 将成员的 SHA1 摘要按 8 位十六进制切分，得到最多 5 个相互独立的位偏移量
+local function bitmapAdd(bitmapKey, member)
+    local digest = redis.sha1hex(member)
+    local added = 0
+    for i = 0, hashIterations - 1 do
+        local offset = tonumber(string.sub(digest, i * 8 + 1, i * 8 + 8), 16) % bitmapBits
+        if redis.call("SETBIT", bitmapKey, offset, 1) == 0 then
+            added = 1
+        end
+    end
+    return added
+end
+
+-- 返回成员加入累计 HyperLogLog 后估算基数的增量，寄存器未变化时基数不变，无需再次计算
+local function totalDelta(hllKey, member)
+    local before = redis.call("PFCOUNT", hllKey)
+    if redis.call("PFADD", hllKey, member) == 0 then
+        return 0
+    end
+    return redis.call("PFCOUNT", hllKey) - before
+end
+
+-- 返回成员是否为当天首次出现
+local function firstSeen(setKey, bitmapKey, member)
+    local added
+    if redis.call("EXISTS", bitmapKey) == 0 and redis.call("SCARD", setKey) < setThreshold then
+        added = redis.call("SADD", setKey, member)
+    elseif redis.call("SISMEMBER", setKey, member) == 1 then
+        added = 0
+    else
+        added = bitmapAdd(bitmapKey, member)
+    end
+    -- 新建 Key 一定伴随写入，仅在写入时刷新过期时间
+    if added == 1 then
+        redis.call("EXPIRE", setKey, expireSeconds)
+        redis.call("EXPIRE", bitmapKey, expireSeconds)
+    end
+    return added
+end
+
+local originUrl = ""
+local ttl = -2
+if lookupGoto then
+    originUrl = redis.call("GET", gotoKey)
+    if not originUrl then
+        -- 跳转缓存不存在，交由调用方回源，不记录访问标识
+        return { "", -2, 0, 0, 0, 0 }
+    end
+    ttl = redis.call("PTTL", gotoKey)
+end
+
+-- 返回值依次为：原始链接、跳转缓存剩余有效期（毫秒）、当天是否新访客、当天是否新 IP、累计 UV 增量、累计 UIP 增量
+local uvAdded = firstSeen(KEYS[3], KEYS[4], uv)
+local uipAdded = firstSeen(KEYS[6], KEYS[7], ip)
+local uvTotalDelta = totalDelta(KEYS[2], uv)
+local uipTotalDelta = totalDelta(KEYS[5], ip)
+return { originUrl, ttl, uvAdded, uipAdded, uvTotalDelta, uipTotalDelta }
@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.nageoffer.shortlink.project.benchmark;
+
+import cn.hutool.core.util.StrUtil;
+import com.nageoffer.shortlink.project.toolkit.RedisKeyTemplate;
+import com.nageoffer.shortlink.project.toolkit.TimeBucketUtil;
+import jakarta.servlet.http.Cookie;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static com.nageoffer.shortlink.project.common.constant.RedisKeyConstant.GOTO_SHORT_LINK_KEY;
+import static com.nageoffer.shortlink.project.common.constant.RedisKeyConstant.SHORT_LINK_STATS_UIP_HLL_KEY;
+import static com.nageoffer.shortlink.project.common.constant.RedisKeyConstant.SHORT_LINK_STATS_UIP_SEEN_BITMAP_KEY;
+import static com.nageoffer.shortlink.project.common.constant.RedisKeyConstant.SHORT_LINK_STATS_UIP_SEEN_SET_KEY;
+import static com.nageoffer.shortlink.project.common.constant.RedisKeyConstant.SHORT_LINK_STATS_UV_HLL_KEY;
+import static com.nageoffer.shortlink.project.common.constant.RedisKeyConstant.SHORT_LINK_STATS_UV_SEEN_BITMAP_KEY;
+import static com.nageoffer.shortlink.project.common.constant.RedisKeyConstant.SHORT_LINK_STATS_UV_SEEN_SET_KEY;
+
+/**
+ * 短链接跳转热点路径单次请求内存分配对比
+ * legacy 为改造前的写法：Optional 拼接端口、String.format 生成 Key、每次格式化当天日期、Stream 查找 Cookie
+ * current 为改造后的写法：直接拼接、预拆分的 Key 模板、缓存的小时分桶、循环查找 Cookie
+ * 运行时附加 -prof gc，对比 gc.alloc.rate.norm（每次跳转分配的字节数）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RedirectHotPathBenchmark {
+
+    private static final RedisKeyTemplate GOTO_KEY_TEMPLATE = RedisKeyTemplate.of(GOTO_SHORT_LINK_KEY);
+    private static final RedisKeyTemplate UV_HLL_KEY_TEMPLATE = RedisKeyTemplate.of(SHORT_LINK_STATS_UV_HLL_KEY);
+    private static final RedisKeyTemplate UV_SEEN_SET_KEY_TEMPLATE = RedisKeyTemplate.of(SHORT_LINK_STATS_UV_SEEN_SET_KEY);
+    private static final RedisKeyTemplate UV_SEEN_BITMAP_KEY_TEMPLATE = RedisKeyTemplate.of(SHORT_LINK_STATS_UV_SEEN_BITMAP_KEY);
+    private static final RedisKeyTemplate UIP_HLL_KEY_TEMPLATE = RedisKeyTemplate.of(SHORT_LINK_STATS_UIP_HLL_KEY);
+    private static final RedisKeyTemplate UIP_SEEN_SET_KEY_TEMPLATE = RedisKeyTemplate.of(SHORT_LINK_STATS_UIP_SEEN_SET_KEY);
+    private static final RedisKeyTemplate UIP_SEEN_BITMAP_KEY_TEMPLATE = RedisKeyTemplate.of(SHORT_LINK_STATS_UIP_SEEN_BITMAP_KEY);
+
+    private final String serverName = "nurl.ink";
+    private final int serverPort = 8001;
+    private final String shortUri = "3Ke8Zx";
+    private final Cookie[] cookies = {new Cookie("JSESSIONID", "5F3C1B9A"), new Cookie("uv", "8a1f0c3e-52b4-4d7e-9f61-0c2b7d3e4a15")};
+
+    @Benchmark
+    public void legacy(Blackhole blackhole) {
+        String serverPortSuffix = Optional.of(serverPort)
+                .filter(each -> !Objects.equals(each, 80))
+                .map(String::valueOf)
+                .map(each -> ":" + each)
+                .orElse("");
+        String fullShortUrl = serverName + serverPortSuffix + "/" + shortUri;
+        String uv = Arrays.stream(cookies)
+                .filter(each -> Objects.equals(each.getName(), "uv"))
+                .findFirst()
+                .map(Cookie::getValue)
+                .orElse(null);
+        String day = LocalDate.now().format(DateTimeFormatter.BASIC_ISO_DATE);
+        List<String> keys = List.of(
+                String.format(GOTO_SHORT_LINK_KEY, fullShortUrl),
+                String.format(SHORT_LINK_STATS_UV_HLL_KEY, fullShortUrl),
+                String.format(SHORT_LINK_STATS_UV_SEEN_SET_KEY, fullShortUrl, day),
+                String.format(SHORT_LINK_STATS_UV_SEEN_BITMAP_KEY, fullShortUrl, day),
+                String.format(SHORT_LINK_STATS_UIP_HLL_KEY, fullShortUrl),
+                String.format(SHORT_LINK_STATS_UIP_SEEN_SET_KEY, fullShortUrl, day),
+                String.format(SHORT_LINK_STATS_UIP_SEEN_BITMAP_KEY, fullShortUrl, day)
+        );
+        blackhole.consume(uv);
+        blackhole.consume(keys);
+        blackhole.consume(StrUtil.sub(fullShortUrl, fullShortUrl.indexOf("/"), fullShortUrl.length()));
+    }
+
+    @Benchmark
+    public void current(Blackhole blackhole) {
+        String fullShortUrl = serverPort == 80
+                ? serverName + "/" + shortUri
+                : serverName + ":" + serverPort + "/" + shortUri;
+        String uv = null;
+        for (Cookie each : cookies) {
+            if ("uv".equals(each.getName())) {
+                uv = each.getValue();
+                break;
+            }
+        }
+        String day = TimeBucketUtil.current().basicIsoDate();
+        List<String> keys = List.of(
+                GOTO_KEY_TEMPLATE.format(fullShortUrl),
+                UV_HLL_KEY_TEMPLATE.format(fullShortUrl),
+                UV_SEEN_SET_KEY_TEMPLATE.format(fullShortUrl, day),
+                UV_SEEN_BITMAP_KEY_TEMPLATE.format(fullShortUrl, day),
+                UIP_HLL_KEY_TEMPLATE.format(fullShortUrl),
+                UIP_SEEN_SET_KEY_TEMPLATE.format(fullShortUrl, day),
+                UIP_SEEN_BITMAP_KEY_TEMPLATE.format(fullShortUrl, day)
+        );
+        blackhole.consume(uv);
+        blackhole.consume(keys);
+        blackhole.consume(fullShortUrl.substring(fullShortUrl.indexOf('/')));
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.nageoffer.shortlink.project.benchmark;
+
+import com.nageoffer.shortlink.project.toolkit.LegacyUserAgentRules;
+import com.nageoffer.shortlink.project.toolkit.UserAgentClassifier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * User-Agent 分类器与原有 {@link com.nageoffer.shortlink.project.toolkit.LinkUtil} 逐个 contains 判断的对比
+ * 每次调用依次解析一组常见 User-Agent 的操作系统、浏览器以及设备，运行时附加 -prof gc 可对比每次调用分配的字节数
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserAgentClassifierBenchmark {
+
+    private final String[] userAgents = {
+            "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120.0.0.0 Safari/537.36",
+            "Mozilla/5.0 (Macintosh; Intel Mac OS X 10_15_7) AppleWebKit/605.1.15 (KHTML, like Gecko) Version/17.2 Safari/605.1.15",
+            "Mozilla/5.0 (Linux; Android 14; Pixel 8) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120.0.6099.144 Mobile Safari/537.36",
+            "Mozilla/5.0 (iPhone; CPU iPhone OS 17_2 like Mac OS X) AppleWebKit/605.1.15 (KHTML, like Gecko) Version/17.2 Mobile/15E148 Safari/604.1"
+    };
+
+    @Benchmark
+    public void legacy(Blackhole blackhole) {
+        for (String each : userAgents) {
+            blackhole.consume(LegacyUserAgentRules.getOs(each));
+            blackhole.consume(LegacyUserAgentRules.getBrowser(each));
+            blackhole.consume(LegacyUserAgentRules.getDevice(each));
+        }
+    }
+
+    @Benchmark
+    public void classifier(Blackhole blackhole) {
+        for (String each : userAgents) {
+            UserAgentClassifier.UserAgent userAgent = UserAgentClassifier.classify(each);
+            blackhole.consume(userAgent.os());
+            blackhole.consume(userAgent.browser());
+            blackhole.consume(userAgent.device());
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.nageoffer.shortlink.project.benchmark;
+
+import com.nageoffer.shortlink.common.toolkit.VirtualThreadUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 虚拟线程执行模式与平台线程模式的负载对比
+ * 模拟一次点击突发：burst 个跳转请求同时到达，每个请求阻塞 blockMillis 毫秒（Redis、数据库以及远程调用），统计全部请求处理完成的耗时
+ * platform 对应 Tomcat 默认的 200 个平台线程，virtual 对应每个请求一个虚拟线程，virtual 需要运行在 JDK 21 及以上版本
+ * 阻塞使用 Thread.sleep 模拟，只对比线程模型的排队开销，不包含真实的 Redis、数据库访问，端到端效果需要在压测环境中验证
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VirtualThreadLoadBenchmark {
+
+    /**
+     * Tomcat 默认最大工作线程数
+     */
+    private static final int TOMCAT_MAX_THREADS = 200;
+
+    @Param({"platform", "virtual"})
+    private String mode;
+
+    @Param({"2000"})
+    private int burst;
+
+    @Param({"20"})
+    private int blockMillis;
+
+    private ExecutorService executor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        if ("virtual".equals(mode)) {
+            if (!VirtualThreadUtil.isSupported()) {
+                throw new IllegalStateException("虚拟线程模式需要 JDK 21 及以上版本，当前版本：" + Runtime.version());
+            }
+            executor = VirtualThreadUtil.newThreadPerTaskExecutor("benchmark-virtual_");
+            return;
+        }
+        ThreadPoolExecutor platformExecutor = new ThreadPoolExecutor(
+                TOMCAT_MAX_THREADS,
+                TOMCAT_MAX_THREADS,
+                60L,
+                TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                VirtualThreadUtil.newThreadFactory("benchmark-platform_", false)
+        );
+        platformExecutor.prestartAllCoreThreads();
+        executor = platformExecutor;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public void burst() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(burst);
+        for (int i = 0; i < burst; i++) {
+            executor.execute(() -> {
+                try {
+                    Thread.sleep(blockMillis);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        latch.await();
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.nageoffer.shortlink.project.cache;
+
+import com.nageoffer.shortlink.project.config.ShortLinkCodePoolConfiguration;
+import com.nageoffer.shortlink.project.dao.mapper.ShortLinkCodeSequenceMapper;
+import com.nageoffer.shortlink.project.toolkit.ShortCodePermutation;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ShortLinkCodePoolTest {
+
+    @Test
+    void disabledByDefault() throws Exception {
+        ShortLinkCodePool codePool = new ShortLinkCodePool(null, new ShortLinkCodePoolConfiguration(), null);
+        assertFalse(codePool.isEnable());
+        assertDoesNotThrow(codePool::afterPropertiesSet);
+        codePool.destroy();
+    }
+
+    @Test
+    void startupFailsWhenEnabledWithoutSecret() {
+        ShortLinkCodePoolConfiguration configuration = new ShortLinkCodePoolConfiguration();
+        configuration.setEnable(true);
+        assertThrows(IllegalStateException.class, () -> new ShortLinkCodePool(null, configuration, null).afterPropertiesSet());
+        configuration.setSecret(" ");
+        assertThrows(IllegalStateException.class, () -> new ShortLinkCodePool(null, configuration, null).afterPropertiesSet());
+    }
+
+    @Test
+    void startupFailsWithDefaultSecret() {
+        ShortLinkCodePoolConfiguration configuration = new ShortLinkCodePoolConfiguration();
+        configuration.setEnable(true);
+        configuration.setSecret("short-link");
+        assertThrows(IllegalStateException.class, () -> new ShortLinkCodePool(null, configuration, null).afterPropertiesSet());
+    }
+
+    @Test
+    void startupSkipsSecretCheckWhenDisabled() throws Exception {
+        ShortLinkCodePoolConfiguration configuration = new ShortLinkCodePoolConfiguration();
+        configuration.setEnable(false);
+        ShortLinkCodePool codePool = new ShortLinkCodePool(null, configuration, null);
+        assertDoesNotThrow(codePool::afterPropertiesSet);
+        codePool.destroy();
+    }
+
+    @Test
+    void startupSucceedsWithOperatorSecret() {
+        ShortLinkCodePoolConfiguration configuration = new ShortLinkCodePoolConfiguration();
+        configuration.setEnable(true);
+        configuration.setSecret("operator-secret");
+        ShortLinkCodePool codePool = new ShortLinkCodePool(null, configuration, null);
+        assertDoesNotThrow(codePool::afterPropertiesSet);
+        codePool.destroy();
+    }
+
+    @Test
+    void reserveBlockPersistsWatermarkBeforeUse() throws Exception {
+        ShortLinkCodePoolConfiguration configuration = newConfiguration();
+        StringRedisTemplate stringRedisTemplate = mock(StringRedisTemplate.class);
+        ValueOperations<String, String> valueOperations = mockValueOperations(stringRedisTemplate);
+        ShortLinkCodeSequenceMapper mapper = mock(ShortLinkCodeSequenceMapper.class);
+        when(mapper.selectMaxSequence(7)).thenReturn(1000L);
+        when(valueOperations.increment("short-link:code-sequence:7", 1000L)).thenReturn(2000L);
+        ShortLinkCodePool codePool = new ShortLinkCodePool(stringRedisTemplate, configuration, mapper);
+        codePool.afterPropertiesSet();
+        try {
+            assertEquals(new ShortCodePermutation(7, "operator-secret").encode(1000L), codePool.next());
+            verify(mapper).saveMaxSequence(7, 2000L);
+            verify(stringRedisTemplate, never()).execute(any(RedisScript.class), anyList(), any());
+        } finally {
+            codePool.destroy();
+        }
+    }
+
+    @Test
+    void reserveBlockReseedsSequenceBehindWatermark() throws Exception {
+        ShortLinkCodePoolConfiguration configuration = newConfiguration();
+        StringRedisTemplate stringRedisTemplate = mock(StringRedisTemplate.class);
+        ValueOperations<String, String> valueOperations = mockValueOperations(stringRedisTemplate);
+        ShortLinkCodeSequenceMapper mapper = mock(ShortLinkCodeSequenceMapper.class);
+        // 主从切换后 Redis 序号从头开始，数据库水位已经到 5000
+        when(mapper.selectMaxSequence(7)).thenReturn(5000L);
+        when(valueOperations.increment("short-link:code-sequence:7", 1000L)).thenReturn(1000L, 6000L);
+        ShortLinkCodePool codePool = new ShortLinkCodePool(stringRedisTemplate, configuration, mapper);
+        codePool.afterPropertiesSet();
+        try {
+            assertEquals(new ShortCodePermutation(7, "operator-secret").encode(5000L), codePool.next());
+            verify(stringRedisTemplate).execute(any(RedisScript.class), eq(List.of("short-link:code-sequence:7")), eq("5000"));
+            verify(mapper).saveMaxSequence(7, 6000L);
+        } finally {
+            codePool.destroy();
+        }
+    }
+
+    @Test
+    void concurrentNextAllocatesDistinctCodesAcrossBlocks() throws Exception {
+        ShortLinkCodePoolConfiguration configuration = newConfiguration();
+        configuration.setBlockSize(10);
+        StringRedisTemplate stringRedisTemplate = mock(StringRedisTemplate.class);
+        ValueOperations<String, String> valueOperations = mockValueOperations(stringRedisTemplate);
+        ShortLinkCodeSequenceMapper mapper = mock(ShortLinkCodeSequenceMapper.class);
+        AtomicLong sequence = new AtomicLong();
+        when(valueOperations.increment("short-link:code-sequence:7", 10L)).thenAnswer(invocation -> sequence.addAndGet(10L));
+        ShortLinkCodePool codePool = new ShortLinkCodePool(stringRedisTemplate, configuration, mapper);
+        codePool.afterPropertiesSet();
+        Set<String> codes = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executor.submit(() -> {
+                    for (int j = 0; j < 100; j++) {
+                        codes.add(codePool.next());
+                    }
+                }));
+            }
+            for (Future<?> each : futures) {
+                each.get();
+            }
+        } finally {
+            executor.shutdownNow();
+            codePool.destroy();
+        }
+        assertEquals(800, codes.size());
+    }
+
+    private static ShortLinkCodePoolConfiguration newConfiguration() {
+        ShortLinkCodePoolConfiguration configuration = new ShortLinkCodePoolConfiguration();
+        configuration.setEnable(true);
+        configuration.setSecret("operator-secret");
+        // 不触发异步预留下一个号段
+        configuration.setPrefetchRatio(0D);
+        return configuration;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ValueOperations<String, String> mockValueOperations(StringRedisTemplate stringRedisTemplate) {
+        ValueOperations<String, String> valueOperations = mock(ValueOperations.class);
+        when(stringRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        return valueOperations;
+    }
+}
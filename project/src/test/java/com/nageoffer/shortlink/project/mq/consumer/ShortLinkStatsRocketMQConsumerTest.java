@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.nageoffer.shortlink.project.mq.consumer;
+
+import com.nageoffer.shortlink.project.config.ShortLinkStatsConsumerConfiguration;
+import org.apache.rocketmq.client.consumer.DefaultMQPushConsumer;
+import org.apache.rocketmq.client.consumer.listener.ConsumeOrderlyStatus;
+import org.apache.rocketmq.client.consumer.listener.MessageListenerOrderly;
+import org.apache.rocketmq.common.message.MessageExt;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ShortLinkStatsRocketMQConsumerTest {
+
+    private ShortLinkStatsSaveConsumer shortLinkStatsSaveConsumer;
+    private DefaultMQPushConsumer pushConsumer;
+    private MessageListenerOrderly listener;
+
+    @BeforeEach
+    void setUp() {
+        shortLinkStatsSaveConsumer = mock(ShortLinkStatsSaveConsumer.class);
+        pushConsumer = mock(DefaultMQPushConsumer.class);
+        new ShortLinkStatsRocketMQConsumer(shortLinkStatsSaveConsumer, new ShortLinkStatsConsumerConfiguration()).prepareStart(pushConsumer);
+        ArgumentCaptor<MessageListenerOrderly> captor = ArgumentCaptor.forClass(MessageListenerOrderly.class);
+        verify(pushConsumer).setMessageListener(captor.capture());
+        listener = captor.getValue();
+    }
+
+    @Test
+    void orderlyModeLimitsReconsumeTimes() {
+        verify(pushConsumer).setMaxReconsumeTimes(16);
+    }
+
+    @Test
+    void unparseableMessageGoesToDeadLetterWithoutBlockingBatch() throws Exception {
+        MessageExt bad = message("{not json");
+        MessageExt good = message("{\"keys\":\"good\",\"fullShortUrl\":\"nurl.ink/good\"}");
+        when(shortLinkStatsSaveConsumer.onMessages(anyList())).thenReturn(true);
+        assertEquals(ConsumeOrderlyStatus.SUCCESS, listener.consumeMessage(List.of(bad, good), null));
+        verify(pushConsumer).sendMessageBack(bad, -1);
+        verify(shortLinkStatsSaveConsumer).onMessages(List.of(Map.of("keys", "good", "fullShortUrl", "nurl.ink/good")));
+    }
+
+    @Test
+    void suspendsWhenDeadLetterFails() throws Exception {
+        MessageExt bad = message("{not json");
+        doThrow(new IllegalStateException("broker unavailable")).when(pushConsumer).sendMessageBack(any(MessageExt.class), anyInt());
+        assertEquals(ConsumeOrderlyStatus.SUSPEND_CURRENT_QUEUE_A_MOMENT, listener.consumeMessage(List.of(bad), null));
+        verify(shortLinkStatsSaveConsumer, never()).onMessages(anyList());
+    }
+
+    @Test
+    void suspendsWhenSaveFails() {
+        when(shortLinkStatsSaveConsumer.onMessages(anyList())).thenReturn(false);
+        assertEquals(ConsumeOrderlyStatus.SUSPEND_CURRENT_QUEUE_A_MOMENT, listener.consumeMessage(List.of(message("{\"keys\":\"bad\"}")), null));
+    }
+
+    private static MessageExt message(String body) {
+        MessageExt message = new MessageExt();
+        message.setBody(body.getBytes(StandardCharsets.UTF_8));
+        return message;
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.nageoffer.shortlink.project.mq.consumer;
+
+import com.nageoffer.shortlink.project.common.enums.MessageIdempotentStatusEnum;
+import com.nageoffer.shortlink.project.config.ShortLinkStatsConsumerConfiguration;
+import com.nageoffer.shortlink.project.mq.idempotent.MessageQueueIdempotentHandler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ShortLinkStatsSaveConsumerTest {
+
+    private static final Map<String, String> GOOD_MESSAGE = Map.of("keys", "good", "fullShortUrl", "nurl.ink/good");
+    private static final Map<String, String> BAD_MESSAGE = Map.of("keys", "bad", "fullShortUrl", "nurl.ink/bad");
+
+    private MessageQueueIdempotentHandler messageQueueIdempotentHandler;
+    private ShortLinkStatsSaveConsumer consumer;
+
+    @BeforeEach
+    void setUp() {
+        messageQueueIdempotentHandler = mock(MessageQueueIdempotentHandler.class);
+        when(messageQueueIdempotentHandler.claim(anyList())).thenAnswer(invocation -> {
+            List<String> keys = invocation.getArgument(0);
+            return keys.stream().map(each -> MessageIdempotentStatusEnum.CLAIMED).toList();
+        });
+        consumer = spy(new ShortLinkStatsSaveConsumer(null, null, null, null, null, null, null, null, null, null, null,
+                messageQueueIdempotentHandler, new ShortLinkStatsConsumerConfiguration(), null, null, null));
+    }
+
+    @Test
+    void batchSuccessAccomplishesAllKeys() {
+        doNothing().when(consumer).actualSaveShortLinkStatsBatch(anyList());
+        assertTrue(consumer.onMessages(List.of(GOOD_MESSAGE, BAD_MESSAGE)));
+        verify(consumer, times(1)).actualSaveShortLinkStatsBatch(anyList());
+        verify(messageQueueIdempotentHandler).setAccomplish(List.of("good", "bad"));
+        verify(messageQueueIdempotentHandler, never()).delMessageProcessed(anyList());
+    }
+
+    @Test
+    void batchFailureRetriesOneByOneAndIsolatesBadMessage() {
+        doThrow(new IllegalStateException("batch")).when(consumer).actualSaveShortLinkStatsBatch(argThat(each -> each.size() > 1));
+        doThrow(new IllegalStateException("poison")).when(consumer).actualSaveShortLinkStatsBatch(List.of(BAD_MESSAGE));
+        doNothing().when(consumer).actualSaveShortLinkStatsBatch(List.of(GOOD_MESSAGE));
+        assertFalse(consumer.onMessages(List.of(GOOD_MESSAGE, BAD_MESSAGE)));
+        verify(consumer).actualSaveShortLinkStatsBatch(List.of(GOOD_MESSAGE));
+        verify(consumer).actualSaveShortLinkStatsBatch(List.of(BAD_MESSAGE));
+        verify(messageQueueIdempotentHandler).setAccomplish(List.of("good"));
+        verify(messageQueueIdempotentHandler).delMessageProcessed(List.of("bad"));
+    }
+}
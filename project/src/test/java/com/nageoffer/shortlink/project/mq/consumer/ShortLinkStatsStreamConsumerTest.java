@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.nageoffer.shortlink.project.mq.consumer;
+
+import com.nageoffer.shortlink.project.config.ShortLinkStatsTransportConfiguration;
+import com.nageoffer.shortlink.project.config.ShortLinkVirtualThreadConfiguration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.redisson.api.PendingEntry;
+import org.redisson.api.RBatch;
+import org.redisson.api.RStream;
+import org.redisson.api.RStreamAsync;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.StreamMessageId;
+import org.redisson.api.stream.StreamAddArgs;
+import org.redisson.client.codec.Codec;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.nageoffer.shortlink.project.common.constant.RedisKeyConstant.SHORT_LINK_STATS_STREAM_DEAD_LETTER_KEY;
+import static com.nageoffer.shortlink.project.common.constant.RedisKeyConstant.SHORT_LINK_STATS_STREAM_GROUP_KEY;
+import static com.nageoffer.shortlink.project.common.constant.RedisKeyConstant.SHORT_LINK_STATS_STREAM_TOPIC_KEY;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ShortLinkStatsStreamConsumerTest {
+
+    private static final StreamMessageId FIRST_ID = new StreamMessageId(1L, 0L);
+    private static final StreamMessageId SECOND_ID = new StreamMessageId(2L, 0L);
+
+    private ShortLinkStatsSaveConsumer shortLinkStatsSaveConsumer;
+    private RBatch batch;
+    private RStreamAsync<Object, Object> deadLetterStream;
+    private RStreamAsync<Object, Object> batchTopicStream;
+    private RStream<String, String> stream;
+    private ShortLinkStatsStreamConsumer streamConsumer;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        shortLinkStatsSaveConsumer = mock(ShortLinkStatsSaveConsumer.class);
+        RedissonClient redissonClient = mock(RedissonClient.class);
+        batch = mock(RBatch.class);
+        deadLetterStream = mock(RStreamAsync.class);
+        batchTopicStream = mock(RStreamAsync.class);
+        stream = mock(RStream.class);
+        when(redissonClient.createBatch()).thenReturn(batch);
+        when(batch.getStream(eq(SHORT_LINK_STATS_STREAM_DEAD_LETTER_KEY), any(Codec.class))).thenReturn(deadLetterStream);
+        when(batch.getStream(eq(SHORT_LINK_STATS_STREAM_TOPIC_KEY), any(Codec.class))).thenReturn(batchTopicStream);
+        ShortLinkStatsTransportConfiguration transportConfiguration = new ShortLinkStatsTransportConfiguration();
+        transportConfiguration.setStreamMaxDeliveryCount(3);
+        streamConsumer = new ShortLinkStatsStreamConsumer(
+                redissonClient,
+                shortLinkStatsSaveConsumer,
+                transportConfiguration,
+                new ShortLinkVirtualThreadConfiguration()
+        );
+    }
+
+    @Test
+    void exhaustedMessageGoesToDeadLetterAndIsAcked() {
+        Map<StreamMessageId, Map<String, String>> messages = new LinkedHashMap<>();
+        messages.put(FIRST_ID, Map.of("keys", "poison"));
+        messages.put(SECOND_ID, Map.of("keys", "retry"));
+        when(stream.listPending(SHORT_LINK_STATS_STREAM_GROUP_KEY, FIRST_ID, SECOND_ID, 2)).thenReturn(List.of(
+                new PendingEntry(FIRST_ID, "consumer", 60000L, 4L),
+                new PendingEntry(SECOND_ID, "consumer", 60000L, 3L)
+        ));
+        Map<StreamMessageId, Map<String, String>> remaining = streamConsumer.deadLetterExhausted(stream, messages);
+        assertEquals(Map.of(SECOND_ID, Map.of("keys", "retry")), remaining);
+        verify(deadLetterStream).addAsync(any(StreamAddArgs.class));
+        verify(batchTopicStream).ackAsync(SHORT_LINK_STATS_STREAM_GROUP_KEY, FIRST_ID);
+        verify(batch).execute();
+    }
+
+    @Test
+    void trimmedMessageIsAckedWithoutDeadLetter() {
+        Map<StreamMessageId, Map<String, String>> messages = new LinkedHashMap<>();
+        messages.put(FIRST_ID, Map.of());
+        when(stream.listPending(SHORT_LINK_STATS_STREAM_GROUP_KEY, FIRST_ID, FIRST_ID, 1)).thenReturn(List.of());
+        assertEquals(Map.of(), streamConsumer.deadLetterExhausted(stream, messages));
+        verify(deadLetterStream, never()).addAsync(any(StreamAddArgs.class));
+        verify(batchTopicStream).ackAsync(SHORT_LINK_STATS_STREAM_GROUP_KEY, FIRST_ID);
+    }
+
+    @Test
+    void failedBatchAcksSavedMessagesOneByOne() {
+        Map<StreamMessageId, Map<String, String>> messages = new LinkedHashMap<>();
+        messages.put(FIRST_ID, Map.of("keys", "poison"));
+        messages.put(SECOND_ID, Map.of("keys", "good"));
+        when(shortLinkStatsSaveConsumer.onMessages(List.of(Map.of("keys", "poison"), Map.of("keys", "good")))).thenReturn(false);
+        when(shortLinkStatsSaveConsumer.onMessages(List.of(Map.of("keys", "poison")))).thenReturn(false);
+        when(shortLinkStatsSaveConsumer.onMessages(List.of(Map.of("keys", "good")))).thenReturn(true);
+        streamConsumer.consume(stream, messages);
+        verify(stream).ack(SHORT_LINK_STATS_STREAM_GROUP_KEY, SECOND_ID);
+    }
+
+    @Test
+    void savedBatchIsAckedOnce() {
+        Map<StreamMessageId, Map<String, String>> messages = new LinkedHashMap<>();
+        messages.put(FIRST_ID, Map.of("keys", "first"));
+        messages.put(SECOND_ID, Map.of("keys", "second"));
+        when(shortLinkStatsSaveConsumer.onMessages(anyList())).thenReturn(true);
+        streamConsumer.consume(stream, messages);
+        verify(stream).ack(SHORT_LINK_STATS_STREAM_GROUP_KEY, FIRST_ID, SECOND_ID);
+        verify(stream, never()).listPending(any(String.class), any(StreamMessageId.class), any(StreamMessageId.class), anyInt());
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.nageoffer.shortlink.project.toolkit;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class IpRegionSearcherTest {
+
+    /**
+     * 故意打乱顺序，转换时按起始 IP 排序
+     */
+    private static final String CSV = """
+            # 起始 IP,结束 IP,国家,省份,城市,城市编码
+            1.0.4.0,1.0.7.255,中国,广东省,广州市,440100
+            1.0.0.0,1.0.0.255,中国,北京市,北京市,110000
+            1.0.1.0,1.0.3.255,中国,上海市,上海市,310000
+            2001:db8::,2001:db8::ffff,中国,浙江省,杭州市,330100
+            2001:db8:0:1::,2001:db8:0:1:ffff:ffff:ffff:ffff,中国,北京市,北京市,110000
+            240e::,240e:ffff:ffff:ffff:ffff:ffff:ffff:ffff,中国,江苏省,南京市,320100
+            """;
+
+    private static final IpRegionSearcher.Region BEIJING = new IpRegionSearcher.Region("中国", "北京市", "北京市", "110000");
+    private static final IpRegionSearcher.Region SHANGHAI = new IpRegionSearcher.Region("中国", "上海市", "上海市", "310000");
+    private static final IpRegionSearcher.Region GUANGZHOU = new IpRegionSearcher.Region("中国", "广东省", "广州市", "440100");
+    private static final IpRegionSearcher.Region HANGZHOU = new IpRegionSearcher.Region("中国", "浙江省", "杭州市", "330100");
+    private static final IpRegionSearcher.Region NANJING = new IpRegionSearcher.Region("中国", "江苏省", "南京市", "320100");
+
+    @TempDir
+    static Path tempDir;
+
+    private static IpRegionSearcher searcher;
+
+    @BeforeAll
+    static void convertAndMmap() throws IOException {
+        Path file = tempDir.resolve("ip-region.db");
+        try (InputStream csv = new ByteArrayInputStream(CSV.getBytes(StandardCharsets.UTF_8));
+             OutputStream target = Files.newOutputStream(file)) {
+            IpRegionSearcher.convert(csv, target);
+        }
+        searcher = IpRegionSearcher.mmap(file);
+    }
+
+    @Test
+    void ipv4SegmentEdges() {
+        assertEquals(BEIJING, searcher.search("1.0.0.0"));
+        assertEquals(BEIJING, searcher.search("1.0.0.128"));
+        assertEquals(BEIJING, searcher.search("1.0.0.255"));
+        // 相邻地址段的边界
+        assertEquals(SHANGHAI, searcher.search("1.0.1.0"));
+        assertEquals(SHANGHAI, searcher.search("1.0.3.255"));
+        assertEquals(GUANGZHOU, searcher.search("1.0.4.0"));
+        assertEquals(GUANGZHOU, searcher.search("1.0.7.255"));
+    }
+
+    @Test
+    void ipv4Misses() {
+        assertNull(searcher.search("0.255.255.255"));
+        assertNull(searcher.search("1.0.8.0"));
+        assertNull(searcher.search("0.0.0.0"));
+        // 最高位为 1 的地址按无符号比较
+        assertNull(searcher.search("255.255.255.255"));
+        assertNull(searcher.search("200.1.1.1"));
+    }
+
+    @Test
+    void ipv6SegmentEdgesAndMisses() {
+        assertEquals(HANGZHOU, searcher.search("2001:db8::"));
+        assertEquals(HANGZHOU, searcher.search("2001:db8::ffff"));
+        assertNull(searcher.search("2001:db8::1:0"));
+        assertEquals(BEIJING, searcher.search("2001:db8:0:1::"));
+        assertEquals(BEIJING, searcher.search("2001:db8:0:1:ffff:ffff:ffff:ffff"));
+        assertNull(searcher.search("2001:db8:0:2::"));
+        assertNull(searcher.search("2001:db7:ffff:ffff:ffff:ffff:ffff:ffff"));
+        // 高 64 位最高位为 1 的地址按无符号比较
+        assertEquals(NANJING, searcher.search("240e:ffff:ffff:ffff:ffff:ffff:ffff:ffff"));
+        assertNull(searcher.search("ff02::1"));
+        assertNull(searcher.search("::1"));
+    }
+
+    @Test
+    void ipv4MappedIpv6SearchesIpv4Segments() {
+        assertEquals(BEIJING, searcher.search("::ffff:1.0.0.5"));
+        assertEquals(SHANGHAI, searcher.search("::ffff:1.0.1.0"));
+        assertEquals(GUANGZHOU, searcher.search("::ffff:100:4ff"));
+        assertNull(searcher.search("::ffff:1.0.8.0"));
+    }
+
+    @Test
+    void invalidLiteralsMiss() {
+        assertNull(searcher.search(null));
+        assertNull(searcher.search(""));
+        assertNull(searcher.search("unknown"));
+        assertNull(searcher.search("1.0.0"));
+        assertNull(searcher.search("1.0.0.256"));
+        assertNull(searcher.search("1.0.0.0001"));
+    }
+
+    @Test
+    void loadFromStreamMatchesMmap() throws IOException {
+        try (InputStream inputStream = Files.newInputStream(tempDir.resolve("ip-region.db"))) {
+            IpRegionSearcher heapSearcher = IpRegionSearcher.load(inputStream);
+            for (String each : new String[]{"1.0.0.0", "1.0.3.255", "1.0.8.0", "2001:db8::ffff", "::ffff:1.0.0.5"}) {
+                assertEquals(searcher.search(each), heapSearcher.search(each), each);
+            }
+        }
+    }
+
+    @Test
+    void mainConvertsCsvFile() throws IOException {
+        Path csv = tempDir.resolve("main-ip-region.csv");
+        Path target = tempDir.resolve("main-ip-region.db");
+        Files.writeString(csv, CSV);
+        IpRegionSearcher.main(new String[]{csv.toString(), target.toString()});
+        assertEquals(GUANGZHOU, IpRegionSearcher.mmap(target).search("1.0.4.1"));
+    }
+
+    @Test
+    void convertRejectsInvalidCsv() {
+        assertThrows(IllegalArgumentException.class, () -> convert("1.0.0.0,1.0.0.255,中国,北京|市,北京市,110000"));
+        assertThrows(IllegalArgumentException.class, () -> convert("1.0.0.0,1.0.0.255,中国,北京市"));
+        assertThrows(IllegalArgumentException.class, () -> convert("1.0.0.0,2001:db8::,中国,北京市,北京市,110000"));
+    }
+
+    private static void convert(String csv) throws IOException {
+        IpRegionSearcher.convert(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), new ByteArrayOutputStream());
+    }
+}
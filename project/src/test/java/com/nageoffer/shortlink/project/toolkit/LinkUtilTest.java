@@ -0,0 +1,49 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.nageoffer.shortlink.project.toolkit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LinkUtilTest {
+
+    @Test
+    void getNetworkTreatsPrivateRangesAsWifi() {
+        assertEquals("WIFI", LinkUtil.getNetwork("192.168.1.10"));
+        assertEquals("WIFI", LinkUtil.getNetwork("10.0.0.1"));
+    }
+
+    @Test
+    void getNetworkTreatsOtherAddressesAsMobile() {
+        assertEquals("Mobile", LinkUtil.getNetwork("8.8.8.8"));
+        assertEquals("Mobile", LinkUtil.getNetwork("100.64.0.1"));
+        assertEquals("Mobile", LinkUtil.getNetwork("2001:db8::1"));
+    }
+
+    @Test
+    void isExpiredOnlyForPastValidDate() {
+        assertFalse(LinkUtil.isExpired(null));
+        assertFalse(LinkUtil.isExpired(new Date(System.currentTimeMillis() + 60000L)));
+        assertTrue(LinkUtil.isExpired(new Date(System.currentTimeMillis() - 60000L)));
+    }
+}
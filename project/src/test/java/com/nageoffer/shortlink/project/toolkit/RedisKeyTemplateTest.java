@@ -0,0 +1,52 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.nageoffer.shortlink.project.toolkit;
+
+import org.junit.jupiter.api.Test;
+
+import static com.nageoffer.shortlink.project.common.constant.RedisKeyConstant.GOTO_SHORT_LINK_KEY;
+import static com.nageoffer.shortlink.project.common.constant.RedisKeyConstant.SHORT_LINK_STATS_UIP_HLL_KEY;
+import static com.nageoffer.shortlink.project.common.constant.RedisKeyConstant.SHORT_LINK_STATS_UV_SEEN_BITMAP_KEY;
+import static com.nageoffer.shortlink.project.common.constant.RedisKeyConstant.SHORT_LINK_STATS_UV_SEEN_SET_KEY;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RedisKeyTemplateTest {
+
+    private static final String FULL_SHORT_URL = "nurl.ink:8001/3Ke8Zx";
+
+    @Test
+    void formatOneArgMatchesStringFormat() {
+        assertEquals(String.format(GOTO_SHORT_LINK_KEY, FULL_SHORT_URL), RedisKeyTemplate.of(GOTO_SHORT_LINK_KEY).format(FULL_SHORT_URL));
+        assertEquals(String.format(SHORT_LINK_STATS_UIP_HLL_KEY, FULL_SHORT_URL), RedisKeyTemplate.of(SHORT_LINK_STATS_UIP_HLL_KEY).format(FULL_SHORT_URL));
+    }
+
+    @Test
+    void formatTwoArgsMatchesStringFormat() {
+        assertEquals(String.format(SHORT_LINK_STATS_UV_SEEN_SET_KEY, FULL_SHORT_URL, "20261017"),
+                RedisKeyTemplate.of(SHORT_LINK_STATS_UV_SEEN_SET_KEY).format(FULL_SHORT_URL, "20261017"));
+        assertEquals(String.format(SHORT_LINK_STATS_UV_SEEN_BITMAP_KEY, FULL_SHORT_URL, "20261017"),
+                RedisKeyTemplate.of(SHORT_LINK_STATS_UV_SEEN_BITMAP_KEY).format(FULL_SHORT_URL, "20261017"));
+    }
+
+    @Test
+    void formatPlaceholderAtEdges() {
+        assertEquals("a-b", RedisKeyTemplate.of("%s-%s").format("a", "b"));
+        assertEquals("prefix:", RedisKeyTemplate.of("prefix:%s").format(""));
+        assertEquals("x:suffix", RedisKeyTemplate.of("%s:suffix").format("x"));
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.nageoffer.shortlink.project.toolkit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ShortCodePermutationTest {
+
+    private static final Pattern BASE62 = Pattern.compile("[0-9a-zA-Z]+");
+
+    @Test
+    void encodeIsBijectiveOverWholeDomain() {
+        // 62^1、62^2、62^3 均不是 2 的偶数次幂，每个长度都会经过 Cycle Walking
+        for (int length = 1; length <= 3; length++) {
+            ShortCodePermutation permutation = new ShortCodePermutation(length, "test-secret");
+            Set<String> codes = new HashSet<>();
+            for (long sequence = 0; sequence < permutation.domain(); sequence++) {
+                String code = permutation.encode(sequence);
+                assertEquals(length, code.length(), code);
+                assertTrue(BASE62.matcher(code).matches(), code);
+                assertTrue(codes.add(code), "编码重复：" + code);
+            }
+            // 区间内每个编码恰好出现一次，即 Cycle Walking 的结果全部落在区间内且互不重复
+            assertEquals(permutation.domain(), codes.size());
+        }
+    }
+
+    @Test
+    void encodeIsStableForSameSecret() {
+        ShortCodePermutation first = new ShortCodePermutation(7, "test-secret");
+        ShortCodePermutation second = new ShortCodePermutation(7, "test-secret");
+        for (long sequence = 0; sequence < 1000; sequence++) {
+            assertEquals(first.encode(sequence), second.encode(sequence));
+        }
+    }
+
+    @Test
+    void encodeDependsOnSecret() {
+        ShortCodePermutation first = new ShortCodePermutation(7, "test-secret");
+        ShortCodePermutation second = new ShortCodePermutation(7, "another-secret");
+        int same = 0;
+        for (long sequence = 0; sequence < 1000; sequence++) {
+            if (first.encode(sequence).equals(second.encode(sequence))) {
+                same++;
+            }
+        }
+        assertTrue(same < 10, "不同密钥的编码重合数量：" + same);
+    }
+
+    @Test
+    void adjacentSequencesAreNotAdjacentCodes() {
+        ShortCodePermutation permutation = new ShortCodePermutation(7, "test-secret");
+        assertNotEquals(permutation.encode(1).substring(0, 6), permutation.encode(2).substring(0, 6));
+    }
+
+    @Test
+    void rejectsSequenceOutOfDomain() {
+        ShortCodePermutation permutation = new ShortCodePermutation(2, "test-secret");
+        assertThrows(IllegalArgumentException.class, () -> permutation.encode(-1));
+        assertThrows(IllegalArgumentException.class, () -> permutation.encode(permutation.domain()));
+        assertThrows(IllegalArgumentException.class, () -> new ShortCodePermutation(0, "test-secret"));
+        assertThrows(IllegalArgumentException.class, () -> new ShortCodePermutation(11, "test-secret"));
+    }
+}
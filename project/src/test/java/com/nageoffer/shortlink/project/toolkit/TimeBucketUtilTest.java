@@ -0,0 +1,57 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.nageoffer.shortlink.project.toolkit;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimeBucketUtilTest {
+
+    @Test
+    void currentBucketCoversNow() {
+        long before = System.currentTimeMillis();
+        TimeBucketUtil.TimeBucket bucket = TimeBucketUtil.current();
+        long after = System.currentTimeMillis();
+        // 调用前后跨越整点时分桶只需覆盖其中一个时刻
+        assertTrue(bucket.startMillis() <= after && before < bucket.endMillis());
+        LocalDateTime hourStart = LocalDateTime.ofInstant(Instant.ofEpochMilli(bucket.startMillis()), ZoneId.systemDefault());
+        assertEquals(hourStart.truncatedTo(ChronoUnit.HOURS), hourStart);
+        assertEquals(hourStart.toLocalDate(), bucket.date());
+        assertEquals(hourStart.getHour(), bucket.hour());
+        assertEquals(bucket.date().format(DateTimeFormatter.BASIC_ISO_DATE), bucket.basicIsoDate());
+        assertEquals(bucket.date().getDayOfWeek().getValue(), bucket.weekday());
+    }
+
+    @Test
+    void currentBucketIsReusedWithinTheHour() {
+        TimeBucketUtil.TimeBucket first = TimeBucketUtil.current();
+        TimeBucketUtil.TimeBucket second = TimeBucketUtil.current();
+        if (System.currentTimeMillis() < first.endMillis()) {
+            assertSame(first, second);
+        }
+    }
+}
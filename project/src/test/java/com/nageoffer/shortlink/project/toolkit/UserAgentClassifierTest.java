@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.nageoffer.shortlink.project.toolkit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UserAgentClassifierTest {
+
+    static final List<String> REAL_USER_AGENTS = List.of(
+            "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120.0.0.0 Safari/537.36",
+            "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120.0.0.0 Safari/537.36 Edg/120.0.2210.91",
+            "Mozilla/5.0 (Macintosh; Intel Mac OS X 10_15_7) AppleWebKit/605.1.15 (KHTML, like Gecko) Version/17.2 Safari/605.1.15",
+            "Mozilla/5.0 (X11; Linux x86_64; rv:121.0) Gecko/20100101 Firefox/121.0",
+            "Mozilla/5.0 (Linux; Android 14; Pixel 8) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120.0.6099.144 Mobile Safari/537.36",
+            "Mozilla/5.0 (iPhone; CPU iPhone OS 17_2 like Mac OS X) AppleWebKit/605.1.15 (KHTML, like Gecko) Version/17.2 Mobile/15E148 Safari/604.1",
+            "Mozilla/5.0 (iPad; CPU OS 16_6 like Mac OS X) AppleWebKit/605.1.15 (KHTML, like Gecko) Version/16.6 Mobile/15E148 Safari/604.1",
+            "Mozilla/5.0 (Windows NT 6.1; WOW64; Trident/7.0; rv:11.0) like Gecko",
+            "Opera/9.80 (Windows NT 6.0) Presto/2.12.388 Version/12.14",
+            "Mozilla/5.0 (Linux; U; Android 10; zh-cn; MI 9 Build/QKQ1.190825.002) AppleWebKit/537.36 (KHTML, like Gecko) Version/4.0 Chrome/89.0.4389.116 Mobile Safari/537.36 XiaoMi/MiuiBrowser/15.5.18",
+            "Mozilla/5.0 (compatible; Googlebot/2.1; +http://www.google.com/bot.html)",
+            "curl/8.4.0",
+            "python-requests/2.31.0"
+    );
+
+    /**
+     * 关键字片段、大小写变化以及非 ASCII 字符随机拼接
+     */
+    private static final String[] FRAGMENTS = {
+            "windows", "mac", "linux", "android", "iphone", "ipad", "edg", "chrome", "firefox", "safari", "opera", "msie",
+            "trident", "mobile", "bot", "spider", "Mozilla/5.0", "(KHTML, like Gecko)", "AppleWebKit", "; ", "/", " ",
+            "ma", "c", "edge", "andro", "id", "mob", "ile", "win", "dows", "saf", "ari", "中文", "İ", "ß", "K", "é"
+    };
+
+    private static final int RANDOM_CASES = 20000;
+
+    @Test
+    void classifyMatchesLegacyRulesForRealUserAgents() {
+        REAL_USER_AGENTS.forEach(UserAgentClassifierTest::assertParity);
+    }
+
+    @Test
+    void classifyMatchesLegacyRulesForRandomUserAgents() {
+        Random random = new Random(20261017L);
+        for (int i = 0; i < RANDOM_CASES; i++) {
+            StringBuilder userAgent = new StringBuilder();
+            int fragmentCount = 1 + random.nextInt(8);
+            for (int j = 0; j < fragmentCount; j++) {
+                String fragment = FRAGMENTS[random.nextInt(FRAGMENTS.length)];
+                for (char c : fragment.toCharArray()) {
+                    userAgent.append(random.nextBoolean() ? Character.toUpperCase(c) : c);
+                }
+                if (random.nextInt(4) == 0) {
+                    // 随机 ASCII 可见字符，打断或拼出关键字
+                    userAgent.append((char) (' ' + random.nextInt(95)));
+                }
+            }
+            assertParity(userAgent.toString());
+        }
+    }
+
+    @Test
+    void classifyFlagsBots() {
+        assertTrue(UserAgentClassifier.classify("Mozilla/5.0 (compatible; Googlebot/2.1; +http://www.google.com/bot.html)").bot());
+        assertTrue(UserAgentClassifier.classify("curl/8.4.0").bot());
+        assertTrue(UserAgentClassifier.classify("Mozilla/5.0 (X11; Linux x86_64) HeadlessChrome/120.0.0.0").bot());
+        assertFalse(UserAgentClassifier.classify(REAL_USER_AGENTS.get(0)).bot());
+    }
+
+    @Test
+    void classifyMissingUserAgentAsUnknown() {
+        UserAgentClassifier.UserAgent missing = UserAgentClassifier.classify(null);
+        assertEquals("Unknown", missing.os());
+        assertEquals("Unknown", missing.browser());
+        assertEquals("PC", missing.device());
+        assertSame(missing, UserAgentClassifier.classify(""));
+    }
+
+    private static void assertParity(String userAgent) {
+        UserAgentClassifier.UserAgent actual = UserAgentClassifier.classify(userAgent);
+        assertEquals(LegacyUserAgentRules.getOs(userAgent), actual.os(), userAgent);
+        assertEquals(LegacyUserAgentRules.getBrowser(userAgent), actual.browser(), userAgent);
+        assertEquals(LegacyUserAgentRules.getDevice(userAgent), actual.device(), userAgent);
+    }
+}
@@ -0,0 +1,21 @@
+-- 已部署环境升级脚本，新部署环境直接执行 link.sql 即可
+
+-- 回收站彻底删除短链接时按完整短链接以及分组标识删除访问日志
+ALTER TABLE `t_link_access_logs` ADD INDEX `idx_full_short_url_gid` (`full_short_url`,`gid`) USING BTREE;
+
+-- 短链接编码池序号水位，Redis 序号回退时据此恢复
+CREATE TABLE `t_link_code_sequence`
+(
+    `id`           bigint(20) NOT NULL AUTO_INCREMENT COMMENT 'ID',
+    `code_length`  int(3) DEFAULT NULL COMMENT '编码长度',
+    `max_sequence` bigint(20) DEFAULT NULL COMMENT '已预留的最大序号',
+    `create_time`  datetime DEFAULT NULL COMMENT '创建时间',
+    `update_time`  datetime DEFAULT NULL COMMENT '修改时间',
+    PRIMARY KEY (`id`),
+    UNIQUE KEY `idx_unique_code_length` (`code_length`) USING BTREE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+-- 监控消费数据库幂等模式按消息唯一标识去重，Redis 幂等模式不写入该列，可以不执行
+ALTER TABLE `t_link_access_logs`
+    ADD COLUMN `msg_id` varchar(64) DEFAULT NULL COMMENT '监控消息唯一标识' AFTER `locale`,
+    ADD UNIQUE INDEX `idx_unique_msg_id` (`msg_id`) USING BTREE;
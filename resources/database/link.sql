@@ -650,10 +650,24 @@ CREATE TABLE `t_link_access_logs`
     `network`        varchar(64)  DEFAULT NULL COMMENT '访问网络',
     `device`         varchar(64)  DEFAULT NULL COMMENT '访问设备',
     `locale`         varchar(256) DEFAULT NULL COMMENT '地区',
+    `msg_id`         varchar(64)  DEFAULT NULL COMMENT '监控消息唯一标识',
     `create_time`    datetime     DEFAULT NULL COMMENT '创建时间',
     `update_time`    datetime     DEFAULT NULL COMMENT '修改时间',
     `del_flag`       tinyint(1) DEFAULT NULL COMMENT '删除标识 0：未删除 1：已删除',
-    PRIMARY KEY (`id`)
+    PRIMARY KEY (`id`),
+    UNIQUE KEY `idx_unique_msg_id` (`msg_id`) USING BTREE,
+    KEY           `idx_full_short_url_gid` (`full_short_url`,`gid`) USING BTREE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;;
+
+CREATE TABLE `t_link_code_sequence`
+(
+    `id`           bigint(20) NOT NULL AUTO_INCREMENT COMMENT 'ID',
+    `code_length`  int(3) DEFAULT NULL COMMENT '编码长度',
+    `max_sequence` bigint(20) DEFAULT NULL COMMENT '已预留的最大序号',
+    `create_time`  datetime DEFAULT NULL COMMENT '创建时间',
+    `update_time`  datetime DEFAULT NULL COMMENT '修改时间',
+    PRIMARY KEY (`id`),
+    UNIQUE KEY `idx_unique_code_length` (`code_length`) USING BTREE
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;;
 
 CREATE TABLE `t_link_access_stats`